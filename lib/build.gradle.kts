@@ -3,6 +3,7 @@ import org.jetbrains.kotlin.gradle.tasks.KotlinCompile
 
 plugins {
     kotlin("jvm")
+    kotlin("kapt")
     groovy
     id("com.bnorm.power.kotlin-power-assert")
 }
@@ -31,8 +32,6 @@ dependencies {
     testImplementation("org.slf4j:slf4j-simple:$slf4jVersion")
     testImplementation("com.fasterxml.jackson.core:jackson-databind:2.17.0")
     testImplementation("com.fasterxml.jackson.module:jackson-module-kotlin:2.17.0")
-    testImplementation("org.openjdk.jmh:jmh-core:1.37")
-    testImplementation("org.openjdk.jmh:jmh-generator-annprocess:1.37")
 
     testImplementation(kotlin("test"))
 
@@ -46,6 +45,32 @@ dependencies {
     testImplementation("com.tngtech.archunit:archunit:1.2.1")
 }
 
+// JMH benchmarks live in their own source set, see src/jmh/kotlin
+val jmh: SourceSet by sourceSets.creating
+
+kotlin.target.compilations.getByName("jmh").associateWith(kotlin.target.compilations.getByName("main"))
+
+configurations.getByName("jmhImplementation").extendsFrom(configurations.implementation.get())
+
+dependencies {
+    "jmhImplementation"("org.openjdk.jmh:jmh-core:1.37")
+    "kaptJmh"("org.openjdk.jmh:jmh-generator-annprocess:1.37")
+}
+
+// Runs the benchmarks, JMH options are passed via --args
+//
+// Usage:
+//   ./gradlew :lib:jmh                                                       # run all benchmarks
+//   ./gradlew :lib:jmh --args="NadelExecutionBenchmark -p listSize=1000"     # run matching benchmarks with one parameter value
+//   ./gradlew :lib:jmh --args="-prof gc -rf json -rff build/jmh-result.json" # report allocations and write results to a file
+tasks.register<JavaExec>("jmh") {
+    group = "verification"
+    description = "Runs the JMH benchmarks (pass JMH options via --args)."
+
+    mainClass.set("org.openjdk.jmh.Main")
+    classpath = jmh.runtimeClasspath
+}
+
 // compileJava.source file("build/generated-src"), sourceSets.main.java
 tasks.compileJava {
     source(file("build/generated-src"))
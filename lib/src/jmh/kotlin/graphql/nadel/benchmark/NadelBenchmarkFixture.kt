@@ -0,0 +1,284 @@
+package graphql.nadel.benchmark
+
+import graphql.ExecutionResult
+import graphql.language.ArrayValue
+import graphql.language.IntValue
+import graphql.nadel.Nadel
+import graphql.nadel.NadelExecutionInput.Companion.newNadelExecutionInput
+import graphql.nadel.NadelSchemas
+import graphql.nadel.NadelServiceExecutionResultImpl
+import graphql.nadel.Service
+import graphql.nadel.ServiceExecution
+import graphql.nadel.ServiceExecutionFactory
+import graphql.nadel.ServiceExecutionParameters
+import graphql.nadel.ServiceExecutionResult
+import graphql.nadel.instrumentation.NadelInstrumentation
+import graphql.nadel.time.NadelInternalLatencyTrackerImpl
+import graphql.nadel.time.NadelStopwatch
+import graphql.normalized.ExecutableNormalizedField
+import graphql.schema.GraphQLList
+import graphql.schema.GraphQLNonNull
+import graphql.schema.GraphQLObjectType
+import graphql.schema.GraphQLScalarType
+import graphql.schema.GraphQLType
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.ConcurrentHashMap
+
+/**
+ * Builds a [Nadel] instance and a query whose size is controlled by the benchmark parameters.
+ *
+ * Each of the [serviceCount] services owns one root field that returns [listSize] items. Items are renamed
+ * types with a renamed field, so the result goes through the type name and rename transforms.
+ * For a [hydrationDepth] greater than zero every item hydrates a node from the `nodes` service, which
+ * in turn hydrates its parent node, [hydrationDepth] levels deep.
+ *
+ * The services are in-memory [ServiceExecution] stubs, see [NadelCannedServiceExecution].
+ */
+class NadelBenchmarkFixture(
+    val listSize: Int,
+    val hydrationDepth: Int,
+    val serviceCount: Int,
+    instrumentation: NadelInstrumentation = object : NadelInstrumentation {},
+) {
+    private val itemServiceNames = (0 until serviceCount).map { "service$it" }
+
+    val schemas: NadelSchemas = NadelSchemas.newNadelSchemas()
+        .overallSchemas(
+            itemServiceNames.withIndex().associate { (index, name) -> name to makeItemOverallSchema(index) } +
+                mapOf(NODES_SERVICE to NODES_OVERALL_SCHEMA),
+        )
+        .underlyingSchemas(
+            itemServiceNames.withIndex().associate { (index, name) -> name to makeItemUnderlyingSchema(index) } +
+                mapOf(NODES_SERVICE to NODES_UNDERLYING_SCHEMA),
+        )
+        .serviceExecutionFactory(
+            object : ServiceExecutionFactory {
+                override fun getServiceExecution(serviceName: String): ServiceExecution {
+                    return NadelCannedServiceExecution(serviceName, ::getService)
+                }
+            },
+        )
+        .build()
+
+    val nadel: Nadel = Nadel.newNadel()
+        .schemas(schemas)
+        .instrumentation(instrumentation)
+        .build()
+
+    val query: String = buildString {
+        append("query Benchmark {\n")
+        itemServiceNames.indices.forEach { index ->
+            append("  items").append(index).append("(first: ").append(listSize).append(") {\n")
+            append("    id\n")
+            append("    name\n")
+            append("    value\n")
+            appendNode(depth = hydrationDepth, fieldName = "node", indent = "    ")
+            append("  }\n")
+        }
+        append("}\n")
+    }
+
+    private fun getService(serviceName: String): Service {
+        return nadel.services.single { it.name == serviceName }
+    }
+
+    fun execute(): ExecutionResult {
+        return nadel
+            .execute(
+                newNadelExecutionInput()
+                    .query(query)
+                    .operationName("Benchmark")
+                    // The default tracker is never started, so step timings would all be zero
+                    .latencyTracker(NadelInternalLatencyTrackerImpl(NadelStopwatch().apply { start() }))
+                    .build(),
+            )
+            .join()
+            .also { result ->
+                require(result.errors.isEmpty()) {
+                    "Benchmark query failed: ${result.errors}"
+                }
+            }
+    }
+
+    private fun StringBuilder.appendNode(depth: Int, fieldName: String, indent: String) {
+        if (depth <= 0) {
+            return
+        }
+        append(indent).append(fieldName).append(" {\n")
+        append(indent).append("  id\n")
+        append(indent).append("  name\n")
+        appendNode(depth = depth - 1, fieldName = "parent", indent = "$indent  ")
+        append(indent).append("}\n")
+    }
+
+    companion object {
+        const val NODES_SERVICE = "nodes"
+
+        private fun makeItemOverallSchema(index: Int): String {
+            return """
+                type Query {
+                  items$index(first: Int): [Item$index]
+                }
+                type Item$index @renamed(from: "UnderlyingItem$index") {
+                  id: ID!
+                  name: String @renamed(from: "title")
+                  value: Int
+                  node: Node
+                    @hydrated(
+                      service: "$NODES_SERVICE"
+                      field: "nodesByIds"
+                      arguments: [{name: "ids", value: "${'$'}source.nodeId"}]
+                      indexed: true
+                    )
+                }
+            """.trimIndent()
+        }
+
+        private fun makeItemUnderlyingSchema(index: Int): String {
+            return """
+                type Query {
+                  items$index(first: Int): [UnderlyingItem$index]
+                }
+                type UnderlyingItem$index {
+                  id: ID!
+                  title: String
+                  value: Int
+                  nodeId: ID
+                }
+            """.trimIndent()
+        }
+
+        private val NODES_OVERALL_SCHEMA = """
+            type Query {
+              nodesByIds(ids: [ID!]!): [Node]
+            }
+            type Node {
+              id: ID!
+              name: String
+              parent: Node
+                @hydrated(
+                  service: "$NODES_SERVICE"
+                  field: "nodesByIds"
+                  arguments: [{name: "ids", value: "${'$'}source.parentId"}]
+                  indexed: true
+                )
+            }
+        """.trimIndent()
+
+        private val NODES_UNDERLYING_SCHEMA = """
+            type Query {
+              nodesByIds(ids: [ID!]!): [Node]
+            }
+            type Node {
+              id: ID!
+              name: String
+              parentId: ID
+            }
+        """.trimIndent()
+    }
+}
+
+/**
+ * Answers every call with data generated from the underlying schema for the requested fields.
+ *
+ * Lists are as long as the `first` or `ids` argument of the field. The data for a given selection
+ * is generated once and copied for every call, as Nadel modifies the data it is given.
+ */
+class NadelCannedServiceExecution(
+    private val serviceName: String,
+    private val getService: (String) -> Service,
+) : ServiceExecution {
+    private val cannedData = ConcurrentHashMap<String, Map<String, Any?>>()
+
+    override fun execute(
+        serviceExecutionParameters: ServiceExecutionParameters,
+    ): CompletableFuture<ServiceExecutionResult> {
+        val field = serviceExecutionParameters.executableNormalizedField
+        val data = cannedData.computeIfAbsent(getSelectionKey(field)) {
+            val schema = getService(serviceName).underlyingSchema
+            mapOf(field.resultKey to makeValue(field, schema.queryType, index = 0))
+        }
+
+        @Suppress("UNCHECKED_CAST")
+        return CompletableFuture.completedFuture(
+            NadelServiceExecutionResultImpl(data = deepCopy(data) as MutableMap<String, Any?>),
+        )
+    }
+
+    private fun getSelectionKey(field: ExecutableNormalizedField): String {
+        return buildString {
+            appendSelection(field)
+        }
+    }
+
+    private fun StringBuilder.appendSelection(field: ExecutableNormalizedField) {
+        append(field.resultKey).append(':').append(getListSize(field))
+        if (field.children.isNotEmpty()) {
+            append('{')
+            field.children.forEach {
+                appendSelection(it)
+            }
+            append('}')
+        }
+        append(';')
+    }
+
+    private fun makeValue(
+        field: ExecutableNormalizedField,
+        parentType: GraphQLObjectType,
+        index: Int,
+    ): Any? {
+        if (field.fieldName == "__typename") {
+            return parentType.name
+        }
+
+        val fieldDef = parentType.getField(field.fieldName)
+        return makeValue(field, fieldDef.type, index)
+    }
+
+    private fun makeValue(
+        field: ExecutableNormalizedField,
+        type: GraphQLType,
+        index: Int,
+    ): Any? {
+        return when (type) {
+            is GraphQLNonNull -> makeValue(field, type.wrappedType, index)
+            is GraphQLList -> (0 until getListSize(field)).map {
+                makeValue(field, type.wrappedType, it)
+            }
+            is GraphQLObjectType -> field.children.associate { child ->
+                child.resultKey to makeValue(child, type, index)
+            }
+            is GraphQLScalarType -> when (type.name) {
+                "ID" -> "${field.fieldName}/$index"
+                "Int" -> index
+                "Boolean" -> index % 2 == 0
+                else -> "${field.fieldName} $index"
+            }
+            else -> error("Unsupported type ${type.javaClass.simpleName}")
+        }
+    }
+
+    private fun getListSize(field: ExecutableNormalizedField): Int {
+        val argument = field.normalizedArguments["ids"] ?: field.normalizedArguments["first"]
+        return when (val value = argument?.value) {
+            is ArrayValue -> value.values.size
+            is List<*> -> value.size
+            is IntValue -> value.value.toInt()
+            is Number -> value.toInt()
+            else -> 1
+        }
+    }
+
+    private fun deepCopy(value: Any?): Any? {
+        return when (value) {
+            is Map<*, *> -> value.entries.associateTo(LinkedHashMap(value.size)) { (key, value) ->
+                key to deepCopy(value)
+            }
+            is List<*> -> value.mapTo(ArrayList(value.size)) {
+                deepCopy(it)
+            }
+            else -> value
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package graphql.nadel.benchmark
+
+import graphql.execution.RawVariables
+import graphql.language.Document
+import graphql.normalized.ExecutableNormalizedOperation
+import graphql.normalized.ExecutableNormalizedOperationFactory
+import graphql.normalized.ExecutableNormalizedOperationFactory.createExecutableNormalizedOperationWithRawVariables
+import graphql.parser.Parser
+import org.openjdk.jmh.annotations.Param
+import org.openjdk.jmh.annotations.Scope
+import org.openjdk.jmh.annotations.Setup
+import org.openjdk.jmh.annotations.State
+
+/**
+ * The parameters shared by all benchmarks, see [NadelBenchmarkFixture].
+ */
+@State(Scope.Benchmark)
+open class NadelBenchmarkState {
+    @Param("10", "1000")
+    @JvmField
+    var listSize: Int = 0
+
+    @Param("0", "2")
+    @JvmField
+    var hydrationDepth: Int = 0
+
+    @Param("1", "4")
+    @JvmField
+    var serviceCount: Int = 0
+
+    val instrumentation = NadelStepTimingInstrumentation()
+
+    lateinit var fixture: NadelBenchmarkFixture
+    lateinit var document: Document
+    lateinit var operation: ExecutableNormalizedOperation
+
+    @Setup
+    fun setup() {
+        fixture = NadelBenchmarkFixture(
+            listSize = listSize,
+            hydrationDepth = hydrationDepth,
+            serviceCount = serviceCount,
+            instrumentation = instrumentation,
+        )
+        document = parse()
+        operation = createExecutableNormalizedOperation()
+    }
+
+    fun parse(): Document {
+        return Parser().parseDocument(fixture.query)
+    }
+
+    fun createExecutableNormalizedOperation(): ExecutableNormalizedOperation {
+        return createExecutableNormalizedOperationWithRawVariables(
+            fixture.nadel.querySchema,
+            document,
+            "Benchmark",
+            RawVariables.emptyVariables(),
+            ExecutableNormalizedOperationFactory.Options.defaultOptions(),
+        )
+    }
+}
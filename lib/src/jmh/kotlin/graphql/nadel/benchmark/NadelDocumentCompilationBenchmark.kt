@@ -0,0 +1,36 @@
+package graphql.nadel.benchmark
+
+import graphql.language.OperationDefinition
+import graphql.nadel.engine.util.compileToDocument
+import graphql.normalized.ExecutableNormalizedOperationToAstCompiler.CompilerResult
+import org.openjdk.jmh.annotations.Benchmark
+import org.openjdk.jmh.annotations.BenchmarkMode
+import org.openjdk.jmh.annotations.Fork
+import org.openjdk.jmh.annotations.Measurement
+import org.openjdk.jmh.annotations.Mode
+import org.openjdk.jmh.annotations.OutputTimeUnit
+import org.openjdk.jmh.annotations.Warmup
+import java.util.concurrent.TimeUnit
+
+/**
+ * Covers [graphql.nadel.instrumentation.parameters.NadelInstrumentationTimingParameters.ChildStep.DocumentCompilation].
+ *
+ * Compiles the whole overall operation against the engine schema i.e. one document for all services.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+open class NadelDocumentCompilationBenchmark {
+    @Benchmark
+    fun compile(state: NadelBenchmarkState): CompilerResult {
+        return compileToDocument(
+            schema = state.fixture.nadel.engineSchema,
+            operationKind = OperationDefinition.Operation.QUERY,
+            operationName = "Benchmark",
+            topLevelFields = state.operation.topLevelFields,
+            variablePredicate = null,
+        )
+    }
+}
@@ -0,0 +1,33 @@
+package graphql.nadel.benchmark
+
+import graphql.language.Document
+import graphql.normalized.ExecutableNormalizedOperation
+import org.openjdk.jmh.annotations.Benchmark
+import org.openjdk.jmh.annotations.BenchmarkMode
+import org.openjdk.jmh.annotations.Fork
+import org.openjdk.jmh.annotations.Measurement
+import org.openjdk.jmh.annotations.Mode
+import org.openjdk.jmh.annotations.OutputTimeUnit
+import org.openjdk.jmh.annotations.Warmup
+import java.util.concurrent.TimeUnit
+
+/**
+ * Covers [graphql.nadel.instrumentation.parameters.NadelInstrumentationTimingParameters.RootStep.ExecutableOperationParsing]
+ * and the parsing of the query that happens before it.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+open class NadelExecutableOperationParsingBenchmark {
+    @Benchmark
+    fun parse(state: NadelBenchmarkState): Document {
+        return state.parse()
+    }
+
+    @Benchmark
+    fun createExecutableNormalizedOperation(state: NadelBenchmarkState): ExecutableNormalizedOperation {
+        return state.createExecutableNormalizedOperation()
+    }
+}
@@ -0,0 +1,100 @@
+package graphql.nadel.benchmark
+
+import graphql.ExecutionResult
+import graphql.nadel.instrumentation.parameters.NadelInstrumentationTimingParameters.ChildStep
+import graphql.nadel.instrumentation.parameters.NadelInstrumentationTimingParameters.RootStep
+import org.openjdk.jmh.annotations.AuxCounters
+import org.openjdk.jmh.annotations.Benchmark
+import org.openjdk.jmh.annotations.BenchmarkMode
+import org.openjdk.jmh.annotations.Fork
+import org.openjdk.jmh.annotations.Level
+import org.openjdk.jmh.annotations.Measurement
+import org.openjdk.jmh.annotations.Mode
+import org.openjdk.jmh.annotations.OutputTimeUnit
+import org.openjdk.jmh.annotations.Scope
+import org.openjdk.jmh.annotations.Setup
+import org.openjdk.jmh.annotations.State
+import org.openjdk.jmh.annotations.Warmup
+import java.util.concurrent.TimeUnit
+
+/**
+ * Executes the whole query through [graphql.nadel.Nadel.execute].
+ *
+ * Planning, query transforming and result transforming only run as part of an execution, so their
+ * share of the time is reported by [StepTimings].
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+open class NadelExecutionBenchmark {
+    @Benchmark
+    fun execute(state: NadelBenchmarkState, timings: StepTimings): ExecutionResult {
+        return state.fixture.execute()
+            .also {
+                timings.update(state.instrumentation)
+            }
+    }
+
+    /**
+     * Total nanoseconds spent in each step during the iteration, divide by [operations] for the average.
+     *
+     * Only meaningful when running with a single thread.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    open class StepTimings {
+        @JvmField
+        var operations: Long = 0
+
+        @JvmField
+        var executableOperationParsingNanos: Long = 0
+
+        @JvmField
+        var executionPlanningNanos: Long = 0
+
+        @JvmField
+        var queryTransformingNanos: Long = 0
+
+        @JvmField
+        var documentCompilationNanos: Long = 0
+
+        @JvmField
+        var serviceExecutionNanos: Long = 0
+
+        @JvmField
+        var resultTransformingNanos: Long = 0
+
+        private lateinit var start: LongArray
+
+        @Setup(Level.Iteration)
+        fun reset(state: NadelBenchmarkState) {
+            start = getTotals(state.instrumentation)
+            operations = 0
+        }
+
+        fun update(instrumentation: NadelStepTimingInstrumentation) {
+            val totals = getTotals(instrumentation)
+
+            operations++
+            executableOperationParsingNanos = totals[0] - start[0]
+            executionPlanningNanos = totals[1] - start[1]
+            queryTransformingNanos = totals[2] - start[2]
+            documentCompilationNanos = totals[3] - start[3]
+            serviceExecutionNanos = totals[4] - start[4]
+            resultTransformingNanos = totals[5] - start[5]
+        }
+
+        private fun getTotals(instrumentation: NadelStepTimingInstrumentation): LongArray {
+            return longArrayOf(
+                instrumentation.getTotalNanos(RootStep.ExecutableOperationParsing),
+                instrumentation.getTotalNanos(RootStep.ExecutionPlanning),
+                instrumentation.getTotalNanos(RootStep.QueryTransforming),
+                instrumentation.getTotalNanos(ChildStep.DocumentCompilation),
+                instrumentation.getTotalNanos(RootStep.ServiceExecution),
+                instrumentation.getTotalNanos(RootStep.ResultTransforming),
+            )
+        }
+    }
+}
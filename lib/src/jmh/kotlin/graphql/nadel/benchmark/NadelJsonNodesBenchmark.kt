@@ -0,0 +1,119 @@
+package graphql.nadel.benchmark
+
+import graphql.nadel.engine.transform.query.NadelQueryPath
+import graphql.nadel.engine.transform.result.json.JsonNode
+import graphql.nadel.engine.transform.result.json.NadelCachingJsonNodes
+import graphql.nadel.engine.transform.result.json.NadelJsonValues
+import graphql.nadel.engine.util.AnyList
+import graphql.nadel.engine.util.AnyMap
+import graphql.nadel.engine.util.JsonMap
+import org.openjdk.jmh.annotations.Benchmark
+import org.openjdk.jmh.annotations.BenchmarkMode
+import org.openjdk.jmh.annotations.Fork
+import org.openjdk.jmh.annotations.Measurement
+import org.openjdk.jmh.annotations.Mode
+import org.openjdk.jmh.annotations.OutputTimeUnit
+import org.openjdk.jmh.annotations.Param
+import org.openjdk.jmh.annotations.Scope
+import org.openjdk.jmh.annotations.Setup
+import org.openjdk.jmh.annotations.State
+import org.openjdk.jmh.annotations.Warmup
+import java.util.concurrent.TimeUnit
+
+/**
+ * Covers finding the nodes at a query path in a large result, as every transform does.
+ *
+ * [legacyGetNodesAt] is the previous implementation that wrapped every visited value in a [JsonNode],
+ * kept here to compare against.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+open class NadelJsonNodesBenchmark {
+    /**
+     * The number of issues, each has 10 comments with an author i.e. 21 objects per issue.
+     */
+    @Param("2500")
+    @JvmField
+    var issueCount: Int = 0
+
+    private lateinit var data: JsonMap
+
+    private val authorNamePath = NadelQueryPath(listOf("issues", "comments", "author", "name"))
+
+    @Setup
+    fun setup() {
+        data = mapOf(
+            "issues" to (1..issueCount).map { issue ->
+                mapOf(
+                    "id" to "ISSUE-$issue",
+                    "comments" to (1..10).map { comment ->
+                        mapOf(
+                            "id" to "$issue-$comment",
+                            "author" to mapOf(
+                                "id" to "user-${comment % 7}",
+                                "name" to "User ${comment % 7}",
+                            ),
+                        )
+                    },
+                )
+            },
+        )
+    }
+
+    @Benchmark
+    fun legacyGetNodesAt(): List<JsonNode> {
+        return LegacyJsonNodeExtractor.getNodesAt(JsonNode(data), authorNamePath)
+    }
+
+    @Benchmark
+    fun getNodesAt(): List<JsonNode> {
+        return NadelCachingJsonNodes(data).getNodesAt(authorNamePath)
+    }
+
+    @Benchmark
+    fun getValuesAt(): List<Any?> {
+        return NadelJsonValues.getValuesAt(data, authorNamePath)
+    }
+
+    /**
+     * The breadth-first search that the engine used before [NadelJsonValues].
+     */
+    private object LegacyJsonNodeExtractor {
+        fun getNodesAt(rootNode: JsonNode, queryPath: NadelQueryPath): List<JsonNode> {
+            return queryPath.segments.foldIndexed(listOf(rootNode)) { index, queue, pathSegment ->
+                val atEnd = index == queryPath.segments.lastIndex
+                queue.flatMap { node ->
+                    getNodes(node, pathSegment, flattenLists = !atEnd)
+                }
+            }
+        }
+
+        private fun getNodes(node: JsonNode, segment: String, flattenLists: Boolean): List<JsonNode> {
+            return when (val map = node.value) {
+                is AnyMap -> {
+                    val value = map[segment]
+                    if (value is AnyList && flattenLists) {
+                        getFlatNodes(value)
+                    } else {
+                        listOf(JsonNode(value))
+                    }
+                }
+                null -> emptyList()
+                else -> error("Not a map")
+            }
+        }
+
+        private fun getFlatNodes(values: AnyList): List<JsonNode> {
+            return values.flatMap { value ->
+                when (value) {
+                    is AnyList -> getFlatNodes(value)
+                    else -> listOf(JsonNode(value))
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package graphql.nadel.benchmark
+
+import graphql.ExecutionResult
+import graphql.nadel.NadelServiceExecutionResultImpl
+import graphql.nadel.ServiceExecutionResult
+import graphql.nadel.engine.util.JsonMap
+import graphql.nadel.result.NadelResultMerger
+import org.openjdk.jmh.annotations.Benchmark
+import org.openjdk.jmh.annotations.BenchmarkMode
+import org.openjdk.jmh.annotations.Fork
+import org.openjdk.jmh.annotations.Measurement
+import org.openjdk.jmh.annotations.Mode
+import org.openjdk.jmh.annotations.OutputTimeUnit
+import org.openjdk.jmh.annotations.Scope
+import org.openjdk.jmh.annotations.Setup
+import org.openjdk.jmh.annotations.State
+import org.openjdk.jmh.annotations.Warmup
+import java.util.concurrent.TimeUnit
+
+/**
+ * Covers [NadelResultMerger] merging one transformed result per service into the overall result.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+open class NadelResultMergerBenchmark {
+    private lateinit var results: List<ServiceExecutionResult>
+
+    @Setup
+    fun setup(state: NadelBenchmarkState) {
+        val data = state.fixture.execute().getData<JsonMap>()
+
+        // One result per top level field, like the results of the individual services
+        results = state.operation.topLevelFields.map { field ->
+            NadelServiceExecutionResultImpl(
+                data = mutableMapOf(field.resultKey to data[field.resultKey]),
+            )
+        }
+    }
+
+    @Benchmark
+    fun mergeResults(state: NadelBenchmarkState): ExecutionResult {
+        return NadelResultMerger.mergeResults(
+            topLevelFields = state.operation.topLevelFields,
+            engineSchema = state.fixture.nadel.engineSchema,
+            results = results,
+        )
+    }
+}
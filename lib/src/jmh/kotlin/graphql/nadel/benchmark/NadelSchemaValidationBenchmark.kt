@@ -0,0 +1,66 @@
+package graphql.nadel.benchmark
+
+import graphql.nadel.engine.blueprint.NadelOverallExecutionBlueprint
+import graphql.nadel.validation.NadelSchemaValidation
+import graphql.nadel.validation.NadelSchemaValidationFactory
+import org.openjdk.jmh.annotations.Benchmark
+import org.openjdk.jmh.annotations.BenchmarkMode
+import org.openjdk.jmh.annotations.Fork
+import org.openjdk.jmh.annotations.Measurement
+import org.openjdk.jmh.annotations.Mode
+import org.openjdk.jmh.annotations.OutputTimeUnit
+import org.openjdk.jmh.annotations.Param
+import org.openjdk.jmh.annotations.Scope
+import org.openjdk.jmh.annotations.Setup
+import org.openjdk.jmh.annotations.State
+import org.openjdk.jmh.annotations.Warmup
+import java.util.concurrent.TimeUnit
+
+/**
+ * Covers the schema validation done at startup, see [NadelSchemaValidation.validateAndGenerateBlueprint].
+ *
+ * Compares validating the services one after another against validating them in parallel.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+open class NadelSchemaValidationBenchmark {
+    @State(Scope.Benchmark)
+    open class ValidationState {
+        @Param("4", "32")
+        @JvmField
+        var serviceCount: Int = 0
+
+        /**
+         * `0` for the number of processors.
+         */
+        @Param("1", "0")
+        @JvmField
+        var parallelism: Int = 0
+
+        lateinit var fixture: NadelBenchmarkFixture
+        lateinit var validation: NadelSchemaValidation
+
+        @Setup
+        fun setup() {
+            fixture = NadelBenchmarkFixture(
+                listSize = 1,
+                hydrationDepth = 1,
+                serviceCount = serviceCount,
+            )
+
+            val parallelism = parallelism.takeIf { it > 0 } ?: Runtime.getRuntime().availableProcessors()
+            validation = object : NadelSchemaValidationFactory() {
+                override val parallelism: Int
+                    get() = parallelism
+            }.create()
+        }
+    }
+
+    @Benchmark
+    fun validate(state: ValidationState): NadelOverallExecutionBlueprint {
+        return state.validation.validateAndGenerateBlueprint(state.fixture.schemas)
+    }
+}
@@ -0,0 +1,41 @@
+package graphql.nadel.benchmark
+
+import graphql.nadel.instrumentation.NadelInstrumentation
+import graphql.nadel.instrumentation.parameters.NadelInstrumentationIsTimingEnabledParameters
+import graphql.nadel.instrumentation.parameters.NadelInstrumentationStepTimingReportParameters
+import graphql.nadel.instrumentation.parameters.NadelInstrumentationTimingParameters.ChildStep
+import graphql.nadel.instrumentation.parameters.NadelInstrumentationTimingParameters.RootStep
+import graphql.nadel.instrumentation.parameters.NadelInstrumentationTimingParameters.Step
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.atomic.LongAdder
+
+/**
+ * Sums up the time spent in each [RootStep] and in [ChildStep.DocumentCompilation].
+ *
+ * The per service children of [RootStep.ServiceExecution] count towards [RootStep.ServiceExecution],
+ * so it includes the document compilation.
+ *
+ * Uses the once per request report, see [NadelInstrumentation.isStepTimingReportEnabled].
+ */
+class NadelStepTimingInstrumentation : NadelInstrumentation {
+    private val totals = ConcurrentHashMap<Step, LongAdder>()
+
+    override fun isStepTimingReportEnabled(params: NadelInstrumentationIsTimingEnabledParameters): Boolean {
+        return true
+    }
+
+    override fun onStepTimingReport(parameters: NadelInstrumentationStepTimingReportParameters) {
+        parameters.timings.forEach { timing ->
+            val step = when (val step = timing.step) {
+                is RootStep -> step
+                ChildStep.DocumentCompilation -> step
+                else -> if (step.parent == RootStep.ServiceExecution) RootStep.ServiceExecution else return@forEach
+            }
+            totals.computeIfAbsent(step) { LongAdder() }.add(timing.totalInternalLatency.toNanos())
+        }
+    }
+
+    fun getTotalNanos(step: Step): Long {
+        return totals[step]?.sum() ?: 0
+    }
+}
@@ -13,6 +13,7 @@ import graphql.execution.preparsed.NoOpPreparsedDocumentProvider
 import graphql.execution.preparsed.PreparsedDocumentEntry
 import graphql.execution.preparsed.PreparsedDocumentProvider
 import graphql.language.Document
+import graphql.nadel.engine.NadelIncrementalResultSupport
 import graphql.nadel.engine.blueprint.NadelDefaultIntrospectionRunner
 import graphql.nadel.engine.blueprint.NadelIntrospectionRunnerFactory
 import graphql.nadel.engine.transform.NadelTransform
@@ -25,6 +26,7 @@ import graphql.nadel.schema.QuerySchemaGenerator
 import graphql.nadel.schema.SchemaTransformationHook
 import graphql.nadel.util.getLogger
 import graphql.nadel.util.getNotPrivacySafeLogger
+import graphql.nadel.validation.NadelBlueprintSnapshot
 import graphql.nadel.validation.NadelSchemaValidation
 import graphql.nadel.validation.NadelSchemaValidationFactory
 import graphql.parser.InvalidSyntaxException
@@ -37,6 +39,7 @@ import graphql.validation.Validator
 import org.slf4j.Logger
 import java.io.Reader
 import java.io.StringReader
+import java.time.Duration
 import java.util.Locale
 import java.util.concurrent.CompletableFuture
 import java.util.concurrent.CompletionException
@@ -245,9 +248,18 @@ class Nadel private constructor(
 
         private var schemas: NadelSchemas? = null
         private var schemaBuilder = NadelSchemas.Builder()
+        private var previous: Nadel? = null
+        private var blueprintSnapshot: NadelBlueprintSnapshot? = null
 
         private var maxQueryDepth = Integer.MAX_VALUE
         private var maxFieldCount = Integer.MAX_VALUE
+        private var executionPlanCacheMaxSize = 1_000
+        private var compiledDocumentCacheMaxSize = 1_000
+        private var maxConcurrentServiceCallsPerRequest = Integer.MAX_VALUE
+        private var maxConcurrentServiceCalls = Integer.MAX_VALUE
+        private var subscriptionHydrationWindow = Duration.ofMillis(50)
+        private var incrementalResultBufferSize = NadelIncrementalResultSupport.DEFAULT_BUFFER_SIZE
+        private var incrementalResultFlushInterval = Duration.ZERO
 
         private var nadelValidation: NadelSchemaValidation? = null
 
@@ -256,6 +268,29 @@ class Nadel private constructor(
             return this
         }
 
+        /**
+         * Builds a new [Nadel] from [previous] where only the services given to this builder are replaced
+         * or added. The validation of services that are not affected by the change is reused, instead of
+         * validating the whole schema again.
+         *
+         * The [previous] instance is left untouched and can keep serving requests while the new one is built.
+         * Swap the reference to the new instance atomically e.g. with an [AtomicReference] and then close
+         * the [previous] instance.
+         */
+        fun rebuildFrom(previous: Nadel): Builder {
+            this.previous = previous
+            return this
+        }
+
+        /**
+         * Skips validating the services in the [snapshot] if it was written for the same schemas.
+         * Otherwise, the snapshot is ignored and the schemas are fully validated.
+         */
+        fun blueprintSnapshot(snapshot: NadelBlueprintSnapshot): Builder {
+            this.blueprintSnapshot = snapshot
+            return this
+        }
+
         fun overallSchema(serviceName: String, nsdl: Reader): Builder {
             schemaBuilder.overallSchema(serviceName, nsdl)
             return this
@@ -371,13 +406,90 @@ class Nadel private constructor(
             return this
         }
 
+        /**
+         * Sets how many operation shapes the execution plan cache remembers. Set to 0 to disable the cache.
+         *
+         * The cache is only used for services where [graphql.nadel.hints.NadelExecutionPlanCacheHint] is on.
+         */
+        fun executionPlanCacheMaxSize(executionPlanCacheMaxSize: Int): Builder {
+            this.executionPlanCacheMaxSize = executionPlanCacheMaxSize
+            return this
+        }
+
+        /**
+         * Sets how many underlying documents the compiled document cache remembers. Set to 0 to disable the cache.
+         *
+         * The cache is only used for services where [graphql.nadel.hints.NadelCompiledDocumentCacheHint] is on.
+         */
+        fun compiledDocumentCacheMaxSize(compiledDocumentCacheMaxSize: Int): Builder {
+            this.compiledDocumentCacheMaxSize = compiledDocumentCacheMaxSize
+            return this
+        }
+
+        /**
+         * Sets how many calls one request may have in flight to a single service at once.
+         * Further calls to that service wait in line. Unbounded by default.
+         */
+        fun maxConcurrentServiceCallsPerRequest(maxConcurrentServiceCallsPerRequest: Int): Builder {
+            require(maxConcurrentServiceCallsPerRequest > 0)
+            this.maxConcurrentServiceCallsPerRequest = maxConcurrentServiceCallsPerRequest
+            return this
+        }
+
+        /**
+         * Sets how many calls all requests together may have in flight to a single service at once.
+         * Further calls to that service wait in line. Unbounded by default.
+         */
+        fun maxConcurrentServiceCalls(maxConcurrentServiceCalls: Int): Builder {
+            require(maxConcurrentServiceCalls > 0)
+            this.maxConcurrentServiceCalls = maxConcurrentServiceCalls
+            return this
+        }
+
+        /**
+         * Events of a subscription that arrive within this window of the first one are hydrated together.
+         * Their batch hydrations are sent in shared batches, and they share their hydration results if
+         * [graphql.nadel.hints.NadelHydrationResultMemoizationHint] is on. Events are held back for up to
+         * this long, in the order they arrived. Zero sends every event on its own as soon as it arrives.
+         * Defaults to 50ms.
+         */
+        fun subscriptionHydrationWindow(subscriptionHydrationWindow: Duration): Builder {
+            require(!subscriptionHydrationWindow.isNegative)
+            this.subscriptionHydrationWindow = subscriptionHydrationWindow
+            return this
+        }
+
+        /**
+         * Sets how many incremental results for `@defer` are buffered for a client before deferred work waits
+         * for the client to catch up. Defaults to 100.
+         */
+        fun incrementalResultBufferSize(incrementalResultBufferSize: Int): Builder {
+            require(incrementalResultBufferSize > 0)
+            this.incrementalResultBufferSize = incrementalResultBufferSize
+            return this
+        }
+
+        /**
+         * Deferred results that complete within this interval are sent as one incremental result.
+         * Defaults to zero, which sends every deferred result as soon as it completes.
+         */
+        fun incrementalResultFlushInterval(incrementalResultFlushInterval: Duration): Builder {
+            require(!incrementalResultFlushInterval.isNegative)
+            this.incrementalResultFlushInterval = incrementalResultFlushInterval
+            return this
+        }
+
         fun schemaValidation(nadelValidation: NadelSchemaValidation): Builder {
             this.nadelValidation = nadelValidation
             return this
         }
 
         fun build(): Nadel {
-            val (engineSchema, services) = schemas ?: schemaBuilder.build()
+            val previous = previous
+            val schemas = schemas
+                ?: previous?.let { schemaBuilder.build(base = NadelSchemas(it.engineSchema, it.services)) }
+                ?: schemaBuilder.build()
+            val (engineSchema, services) = schemas
 
             val querySchema = QuerySchemaGenerator.generateQuerySchema(engineSchema)
 
@@ -390,10 +502,19 @@ class Nadel private constructor(
                     executionIdProvider = executionIdProvider,
                     maxQueryDepth = maxQueryDepth,
                     maxFieldCount = maxFieldCount,
+                    executionPlanCacheMaxSize = executionPlanCacheMaxSize,
+                    compiledDocumentCacheMaxSize = compiledDocumentCacheMaxSize,
+                    maxConcurrentServiceCallsPerRequest = maxConcurrentServiceCallsPerRequest,
+                    maxConcurrentServiceCalls = maxConcurrentServiceCalls,
+                    subscriptionHydrationWindow = subscriptionHydrationWindow,
+                    incrementalResultBufferSize = incrementalResultBufferSize,
+                    incrementalResultFlushInterval = incrementalResultFlushInterval,
                     services = services,
                     transforms = transforms,
                     introspectionRunnerFactory = introspectionRunnerFactory,
                     nadelValidation = nadelValidation ?: NadelSchemaValidationFactory.create(),
+                    previousSchemaValidation = previous?.engine?.schemaValidationState
+                        ?: blueprintSnapshot?.toValidationState(schemas),
                 ),
                 services = services,
                 engineSchema = engineSchema,
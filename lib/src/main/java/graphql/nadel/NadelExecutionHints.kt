@@ -2,16 +2,24 @@ package graphql.nadel
 
 import graphql.nadel.hints.AllDocumentVariablesHint
 import graphql.nadel.hints.LegacyOperationNamesHint
+import graphql.nadel.hints.NadelBatchHydrationMergingHint
 import graphql.nadel.hints.NadelBatchRootFieldsHint
+import graphql.nadel.hints.NadelCompiledDocumentCacheHint
 import graphql.nadel.hints.NadelDeferSupportHint
 import graphql.nadel.hints.NadelDisableSharedTypesHint
 import graphql.nadel.hints.NadelExecuteOnEngineSchemaHint
+import graphql.nadel.hints.NadelExecutionPlanCacheHint
+import graphql.nadel.hints.NadelExecutionTraceExtensionsHint
+import graphql.nadel.hints.NadelHydrationCoalescingHint
 import graphql.nadel.hints.NadelHydrationExecutableSourceFields
 import graphql.nadel.hints.NadelHydrationFilterObjectTypesHint
+import graphql.nadel.hints.NadelHydrationResultMemoizationHint
+import graphql.nadel.hints.NadelHydrationVariablesHint
 import graphql.nadel.hints.NadelNoInterfaceToObjectFragmentExpansionHint
 import graphql.nadel.hints.NadelReachableUnderlyingServiceTypesHint
 import graphql.nadel.hints.NadelShadowUnderlyingTypeNameInvestigation
 import graphql.nadel.hints.NadelSharedTypeRenamesHint
+import graphql.nadel.hints.NadelSinglePassResultTransformHint
 
 data class NadelExecutionHints(
     val legacyOperationNames: LegacyOperationNamesHint,
@@ -26,6 +34,14 @@ data class NadelExecutionHints(
     val useReachableUnderlyingServiceTypes: NadelReachableUnderlyingServiceTypesHint,
     val batchRootFields: NadelBatchRootFieldsHint,
     val noInterfaceToObjectFragmentExpansion: NadelNoInterfaceToObjectFragmentExpansionHint,
+    val executionPlanCache: NadelExecutionPlanCacheHint,
+    val compiledDocumentCache: NadelCompiledDocumentCacheHint,
+    val hydrationCoalescing: NadelHydrationCoalescingHint,
+    val hydrationResultMemoization: NadelHydrationResultMemoizationHint,
+    val singlePassResultTransform: NadelSinglePassResultTransformHint,
+    val executionTraceExtensions: NadelExecutionTraceExtensionsHint,
+    val batchHydrationMerging: NadelBatchHydrationMergingHint,
+    val hydrationVariables: NadelHydrationVariablesHint,
 ) {
     /**
      * Returns a builder with the same field values as this object.
@@ -50,6 +66,14 @@ data class NadelExecutionHints(
         private var useReachableUnderlyingServiceTypes = NadelReachableUnderlyingServiceTypesHint { false }
         private var batchRootFields = NadelBatchRootFieldsHint { false }
         private var noInterfaceToObjectFragmentExpansion = NadelNoInterfaceToObjectFragmentExpansionHint { false }
+        private var executionPlanCache = NadelExecutionPlanCacheHint { false }
+        private var compiledDocumentCache = NadelCompiledDocumentCacheHint { false }
+        private var hydrationCoalescing = NadelHydrationCoalescingHint { false }
+        private var hydrationResultMemoization = NadelHydrationResultMemoizationHint { false }
+        private var singlePassResultTransform = NadelSinglePassResultTransformHint { false }
+        private var executionTraceExtensions = NadelExecutionTraceExtensionsHint { false }
+        private var batchHydrationMerging = NadelBatchHydrationMergingHint { false }
+        private var hydrationVariables = NadelHydrationVariablesHint { false }
 
         constructor()
 
@@ -66,6 +90,14 @@ data class NadelExecutionHints(
             useReachableUnderlyingServiceTypes = nadelExecutionHints.useReachableUnderlyingServiceTypes
             batchRootFields = nadelExecutionHints.batchRootFields
             noInterfaceToObjectFragmentExpansion = nadelExecutionHints.noInterfaceToObjectFragmentExpansion
+            executionPlanCache = nadelExecutionHints.executionPlanCache
+            compiledDocumentCache = nadelExecutionHints.compiledDocumentCache
+            hydrationCoalescing = nadelExecutionHints.hydrationCoalescing
+            hydrationResultMemoization = nadelExecutionHints.hydrationResultMemoization
+            singlePassResultTransform = nadelExecutionHints.singlePassResultTransform
+            executionTraceExtensions = nadelExecutionHints.executionTraceExtensions
+            batchHydrationMerging = nadelExecutionHints.batchHydrationMerging
+            hydrationVariables = nadelExecutionHints.hydrationVariables
         }
 
         fun legacyOperationNames(flag: LegacyOperationNamesHint): Builder {
@@ -128,6 +160,46 @@ data class NadelExecutionHints(
             return this
         }
 
+        fun executionPlanCache(flag: NadelExecutionPlanCacheHint): Builder {
+            executionPlanCache = flag
+            return this
+        }
+
+        fun compiledDocumentCache(flag: NadelCompiledDocumentCacheHint): Builder {
+            compiledDocumentCache = flag
+            return this
+        }
+
+        fun hydrationCoalescing(flag: NadelHydrationCoalescingHint): Builder {
+            hydrationCoalescing = flag
+            return this
+        }
+
+        fun hydrationResultMemoization(flag: NadelHydrationResultMemoizationHint): Builder {
+            hydrationResultMemoization = flag
+            return this
+        }
+
+        fun singlePassResultTransform(flag: NadelSinglePassResultTransformHint): Builder {
+            singlePassResultTransform = flag
+            return this
+        }
+
+        fun executionTraceExtensions(flag: NadelExecutionTraceExtensionsHint): Builder {
+            executionTraceExtensions = flag
+            return this
+        }
+
+        fun batchHydrationMerging(flag: NadelBatchHydrationMergingHint): Builder {
+            batchHydrationMerging = flag
+            return this
+        }
+
+        fun hydrationVariables(flag: NadelHydrationVariablesHint): Builder {
+            hydrationVariables = flag
+            return this
+        }
+
         fun build(): NadelExecutionHints {
             return NadelExecutionHints(
                 legacyOperationNames,
@@ -142,6 +214,14 @@ data class NadelExecutionHints(
                 useReachableUnderlyingServiceTypes,
                 batchRootFields,
                 noInterfaceToObjectFragmentExpansion,
+                executionPlanCache,
+                compiledDocumentCache,
+                hydrationCoalescing,
+                hydrationResultMemoization,
+                singlePassResultTransform,
+                executionTraceExtensions,
+                batchHydrationMerging,
+                hydrationVariables,
             )
         }
     }
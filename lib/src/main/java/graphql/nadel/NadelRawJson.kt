@@ -0,0 +1,52 @@
+package graphql.nadel
+
+import graphql.nadel.engine.transform.result.json.NadelRawJsonReader
+import java.io.OutputStream
+import java.util.Arrays
+
+/**
+ * A JSON object or array from a [NadelRawJsonServiceExecutionResult] that the engine did not need to read.
+ *
+ * It is left as is in the data of the final [graphql.ExecutionResult], so the code that serializes the
+ * response must write it verbatim via [writeTo] e.g. with Jackson's `JsonGenerator.writeRawValue`.
+ */
+class NadelRawJson internal constructor(
+    private val bytes: ByteArray,
+    private val offset: Int,
+    /**
+     * The number of UTF-8 bytes of the JSON value.
+     */
+    val length: Int,
+) {
+    fun writeTo(out: OutputStream) {
+        out.write(bytes, offset, length)
+    }
+
+    /**
+     * Reads the value into [Map]s, [List]s, [String]s, [Number]s and [Boolean]s, as a [ServiceExecution]
+     * would have for a [NadelServiceExecutionResultImpl].
+     */
+    fun decode(): Any? {
+        return NadelRawJsonReader(bytes, offset, offset + length).readValue()
+    }
+
+    override fun equals(other: Any?): Boolean {
+        return other is NadelRawJson
+            && Arrays.equals(bytes, offset, offset + length, other.bytes, other.offset, other.offset + other.length)
+    }
+
+    override fun hashCode(): Int {
+        var result = 1
+        for (i in offset until offset + length) {
+            result = 31 * result + bytes[i]
+        }
+        return result
+    }
+
+    /**
+     * @return the JSON text
+     */
+    override fun toString(): String {
+        return String(bytes, offset, length, Charsets.UTF_8)
+    }
+}
@@ -147,6 +147,22 @@ data class NadelSchemas(
         }
 
         fun build(): NadelSchemas {
+            return makeFactory().create()
+        }
+
+        /**
+         * Builds [NadelSchemas] where the services given to this builder replace the services with the
+         * same name in [base], or are added to them. The other services of [base] are kept as they are,
+         * so their validation can be reused, see [Nadel.Builder.rebuildFrom].
+         *
+         * The hooks and wiring factories of this builder are applied to the new engine schema as a whole,
+         * so they must be set again.
+         */
+        fun build(base: NadelSchemas): NadelSchemas {
+            return makeFactory().create(base)
+        }
+
+        private fun makeFactory(): Factory {
             require(overallSchemaReaders.isNotEmpty()) { "Nadel schemas must not be empty" }
             require(underlyingSchemaReaders.isNotEmpty() || underlyingTypeDefs.isNotEmpty()) { "Underlying schemas must not be empty" }
 
@@ -188,7 +204,7 @@ data class NadelSchemas(
                 serviceExecutionFactory = serviceExecutionFactory,
                 underlyingTypeDefs = resolvedUnderlyingTypeDefs,
                 captureSourceLocation = captureSourceLocation,
-            ).create()
+            )
         }
     }
 
@@ -207,6 +223,20 @@ data class NadelSchemas(
             )
         }
 
+        fun create(base: NadelSchemas): NadelSchemas {
+            val changedServices = createServices().associateBy(Service::name)
+            val baseServiceNames = base.services.mapTo(HashSet(), Service::name)
+
+            val services = base.services.map { service ->
+                changedServices[service.name] ?: service
+            } + changedServices.values.filter { it.name !in baseServiceNames }
+
+            return NadelSchemas(
+                engineSchema = createEngineSchema(services),
+                services = services,
+            )
+        }
+
         private fun createServices(): List<Service> {
             val underlyingSchemaGenerator = UnderlyingSchemaGenerator()
 
@@ -3,6 +3,7 @@ package graphql.nadel
 import graphql.ErrorType
 import graphql.ExecutionInput
 import graphql.ExecutionResult
+import graphql.ExecutionResultImpl
 import graphql.GraphQLError
 import graphql.execution.ExecutionIdProvider
 import graphql.execution.UnknownOperationException
@@ -14,18 +15,28 @@ import graphql.language.Document
 import graphql.language.OperationDefinition
 import graphql.nadel.engine.NadelExecutionContext
 import graphql.nadel.engine.NadelIncrementalResultSupport
+import graphql.nadel.engine.NadelServiceConcurrencyLimiter
 import graphql.nadel.engine.NadelServiceExecutionContext
+import graphql.nadel.engine.NadelSubscriptionHydrationWindow
 import graphql.nadel.engine.blueprint.IntrospectionService
 import graphql.nadel.engine.blueprint.NadelIntrospectionRunnerFactory
+import graphql.nadel.engine.blueprint.NadelOverallExecutionBlueprint
 import graphql.nadel.engine.document.DocumentPredicates
+import graphql.nadel.engine.document.NadelCompiledDocument
+import graphql.nadel.engine.document.NadelCompiledDocumentCache
+import graphql.nadel.engine.instrumentation.NadelExecutionTracer
 import graphql.nadel.engine.instrumentation.NadelInstrumentationTimer
 import graphql.nadel.engine.plan.NadelExecutionPlan
 import graphql.nadel.engine.plan.NadelExecutionPlanFactory
 import graphql.nadel.engine.transform.NadelTransform
+import graphql.nadel.engine.transform.hydration.NadelHydrationResultCache
+import graphql.nadel.engine.transform.hydration.batch.NadelBatchHydrationMerger
 import graphql.nadel.engine.transform.query.DynamicServiceResolution
 import graphql.nadel.engine.transform.query.NadelFieldToService
 import graphql.nadel.engine.transform.query.NadelQueryTransformer
 import graphql.nadel.engine.transform.result.NadelResultTransformer
+import graphql.nadel.engine.transform.result.json.NadelRawJsonReader
+import graphql.nadel.engine.transform.result.json.NadelRawJsonSelection
 import graphql.nadel.engine.transform.skipInclude.NadelSkipIncludeTransform.Companion.isSkipIncludeArtificialField
 import graphql.nadel.engine.util.MutableJsonMap
 import graphql.nadel.engine.util.beginExecute
@@ -37,24 +48,31 @@ import graphql.nadel.engine.util.newGraphQLError
 import graphql.nadel.engine.util.newServiceExecutionErrorResult
 import graphql.nadel.engine.util.newServiceExecutionResult
 import graphql.nadel.engine.util.provide
-import graphql.nadel.engine.util.singleOfType
+import graphql.nadel.engine.util.queryPath
 import graphql.nadel.engine.util.strictAssociateBy
 import graphql.nadel.hooks.NadelExecutionHooks
 import graphql.nadel.hooks.createServiceExecutionContext
 import graphql.nadel.instrumentation.NadelInstrumentation
 import graphql.nadel.instrumentation.parameters.ErrorData
 import graphql.nadel.instrumentation.parameters.ErrorType.ServiceExecutionError
+import graphql.nadel.instrumentation.parameters.NadelInstrumentationExecutionTraceParameters
+import graphql.nadel.instrumentation.parameters.NadelInstrumentationExecutionTraceParameters.CallKind
 import graphql.nadel.instrumentation.parameters.NadelInstrumentationIsTimingEnabledParameters
+import graphql.nadel.instrumentation.parameters.NadelInstrumentationOnCacheLookupParameters
 import graphql.nadel.instrumentation.parameters.NadelInstrumentationOnErrorParameters
+import graphql.nadel.instrumentation.parameters.NadelInstrumentationOnIncrementalResultFlushParameters
 import graphql.nadel.instrumentation.parameters.NadelInstrumentationTimingParameters.ChildStep.Companion.DocumentCompilation
 import graphql.nadel.instrumentation.parameters.NadelInstrumentationTimingParameters.RootStep
+import graphql.nadel.instrumentation.parameters.NadelInstrumentationTimingParameters.Step
 import graphql.nadel.instrumentation.parameters.child
 import graphql.nadel.result.NadelResultMerger
 import graphql.nadel.result.NadelResultTracker
 import graphql.nadel.time.NadelInternalLatencyTracker
+import graphql.nadel.util.ErrorUtil
 import graphql.nadel.util.NamespacedUtil.isNamespacedFieldLike
 import graphql.nadel.util.OperationNameUtil
 import graphql.nadel.validation.NadelSchemaValidation
+import graphql.nadel.validation.NadelSchemaValidationState
 import graphql.normalized.ExecutableNormalizedField
 import graphql.normalized.ExecutableNormalizedOperationFactory.createExecutableNormalizedOperationWithRawVariables
 import graphql.normalized.VariablePredicate
@@ -67,13 +85,18 @@ import kotlinx.coroutines.awaitAll
 import kotlinx.coroutines.cancel
 import kotlinx.coroutines.coroutineScope
 import kotlinx.coroutines.delay
+import kotlinx.coroutines.flow.map
+import kotlinx.coroutines.flow.onCompletion
 import kotlinx.coroutines.flow.onEach
+import kotlinx.coroutines.flow.transform
 import kotlinx.coroutines.future.asCompletableFuture
 import kotlinx.coroutines.future.asDeferred
 import kotlinx.coroutines.launch
 import kotlinx.coroutines.reactive.asFlow
 import kotlinx.coroutines.reactive.asPublisher
 import kotlinx.coroutines.supervisorScope
+import org.reactivestreams.Publisher
+import java.time.Duration
 import java.util.concurrent.CompletableFuture
 import graphql.normalized.ExecutableNormalizedOperationFactory.Options.defaultOptions as executableNormalizedOperationFactoryOptions
 
@@ -85,23 +108,52 @@ internal class NextgenEngine(
     private val executionIdProvider: ExecutionIdProvider,
     maxQueryDepth: Int,
     maxFieldCount: Int,
+    executionPlanCacheMaxSize: Int,
+    compiledDocumentCacheMaxSize: Int,
+    maxConcurrentServiceCallsPerRequest: Int,
+    maxConcurrentServiceCalls: Int,
+    private val subscriptionHydrationWindow: Duration,
+    private val incrementalResultBufferSize: Int,
+    private val incrementalResultFlushInterval: Duration,
     services: List<Service>,
     transforms: List<NadelTransform<out Any>>,
     introspectionRunnerFactory: NadelIntrospectionRunnerFactory,
     nadelValidation: NadelSchemaValidation,
+    previousSchemaValidation: NadelSchemaValidationState?,
 ) {
     private val coroutineScope = CoroutineScope(SupervisorJob() + Dispatchers.Default)
     private val services: Map<String, Service> = services.strictAssociateBy { it.name }
     private val engineSchemaIntrospectionService = IntrospectionService(engineSchema, introspectionRunnerFactory)
-    private val overallExecutionBlueprint = nadelValidation
-        .validateAndGenerateBlueprint(NadelSchemas(engineSchema, services))
+    private val overallExecutionBlueprint: NadelOverallExecutionBlueprint
+    internal val schemaValidationState: NadelSchemaValidationState
+
+    init {
+        val (overallExecutionBlueprint, schemaValidationState) = nadelValidation
+            .validateAndGenerateBlueprint(NadelSchemas(engineSchema, services), previousSchemaValidation)
+        this.overallExecutionBlueprint = overallExecutionBlueprint
+        this.schemaValidationState = schemaValidationState
+    }
+
     private val executionPlanner = NadelExecutionPlanFactory.create(
         executionBlueprint = overallExecutionBlueprint,
         engine = this,
         transforms = transforms,
         executionHooks = executionHooks,
+        planCacheMaxSize = executionPlanCacheMaxSize,
     )
     private val resultTransformer = NadelResultTransformer(overallExecutionBlueprint)
+
+    /**
+     * Created upfront so every service call does not create a new step, see [NadelInstrumentationTimer].
+     */
+    private val serviceExecutionTimingSteps = this.services.mapValues { (name) ->
+        RootStep.ServiceExecution.child(name)
+    }
+    private val compiledDocumentCache = NadelCompiledDocumentCache(compiledDocumentCacheMaxSize)
+    private val serviceConcurrencyLimiter = NadelServiceConcurrencyLimiter(
+        maxConcurrentCallsPerRequest = maxConcurrentServiceCallsPerRequest,
+        maxConcurrentCalls = maxConcurrentServiceCalls,
+    )
     private val dynamicServiceResolution = DynamicServiceResolution(
         engineSchema = engineSchema,
         executionHooks = executionHooks,
@@ -154,6 +206,7 @@ internal class NextgenEngine(
                 ?: throw UnknownOperationException("Must provide operation name if query contains multiple operations")
 
             val timer = makeTimer(operationDefinition, executionInput, latencyTracker, instrumentationState)
+            val tracer = makeTracer(operationDefinition, executionInput, executionHints, latencyTracker, instrumentationState)
 
             val operationParseOptions = baseParseOptions
                 .deferSupport(executionHints.deferSupport.invoke())
@@ -174,7 +227,21 @@ internal class NextgenEngine(
                 )
             }
 
-            val incrementalResultSupport = NadelIncrementalResultSupport(operation)
+            val incrementalResultSupport = NadelIncrementalResultSupport(
+                operation = operation,
+                bufferSize = incrementalResultBufferSize,
+                flushInterval = incrementalResultFlushInterval,
+                onFlush = { flush ->
+                    instrumentation.onIncrementalResultFlush(
+                        NadelInstrumentationOnIncrementalResultFlushParameters(
+                            payloadCount = flush.payloadCount,
+                            bufferedResultCount = flush.bufferedResultCount,
+                            hasNext = flush.hasNext,
+                            instrumentationState = instrumentationState,
+                        ),
+                    )
+                },
+            )
             val resultTracker = NadelResultTracker()
             val executionContext = NadelExecutionContext(
                 executionInput,
@@ -185,7 +252,8 @@ internal class NextgenEngine(
                 timer,
                 incrementalResultSupport,
                 resultTracker,
-                executionCoroutine = this
+                executionCoroutine = this,
+                tracer = tracer,
             )
 
             val beginExecuteContext = instrumentation.beginExecute(
@@ -220,8 +288,14 @@ internal class NextgenEngine(
                         }
                 }.awaitAll()
 
-                NadelResultMerger.mergeResults(operation.topLevelFields, engineSchema, results)
+                val subscriptionResult = results.singleOrNull() as? NadelSubscriptionServiceExecutionResult
+                if (subscriptionResult == null) {
+                    NadelResultMerger.mergeResults(operation.topLevelFields, engineSchema, results)
+                } else {
+                    getSubscriptionResult(operation.topLevelFields, subscriptionResult)
+                }
             } catch (e: Throwable) {
+                onExecutionComplete(executionContext)
                 beginExecuteContext?.onCompleted(null, e)
                 throw e
             }
@@ -235,10 +309,23 @@ internal class NextgenEngine(
             if (incrementalResultSupport.hasDeferredResults()) {
                 IncrementalExecutionResultImpl.Builder()
                     .from(result)
-                    .incrementalItemPublisher(incrementalResultSupport.resultFlow().asPublisher())
+                    .incrementalItemPublisher(
+                        incrementalResultSupport.resultFlow()
+                            .onCompletion {
+                                onExecutionComplete(executionContext)
+                            }
+                            .asPublisher(),
+                    )
                     .build()
             } else {
-                result
+                val trace = onExecutionComplete(executionContext)
+                if (trace != null && executionHints.executionTraceExtensions()) {
+                    result.transform { builder ->
+                        builder.addExtension("nadelExecutionTrace", trace.toSpecification())
+                    }
+                } else {
+                    result
+                }
             }
         } catch (e: Throwable) {
             when (e) {
@@ -248,11 +335,138 @@ internal class NextgenEngine(
         }
     }
 
+    /**
+     * Used when the service streams the events of a subscription, see [getSubscriptionEvents].
+     *
+     * @return a result whose data is a [org.reactivestreams.Publisher] of [ExecutionResult], one per event
+     */
+    private fun getSubscriptionResult(
+        topLevelFields: List<ExecutableNormalizedField>,
+        result: NadelSubscriptionServiceExecutionResult,
+    ): ExecutionResult {
+        val events = result.eventPublisher
+            .asFlow()
+            .map { event ->
+                NadelResultMerger.mergeResults(topLevelFields, engineSchema, listOf(event))
+            }
+
+        return ExecutionResultImpl.newExecutionResult()
+            .data(events.asPublisher(coroutineScope.coroutineContext))
+            .errors(ErrorUtil.createGraphQLErrorsFromRawErrors(result.errors))
+            .extensions(
+                result.extensions.takeIf { it.isNotEmpty() }?.let {
+                    @Suppress("UNCHECKED_CAST") // .extensions should take in a Map<*, *>
+                    it as Map<Any?, Any?>
+                },
+            )
+            .build()
+    }
+
+    /**
+     * The execution plan and query transform are made once when the subscription starts. Each event
+     * from the service is then transformed like the result of any other call, including hydrations,
+     * see [NadelSubscriptionHydrationWindow].
+     */
+    private fun getSubscriptionEvents(
+        executionContext: NadelExecutionContext,
+        serviceExecutionContext: NadelServiceExecutionContext,
+        executionPlan: NadelExecutionPlan,
+        queryTransform: NadelQueryTransformer.TransformResult,
+        service: Service,
+        result: NadelSubscriptionServiceExecutionResult,
+    ): Publisher<NadelServiceExecutionResultImpl> {
+        val hydrationWindow = NadelSubscriptionHydrationWindow(subscriptionHydrationWindow)
+
+        return hydrationWindow
+            .getWindows(result.eventPublisher.asFlow())
+            .transform { events ->
+                transformSubscriptionEvents(
+                    executionContext = executionContext,
+                    serviceExecutionContext = serviceExecutionContext,
+                    executionPlan = executionPlan,
+                    queryTransform = queryTransform,
+                    service = service,
+                    events = events,
+                    isMerging = hydrationWindow.isEnabled,
+                ).forEach {
+                    emit(it)
+                }
+            }
+            .asPublisher(coroutineScope.coroutineContext)
+    }
+
+    /**
+     * Transforms the events of one window together. Each event joins one [NadelBatchHydrationMerger]
+     * pass so their batch hydrations are sent in shared batches, and they share one [NadelHydrationResultCache].
+     *
+     * @param isMerging whether to merge the batch hydrations of the events
+     * @return the transformed events, in the order they came in
+     */
+    private suspend fun transformSubscriptionEvents(
+        executionContext: NadelExecutionContext,
+        serviceExecutionContext: NadelServiceExecutionContext,
+        executionPlan: NadelExecutionPlan,
+        queryTransform: NadelQueryTransformer.TransformResult,
+        service: Service,
+        events: List<NadelServiceExecutionResultImpl>,
+        isMerging: Boolean,
+    ): List<NadelServiceExecutionResultImpl> {
+        val hydrationResultCache = NadelHydrationResultCache()
+        val batchHydrationMerger = if (isMerging) NadelBatchHydrationMerger() else null
+        // Every event must join before the merger is sealed, so none of them runs its batches early
+        val batchHydrationMergePasses = events.map {
+            batchHydrationMerger?.join()
+        }
+        batchHydrationMerger?.seal()
+
+        return coroutineScope {
+            events
+                .mapIndexed { index, event ->
+                    val batchHydrationMergePass = batchHydrationMergePasses[index]
+                    async {
+                        try {
+                            val eventExecutionContext = executionContext.copy(
+                                resultTracker = NadelResultTracker(),
+                                hydrationResultCache = hydrationResultCache,
+                                batchHydrationMergePass = batchHydrationMergePass,
+                                executionCoroutine = this,
+                                // The subscription call is traced when it starts, events are not traced
+                                tracer = null,
+                                traceSpan = null,
+                            )
+                            val transformedEvent = event.copy(data = getTopLevelData(queryTransform.result, event.data))
+                            resultTransformer.transform(
+                                executionContext = eventExecutionContext,
+                                serviceExecutionContext = serviceExecutionContext,
+                                executionPlan = executionPlan,
+                                artificialFields = queryTransform.artificialFields,
+                                overallToUnderlyingFields = queryTransform.overallToUnderlyingFields,
+                                service = service,
+                                result = transformedEvent,
+                            )
+
+                            eventExecutionContext.resultTracker.complete(
+                                ExecutionResultImpl.newExecutionResult()
+                                    .data(transformedEvent.data)
+                                    .build(),
+                            )
+                            transformedEvent
+                        } finally {
+                            // Arrives again if the transform already did, which is a no-op
+                            batchHydrationMergePass?.arrive()
+                        }
+                    }
+                }
+                .awaitAll()
+        }
+    }
+
     internal suspend fun executeHydration(
         topLevelField: ExecutableNormalizedField,
         service: Service,
         executionContext: NadelExecutionContext,
         hydrationDetails: ServiceExecutionHydrationDetails,
+        batchSize: Int = 1,
     ): ServiceExecutionResult {
         return try {
             executeTopLevelField(
@@ -260,7 +474,10 @@ internal class NextgenEngine(
                 service = service,
                 executionContext = executionContext.copy(
                     hydrationDetails = hydrationDetails,
+                    // Nested batch hydrations make their own passes, the window's merger is already sealed
+                    batchHydrationMergePass = null,
                 ),
+                batchSize = batchSize,
             )
         } catch (e: Exception) {
             when (e) {
@@ -283,14 +500,47 @@ internal class NextgenEngine(
             service = service,
             executionContext = executionContext.copy(
                 isPartitionedCall = true,
+                batchHydrationMergePass = null,
             ),
         )
     }
 
+    /**
+     * @param batchSize the number of source objects for hydrations, for [NadelExecutionTracer]
+     */
     private suspend fun executeTopLevelField(
         topLevelFields: List<ExecutableNormalizedField>,
         service: Service,
         executionContext: NadelExecutionContext,
+        batchSize: Int = 1,
+    ): ServiceExecutionResult {
+        val tracer = executionContext.tracer
+            ?: return executeTopLevelFieldCall(topLevelFields, service, executionContext)
+
+        val hydrationDetails = executionContext.hydrationDetails
+        val span = tracer.start(
+            parent = executionContext.traceSpan,
+            kind = when {
+                hydrationDetails != null -> CallKind.Hydration
+                executionContext.isPartitionedCall -> CallKind.Partition
+                else -> CallKind.Service
+            },
+            serviceName = service.name,
+            fieldPath = hydrationDetails?.fieldPath ?: topLevelFields.first().listOfResultKeys,
+            batchSize = batchSize,
+        )
+
+        return try {
+            executeTopLevelFieldCall(topLevelFields, service, executionContext.copy(traceSpan = span))
+        } finally {
+            tracer.end(span)
+        }
+    }
+
+    private suspend fun executeTopLevelFieldCall(
+        topLevelFields: List<ExecutableNormalizedField>,
+        service: Service,
+        executionContext: NadelExecutionContext,
     ): ServiceExecutionResult {
         val serviceExecutionContext = executionHooks.createServiceExecutionContext(service)
 
@@ -314,7 +564,7 @@ internal class NextgenEngine(
                 fields = topLevelFields
             )
         }
-        val result: ServiceExecutionResult = timer.time(step = RootStep.ServiceExecution.child(service.name)) {
+        val result: ServiceExecutionResult = timer.time(step = getServiceExecutionTimingStep(service)) {
             executeService(
                 service = service,
                 topLevelFields = queryTransform.result,
@@ -322,6 +572,30 @@ internal class NextgenEngine(
                 serviceExecutionContext = serviceExecutionContext,
                 executionHydrationDetails = executionContext.hydrationDetails,
                 forcePrintBareFields = queryTransform.forcePrintBareFields,
+                // Hydrations and partitions read the result outside the execution plan
+                rawJsonSelection = if (executionContext.hydrationDetails == null && !executionContext.isPartitionedCall) {
+                    {
+                        getRawJsonSelection(executionPlan, queryTransform)
+                    }
+                } else {
+                    null
+                },
+            )
+        }
+        if (result is NadelSubscriptionServiceExecutionResult
+            && executionContext.query.operation == OperationDefinition.Operation.SUBSCRIPTION
+            && executionContext.hydrationDetails == null
+            && !executionContext.isPartitionedCall
+        ) {
+            return result.copy(
+                eventPublisher = getSubscriptionEvents(
+                    executionContext,
+                    serviceExecutionContext,
+                    executionPlan,
+                    queryTransform,
+                    service,
+                    result,
+                ),
             )
         }
         if (result is NadelIncrementalServiceExecutionResult) {
@@ -375,32 +649,37 @@ internal class NextgenEngine(
         serviceExecutionContext: NadelServiceExecutionContext,
         executionHydrationDetails: ServiceExecutionHydrationDetails? = null,
         forcePrintBareFields: Set<ExecutableNormalizedField> = emptySet(),
+        rawJsonSelection: (() -> NadelRawJsonSelection)? = null,
     ): ServiceExecutionResult {
         val timer = executionContext.timer
 
         val executionInput = executionContext.executionInput
 
-        val jsonPredicate: VariablePredicate = getDocumentVariablePredicate(executionContext.hints, service)
+        val jsonPredicate: VariablePredicate = getDocumentVariablePredicate(executionContext, service)
 
         val compileResult = timer.time(step = DocumentCompilation) {
-            compileToDocument(
-                schema = service.underlyingSchema,
-                operationKind = topLevelFields.first().getOperationKind(engineSchema),
-                operationName = getOperationName(service, executionContext),
+            getCompiledDocument(
+                service = service,
+                executionContext = executionContext,
                 topLevelFields = topLevelFields,
                 variablePredicate = jsonPredicate,
-                deferSupport = executionContext.hints.deferSupport(),
                 forcePrintBareFields = forcePrintBareFields,
             )
         }
 
+        executionContext.traceSpan?.let { span ->
+            // Only traced requests force the query to be printed here
+            span.queryBytes = NadelExecutionTracer.getUtf8Size(compileResult.queryString.value)
+        }
+
         val serviceExecParams = ServiceExecutionParameters(
             query = compileResult.document,
+            queryString = compileResult.queryString,
             context = executionInput.context,
             graphQLContext = executionInput.graphQLContext,
             executionId = executionInput.executionId ?: executionIdProvider.provide(executionInput),
             variables = compileResult.variables,
-            operationDefinition = compileResult.document.definitions.singleOfType(),
+            operationDefinition = compileResult.operationDefinition,
             serviceExecutionContext = serviceExecutionContext,
             hydrationDetails = executionHydrationDetails,
             // Prefer non __typename field first, otherwise we just get first
@@ -414,9 +693,11 @@ internal class NextgenEngine(
 
         val serviceExecution = getServiceExecution(service, topLevelFields)
         val serviceExecResult = try {
-            serviceExecution.execute(serviceExecParams)
-                .asDeferred()
-                .await()
+            serviceConcurrencyLimiter.withPermit(executionContext, service) {
+                serviceExecution.execute(serviceExecParams)
+                    .asDeferred()
+                    .await()
+            }
         } catch (e: Exception) {
             val errorMessage = "An exception occurred invoking the service '${service.name}'"
             val errorMessageNotSafe = "$errorMessage: ${e.message}"
@@ -448,25 +729,123 @@ internal class NextgenEngine(
             )
         }
 
-        val transformedData: MutableJsonMap = serviceExecResult.data
-            .let { data ->
-                // Ensures data always has root fields as keys
-                topLevelFields
-                    .asSequence()
-                    .map {
-                        it.resultKey
-                    }
-                    .associateWithTo(mutableMapOf()) { resultKey ->
-                        data[resultKey]
-                    }
-            }
+        if (serviceExecResult is NadelRawJsonServiceExecutionResult) {
+            val response = NadelRawJsonReader(serviceExecResult.json)
+                .readResponse(selection = rawJsonSelection?.invoke())
+
+            return NadelServiceExecutionResultImpl(
+                data = getTopLevelData(topLevelFields, response.data),
+                errors = response.errors,
+                extensions = response.extensions,
+            )
+        }
+
+        val transformedData = getTopLevelData(topLevelFields, serviceExecResult.data)
 
         return when (serviceExecResult) {
+            is NadelRawJsonServiceExecutionResult -> error("Raw JSON results are read above")
             is NadelServiceExecutionResultImpl -> serviceExecResult.copy(data = transformedData)
             is NadelIncrementalServiceExecutionResult -> serviceExecResult.copy(data = transformedData)
+            is NadelSubscriptionServiceExecutionResult -> serviceExecResult.copy(data = transformedData)
         }
     }
 
+    /**
+     * The parts of a [NadelRawJsonServiceExecutionResult] the engine reads, every other object
+     * and list is kept as a [NadelRawJson].
+     *
+     * That is the values at the query paths of the top level fields, artificial fields and fields
+     * with transforms, see [NadelResultTransformer].
+     */
+    private fun getRawJsonSelection(
+        executionPlan: NadelExecutionPlan,
+        queryTransform: NadelQueryTransformer.TransformResult,
+    ): NadelRawJsonSelection {
+        val selection = NadelRawJsonSelection()
+
+        queryTransform.result.forEach {
+            selection.add(it.queryPath)
+        }
+        queryTransform.artificialFields.forEach { field ->
+            selection.add(field.queryPath)
+            // Transforms read values nested under artificial fields e.g. deep renames and hydration sources
+            field.traverseSubTree { child ->
+                selection.add(child.queryPath)
+            }
+        }
+        executionPlan.transformationSteps.keys.forEach { field ->
+            queryTransform.overallToUnderlyingFields[field]?.forEach {
+                selection.add(it.queryPath)
+            }
+        }
+
+        return selection
+    }
+
+    /**
+     * Ensures data always has root fields as keys
+     */
+    private fun getTopLevelData(
+        topLevelFields: List<ExecutableNormalizedField>,
+        data: MutableJsonMap,
+    ): MutableJsonMap {
+        return topLevelFields
+            .asSequence()
+            .map {
+                it.resultKey
+            }
+            .associateWithTo(mutableMapOf()) { resultKey ->
+                data[resultKey]
+            }
+    }
+
+    private fun getCompiledDocument(
+        service: Service,
+        executionContext: NadelExecutionContext,
+        topLevelFields: List<ExecutableNormalizedField>,
+        variablePredicate: VariablePredicate,
+        forcePrintBareFields: Set<ExecutableNormalizedField>,
+    ): NadelCompiledDocument {
+        val operationKind = topLevelFields.first().getOperationKind(engineSchema)
+        val operationName = getOperationName(service, executionContext)
+        val deferSupport = executionContext.hints.deferSupport()
+
+        val compile = {
+            compileToDocument(
+                schema = service.underlyingSchema,
+                operationKind = operationKind,
+                operationName = operationName,
+                topLevelFields = topLevelFields,
+                variablePredicate = variablePredicate,
+                deferSupport = deferSupport,
+                forcePrintBareFields = forcePrintBareFields,
+            )
+        }
+
+        val cacheKey = compiledDocumentCache.getKey(
+            executionContext = executionContext,
+            service = service,
+            operationKind = operationKind,
+            operationName = operationName,
+            topLevelFields = topLevelFields,
+            variablePredicate = variablePredicate,
+            deferSupport = deferSupport,
+            forcePrintBareFields = forcePrintBareFields,
+        ) ?: return NadelCompiledDocument(compile())
+
+        val cached = compiledDocumentCache[cacheKey]
+        instrumentation.onCacheLookup(
+            NadelInstrumentationOnCacheLookupParameters(
+                cache = NadelInstrumentationOnCacheLookupParameters.Cache.CompiledDocument,
+                serviceName = service.name,
+                isHit = cached != null,
+                instrumentationState = executionContext.instrumentationState,
+            ),
+        )
+
+        return cached ?: compiledDocumentCache.put(cacheKey, compile())
+    }
+
     private fun getServiceExecution(
         service: Service,
         topLevelFields: List<ExecutableNormalizedField>,
@@ -494,8 +873,13 @@ internal class NextgenEngine(
             && topLevelField.children.none(::isSkipIncludeArtificialField)
     }
 
-    private fun getDocumentVariablePredicate(hints: NadelExecutionHints, service: Service): VariablePredicate {
-        return if (hints.allDocumentVariablesHint.invoke(service)) {
+    private fun getDocumentVariablePredicate(
+        executionContext: NadelExecutionContext,
+        service: Service,
+    ): VariablePredicate {
+        val hints = executionContext.hints
+        val isHydration = executionContext.hydrationDetails != null
+        return if (hints.allDocumentVariablesHint.invoke(service) || (isHydration && hints.hydrationVariables(service))) {
             DocumentPredicates.allVariablesPredicate
         } else {
             DocumentPredicates.jsonPredicate
@@ -528,26 +912,73 @@ internal class NextgenEngine(
         )
     }
 
+    private fun getServiceExecutionTimingStep(service: Service): Step {
+        return serviceExecutionTimingSteps[service.name]
+            ?: RootStep.ServiceExecution.child(service.name)
+    }
+
+    /**
+     * Reports the timings and trace of the request, invoked once the execution completes.
+     *
+     * @return the trace if the request is traced
+     */
+    private fun onExecutionComplete(
+        executionContext: NadelExecutionContext,
+    ): NadelInstrumentationExecutionTraceParameters? {
+        executionContext.timer.flushReport()
+
+        val tracer = executionContext.tracer
+            ?: return null
+
+        return NadelInstrumentationExecutionTraceParameters(
+            calls = tracer.getCalls(),
+            duration = tracer.getDuration(),
+            context = executionContext.userContext,
+            instrumentationState = executionContext.instrumentationState,
+        ).also(instrumentation::onExecutionTrace)
+    }
+
     private fun makeTimer(
         operationDefinition: OperationDefinition,
         executionInput: ExecutionInput,
         latencyTracker: NadelInternalLatencyTracker,
         instrumentationState: InstrumentationState?,
     ): NadelInstrumentationTimer {
-        val isTimerEnabled = instrumentation.isTimingEnabled(
-            params = NadelInstrumentationIsTimingEnabledParameters(
-                instrumentationState = instrumentationState,
-                context = executionInput.context,
-                operationName = operationDefinition.name,
-            ),
+        val isTimingEnabledParams = NadelInstrumentationIsTimingEnabledParameters(
+            instrumentationState = instrumentationState,
+            context = executionInput.context,
+            operationName = operationDefinition.name,
         )
 
         return NadelInstrumentationTimer(
-            isEnabled = isTimerEnabled,
-            ticker = latencyTracker::getInternalLatency,
+            isEnabled = instrumentation.isTimingEnabled(params = isTimingEnabledParams),
+            ticker = latencyTracker::getInternalLatencyNanos,
             instrumentation = instrumentation,
             userContext = executionInput.context,
             instrumentationState = instrumentationState,
+            isReportEnabled = instrumentation.isStepTimingReportEnabled(params = isTimingEnabledParams),
         )
     }
+
+    private fun makeTracer(
+        operationDefinition: OperationDefinition,
+        executionInput: ExecutionInput,
+        executionHints: NadelExecutionHints,
+        latencyTracker: NadelInternalLatencyTracker,
+        instrumentationState: InstrumentationState?,
+    ): NadelExecutionTracer? {
+        val isTraceEnabled = executionHints.executionTraceExtensions() || instrumentation.isExecutionTraceEnabled(
+            params = NadelInstrumentationIsTimingEnabledParameters(
+                instrumentationState = instrumentationState,
+                context = executionInput.context,
+                operationName = operationDefinition.name,
+            ),
+        )
+
+        return if (isTraceEnabled) {
+            NadelExecutionTracer(latencyTracker)
+        } else {
+            null
+        }
+    }
 }
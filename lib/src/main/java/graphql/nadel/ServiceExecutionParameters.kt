@@ -9,6 +9,7 @@ import graphql.normalized.ExecutableNormalizedField
 
 class ServiceExecutionParameters internal constructor(
     val query: Document,
+    queryString: Lazy<String>,
     val context: Any?,
     val graphQLContext: GraphQLContext,
     val variables: Map<String, Any>,
@@ -21,6 +22,14 @@ class ServiceExecutionParameters internal constructor(
     val hydrationDetails: ServiceExecutionHydrationDetails?,
     val executableNormalizedField: ExecutableNormalizedField,
 ) {
+    /**
+     * The [query] printed via [graphql.language.AstPrinter.printAstCompact].
+     *
+     * Printed on first access. Identical underlying operations share the same instance when
+     * [graphql.nadel.hints.NadelCompiledDocumentCacheHint] is on, so prefer this over printing [query] yourself.
+     */
+    val queryString: String by queryString
+
     val isHydrationCall: Boolean
         get() = hydrationDetails != null
 }
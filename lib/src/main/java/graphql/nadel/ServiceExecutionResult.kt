@@ -2,6 +2,7 @@ package graphql.nadel
 
 import graphql.incremental.DelayedIncrementalPartialResult
 import graphql.incremental.IncrementalPayload
+import graphql.nadel.engine.transform.result.json.NadelRawJsonReader
 import org.reactivestreams.Publisher
 
 sealed class ServiceExecutionResult {
@@ -19,8 +20,46 @@ data class NadelIncrementalServiceExecutionResult(
     val hasNext: Boolean,
 ) : ServiceExecutionResult()
 
+/**
+ * The result of a subscription, each item of [eventPublisher] is one event of the subscription.
+ *
+ * [data] is ignored, [errors] and [extensions] are returned to the client when the subscription starts.
+ */
+data class NadelSubscriptionServiceExecutionResult(
+    override val data: MutableMap<String, Any?> = LinkedHashMap(),
+    override val errors: MutableList<MutableMap<String, Any?>?> = ArrayList(),
+    override val extensions: MutableMap<String, Any?> = LinkedHashMap(),
+    val eventPublisher: Publisher<NadelServiceExecutionResultImpl>,
+) : ServiceExecutionResult()
+
 data class NadelServiceExecutionResultImpl @JvmOverloads constructor(
     override val data: MutableMap<String, Any?> = LinkedHashMap(),
     override val errors: MutableList<MutableMap<String, Any?>?> = ArrayList(),
     override val extensions: MutableMap<String, Any?> = LinkedHashMap(),
 ) : ServiceExecutionResult()
+
+/**
+ * A result given as the raw bytes of the GraphQL response of a service e.g. the body of the HTTP response.
+ *
+ * The engine only reads the parts of the data it transforms. Objects and lists nothing transforms are
+ * kept as [NadelRawJson] values in the final result, so they are not decoded and encoded again.
+ * This is opt-in per [ServiceExecution], the code serializing the response must support [NadelRawJson].
+ *
+ * Hydration and partitioned calls, and [data] [errors] and [extensions] on this object, read the whole [json].
+ */
+class NadelRawJsonServiceExecutionResult(
+    val json: ByteArray,
+) : ServiceExecutionResult() {
+    private val response by lazy {
+        NadelRawJsonReader(json).readResponse(selection = null)
+    }
+
+    override val data: MutableMap<String, Any?>
+        get() = response.data
+
+    override val errors: MutableList<MutableMap<String, Any?>?>
+        get() = response.errors
+
+    override val extensions: MutableMap<String, Any?>
+        get() = response.extensions
+}
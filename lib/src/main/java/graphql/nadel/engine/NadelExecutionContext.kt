@@ -5,7 +5,11 @@ import graphql.GraphQLContext
 import graphql.execution.instrumentation.InstrumentationState
 import graphql.nadel.NadelExecutionHints
 import graphql.nadel.ServiceExecutionHydrationDetails
+import graphql.nadel.engine.instrumentation.NadelExecutionTracer
 import graphql.nadel.engine.instrumentation.NadelInstrumentationTimer
+import graphql.nadel.engine.transform.hydration.NadelHydrationResultCache
+import graphql.nadel.engine.transform.hydration.batch.NadelBatchHydrationMerger
+import graphql.nadel.engine.transform.query.NadelQueryPathIds
 import graphql.nadel.hooks.NadelExecutionHooks
 import graphql.nadel.result.NadelResultTracker
 import graphql.normalized.ExecutableNormalizedOperation
@@ -23,6 +27,31 @@ data class NadelExecutionContext internal constructor(
     internal val hydrationDetails: ServiceExecutionHydrationDetails? = null,
     internal val isPartitionedCall: Boolean = false,
     internal val executionCoroutine: CoroutineScope,
+    internal val hydrationResultCache: NadelHydrationResultCache = NadelHydrationResultCache(),
+    /**
+     * Ids of the query paths of the [query], used to index result caches, see [NadelQueryPathIds].
+     */
+    internal val queryPathIds: NadelQueryPathIds = NadelQueryPathIds(query),
+    internal val servicePermits: NadelServiceConcurrencyLimiter.RequestPermits =
+        NadelServiceConcurrencyLimiter.RequestPermits(),
+    /**
+     * Only present if the request is traced.
+     */
+    internal val tracer: NadelExecutionTracer? = null,
+    /**
+     * The call being executed, parent of the calls it makes, see [NadelExecutionTracer].
+     */
+    internal val traceSpan: NadelExecutionTracer.Span? = null,
+    /**
+     * Only present for batch hydrations whose batches can be merged with other hydrations in the same
+     * result transform pass, see [NadelBatchHydrationMerger].
+     */
+    internal val batchHydrationMergeParticipant: NadelBatchHydrationMerger.Participant? = null,
+    /**
+     * Only present for the result transform of a subscription event, merges its batch hydrations with those
+     * of the other events in its window, see [NadelSubscriptionHydrationWindow].
+     */
+    internal val batchHydrationMergePass: NadelBatchHydrationMerger.Participant? = null,
 ) {
     val userContext: Any?
         get() {
@@ -3,7 +3,6 @@ package graphql.nadel.engine
 import graphql.incremental.DelayedIncrementalPartialResult
 import graphql.incremental.DelayedIncrementalPartialResultImpl
 import graphql.nadel.engine.NadelIncrementalResultSupport.OutstandingJobCounter.OutstandingJobHandle
-import graphql.nadel.util.getLogger
 import graphql.normalized.ExecutableNormalizedOperation
 import kotlinx.coroutines.CompletableDeferred
 import kotlinx.coroutines.CoroutineScope
@@ -11,49 +10,90 @@ import kotlinx.coroutines.Dispatchers
 import kotlinx.coroutines.Job
 import kotlinx.coroutines.SupervisorJob
 import kotlinx.coroutines.cancel
+import kotlinx.coroutines.delay
 import kotlinx.coroutines.channels.BufferOverflow
 import kotlinx.coroutines.channels.Channel
 import kotlinx.coroutines.flow.Flow
 import kotlinx.coroutines.flow.consumeAsFlow
 import kotlinx.coroutines.flow.onCompletion
+import kotlinx.coroutines.flow.onEach
 import kotlinx.coroutines.launch
 import kotlinx.coroutines.sync.Mutex
 import kotlinx.coroutines.sync.withLock
+import java.time.Duration
 import java.util.concurrent.atomic.AtomicBoolean
 import java.util.concurrent.atomic.AtomicInteger
 
+/**
+ * Collects the results of deferred work and emits them as [DelayedIncrementalPartialResult]s.
+ *
+ * The results are buffered in a channel of a fixed size. Once it is full, deferred work suspends until the
+ * consumer catches up, so results are never dropped.
+ *
+ * With a [flushInterval] above zero, results that complete within the interval are emitted together as one
+ * [DelayedIncrementalPartialResult]. The last result, with `hasNext=false`, is always emitted right away.
+ *
+ * Every emitted result is reported to [onFlush].
+ */
 class NadelIncrementalResultSupport internal constructor(
     lazyAccumulator: Lazy<NadelIncrementalResultAccumulator>,
     private val delayedResultsChannel: Channel<DelayedIncrementalPartialResult> = makeDefaultChannel(),
+    private val flushInterval: Duration = Duration.ZERO,
+    private val onFlush: (Flush) -> Unit = {},
 ) {
     private val accumulator by lazyAccumulator
 
     internal constructor(
         operation: ExecutableNormalizedOperation,
-        delayedResultsChannel: Channel<DelayedIncrementalPartialResult> = makeDefaultChannel(),
+        bufferSize: Int = DEFAULT_BUFFER_SIZE,
+        flushInterval: Duration = Duration.ZERO,
+        onFlush: (Flush) -> Unit = {},
     ) : this(
         lazyAccumulator = lazy {
             NadelIncrementalResultAccumulator(
                 operation = operation,
             )
         },
-        delayedResultsChannel = delayedResultsChannel,
+        delayedResultsChannel = makeDefaultChannel(bufferSize),
+        flushInterval = flushInterval,
+        onFlush = onFlush,
     )
 
     companion object {
-        private val log = getLogger<NadelIncrementalResultSupport>()
-
-        private fun makeDefaultChannel(): Channel<DelayedIncrementalPartialResult> = Channel(
-            capacity = 100,
-            onBufferOverflow = BufferOverflow.DROP_LATEST,
-            onUndeliveredElement = {
-                log.error("Dropping incremental result because of buffer overflow")
-            },
+        internal const val DEFAULT_BUFFER_SIZE = 100
+
+        private fun makeDefaultChannel(
+            bufferSize: Int = DEFAULT_BUFFER_SIZE,
+        ): Channel<DelayedIncrementalPartialResult> = Channel(
+            capacity = bufferSize,
+            onBufferOverflow = BufferOverflow.SUSPEND,
         )
     }
 
+    /**
+     * @param payloadCount the number of deferred payloads in the emitted result
+     * @param bufferedResultCount the number of results waiting for the consumer, including the emitted result
+     */
+    internal data class Flush(
+        val payloadCount: Int,
+        val bufferedResultCount: Int,
+        val hasNext: Boolean,
+    )
+
     private val operationMutex = Mutex()
 
+    /**
+     * Emits the results accumulated so far once the [flushInterval] elapses.
+     *
+     * Guarded by [operationMutex].
+     */
+    private var flushJob: Job? = null
+
+    /**
+     * Results sent to the channel that have not been consumed yet.
+     */
+    private val bufferedResultCount = AtomicInteger()
+
     /**
      * The root [Job] to run the defer and stream work etc on.
      */
@@ -70,7 +110,13 @@ class NadelIncrementalResultSupport internal constructor(
     /**
      * A single [Flow] that can only be collected from once.
      */
-    private val resultFlow by lazy(delayedResultsChannel::consumeAsFlow)
+    private val resultFlow by lazy {
+        delayedResultsChannel
+            .consumeAsFlow()
+            .onEach {
+                bufferedResultCount.decrementAndGet()
+            }
+    }
 
     init {
         coroutineJob.invokeOnCompletion {
@@ -91,12 +137,7 @@ class NadelIncrementalResultSupport internal constructor(
 
                 val hasNext = outstandingJobHandle.decrementAndGetJobCount() > 0
 
-                val next = accumulator.getIncrementalPartialResult(hasNext)
-                if (next != null) {
-                    delayedResultsChannel.send(next)
-                } else if (!hasNext) {
-                    delayedResultsChannel.send(emptyLastResult())
-                }
+                emit(hasNext)
             }
         }
     }
@@ -122,15 +163,61 @@ class NadelIncrementalResultSupport internal constructor(
                             outstandingJobHandle.decrementAndGetJobCount() > 0
                         }
 
-                        val next = accumulator.getIncrementalPartialResult(hasNext)
-                        if (next != null) {
-                            delayedResultsChannel.send(next)
-                        } else if (!hasNext) {
-                            delayedResultsChannel.send(emptyLastResult())
+                        emit(hasNext)
+                    }
+                }
+        }
+    }
+
+    /**
+     * Must be called while holding the [operationMutex].
+     */
+    private suspend fun emit(hasNext: Boolean) {
+        if (hasNext && flushInterval > Duration.ZERO) {
+            if (flushJob == null) {
+                flushJob = coroutineScope.launch {
+                    delay(flushInterval.toMillis())
+
+                    operationMutex.withLock {
+                        flushJob = null
+                        accumulator.getIncrementalPartialResult(hasNext = true)?.let {
+                            send(it)
                         }
                     }
                 }
+            }
+            return
         }
+
+        if (!hasNext) {
+            // The last result includes anything that was waiting to be flushed
+            flushJob?.cancel()
+            flushJob = null
+        }
+
+        val next = accumulator.getIncrementalPartialResult(hasNext)
+        if (next != null) {
+            send(next)
+        } else if (!hasNext) {
+            send(emptyLastResult())
+        }
+    }
+
+    /**
+     * Suspends while the channel is full.
+     */
+    private suspend fun send(result: DelayedIncrementalPartialResult) {
+        // Counted before sending, as the consumer may take the result before send returns
+        val bufferedResultCount = bufferedResultCount.incrementAndGet()
+        delayedResultsChannel.send(result)
+
+        onFlush(
+            Flush(
+                payloadCount = result.incremental?.size ?: 0,
+                bufferedResultCount = bufferedResultCount,
+                hasNext = result.hasNext(),
+            ),
+        )
     }
 
     fun hasDeferredResults(): Boolean {
@@ -0,0 +1,109 @@
+package graphql.nadel.engine
+
+import graphql.nadel.Service
+import graphql.nadel.engine.instrumentation.NadelInstrumentationTimer
+import graphql.nadel.instrumentation.parameters.NadelInstrumentationTimingParameters.ChildStep.Companion.ServiceConcurrencyLimit
+import kotlinx.coroutines.sync.Semaphore
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.atomic.AtomicInteger
+
+/**
+ * Limits how many calls to a single [Service] are in flight at once.
+ *
+ * A call first takes a permit from its request, then a permit shared by all requests. So one request
+ * can never hold more than [maxConcurrentCallsPerRequest] places in the shared queue and requests with
+ * few calls are not stuck behind requests with many calls. Both queues are first in, first out.
+ *
+ * The time spent waiting and the number of calls waiting ahead are reported as [ServiceConcurrencyLimit].
+ */
+internal class NadelServiceConcurrencyLimiter(
+    private val maxConcurrentCallsPerRequest: Int,
+    private val maxConcurrentCalls: Int,
+) {
+    private val permitsByService = ConcurrentHashMap<String, Permits>()
+
+    /**
+     * The per request permits, lives on the [NadelExecutionContext].
+     */
+    class RequestPermits {
+        internal val permitsByService = ConcurrentHashMap<String, Permits>()
+    }
+
+    class Permits(size: Int) {
+        private val semaphore = Semaphore(size)
+        private val waiting = AtomicInteger()
+
+        val queueDepth: Int
+            get() = waiting.get()
+
+        suspend fun acquire() {
+            if (semaphore.tryAcquire()) {
+                return
+            }
+            waiting.incrementAndGet()
+            try {
+                semaphore.acquire()
+            } finally {
+                waiting.decrementAndGet()
+            }
+        }
+
+        fun release() {
+            semaphore.release()
+        }
+    }
+
+    private val isEnabled: Boolean
+        get() = maxConcurrentCallsPerRequest < Int.MAX_VALUE || maxConcurrentCalls < Int.MAX_VALUE
+
+    suspend fun <T> withPermit(
+        executionContext: NadelExecutionContext,
+        service: Service,
+        function: suspend () -> T,
+    ): T {
+        if (!isEnabled) {
+            return function()
+        }
+
+        val requestPermits = if (maxConcurrentCallsPerRequest < Int.MAX_VALUE) {
+            executionContext.servicePermits.permitsByService.computeIfAbsent(service.name) {
+                Permits(maxConcurrentCallsPerRequest)
+            }
+        } else {
+            null
+        }
+        val globalPermits = if (maxConcurrentCalls < Int.MAX_VALUE) {
+            permitsByService.computeIfAbsent(service.name) {
+                Permits(maxConcurrentCalls)
+            }
+        } else {
+            null
+        }
+
+        acquire(executionContext.timer, requestPermits, globalPermits)
+        try {
+            return function()
+        } finally {
+            globalPermits?.release()
+            requestPermits?.release()
+        }
+    }
+
+    private suspend fun acquire(
+        timer: NadelInstrumentationTimer,
+        requestPermits: Permits?,
+        globalPermits: Permits?,
+    ) {
+        val queueDepth = (requestPermits?.queueDepth ?: 0) + (globalPermits?.queueDepth ?: 0)
+
+        timer.timeWaiting(step = ServiceConcurrencyLimit, queueDepth = queueDepth) {
+            requestPermits?.acquire()
+            try {
+                globalPermits?.acquire()
+            } catch (e: Throwable) {
+                requestPermits?.release()
+                throw e
+            }
+        }
+    }
+}
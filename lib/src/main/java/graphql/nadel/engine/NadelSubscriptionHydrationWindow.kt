@@ -0,0 +1,74 @@
+package graphql.nadel.engine
+
+import graphql.nadel.engine.transform.hydration.NadelHydrationResultCache
+import graphql.nadel.engine.transform.hydration.batch.NadelBatchHydrationMerger
+import kotlinx.coroutines.Job
+import kotlinx.coroutines.flow.Flow
+import kotlinx.coroutines.flow.channelFlow
+import kotlinx.coroutines.flow.map
+import kotlinx.coroutines.launch
+import kotlinx.coroutines.sync.Mutex
+import kotlinx.coroutines.sync.withLock
+import kotlinx.coroutines.time.delay
+import java.time.Duration
+
+/**
+ * Groups the events of a subscription that arrive within [window] of the first event of the group.
+ *
+ * The events of a group are transformed together, so their batch hydrations send their IDs in shared batches,
+ * see [NadelBatchHydrationMerger], and they share a [NadelHydrationResultCache], see
+ * [graphql.nadel.hints.NadelHydrationResultMemoizationHint].
+ *
+ * A group is sent once its window elapses, or right away once the service has no more events.
+ * A zero [window] turns this off, then every event is transformed on its own as soon as it arrives.
+ */
+internal class NadelSubscriptionHydrationWindow(
+    private val window: Duration,
+) {
+    val isEnabled: Boolean
+        get() = !window.isZero
+
+    fun <T> getWindows(events: Flow<T>): Flow<List<T>> {
+        if (!isEnabled) {
+            return events.map(::listOf)
+        }
+
+        return channelFlow {
+            val lock = Mutex()
+            // Guarded by lock
+            var pending: MutableList<T>? = null
+            var timer: Job? = null
+
+            events.collect { event ->
+                lock.withLock {
+                    val current = pending
+                    if (current == null) {
+                        val group = mutableListOf(event)
+                        pending = group
+                        timer = launch {
+                            delay(window)
+                            // Sent while locked so groups are sent in order, and new events wait for the consumer
+                            lock.withLock {
+                                if (pending === group) {
+                                    pending = null
+                                    send(group)
+                                }
+                            }
+                        }
+                    } else {
+                        current.add(event)
+                    }
+                }
+            }
+
+            // No more events are coming, so the last group does not wait for its window
+            lock.withLock {
+                timer?.cancel()
+                pending?.let {
+                    pending = null
+                    send(it)
+                }
+            }
+        }
+    }
+}
@@ -3,19 +3,27 @@ package graphql.nadel.engine.blueprint
 import graphql.ExecutionInput
 import graphql.GraphQL
 import graphql.GraphqlErrorHelper.toSpecification
+import graphql.execution.RawVariables
+import graphql.introspection.IntrospectionQuery
 import graphql.language.AstPrinter
 import graphql.language.OperationDefinition
+import graphql.language.SelectionSet
 import graphql.nadel.NadelServiceExecutionResultImpl
 import graphql.nadel.NadelTypeDefinitionRegistry
 import graphql.nadel.Service
 import graphql.nadel.ServiceExecution
 import graphql.nadel.ServiceExecutionParameters
 import graphql.nadel.ServiceExecutionResult
+import graphql.nadel.engine.document.DocumentPredicates
+import graphql.nadel.engine.util.NadelBoundedCache
+import graphql.nadel.engine.util.compileToDocument
 import graphql.nadel.engine.util.makeFieldCoordinates
 import graphql.nadel.engine.util.toBuilder
 import graphql.nadel.engine.util.toBuilderWithoutTypes
 import graphql.nadel.util.NamespacedUtil.isNamespacedField
 import graphql.nadel.util.NamespacedUtil.isNamespacedFieldLike
+import graphql.normalized.ExecutableNormalizedOperationFactory.createExecutableNormalizedOperationWithRawVariables
+import graphql.parser.Parser
 import graphql.schema.DataFetchingEnvironment
 import graphql.schema.FieldCoordinates
 import graphql.schema.GraphQLFieldDefinition
@@ -36,26 +44,92 @@ fun interface NadelIntrospectionRunnerFactory {
     fun make(schema: GraphQLSchema): ServiceExecution
 }
 
-open class NadelDefaultIntrospectionRunner(schema: GraphQLSchema) : ServiceExecution {
+/**
+ * @param resultCacheMaxSize the number of results to remember, keyed by the normalized document sent to the runner
+ * and its variables. The schema cannot change for a given runner, so a result never goes stale.
+ * Results of the standard [IntrospectionQuery] are computed upfront. Use 0 to turn the cache off.
+ *
+ * Only results without errors are cached.
+ */
+open class NadelDefaultIntrospectionRunner @JvmOverloads constructor(
+    schema: GraphQLSchema,
+    resultCacheMaxSize: Int = DEFAULT_RESULT_CACHE_MAX_SIZE,
+) : ServiceExecution {
     protected val graphQL: GraphQL = GraphQL
         .newGraphQL(injectNamespaceDataFetchers(schema))
         .build()
 
+    private val resultCache: NadelBoundedCache<ResultKey, Map<String, Any?>>? = if (resultCacheMaxSize > 0) {
+        NadelBoundedCache(resultCacheMaxSize)
+    } else {
+        null
+    }
+
+    init {
+        // Subclasses can change how queries run in makeExecutionInput, which must not be called before they are
+        // constructed, so their cache is only filled by requests
+        if (resultCache != null && javaClass == NadelDefaultIntrospectionRunner::class.java) {
+            precomputeIntrospectionQuery(schema, resultCache)
+        }
+    }
+
+    internal val resultCacheSize: Int
+        get() = resultCache?.size ?: 0
+
+    /**
+     * The operation name is left out as Nadel may rename operations per service.
+     */
+    private data class ResultKey(
+        private val selectionSet: String,
+        private val variables: Map<String, Any>,
+    ) {
+        constructor(selectionSet: SelectionSet, variables: Map<String, Any>) : this(
+            selectionSet = AstPrinter.printAstCompact(selectionSet),
+            variables = variables,
+        )
+    }
+
     override fun execute(serviceExecutionParameters: ServiceExecutionParameters): CompletableFuture<ServiceExecutionResult> {
         if (serviceExecutionParameters.operationDefinition.operation == OperationDefinition.Operation.SUBSCRIPTION) {
             return CompletableFuture.completedFuture(NadelServiceExecutionResultImpl())
         }
+
+        val cacheKey = if (resultCache != null) {
+            ResultKey(
+                selectionSet = serviceExecutionParameters.operationDefinition.selectionSet,
+                variables = serviceExecutionParameters.variables,
+            )
+        } else {
+            null
+        }
+
+        if (cacheKey != null) {
+            val cached = resultCache!![cacheKey]
+            if (cached != null) {
+                return CompletableFuture.completedFuture(
+                    NadelServiceExecutionResultImpl(data = copyResult(cached)),
+                )
+            }
+        }
+
         return graphQL
             .executeAsync(
                 ExecutionInput.newExecutionInput()
-                    .query(AstPrinter.printAstCompact(serviceExecutionParameters.query))
+                    .query(serviceExecutionParameters.queryString)
                     .variables(serviceExecutionParameters.variables)
                     .also(::makeExecutionInput)
                     .build()
             )
             .thenApply {
+                val data = it.getData<MutableMap<String, Any?>>() ?: mutableMapOf()
+
+                // Errors may come from limits set in makeExecutionInput, so only successful results are kept
+                if (cacheKey != null && it.errors.isEmpty()) {
+                    resultCache!!.put(cacheKey, copyResult(data))
+                }
+
                 NadelServiceExecutionResultImpl(
-                    data = it.getData() ?: mutableMapOf(),
+                    data = data,
                     errors = it.errors.mapTo(ArrayList(), ::toSpecification),
                 )
             }
@@ -64,7 +138,77 @@ open class NadelDefaultIntrospectionRunner(schema: GraphQLSchema) : ServiceExecu
     protected open fun makeExecutionInput(input: ExecutionInput.Builder) {
     }
 
+    /**
+     * Runs the standard [IntrospectionQuery] through the same normalize and compile steps as the engine,
+     * so the result is keyed by the document the engine would send.
+     *
+     * The engine compiles the document with [DocumentPredicates.allVariablesPredicate] when the
+     * [graphql.nadel.hints.AllDocumentVariablesHint] is on, which is only known per request, so the result
+     * is kept for the documents of both predicates. They select the same fields, so the query only runs once.
+     */
+    private fun precomputeIntrospectionQuery(
+        schema: GraphQLSchema,
+        resultCache: NadelBoundedCache<ResultKey, Map<String, Any?>>,
+    ) {
+        val operation = createExecutableNormalizedOperationWithRawVariables(
+            schema,
+            Parser.parse(IntrospectionQuery.INTROSPECTION_QUERY),
+            null,
+            RawVariables.emptyVariables(),
+        )
+        val compiledDocuments = listOf(
+            DocumentPredicates.jsonPredicate,
+            DocumentPredicates.allVariablesPredicate,
+        ).map { variablePredicate ->
+            compileToDocument(
+                schema = schema,
+                operationKind = OperationDefinition.Operation.QUERY,
+                operationName = null,
+                topLevelFields = operation.topLevelFields,
+                variablePredicate = variablePredicate,
+            )
+        }
+        val result = compiledDocuments.first().let { compiled ->
+            graphQL.execute(
+                ExecutionInput.newExecutionInput()
+                    .query(AstPrinter.printAstCompact(compiled.document))
+                    .variables(compiled.variables)
+                    .build(),
+            )
+        }
+
+        if (result.errors.isEmpty()) {
+            compiledDocuments.forEach { compiled ->
+                val operationDefinition = compiled.document.getFirstDefinitionOfType(OperationDefinition::class.java).get()
+                resultCache.put(
+                    ResultKey(selectionSet = operationDefinition.selectionSet, variables = compiled.variables),
+                    result.getData(),
+                )
+            }
+        }
+    }
+
     companion object {
+        const val DEFAULT_RESULT_CACHE_MAX_SIZE = 100
+
+        /**
+         * Results are handed to the engine which may modify them, so cached results are copied on the way in and out.
+         */
+        private fun copyResult(data: Map<String, Any?>): MutableMap<String, Any?> {
+            @Suppress("UNCHECKED_CAST")
+            return copyResultValue(data) as MutableMap<String, Any?>
+        }
+
+        private fun copyResultValue(value: Any?): Any? {
+            return when (value) {
+                is Map<*, *> -> value.entries.associateTo(LinkedHashMap(value.size)) { (key, child) ->
+                    key to copyResultValue(child)
+                }
+                is List<*> -> value.mapTo(ArrayList(value.size), ::copyResultValue)
+                else -> value
+            }
+        }
+
         internal fun injectNamespaceDataFetchers(schema: GraphQLSchema): GraphQLSchema {
             val codeRegistryWithNewDataFetchers = schema.codeRegistry.toBuilder()
                 .also { builder ->
@@ -31,6 +31,15 @@ data class NadelOverallExecutionBlueprint(
     private val coordinatesToService: Map<FieldCoordinates, Service>,
     private val typeRenamesByOverallTypeName: Map<String, NadelTypeRenameInstruction>,
 ) {
+    /**
+     * The types of [fieldInstructions] per field, built once so that planning can skip the transforms
+     * driven by those instructions for fields that have none.
+     */
+    private val fieldInstructionTypes: NadelFieldMap<Set<Class<out NadelFieldInstruction>>> =
+        fieldInstructions.mapValues { instructions ->
+            instructions.mapTo(HashSet()) { it.javaClass }
+        }
+
     fun getUnderlyingTypeNamesForService(service: Service): Set<String> {
         return underlyingTypeNamesByService[service]
             ?: throw IllegalArgumentException("How could service ${service.name} not exist?")
@@ -91,6 +100,39 @@ data class NadelOverallExecutionBlueprint(
         return coordinatesToService[fieldCoordinates]
     }
 
+    /**
+     * @return the types of [NadelFieldInstruction]s the [field] has across its object types
+     */
+    fun getFieldInstructionTypes(field: ExecutableNormalizedField): Set<Class<out NadelFieldInstruction>> {
+        val objectTypeNames = field.objectTypeNames
+        if (objectTypeNames.size == 1) {
+            return fieldInstructionTypes.get(objectTypeNames.first(), field.name) ?: emptySet()
+        }
+
+        return objectTypeNames.fold(emptySet()) { types, objectTypeName ->
+            val typesForObjectType = fieldInstructionTypes.get(objectTypeName, field.name)
+            if (typesForObjectType == null) types else types + typesForObjectType
+        }
+    }
+
+    /**
+     * Fields inside hydrations that create virtual types use the instructions of the virtual type,
+     * see [getInstructionInsideVirtualType], so [getFieldInstructionTypes] does not apply to them.
+     */
+    fun hasVirtualTypes(hydrationDetails: ServiceExecutionHydrationDetails?): Boolean {
+        hydrationDetails ?: return false
+
+        return hasVirtualTypes(hydrationDetails.hydrationVirtualField)
+    }
+
+    /**
+     * @return true if a hydration of the [virtualField] creates virtual types
+     */
+    fun hasVirtualTypes(virtualField: FieldCoordinates): Boolean {
+        return fieldInstructions[virtualField]
+            ?.any { it is NadelHydrationFieldInstruction && it.virtualTypeContext != null } == true
+    }
+
     inline fun <reified T : NadelFieldInstruction> getTypeNameToInstructionMap(
         field: ExecutableNormalizedField,
     ): Map<GraphQLObjectTypeName, T> {
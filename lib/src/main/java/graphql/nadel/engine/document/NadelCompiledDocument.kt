@@ -0,0 +1,29 @@
+package graphql.nadel.engine.document
+
+import graphql.language.AstPrinter
+import graphql.language.Document
+import graphql.language.OperationDefinition
+import graphql.nadel.engine.util.singleOfType
+import graphql.normalized.ExecutableNormalizedOperationToAstCompiler.CompilerResult
+
+/**
+ * The underlying [document] sent to a service, see [NadelCompiledDocumentCache].
+ */
+internal class NadelCompiledDocument(
+    val document: Document,
+    val variables: Map<String, Any>,
+) {
+    constructor(result: CompilerResult) : this(result.document, result.variables)
+
+    val operationDefinition: OperationDefinition = document.definitions.singleOfType()
+
+    /**
+     * The [document] printed via [AstPrinter.printAstCompact].
+     *
+     * Only printed if a [graphql.nadel.ServiceExecution] asks for it, and printed once per
+     * [NadelCompiledDocument] so cached documents share the same [String] instance.
+     */
+    val queryString: Lazy<String> = lazy {
+        AstPrinter.printAstCompact(document)
+    }
+}
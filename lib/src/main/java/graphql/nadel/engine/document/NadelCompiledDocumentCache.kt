@@ -0,0 +1,131 @@
+package graphql.nadel.engine.document
+
+import graphql.language.OperationDefinition
+import graphql.nadel.Service
+import graphql.nadel.engine.NadelExecutionContext
+import graphql.nadel.engine.util.NadelBoundedCache
+import graphql.nadel.engine.util.appendLengthPrefixed
+import graphql.nadel.engine.util.appendNormalizedInputValue
+import graphql.normalized.ExecutableNormalizedField
+import graphql.normalized.ExecutableNormalizedOperationToAstCompiler.CompilerResult
+import graphql.normalized.VariablePredicate
+import graphql.normalized.incremental.NormalizedDeferredExecution
+import java.util.Collections
+import java.util.IdentityHashMap
+
+/**
+ * Remembers the underlying documents compiled for service calls.
+ *
+ * The key contains everything the document compiler reads, including argument values,
+ * so a hit returns exactly the [CompilerResult] that compiling the fields would produce.
+ *
+ * The cached [NadelCompiledDocument.document] is immutable and [NadelCompiledDocument.variables] is
+ * made read only as both are shared between requests.
+ */
+internal class NadelCompiledDocumentCache(private val maxSize: Int) {
+    private val documents = NadelBoundedCache<Key, NadelCompiledDocument>(maxSize)
+
+    /**
+     * @param variablePredicate compared by identity, see [DocumentPredicates]
+     */
+    data class Key(
+        private val serviceName: String,
+        private val operationKind: OperationDefinition.Operation,
+        private val operationName: String?,
+        private val variablePredicate: VariablePredicate?,
+        private val deferSupport: Boolean,
+        private val fields: String,
+    )
+
+    fun getKey(
+        executionContext: NadelExecutionContext,
+        service: Service,
+        operationKind: OperationDefinition.Operation,
+        operationName: String?,
+        topLevelFields: List<ExecutableNormalizedField>,
+        variablePredicate: VariablePredicate?,
+        deferSupport: Boolean,
+        forcePrintBareFields: Set<ExecutableNormalizedField>,
+    ): Key? {
+        if (maxSize <= 0 || !executionContext.hints.compiledDocumentCache(service)) {
+            return null
+        }
+
+        val deferredExecutionIds = if (deferSupport) {
+            IdentityHashMap<NormalizedDeferredExecution, Int>()
+        } else {
+            null
+        }
+
+        return Key(
+            serviceName = service.name,
+            operationKind = operationKind,
+            operationName = operationName,
+            variablePredicate = variablePredicate,
+            deferSupport = deferSupport,
+            fields = buildString {
+                topLevelFields.forEach {
+                    appendField(it, forcePrintBareFields, deferredExecutionIds)
+                }
+            },
+        )
+    }
+
+    operator fun get(key: Key): NadelCompiledDocument? {
+        return documents[key]
+    }
+
+    /**
+     * @return the [NadelCompiledDocument] that was cached
+     */
+    fun put(key: Key, result: CompilerResult): NadelCompiledDocument {
+        val shared = NadelCompiledDocument(result.document, Collections.unmodifiableMap(result.variables))
+        documents.put(key, shared)
+        return shared
+    }
+
+    private fun StringBuilder.appendField(
+        field: ExecutableNormalizedField,
+        forcePrintBareFields: Set<ExecutableNormalizedField>,
+        deferredExecutionIds: IdentityHashMap<NormalizedDeferredExecution, Int>?,
+    ) {
+        field.alias?.let {
+            append(it).append(':')
+        }
+        append(field.fieldName)
+        field.objectTypeNames.joinTo(this, separator = ",", prefix = "[", postfix = "]")
+        if (field in forcePrintBareFields) {
+            append('!')
+        }
+        if (field.normalizedArguments.isNotEmpty()) {
+            append('(')
+            field.normalizedArguments.forEach { (name, value) ->
+                append(name).append(':')
+                appendNormalizedInputValue(value)
+                append(',')
+            }
+            append(')')
+        }
+        // Fields are grouped into the same @defer fragment by their deferred execution
+        if (deferredExecutionIds != null && field.deferredExecutions.isNotEmpty()) {
+            append('@')
+            field.deferredExecutions.forEach { deferredExecution ->
+                append(deferredExecutionIds.getOrPut(deferredExecution) { deferredExecutionIds.size }).append(':')
+                deferredExecution.label?.let {
+                    appendLengthPrefixed(it)
+                }
+                deferredExecution.possibleTypes.joinTo(this, separator = ",", prefix = "[", postfix = "]") {
+                    it.name
+                }
+            }
+        }
+        if (field.children.isNotEmpty()) {
+            append('{')
+            field.children.forEach {
+                appendField(it, forcePrintBareFields, deferredExecutionIds)
+            }
+            append('}')
+        }
+        append(';')
+    }
+}
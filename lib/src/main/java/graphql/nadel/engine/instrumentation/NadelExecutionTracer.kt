@@ -0,0 +1,123 @@
+package graphql.nadel.engine.instrumentation
+
+import graphql.nadel.instrumentation.parameters.NadelInstrumentationExecutionTraceParameters.Call
+import graphql.nadel.instrumentation.parameters.NadelInstrumentationExecutionTraceParameters.CallKind
+import graphql.nadel.time.NadelInternalLatencyTracker
+import java.time.Duration
+import java.util.concurrent.ConcurrentLinkedQueue
+
+/**
+ * Records the service calls of one request as a tree of [Span]s.
+ *
+ * Only created for traced requests, so untraced requests pay for a null check per service call.
+ */
+internal class NadelExecutionTracer(
+    private val latencyTracker: NadelInternalLatencyTracker,
+    private val ticker: () -> Long = System::nanoTime,
+) {
+    private val startNs = ticker()
+    private val spans = ConcurrentLinkedQueue<Span>()
+
+    class Span internal constructor(
+        val kind: CallKind,
+        val serviceName: String,
+        val fieldPath: List<String>,
+        val batchSize: Int,
+        internal val startOffsetNs: Long,
+        internal val startInternalLatencyNs: Long,
+    ) {
+        internal val children = ConcurrentLinkedQueue<Span>()
+
+        @Volatile
+        internal var endOffsetNs = -1L
+
+        @Volatile
+        internal var internalLatencyNs = 0L
+
+        @Volatile
+        var queryBytes = 0
+    }
+
+    fun start(
+        parent: Span?,
+        kind: CallKind,
+        serviceName: String,
+        fieldPath: List<String>,
+        batchSize: Int,
+    ): Span {
+        val span = Span(
+            kind = kind,
+            serviceName = serviceName,
+            fieldPath = fieldPath,
+            batchSize = batchSize,
+            startOffsetNs = ticker() - startNs,
+            startInternalLatencyNs = latencyTracker.getInternalLatencyNanos(),
+        )
+
+        (parent?.children ?: spans).add(span)
+
+        return span
+    }
+
+    fun end(span: Span) {
+        span.internalLatencyNs = latencyTracker.getInternalLatencyNanos() - span.startInternalLatencyNs
+        span.endOffsetNs = ticker() - startNs
+    }
+
+    fun getDuration(): Duration {
+        return Duration.ofNanos(ticker() - startNs)
+    }
+
+    fun getCalls(): List<Call> {
+        return getCalls(spans, isParentOnCriticalPath = true)
+    }
+
+    private fun getCalls(spans: Collection<Span>, isParentOnCriticalPath: Boolean): List<Call> {
+        val lastToEnd = if (isParentOnCriticalPath) {
+            spans.maxByOrNull { it.endOffsetNs }
+        } else {
+            null
+        }
+
+        return spans
+            .sortedBy { it.startOffsetNs }
+            .map { span ->
+                val endOffsetNs = span.endOffsetNs
+                val isOnCriticalPath = span === lastToEnd
+
+                Call(
+                    kind = span.kind,
+                    serviceName = span.serviceName,
+                    fieldPath = span.fieldPath,
+                    startOffset = Duration.ofNanos(span.startOffsetNs),
+                    endOffset = if (endOffsetNs < 0) null else Duration.ofNanos(endOffsetNs),
+                    internalLatency = Duration.ofNanos(span.internalLatencyNs),
+                    queryBytes = span.queryBytes,
+                    batchSize = span.batchSize,
+                    isOnCriticalPath = isOnCriticalPath,
+                    children = getCalls(span.children, isParentOnCriticalPath = isOnCriticalPath),
+                )
+            }
+    }
+
+    companion object {
+        fun getUtf8Size(string: String): Int {
+            var size = 0
+            var i = 0
+            while (i < string.length) {
+                val char = string[i]
+                size += when {
+                    char.code < 0x80 -> 1
+                    char.code < 0x800 -> 2
+                    Character.isHighSurrogate(char) -> {
+                        i++ // Surrogate pair is one 4 byte code point
+                        4
+                    }
+                    else -> 3
+                }
+                i++
+            }
+            return size
+        }
+    }
+}
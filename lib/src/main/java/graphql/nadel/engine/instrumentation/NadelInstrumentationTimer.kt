@@ -2,25 +2,42 @@ package graphql.nadel.engine.instrumentation
 
 import graphql.execution.instrumentation.InstrumentationState
 import graphql.nadel.instrumentation.NadelInstrumentation
+import graphql.nadel.instrumentation.parameters.NadelInstrumentationStepTimingReportParameters
 import graphql.nadel.instrumentation.parameters.NadelInstrumentationTimingParameters
 import graphql.nadel.instrumentation.parameters.NadelInstrumentationTimingParameters.Step
 import java.io.Closeable
 import java.time.Duration
 import java.util.concurrent.ConcurrentHashMap
-import java.util.concurrent.atomic.AtomicReference
+import java.util.concurrent.atomic.AtomicBoolean
+import java.util.concurrent.atomic.AtomicIntegerArray
+import java.util.concurrent.atomic.AtomicLong
+import java.util.concurrent.atomic.AtomicLongArray
 
+/**
+ * @param isEnabled whether every timing is sent to [NadelInstrumentation.onStepTimed]
+ * @param isReportEnabled whether timings are accumulated per step and sent once to
+ * [NadelInstrumentation.onStepTimingReport], see [flushReport]
+ * @param ticker the current time in nanoseconds
+ */
 internal class NadelInstrumentationTimer(
     private val isEnabled: Boolean,
-    private val ticker: () -> Duration,
+    private val ticker: () -> Long,
     private val instrumentation: NadelInstrumentation,
     private val userContext: Any?,
     private val instrumentationState: InstrumentationState?,
+    isReportEnabled: Boolean = false,
 ) {
+    private val report: StepTimings? = if (isReportEnabled) {
+        StepTimings(size = NadelInstrumentationTimingStepOrdinals.size)
+    } else {
+        null
+    }
+
     inline fun <T> time(
         step: Step,
         function: () -> T,
     ): T {
-        if (!isEnabled) {
+        if (!isEnabled && report == null) {
             return function()
         }
 
@@ -30,9 +47,9 @@ internal class NadelInstrumentationTimer(
             function()
         } catch (e: Throwable) {
             try {
-                emit(
+                record(
                     step = step,
-                    internalLatency = ticker() - start,
+                    internalLatencyNs = ticker() - start,
                     exception = e,
                 )
             } catch (e2: Throwable) {
@@ -43,9 +60,33 @@ internal class NadelInstrumentationTimer(
             throw e
         }
 
-        emit(
+        record(
+            step = step,
+            internalLatencyNs = ticker() - start,
+        )
+
+        return result
+    }
+
+    /**
+     * Times how long [function] waits for its turn, [queueDepth] is the number of waiters ahead of it.
+     */
+    inline fun <T> timeWaiting(
+        step: Step,
+        queueDepth: Int,
+        function: () -> T,
+    ): T {
+        if (!isEnabled && report == null) {
+            return function()
+        }
+
+        val start = ticker()
+        val result = function()
+
+        record(
             step = step,
-            internalLatency = ticker() - start,
+            internalLatencyNs = ticker() - start,
+            queueDepth = queueDepth,
         )
 
         return result
@@ -59,68 +100,98 @@ internal class NadelInstrumentationTimer(
         return BatchTimer().use(function)
     }
 
+    /**
+     * Sends the accumulated timings to [NadelInstrumentation.onStepTimingReport].
+     *
+     * Only the first invocation sends anything, timings recorded afterwards are not reported.
+     */
+    fun flushReport() {
+        val timings = report?.drain()
+            ?: return
+
+        instrumentation.onStepTimingReport(
+            NadelInstrumentationStepTimingReportParameters(
+                timings = timings,
+                context = userContext,
+                instrumentationState = instrumentationState,
+            ),
+        )
+    }
+
     @Suppress("NOTHING_TO_INLINE") // inline anyway
-    private inline fun emit(
+    private inline fun record(
         step: Step,
-        internalLatency: Duration,
+        internalLatencyNs: Long,
         exception: Throwable? = null,
+        queueDepth: Int? = null,
     ) {
-        instrumentation.onStepTimed(
-            newParameters(
+        report?.add(step, internalLatencyNs, isException = exception != null)
+
+        if (isEnabled) {
+            emit(
                 step = step,
-                internalLatency = internalLatency,
+                internalLatencyNs = internalLatencyNs,
                 exception = exception,
-            ),
-        )
+                queueDepth = queueDepth,
+            )
+        }
     }
 
-    private fun newParameters(
+    private fun emit(
         step: Step,
-        internalLatency: Duration,
+        internalLatencyNs: Long,
         exception: Throwable? = null,
-    ): NadelInstrumentationTimingParameters {
-        return NadelInstrumentationTimingParameters(
-            step = step,
-            internalLatency = internalLatency,
-            exception = exception,
-            context = userContext,
-            instrumentationState = instrumentationState,
+        queueDepth: Int? = null,
+    ) {
+        instrumentation.onStepTimed(
+            NadelInstrumentationTimingParameters(
+                step = step,
+                internalLatency = Duration.ofNanos(internalLatencyNs),
+                exception = exception,
+                context = userContext,
+                instrumentationState = instrumentationState,
+                queueDepth = queueDepth,
+            ),
         )
     }
 
     inner class BatchTimer internal constructor() : Closeable {
-        private val timings: MutableMap<Step, AtomicReference<Duration>> = ConcurrentHashMap()
+        /**
+         * The longest time per step, only used when [isEnabled].
+         */
+        private val timings: MutableMap<Step, AtomicLong>? = if (isEnabled) ConcurrentHashMap() else null
 
         private var exception: Throwable? = null
 
         inline fun <T> time(step: Step, function: () -> T): T {
-            if (!isEnabled) {
+            if (!isEnabled && report == null) {
                 return function()
             }
 
-            timings.computeIfAbsent(step) {
-                AtomicReference(Duration.ZERO)
+            val stepTiming = timings?.computeIfAbsent(step) {
+                AtomicLong()
             }
 
             val start = ticker()
 
+            var isException = false
             return try {
                 function()
             } catch (e: Throwable) {
                 exception = e
+                isException = true
                 throw e
             } finally {
-                val end = ticker()
+                val elapsedNs = ticker() - start
 
-                timings[step]!!.getAndUpdate { current ->
-                    // Just get the max
-                    current.coerceAtLeast(end - start)
-                }
+                report?.add(step, elapsedNs, isException)
+                // Just get the max
+                stepTiming?.accumulateAndGet(elapsedNs, Math::max)
             }
         }
 
         override fun close() {
-            timings.forEach { (step, durationNs) ->
+            timings?.forEach { (step, durationNs) ->
                 emit(step, durationNs.get(), exception)
             }
         }
@@ -129,4 +200,76 @@ internal class NadelInstrumentationTimer(
             return "BatchTimer(timings=$timings)"
         }
     }
+
+    /**
+     * Accumulates the timings of a request per step, indexed by [NadelInstrumentationTimingStepOrdinals].
+     */
+    class StepTimings(size: Int) {
+        private val counts = AtomicIntegerArray(size)
+        private val exceptionCounts = AtomicIntegerArray(size)
+        private val totalNs = AtomicLongArray(size)
+        private val maxNs = AtomicLongArray(size)
+
+        /**
+         * Steps numbered after this request started, should not happen as steps are created upfront.
+         */
+        private val overflow = ConcurrentHashMap<Int, StepTimings>()
+
+        private val isDrained = AtomicBoolean()
+
+        fun add(step: Step, internalLatencyNs: Long, isException: Boolean) {
+            val ordinal = NadelInstrumentationTimingStepOrdinals.getOrdinal(step)
+            if (ordinal < counts.length()) {
+                add(ordinal, internalLatencyNs, isException)
+            } else {
+                overflow
+                    .computeIfAbsent(ordinal) {
+                        StepTimings(size = 1)
+                    }
+                    .add(0, internalLatencyNs, isException)
+            }
+        }
+
+        private fun add(index: Int, internalLatencyNs: Long, isException: Boolean) {
+            counts.incrementAndGet(index)
+            if (isException) {
+                exceptionCounts.incrementAndGet(index)
+            }
+            totalNs.addAndGet(index, internalLatencyNs)
+            maxNs.accumulateAndGet(index, internalLatencyNs, Math::max)
+        }
+
+        /**
+         * @return the timings of every step that was timed, or null if already drained
+         */
+        fun drain(): List<NadelInstrumentationStepTimingReportParameters.StepTiming>? {
+            if (isDrained.getAndSet(true)) {
+                return null
+            }
+
+            return (0 until counts.length()).mapNotNull { ordinal ->
+                getStepTiming(ordinal, index = ordinal)
+            } + overflow.map { (ordinal, timings) ->
+                timings.getStepTiming(ordinal, index = 0)!!
+            }
+        }
+
+        private fun getStepTiming(
+            ordinal: Int,
+            index: Int,
+        ): NadelInstrumentationStepTimingReportParameters.StepTiming? {
+            val count = counts.get(index)
+            if (count == 0) {
+                return null
+            }
+
+            return NadelInstrumentationStepTimingReportParameters.StepTiming(
+                step = NadelInstrumentationTimingStepOrdinals.getStep(ordinal),
+                count = count,
+                totalInternalLatency = Duration.ofNanos(totalNs.get(index)),
+                maxInternalLatency = Duration.ofNanos(maxNs.get(index)),
+                exceptionCount = exceptionCounts.get(index),
+            )
+        }
+    }
 }
@@ -0,0 +1,48 @@
+package graphql.nadel.engine.instrumentation
+
+import graphql.nadel.instrumentation.parameters.NadelInstrumentationTimingParameters.ChildStep
+import graphql.nadel.instrumentation.parameters.NadelInstrumentationTimingParameters.RootStep
+import graphql.nadel.instrumentation.parameters.NadelInstrumentationTimingParameters.Step
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.CopyOnWriteArrayList
+
+/**
+ * Numbers every distinct [Step] so timings can be accumulated in arrays instead of maps.
+ *
+ * [RootStep]s keep their [RootStep.ordinal]. A [ChildStep] is numbered when it is created, and equal
+ * steps share a number. Child steps are created once per transform and service when the engine is built,
+ * so the numbers stay small.
+ */
+internal object NadelInstrumentationTimingStepOrdinals {
+    private val ordinalsByFullName = ConcurrentHashMap<String, Int>()
+    private val steps = CopyOnWriteArrayList<Step>(RootStep.entries)
+
+    /**
+     * The number of steps numbered so far.
+     */
+    val size: Int
+        get() = steps.size
+
+    fun getOrdinal(step: Step): Int {
+        return when (step) {
+            is RootStep -> step.ordinal
+            is ChildStep -> step.ordinal
+        }
+    }
+
+    fun getStep(ordinal: Int): Step {
+        return steps[ordinal]
+    }
+
+    fun register(step: ChildStep): Int {
+        val fullName = step.getFullName()
+
+        return ordinalsByFullName[fullName]
+            ?: synchronized(this) {
+                ordinalsByFullName.getOrPut(fullName) {
+                    steps.add(step)
+                    steps.size - 1
+                }
+            }
+    }
+}
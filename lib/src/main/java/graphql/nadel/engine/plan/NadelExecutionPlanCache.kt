@@ -0,0 +1,137 @@
+package graphql.nadel.engine.plan
+
+import graphql.nadel.NadelExecutionHints
+import graphql.nadel.Service
+import graphql.nadel.ServiceExecutionHydrationDetails
+import graphql.nadel.engine.NadelExecutionContext
+import graphql.nadel.engine.transform.NadelTransform
+import graphql.nadel.engine.util.NadelBoundedCache
+import graphql.normalized.ExecutableNormalizedField
+import java.util.BitSet
+
+/**
+ * Remembers which transforms were applicable to which fields for a given operation shape.
+ *
+ * Planning walks every field and asks every transform whether it [NadelTransform.isApplicable].
+ * Most of those calls return `null`. For a query shape that was planned before, the
+ * [NadelExecutionPlanFactory] only asks the transforms that were applicable last time
+ * and the transforms that declare themselves [NadelTransform.isRequestDependent].
+ *
+ * Only the applicability is cached. Every [NadelExecutionPlan.Step.state] is still created
+ * per request, so no per request object is ever shared between requests.
+ */
+internal class NadelExecutionPlanCache(private val maxSize: Int) {
+    private val entries = NadelBoundedCache<Key, Entry>(maxSize)
+
+    /**
+     * @param hydrationInstruction compared by identity, instructions live as long as the blueprint
+     */
+    class Key(
+        private val serviceName: String,
+        private val hydrationInstruction: Any?,
+        private val hints: Int,
+        private val shape: String,
+    ) {
+        private val hashCode = ((serviceName.hashCode() * 31
+            + System.identityHashCode(hydrationInstruction)) * 31
+            + hints) * 31 + shape.hashCode()
+
+        override fun equals(other: Any?): Boolean {
+            return other is Key
+                && other.hashCode == hashCode
+                && other.hydrationInstruction === hydrationInstruction
+                && other.hints == hints
+                && other.serviceName == serviceName
+                && other.shape == shape
+        }
+
+        override fun hashCode(): Int {
+            return hashCode
+        }
+    }
+
+    /**
+     * @param applicableTransforms for each field in DFS order, the indices of the applicable transforms
+     */
+    class Entry(
+        private val applicableTransforms: List<BitSet>,
+    ) {
+        /**
+         * @return false only if the transform was known to not apply to the field
+         */
+        fun isApplicable(fieldIndex: Int, transformIndex: Int): Boolean {
+            val transforms = applicableTransforms.getOrNull(fieldIndex) ?: return true
+            return transforms[transformIndex]
+        }
+    }
+
+    fun getKey(
+        executionContext: NadelExecutionContext,
+        service: Service,
+        rootFields: List<ExecutableNormalizedField>,
+        hydrationDetails: ServiceExecutionHydrationDetails?,
+    ): Key? {
+        val hints = executionContext.hints
+        if (maxSize <= 0 || !hints.executionPlanCache(service)) {
+            return null
+        }
+        // The investigation reports every decision via hooks, so isApplicable must always run
+        if (hints.shadowUnderlyingTypeNameInvestigation(executionContext)) {
+            return null
+        }
+
+        return Key(
+            serviceName = service.name,
+            hydrationInstruction = hydrationDetails?.instruction,
+            hints = getPlanningHints(hints, service),
+            shape = buildString {
+                rootFields.forEach {
+                    appendShape(it)
+                }
+            },
+        )
+    }
+
+    operator fun get(key: Key): Entry? {
+        return entries[key]
+    }
+
+    fun put(key: Key, entry: Entry) {
+        entries.put(key, entry)
+    }
+
+    /**
+     * Encodes the hints that the request independent transforms read in [NadelTransform.isApplicable].
+     */
+    private fun getPlanningHints(hints: NadelExecutionHints, service: Service): Int {
+        var flags = 0
+        if (hints.sharedTypeRenames(service)) flags = flags or 1
+        if (hints.disableSharedTypes(service)) flags = flags or (1 shl 1)
+        if (hints.useReachableUnderlyingServiceTypes(service)) flags = flags or (1 shl 2)
+        if (hints.noInterfaceToObjectFragmentExpansion(service)) flags = flags or (1 shl 3)
+        return flags
+    }
+
+    /**
+     * Appends everything about the field that a request independent transform may
+     * base its decision on. Aliases and argument values are deliberately left out.
+     */
+    private fun StringBuilder.appendShape(field: ExecutableNormalizedField) {
+        append(field.fieldName)
+        field.objectTypeNames.joinTo(this, separator = ",", prefix = "[", postfix = "]")
+        if (field.normalizedArguments.isNotEmpty()) {
+            field.normalizedArguments.keys.joinTo(this, separator = ",", prefix = "(", postfix = ")")
+        }
+        if (field.deferredExecutions.isNotEmpty()) {
+            append('@')
+        }
+        if (field.children.isNotEmpty()) {
+            append('{')
+            field.children.forEach {
+                appendShape(it)
+            }
+            append('}')
+        }
+        append(';')
+    }
+}
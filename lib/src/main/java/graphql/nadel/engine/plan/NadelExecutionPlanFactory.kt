@@ -6,7 +6,9 @@ import graphql.nadel.ServiceExecutionHydrationDetails
 import graphql.nadel.engine.NadelExecutionContext
 import graphql.nadel.engine.NadelServiceExecutionContext
 import graphql.nadel.engine.blueprint.NadelOverallExecutionBlueprint
+import graphql.nadel.engine.blueprint.NadelFieldInstruction
 import graphql.nadel.engine.transform.NadelDeepRenameTransform
+import graphql.nadel.engine.transform.NadelFieldInstructionTransform
 import graphql.nadel.engine.transform.NadelNoInterfaceToObjectFragmentExpansionTransform
 import graphql.nadel.engine.transform.NadelRenameArgumentInputTypesTransform
 import graphql.nadel.engine.transform.NadelRenameTransform
@@ -27,10 +29,12 @@ import graphql.nadel.instrumentation.parameters.NadelInstrumentationTimingParame
 import graphql.nadel.instrumentation.parameters.NadelInstrumentationTimingParameters.RootStep.ResultTransforming
 import graphql.nadel.util.dfs
 import graphql.normalized.ExecutableNormalizedField
+import java.util.BitSet
 
 internal class NadelExecutionPlanFactory(
     private val executionBlueprint: NadelOverallExecutionBlueprint,
     transforms: List<NadelTransform<Any>>,
+    private val planCache: NadelExecutionPlanCache,
 ) {
     /**
      * This creates the [ChildStep] objects upfront to avoid constantly recreating them.
@@ -40,6 +44,10 @@ internal class NadelExecutionPlanFactory(
         val executionPlanTimingStep: ChildStep,
         val queryTransformTimingStep: ChildStep,
         val resultTransformTimingStep: ChildStep,
+        /**
+         * See [NadelFieldInstructionTransform], `null` if [NadelTransform.isApplicable] must always be invoked.
+         */
+        val fieldInstructionType: Class<out NadelFieldInstruction>?,
     )
 
     private val transformsWithTimingStepInfo = transforms
@@ -49,6 +57,7 @@ internal class NadelExecutionPlanFactory(
                 executionPlanTimingStep = ChildStep(parent = ExecutionPlanning, transform = transform),
                 queryTransformTimingStep = ChildStep(parent = QueryTransforming, transform = transform),
                 resultTransformTimingStep = ChildStep(parent = ResultTransforming, transform = transform),
+                fieldInstructionType = (transform as? NadelFieldInstructionTransform<*>)?.fieldInstructionType,
             )
         }
 
@@ -68,31 +77,71 @@ internal class NadelExecutionPlanFactory(
             mutableMapOf()
         val transformContexts: MutableMap<NadelTransform<Any>, NadelTransformServiceExecutionContext?> =
             mutableMapOf()
+
+        suspend fun getTransformContext(transform: NadelTransform<Any>): NadelTransformServiceExecutionContext? {
+            return if (transformContexts.containsKey(transform)) {
+                transformContexts[transform]
+            } else {
+                transformContexts.getOrPut(transform) {
+                    transform.buildContext(
+                        executionContext,
+                        serviceExecutionContext,
+                        executionBlueprint,
+                        services,
+                        service,
+                        rootFields,
+                        serviceHydrationDetails
+                    )
+                }
+            }
+        }
+
+        val planCacheKey = planCache.getKey(executionContext, service, rootFields, serviceHydrationDetails)
+        val planCacheEntry = planCacheKey?.let { planCache[it] }
+        // Records the applicable transforms on a cache miss
+        val applicableTransforms = if (planCacheKey != null && planCacheEntry == null) {
+            mutableListOf<BitSet>()
+        } else {
+            null
+        }
+
+        // Fields inside virtual types use the instructions of the virtual type, so we can't dispatch on them
+        val canDispatchOnFieldInstructions = !executionBlueprint.hasVirtualTypes(serviceHydrationDetails)
+
         executionContext.timer.batch { timer ->
+            var fieldIndex = 0
             traverseQuery(rootFields) { field ->
-                val steps = transformsWithTimingStepInfo.mapNotNull { transformWithTimingInfo ->
+                val applicableTransformsForField = applicableTransforms?.let { BitSet().also(it::add) }
+                val fieldInstructionTypes = if (canDispatchOnFieldInstructions) {
+                    executionBlueprint.getFieldInstructionTypes(field)
+                } else {
+                    null
+                }
+
+                val steps = transformsWithTimingStepInfo.mapIndexedNotNull { transformIndex, transformWithTimingInfo ->
                     val transform = transformWithTimingInfo.transform
                     // This is a patch to prevent errors
                     // Ideally this should not happen but the proper fix requires more refactoring
                     // See NadelSkipIncludeTransform.isApplicable for more details
                     if (isSkipIncludeSpecialField(field) && ((transform as NadelTransform<*>) !is NadelSkipIncludeTransform)) {
                         null
+                    } else if (
+                        fieldInstructionTypes != null
+                        && !hasFieldInstruction(fieldInstructionTypes, transformWithTimingInfo.fieldInstructionType)
+                    ) {
+                        // Still build the context, onComplete is invoked for every transform with a context
+                        getTransformContext(transform)
+                        null
+                    } else if (
+                        planCacheEntry != null
+                        && !transform.isRequestDependent
+                        && !planCacheEntry.isApplicable(fieldIndex, transformIndex)
+                    ) {
+                        // Still build the context, onComplete is invoked for every transform with a context
+                        getTransformContext(transform)
+                        null
                     } else {
-                        val executionTransformContext = if (transformContexts.containsKey(transform)) {
-                            transformContexts[transform]
-                        } else {
-                            transformContexts.getOrPut(transform) {
-                                transform.buildContext(
-                                    executionContext,
-                                    serviceExecutionContext,
-                                    executionBlueprint,
-                                    services,
-                                    service,
-                                    rootFields,
-                                    serviceHydrationDetails
-                                )
-                            }
-                        }
+                        val executionTransformContext = getTransformContext(transform)
                         val state = timer.time(step = transformWithTimingInfo.executionPlanTimingStep) {
                             transform.isApplicable(
                                 executionContext,
@@ -109,6 +158,7 @@ internal class NadelExecutionPlanFactory(
                         if (state == null) {
                             null
                         } else {
+                            applicableTransformsForField?.set(transformIndex)
                             NadelExecutionPlan.Step(
                                 service = service,
                                 field = field,
@@ -124,15 +174,33 @@ internal class NadelExecutionPlanFactory(
                 if (steps.isNotEmpty()) {
                     executionSteps[field] = steps
                 }
+                fieldIndex++
             }
         }
 
+        if (planCacheKey != null && applicableTransforms != null) {
+            planCache.put(planCacheKey, NadelExecutionPlanCache.Entry(applicableTransforms))
+        }
+
         return NadelExecutionPlan(
             executionSteps,
             transformContexts
         )
     }
 
+    /**
+     * @return whether a field with [fieldInstructionTypes] has an instruction of [fieldInstructionType],
+     * always true if the transform does not declare a [fieldInstructionType]
+     */
+    private fun hasFieldInstruction(
+        fieldInstructionTypes: Set<Class<out NadelFieldInstruction>>,
+        fieldInstructionType: Class<out NadelFieldInstruction>?,
+    ): Boolean {
+        fieldInstructionType ?: return true
+
+        return fieldInstructionTypes.any(fieldInstructionType::isAssignableFrom)
+    }
+
     private inline fun traverseQuery(
         roots: List<ExecutableNormalizedField>,
         consumer: (ExecutableNormalizedField) -> Unit,
@@ -152,9 +220,11 @@ internal class NadelExecutionPlanFactory(
             transforms: List<NadelTransform<out Any>>,
             engine: NextgenEngine,
             executionHooks: NadelExecutionHooks,
+            planCacheMaxSize: Int,
         ): NadelExecutionPlanFactory {
             return NadelExecutionPlanFactory(
                 executionBlueprint,
+                planCache = NadelExecutionPlanCache(planCacheMaxSize),
                 transforms = listOfTransforms(
                     NadelSkipIncludeTransform(),
                     NadelServiceTypeFilterTransform(),
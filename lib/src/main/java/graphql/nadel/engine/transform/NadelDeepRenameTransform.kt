@@ -6,6 +6,7 @@ import graphql.nadel.ServiceExecutionResult
 import graphql.nadel.engine.NadelExecutionContext
 import graphql.nadel.engine.NadelServiceExecutionContext
 import graphql.nadel.engine.blueprint.NadelDeepRenameFieldInstruction
+import graphql.nadel.engine.blueprint.NadelFieldInstruction
 import graphql.nadel.engine.blueprint.NadelOverallExecutionBlueprint
 import graphql.nadel.engine.transform.artificial.NadelAliasHelper
 import graphql.nadel.engine.transform.query.NFUtil
@@ -39,7 +40,7 @@ internal typealias GraphQLObjectTypeName = String
  * }
  * ```
  */
-internal class NadelDeepRenameTransform : NadelTransform<NadelDeepRenameTransform.State> {
+internal class NadelDeepRenameTransform : NadelFieldInstructionTransform<NadelDeepRenameTransform.State> {
     data class State(
         /**
          * The instructions for the a [ExecutableNormalizedField].
@@ -76,6 +77,12 @@ internal class NadelDeepRenameTransform : NadelTransform<NadelDeepRenameTransfor
         val overallField: ExecutableNormalizedField,
     )
 
+    override val fieldInstructionType: Class<out NadelFieldInstruction>
+        get() = NadelDeepRenameFieldInstruction::class.java
+
+    override val isRequestDependent: Boolean
+        get() = false
+
     /**
      * Determines whether a deep rename is applicable for the given [overallField].
      *
@@ -0,0 +1,14 @@
+package graphql.nadel.engine.transform
+
+import graphql.nadel.engine.blueprint.NadelFieldInstruction
+import graphql.nadel.engine.blueprint.NadelOverallExecutionBlueprint
+
+/**
+ * A built-in [NadelTransform] that can only apply to fields with a [fieldInstructionType] instruction.
+ *
+ * The execution plan does not invoke [isApplicable] for fields that have no such instruction, see
+ * [NadelOverallExecutionBlueprint.getFieldInstructionTypes].
+ */
+internal interface NadelFieldInstructionTransform<State : Any> : NadelTransform<State> {
+    val fieldInstructionType: Class<out NadelFieldInstruction>
+}
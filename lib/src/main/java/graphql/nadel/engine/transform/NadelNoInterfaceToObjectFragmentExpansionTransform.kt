@@ -50,6 +50,9 @@ class NadelNoInterfaceToObjectFragmentExpansionTransform : NadelTransform<State>
         var wasRelaxed = false
     }
 
+    override val isRequestDependent: Boolean
+        get() = false
+
     override suspend fun isApplicable(
         executionContext: NadelExecutionContext,
         serviceExecutionContext: NadelServiceExecutionContext,
@@ -28,6 +28,9 @@ import graphql.normalized.NormalizedInputValue
 internal class NadelRenameArgumentInputTypesTransform : NadelTransform<State> {
     object State
 
+    override val isRequestDependent: Boolean
+        get() = false
+
     override suspend fun isApplicable(
         executionContext: NadelExecutionContext,
         serviceExecutionContext: NadelServiceExecutionContext,
@@ -5,6 +5,7 @@ import graphql.nadel.ServiceExecutionHydrationDetails
 import graphql.nadel.ServiceExecutionResult
 import graphql.nadel.engine.NadelExecutionContext
 import graphql.nadel.engine.NadelServiceExecutionContext
+import graphql.nadel.engine.blueprint.NadelFieldInstruction
 import graphql.nadel.engine.blueprint.NadelOverallExecutionBlueprint
 import graphql.nadel.engine.blueprint.NadelRenameFieldInstruction
 import graphql.nadel.engine.transform.NadelRenameTransform.State
@@ -14,6 +15,7 @@ import graphql.nadel.engine.transform.query.NadelQueryPath
 import graphql.nadel.engine.transform.query.NadelQueryTransformer
 import graphql.nadel.engine.transform.result.NadelResultInstruction
 import graphql.nadel.engine.transform.result.NadelResultKey
+import graphql.nadel.engine.transform.result.NadelResultVisitor
 import graphql.nadel.engine.transform.result.json.JsonNode
 import graphql.nadel.engine.transform.result.json.JsonNodeExtractor
 import graphql.nadel.engine.transform.result.json.JsonNodes
@@ -27,7 +29,7 @@ import kotlinx.coroutines.flow.filter
 import kotlinx.coroutines.flow.map
 import kotlinx.coroutines.flow.toList
 
-internal class NadelRenameTransform : NadelTransform<State> {
+internal class NadelRenameTransform : NadelFieldInstructionTransform<State> {
     data class State(
         val instructionsByObjectTypeNames: Map<GraphQLObjectTypeName, NadelRenameFieldInstruction>,
         val aliasHelper: NadelAliasHelper,
@@ -35,6 +37,12 @@ internal class NadelRenameTransform : NadelTransform<State> {
         val service: Service,
     )
 
+    override val fieldInstructionType: Class<out NadelFieldInstruction>
+        get() = NadelRenameFieldInstruction::class.java
+
+    override val isRequestDependent: Boolean
+        get() = false
+
     override suspend fun isApplicable(
         executionContext: NadelExecutionContext,
         serviceExecutionContext: NadelServiceExecutionContext,
@@ -211,6 +219,29 @@ internal class NadelRenameTransform : NadelTransform<State> {
         }
     }
 
+    override suspend fun getResultVisitor(
+        executionContext: NadelExecutionContext,
+        serviceExecutionContext: NadelServiceExecutionContext,
+        executionBlueprint: NadelOverallExecutionBlueprint,
+        service: Service,
+        overallField: ExecutableNormalizedField,
+        underlyingParentField: ExecutableNormalizedField?,
+        state: State,
+        transformServiceExecutionContext: NadelTransformServiceExecutionContext?,
+    ): NadelResultVisitor {
+        val resultKey = overallField.resultKey
+
+        return NadelResultVisitor { parent ->
+            val instruction = getInstructionForNode(
+                state = state,
+                executionBlueprint = executionBlueprint,
+                parentNode = JsonNode(parent),
+            ) ?: return@NadelResultVisitor
+
+            parent[resultKey] = parent[state.aliasHelper.getResultKey(instruction.underlyingName)]
+        }
+    }
+
     private fun getInstructionForNode(
         state: State,
         executionBlueprint: NadelOverallExecutionBlueprint,
@@ -70,6 +70,9 @@ class NadelServiceTypeFilterTransform : NadelTransform<State> {
         val overallField: ExecutableNormalizedField,
     )
 
+    override val isRequestDependent: Boolean
+        get() = false
+
     override suspend fun isApplicable(
         executionContext: NadelExecutionContext,
         serviceExecutionContext: NadelServiceExecutionContext,
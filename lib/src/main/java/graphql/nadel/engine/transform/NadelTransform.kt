@@ -9,7 +9,9 @@ import graphql.nadel.engine.NadelServiceExecutionContext
 import graphql.nadel.engine.blueprint.NadelOverallExecutionBlueprint
 import graphql.nadel.engine.transform.query.NadelQueryTransformer
 import graphql.nadel.engine.transform.result.NadelResultInstruction
+import graphql.nadel.engine.transform.result.NadelResultVisitor
 import graphql.nadel.engine.transform.result.json.JsonNodes
+import graphql.nadel.hints.NadelSinglePassResultTransformHint
 import graphql.normalized.ExecutableNormalizedField
 
 interface NadelTransform<State : Any> {
@@ -19,6 +21,18 @@ interface NadelTransform<State : Any> {
     val name: String
         get() = javaClass.simpleName.ifBlank { "UnknownTransform" }
 
+    /**
+     * Whether [isApplicable] can give a different answer for two requests with the same query shape,
+     * [Service] and hydration e.g. because it reads variables, calls hooks or modifies the query.
+     *
+     * Transforms that return `false` let the execution plan cache skip [isApplicable] for fields the
+     * transform did not apply to the last time the same query shape was planned.
+     *
+     * Defaults to `true` i.e. [isApplicable] is always invoked.
+     */
+    val isRequestDependent: Boolean
+        get() = true
+
     /**
      * This method is called once before execution of the transform starts.
      * Override it to create a common object that is shared between all invocations of all other methods
@@ -116,6 +130,29 @@ interface NadelTransform<State : Any> {
         transformServiceExecutionContext: NadelTransformServiceExecutionContext?,
     ): List<NadelResultInstruction>
 
+    /**
+     * Override this function to rewrite the result in a single walk over the result, instead of
+     * returning a [NadelResultInstruction] for every affected node from [getResultInstructions].
+     *
+     * The returned [NadelResultVisitor] is invoked for every object at the query path of the
+     * [underlyingParentField], or for the root of the result if that is `null`.
+     *
+     * Only used when [NadelSinglePassResultTransformHint] is on for the [service].
+     * Return `null` to fall back to [getResultInstructions].
+     */
+    suspend fun getResultVisitor(
+        executionContext: NadelExecutionContext,
+        serviceExecutionContext: NadelServiceExecutionContext,
+        executionBlueprint: NadelOverallExecutionBlueprint,
+        service: Service,
+        overallField: ExecutableNormalizedField,
+        underlyingParentField: ExecutableNormalizedField?,
+        state: State,
+        transformServiceExecutionContext: NadelTransformServiceExecutionContext?,
+    ): NadelResultVisitor? {
+        return null
+    }
+
     /**
      * Called once after all other functions of a transform ran on all fields in the query.
      * Override this function to perform cleanup or finalization tasks.
@@ -14,6 +14,7 @@ import graphql.nadel.engine.transform.query.NadelQueryPath
 import graphql.nadel.engine.transform.query.NadelQueryTransformer
 import graphql.nadel.engine.transform.result.NadelResultInstruction
 import graphql.nadel.engine.transform.result.NadelResultKey
+import graphql.nadel.engine.transform.result.NadelResultVisitor
 import graphql.nadel.engine.transform.result.json.JsonNode
 import graphql.nadel.engine.transform.result.json.JsonNodes
 import graphql.nadel.engine.util.JsonMap
@@ -26,6 +27,9 @@ internal class NadelTypeRenameResultTransform : NadelTransform<State> {
         val virtualTypeContext: NadelVirtualTypeContext?,
     )
 
+    override val isRequestDependent: Boolean
+        get() = false
+
     override suspend fun isApplicable(
         executionContext: NadelExecutionContext,
         serviceExecutionContext: NadelServiceExecutionContext,
@@ -86,32 +90,77 @@ internal class NadelTypeRenameResultTransform : NadelTransform<State> {
             val underlyingTypeName = parentMap[overallField.resultKey] as String?
                 ?: return@mapNotNull null
 
-            val overallTypeName = executionBlueprint.getOverallTypeName(
-                service = service,
-                underlyingTypeName = underlyingTypeName,
-            ).let { overallTypeName ->
-                // Try to map it to a virtual typename
-                state.virtualTypeContext?.backingTypeToVirtualType?.get(overallTypeName)
-                    ?: overallTypeName
-            }
-
-            val typeName: String = if (executionContext.hints.sharedTypeRenames(service)) {
-                if (overallField.objectTypeNames.contains(overallTypeName)) {
-                    overallTypeName
-                } else {
-                    overallField.objectTypeNames.singleOrNull {
-                        executionBlueprint.getRename(it)?.underlyingName == underlyingTypeName
-                    } ?: overallTypeName
-                }
-            } else {
-                overallTypeName
-            }
-
             NadelResultInstruction.Set(
                 subject = parentNode,
                 key = NadelResultKey(overallField.resultKey),
-                newValue = JsonNode(typeName),
+                newValue = JsonNode(
+                    getOverallTypeName(
+                        executionContext,
+                        executionBlueprint,
+                        service,
+                        overallField,
+                        state,
+                        underlyingTypeName,
+                    ),
+                ),
             )
         }
     }
+
+    override suspend fun getResultVisitor(
+        executionContext: NadelExecutionContext,
+        serviceExecutionContext: NadelServiceExecutionContext,
+        executionBlueprint: NadelOverallExecutionBlueprint,
+        service: Service,
+        overallField: ExecutableNormalizedField,
+        underlyingParentField: ExecutableNormalizedField?,
+        state: State,
+        transformServiceExecutionContext: NadelTransformServiceExecutionContext?,
+    ): NadelResultVisitor {
+        val resultKey = overallField.resultKey
+
+        return NadelResultVisitor { parent ->
+            val underlyingTypeName = parent[resultKey] as String?
+                ?: return@NadelResultVisitor
+
+            parent[resultKey] = getOverallTypeName(
+                executionContext,
+                executionBlueprint,
+                service,
+                overallField,
+                state,
+                underlyingTypeName,
+            )
+        }
+    }
+
+    private fun getOverallTypeName(
+        executionContext: NadelExecutionContext,
+        executionBlueprint: NadelOverallExecutionBlueprint,
+        service: Service,
+        overallField: ExecutableNormalizedField,
+        state: State,
+        underlyingTypeName: String,
+    ): String {
+        val overallTypeName = executionBlueprint.getOverallTypeName(
+            service = service,
+            underlyingTypeName = underlyingTypeName,
+        ).let { overallTypeName ->
+            // Try to map it to a virtual typename
+            state.virtualTypeContext?.backingTypeToVirtualType?.get(overallTypeName)
+                ?: overallTypeName
+        }
+
+        return if (executionContext.hints.sharedTypeRenames(service)) {
+            if (overallField.objectTypeNames.contains(overallTypeName)) {
+                overallTypeName
+            } else {
+                overallField.objectTypeNames.singleOrNull {
+                    executionBlueprint.getRename(it)?.underlyingName == underlyingTypeName
+                } ?: overallTypeName
+            }
+        } else {
+            overallTypeName
+        }
+    }
 }
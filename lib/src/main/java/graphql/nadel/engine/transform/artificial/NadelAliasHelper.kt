@@ -58,13 +58,13 @@ class NadelAliasHelper private constructor(private val alias: String) {
     fun getQueryPath(
         path: NadelQueryPath,
     ): NadelQueryPath {
-        // todo: why not just clone and set first index here?
-        return path.mapIndexed { index, segment ->
-            when (index) {
-                0 -> getResultKey(segment)
-                else -> segment
-            }
+        if (path.size == 0) {
+            return path
         }
+
+        val segments = path.segments.toMutableList()
+        segments[0] = getResultKey(segments[0])
+        return NadelQueryPath(segments)
     }
 
     fun toArtificial(field: ExecutableNormalizedField): ExecutableNormalizedField {
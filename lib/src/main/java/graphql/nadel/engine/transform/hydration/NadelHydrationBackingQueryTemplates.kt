@@ -0,0 +1,30 @@
+package graphql.nadel.engine.transform.hydration
+
+import graphql.nadel.engine.blueprint.NadelHydrationFieldInstruction
+import graphql.normalized.ExecutableNormalizedField
+import java.util.concurrent.ConcurrentHashMap
+
+/**
+ * Remembers the children of the backing queries built for the parent nodes of a non-batched hydration,
+ * see [graphql.nadel.hints.NadelHydrationVariablesHint].
+ *
+ * Lives for one [NadelHydrationTransform.getResultInstructions] invocation. All backing queries of an
+ * invocation are built from the same virtual field and only differ by their arguments, so the children
+ * are cloned once per instruction and shared instead of cloned once per parent node.
+ */
+internal class NadelHydrationBackingQueryTemplates {
+    private val childrenByInstruction =
+        ConcurrentHashMap<NadelHydrationFieldInstruction, List<ExecutableNormalizedField>>()
+
+    /**
+     * @param makeChildren invoked once per [instruction]
+     */
+    fun getChildren(
+        instruction: NadelHydrationFieldInstruction,
+        makeChildren: () -> List<ExecutableNormalizedField>,
+    ): List<ExecutableNormalizedField> {
+        return childrenByInstruction.computeIfAbsent(instruction) {
+            makeChildren()
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package graphql.nadel.engine.transform.hydration
+
+import graphql.nadel.ServiceExecutionResult
+import graphql.nadel.engine.blueprint.NadelHydrationFieldInstruction
+import graphql.nadel.engine.util.appendNormalizedInputValue
+import graphql.normalized.ExecutableNormalizedField
+import kotlinx.coroutines.CompletableDeferred
+import java.util.concurrent.ConcurrentHashMap
+
+/**
+ * Shares one backing call between the parent nodes of a non-batched hydration that ask for
+ * the same backing field with the same arguments e.g. a list of issues with the same assignee.
+ *
+ * Lives for one [NadelHydrationTransform.getResultInstructions] invocation. All backing queries of
+ * an invocation are built from the same virtual field, so the instruction and the argument values
+ * are enough to tell them apart.
+ *
+ * [NadelHydrationResultCache] uses one for the whole request with its own keys.
+ */
+internal class NadelHydrationCallCoalescer {
+    private val calls = ConcurrentHashMap<Any, CompletableDeferred<ServiceExecutionResult>>()
+
+    /**
+     * @param instruction compared by identity, instructions live as long as the blueprint
+     */
+    private class Key(
+        private val instruction: NadelHydrationFieldInstruction,
+        private val arguments: String,
+    ) {
+        private val hashCode = System.identityHashCode(instruction) * 31 + arguments.hashCode()
+
+        override fun equals(other: Any?): Boolean {
+            return other is Key
+                && other.hashCode == hashCode
+                && other.instruction === instruction
+                && other.arguments == arguments
+        }
+
+        override fun hashCode(): Int {
+            return hashCode
+        }
+    }
+
+    /**
+     * Invokes [execute] for the first [backingQuery] with the given arguments, every other
+     * caller with the same arguments waits for and gets the same [ServiceExecutionResult].
+     */
+    suspend fun getOrExecute(
+        instruction: NadelHydrationFieldInstruction,
+        backingQuery: ExecutableNormalizedField,
+        execute: suspend () -> ServiceExecutionResult,
+    ): ServiceExecutionResult {
+        val key = Key(
+            instruction = instruction,
+            arguments = buildString {
+                backingQuery.normalizedArguments.forEach { (name, value) ->
+                    append(name).append(':')
+                    appendNormalizedInputValue(value)
+                    append(',')
+                }
+            },
+        )
+
+        return getOrExecute(key, execute)
+    }
+
+    /**
+     * Invokes [execute] for the first caller with the given [key], every other caller with
+     * an equal [key] waits for and gets the same [ServiceExecutionResult].
+     */
+    suspend fun getOrExecute(
+        key: Any,
+        execute: suspend () -> ServiceExecutionResult,
+    ): ServiceExecutionResult {
+        val call = CompletableDeferred<ServiceExecutionResult>()
+        val existingCall = calls.putIfAbsent(key, call)
+        if (existingCall != null) {
+            return existingCall.await()
+        }
+
+        return try {
+            execute().also(call::complete)
+        } catch (e: Throwable) {
+            call.completeExceptionally(e)
+            throw e
+        }
+    }
+}
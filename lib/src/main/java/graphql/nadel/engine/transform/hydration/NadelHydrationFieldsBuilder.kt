@@ -21,6 +21,10 @@ import graphql.normalized.ExecutableNormalizedField
 import graphql.normalized.NormalizedInputValue
 
 internal object NadelHydrationFieldsBuilder {
+    /**
+     * @param templates shares the children between the backing queries of the [virtualField], or `null` to
+     * clone the children for every backing query
+     */
     fun makeBackingQueries(
         executionContext: NadelExecutionContext,
         instruction: NadelHydrationFieldInstruction,
@@ -28,7 +32,18 @@ internal object NadelHydrationFieldsBuilder {
         virtualField: ExecutableNormalizedField,
         parentNode: JsonNode,
         executionBlueprint: NadelOverallExecutionBlueprint,
+        templates: NadelHydrationBackingQueryTemplates? = null,
     ): List<ExecutableNormalizedField> {
+        val makeChildren = {
+            deepClone(
+                if (executionContext.hints.hydrationFilterObjectTypes()) {
+                    filterChildren(instruction, virtualField.children)
+                } else {
+                    virtualField.children
+                }
+            )
+        }
+
         return NadelHydrationInputBuilder
             .getInputValues(
                 instruction = instruction,
@@ -40,13 +55,7 @@ internal object NadelHydrationFieldsBuilder {
                 makeBackingQueries(
                     instruction = instruction,
                     fieldArguments = args,
-                    fieldChildren = deepClone(
-                        if (executionContext.hints.hydrationFilterObjectTypes()) {
-                            filterChildren(instruction, virtualField.children)
-                        } else {
-                            virtualField.children
-                        }
-                    ),
+                    fieldChildren = templates?.getChildren(instruction, makeChildren) ?: makeChildren(),
                     executionBlueprint = executionBlueprint,
                 )
             }
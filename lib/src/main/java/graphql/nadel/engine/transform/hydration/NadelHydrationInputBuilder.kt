@@ -9,7 +9,7 @@ import graphql.nadel.engine.blueprint.hydration.NadelHydrationStrategy
 import graphql.nadel.engine.transform.artificial.NadelAliasHelper
 import graphql.nadel.engine.transform.result.json.JsonNode
 import graphql.nadel.engine.transform.result.json.JsonNodeExtractor
-import graphql.nadel.engine.util.emptyOrSingle
+import graphql.nadel.engine.transform.result.json.NadelJsonValues
 import graphql.nadel.engine.util.flatten
 import graphql.nadel.engine.util.javaValueToAstValue
 import graphql.nadel.engine.util.makeNormalizedInputValue
@@ -170,9 +170,10 @@ internal class NadelHydrationInputBuilder private constructor(
     private fun getResultValue(
         valueSource: ValueSource.FieldResultValue,
     ): Any? {
-        return getResultNodes(valueSource)
-            .emptyOrSingle()
-            ?.value
+        return NadelJsonValues.getValueAt(
+            root = parentNode.value,
+            queryPath = aliasHelper.getQueryPath(valueSource.queryPathToField),
+        )
     }
 
     private fun getResultNodes(
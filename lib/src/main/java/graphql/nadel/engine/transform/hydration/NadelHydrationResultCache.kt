@@ -0,0 +1,181 @@
+package graphql.nadel.engine.transform.hydration
+
+import graphql.nadel.engine.blueprint.NadelBatchHydrationFieldInstruction
+import graphql.nadel.engine.blueprint.NadelHydrationFieldInstruction
+import graphql.nadel.engine.blueprint.hydration.NadelBatchHydrationMatchStrategy
+import graphql.nadel.engine.transform.hydration.batch.NadelBatchHydrationInputBuilder
+import graphql.nadel.engine.transform.hydration.batch.indexing.NadelBatchHydrationIndexKey
+import graphql.nadel.engine.transform.result.json.JsonNode
+import graphql.nadel.engine.util.appendLengthPrefixed
+import graphql.nadel.engine.util.appendNormalizedInputValue
+import graphql.normalized.ExecutableNormalizedField
+import kotlinx.coroutines.CompletableDeferred
+import java.util.concurrent.ConcurrentHashMap
+
+/**
+ * Remembers hydration results for the rest of a request, see
+ * [graphql.nadel.hints.NadelHydrationResultMemoizationHint].
+ *
+ * Non-batched hydrations share the whole backing call via [calls] when their backing queries are identical.
+ *
+ * Batch hydrations share resolved objects by index key inside a scope, see [getBatchScope]. A hydration
+ * [claimObjects] first, only queries for the keys it owns and waits for the rest.
+ *
+ * Lives on the [graphql.nadel.engine.NadelExecutionContext], so it is never shared between requests.
+ */
+internal class NadelHydrationResultCache {
+    val calls = NadelHydrationCallCoalescer()
+
+    private val objectsByScope =
+        ConcurrentHashMap<String, ConcurrentHashMap<NadelBatchHydrationIndexKey, CompletableDeferred<JsonNode?>>>()
+
+    /**
+     * The result objects claimed by one batch hydration.
+     *
+     * @param owned the keys this hydration must query for and [complete]
+     * @param pending the objects owned by other hydrations, including the [owned] ones
+     */
+    class ObjectClaim(
+        val owned: Set<NadelBatchHydrationIndexKey>,
+        private val scope: ConcurrentHashMap<NadelBatchHydrationIndexKey, CompletableDeferred<JsonNode?>>,
+        private val pending: Map<NadelBatchHydrationIndexKey, CompletableDeferred<JsonNode?>>,
+    ) {
+        fun isOwned(key: NadelBatchHydrationIndexKey): Boolean {
+            return key in owned
+        }
+
+        /**
+         * Publishes the objects resolved for the [owned] keys, keys missing from [index] resolve to `null`.
+         *
+         * Keys that resolved to `null` are forgotten so that later hydrations query for them again.
+         */
+        fun complete(index: Map<NadelBatchHydrationIndexKey, JsonNode>) {
+            owned.forEach { key ->
+                val value = index[key]
+                val deferred = pending[key]!!
+                if (value == null) {
+                    scope.remove(key, deferred)
+                }
+                deferred.complete(value)
+            }
+        }
+
+        suspend fun await(): Map<NadelBatchHydrationIndexKey, JsonNode> {
+            val index = LinkedHashMap<NadelBatchHydrationIndexKey, JsonNode>(pending.size)
+            pending.forEach { (key, deferred) ->
+                deferred.await()?.let {
+                    index[key] = it
+                }
+            }
+            return index
+        }
+    }
+
+    fun claimObjects(scope: String, keys: Collection<NadelBatchHydrationIndexKey>): ObjectClaim {
+        val objects = objectsByScope.computeIfAbsent(scope) { ConcurrentHashMap() }
+        val owned = LinkedHashSet<NadelBatchHydrationIndexKey>()
+        val pending = LinkedHashMap<NadelBatchHydrationIndexKey, CompletableDeferred<JsonNode?>>()
+
+        keys.forEach { key ->
+            if (key !in pending) {
+                val deferred = CompletableDeferred<JsonNode?>()
+                val existing = objects.putIfAbsent(key, deferred)
+                if (existing == null) {
+                    owned.add(key)
+                    pending[key] = deferred
+                } else {
+                    pending[key] = existing
+                }
+            }
+        }
+
+        return ObjectClaim(owned, objects, pending)
+    }
+
+    companion object {
+        /**
+         * @return a key for the whole backing call, or `null` if the call must not be shared
+         */
+        fun getCallKey(
+            instruction: NadelHydrationFieldInstruction,
+            backingQuery: ExecutableNormalizedField,
+        ): String? {
+            // The result is mapped onto virtual types that depend on the instruction
+            if (instruction.virtualTypeContext != null) {
+                return null
+            }
+
+            return buildString {
+                appendLengthPrefixed(instruction.backingService.name)
+                appendField(backingQuery)
+            }
+        }
+
+        /**
+         * Objects resolved within the same scope are interchangeable i.e. they come from the same
+         * backing field with the same non batch arguments and have the same selection.
+         */
+        fun getBatchScope(
+            instruction: NadelBatchHydrationFieldInstruction,
+            virtualField: ExecutableNormalizedField,
+        ): String {
+            return buildString {
+                appendLengthPrefixed(instruction.backingService.name)
+                instruction.queryPathToBackingField.segments.joinTo(this, separator = ".", postfix = ";")
+                append(instruction.backingFieldContainer.name).append('.').append(instruction.backingFieldDef.name)
+                append('(')
+                NadelBatchHydrationInputBuilder.getNonBatchInputValues(instruction, virtualField)
+                    .forEach { (argument, value) ->
+                        append(argument.name).append(':')
+                        appendNormalizedInputValue(value)
+                        append(',')
+                    }
+                append(')')
+                when (val matchStrategy = instruction.batchHydrationMatchStrategy) {
+                    is NadelBatchHydrationMatchStrategy.MatchIndex -> append("index")
+                    is NadelBatchHydrationMatchStrategy.MatchObjectIdentifier -> appendObjectId(matchStrategy)
+                    is NadelBatchHydrationMatchStrategy.MatchObjectIdentifiers -> matchStrategy.objectIds
+                        .forEach {
+                            appendObjectId(it)
+                        }
+                }
+                append('{')
+                virtualField.children.forEach {
+                    appendField(it)
+                }
+                append('}')
+            }
+        }
+
+        private fun StringBuilder.appendObjectId(
+            objectId: NadelBatchHydrationMatchStrategy.MatchObjectIdentifier,
+        ) {
+            append(objectId.resultId).append(':').append(objectId.sourceIdCast).append(',')
+        }
+
+        private fun StringBuilder.appendField(field: ExecutableNormalizedField) {
+            field.alias?.let {
+                append(it).append(':')
+            }
+            append(field.fieldName)
+            field.objectTypeNames.joinTo(this, separator = ",", prefix = "[", postfix = "]")
+            if (field.normalizedArguments.isNotEmpty()) {
+                append('(')
+                field.normalizedArguments.forEach { (name, value) ->
+                    append(name).append(':')
+                    appendNormalizedInputValue(value)
+                    append(',')
+                }
+                append(')')
+            }
+            if (field.children.isNotEmpty()) {
+                append('{')
+                field.children.forEach {
+                    appendField(it)
+                }
+                append('}')
+            }
+            append(';')
+        }
+    }
+}
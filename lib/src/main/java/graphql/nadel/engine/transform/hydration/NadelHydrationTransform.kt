@@ -8,12 +8,13 @@ import graphql.nadel.ServiceExecutionHydrationDetails
 import graphql.nadel.ServiceExecutionResult
 import graphql.nadel.engine.NadelExecutionContext
 import graphql.nadel.engine.NadelServiceExecutionContext
+import graphql.nadel.engine.blueprint.NadelFieldInstruction
 import graphql.nadel.engine.blueprint.NadelGenericHydrationInstruction
 import graphql.nadel.engine.blueprint.NadelHydrationFieldInstruction
 import graphql.nadel.engine.blueprint.NadelOverallExecutionBlueprint
 import graphql.nadel.engine.blueprint.hydration.NadelHydrationStrategy
 import graphql.nadel.engine.transform.GraphQLObjectTypeName
-import graphql.nadel.engine.transform.NadelTransform
+import graphql.nadel.engine.transform.NadelFieldInstructionTransform
 import graphql.nadel.engine.transform.NadelTransformFieldResult
 import graphql.nadel.engine.transform.NadelTransformServiceExecutionContext
 import graphql.nadel.engine.transform.artificial.NadelAliasHelper
@@ -24,8 +25,8 @@ import graphql.nadel.engine.transform.query.NadelQueryPath
 import graphql.nadel.engine.transform.query.NadelQueryTransformer
 import graphql.nadel.engine.transform.result.NadelResultInstruction
 import graphql.nadel.engine.transform.result.json.JsonNode
-import graphql.nadel.engine.transform.result.json.JsonNodeExtractor
 import graphql.nadel.engine.transform.result.json.JsonNodes
+import graphql.nadel.engine.transform.result.json.NadelJsonValues
 import graphql.nadel.engine.util.JsonMap
 import graphql.nadel.engine.util.emptyOrSingle
 import graphql.nadel.engine.util.getFieldDefinitionSequence
@@ -47,7 +48,7 @@ import kotlinx.coroutines.coroutineScope
  */
 internal class NadelHydrationTransform(
     private val engine: NextgenEngine,
-) : NadelTransform<State> {
+) : NadelFieldInstructionTransform<State> {
     data class State(
         /**
          * The hydration instructions for the [virtualField]. There can be multiple instructions
@@ -68,6 +69,13 @@ internal class NadelHydrationTransform(
         val engineSchema: GraphQLSchema,
     )
 
+    override val fieldInstructionType: Class<out NadelFieldInstruction>
+        get() = NadelHydrationFieldInstruction::class.java
+
+    // The hooks only pick the instruction when the result comes back, see getResultInstructions
+    override val isRequestDependent: Boolean
+        get() = false
+
     override suspend fun isApplicable(
         executionContext: NadelExecutionContext,
         serviceExecutionContext: NadelServiceExecutionContext,
@@ -190,6 +198,9 @@ internal class NadelHydrationTransform(
         overallField: ExecutableNormalizedField,
         executionContext: NadelExecutionContext,
     ): List<NadelResultInstruction> {
+        val coalescer = NadelHydrationCallCoalescer()
+        val templates = NadelHydrationBackingQueryTemplates()
+
         return coroutineScope {
             parentNodes
                 .mapNotNull {
@@ -199,6 +210,8 @@ internal class NadelHydrationTransform(
                         executionBlueprint = executionBlueprint,
                         virtualField = overallField,
                         executionContext = executionContext,
+                        coalescer = coalescer,
+                        templates = templates,
                     )
                 }
                 .map {
@@ -239,6 +252,8 @@ internal class NadelHydrationTransform(
     ) {
         // Prepare the hydrations before we go async
         // We need to do this because if we run it async below, we cannot guarantee that our artificial fields have not yet been removed
+        val coalescer = NadelHydrationCallCoalescer()
+        val templates = NadelHydrationBackingQueryTemplates()
         val preparedHydrations = parentNodes
             .mapNotNull {
                 prepareHydration(
@@ -247,6 +262,8 @@ internal class NadelHydrationTransform(
                     executionBlueprint = executionBlueprint,
                     virtualField = overallField,
                     executionContext = executionContext,
+                    coalescer = coalescer,
+                    templates = templates,
                 )
             }
 
@@ -312,6 +329,8 @@ internal class NadelHydrationTransform(
         executionBlueprint: NadelOverallExecutionBlueprint,
         virtualField: ExecutableNormalizedField, // Field asking for hydration from the overall query
         executionContext: NadelExecutionContext,
+        coalescer: NadelHydrationCallCoalescer,
+        templates: NadelHydrationBackingQueryTemplates,
     ): NadelPreparedHydration? {
         val instructions = state.instructionsByObjectTypeNames.getInstructionsForNode(
             executionBlueprint = executionBlueprint,
@@ -341,6 +360,11 @@ internal class NadelHydrationTransform(
             virtualField = virtualField,
             parentNode = parentNode,
             executionBlueprint = executionBlueprint,
+            templates = if (executionContext.hints.hydrationVariables(instruction.backingService)) {
+                templates
+            } else {
+                null
+            },
         )
 
         return NadelPreparedHydration {
@@ -363,12 +387,32 @@ internal class NadelHydrationTransform(
                                 hydrationBackingField = hydrationBackingField,
                                 fieldPath = virtualField.listOfResultKeys,
                             )
-                            engine.executeHydration(
-                                service = instruction.backingService,
-                                topLevelField = backingQuery,
-                                executionContext = executionContext,
-                                hydrationDetails = serviceHydrationDetails,
-                            )
+                            val executeHydration = suspend {
+                                engine.executeHydration(
+                                    service = instruction.backingService,
+                                    topLevelField = backingQuery,
+                                    executionContext = executionContext,
+                                    hydrationDetails = serviceHydrationDetails,
+                                )
+                            }
+
+                            val memoizationKey =
+                                if (executionContext.hints.hydrationResultMemoization(instruction.backingService)) {
+                                    NadelHydrationResultCache.getCallKey(instruction, backingQuery)
+                                } else {
+                                    null
+                                }
+
+                            if (memoizationKey != null) {
+                                executionContext.hydrationResultCache.calls.getOrExecute(
+                                    memoizationKey,
+                                    executeHydration,
+                                )
+                            } else if (executionContext.hints.hydrationCoalescing(instruction.backingService)) {
+                                coalescer.getOrExecute(instruction, backingQuery, executeHydration)
+                            } else {
+                                executeHydration()
+                            }
                         }
                     }.awaitAll()
             }
@@ -379,25 +423,19 @@ internal class NadelHydrationTransform(
                     val result = backingQueryResults.emptyOrSingle()
 
                     val data = result?.data?.let { data ->
-                        JsonNodeExtractor.getNodesAt(
-                            data = data,
-                            queryPath = instruction.queryPathToBackingField,
-                        ).emptyOrSingle()
+                        NadelJsonValues.getValueAt(data, instruction.queryPathToBackingField)
                     }
 
                     NadelHydrationResult(
                         parentNode = parentNode,
-                        newValue = JsonNode(data?.value),
+                        newValue = JsonNode(data),
                         errors = result?.errors ?: emptyList(),
                     )
                 }
                 is NadelHydrationStrategy.ManyToOne -> {
                     val data = backingQueryResults
                         .map { result ->
-                            JsonNodeExtractor.getNodesAt(
-                                data = result.data,
-                                queryPath = instruction.queryPathToBackingField,
-                            ).emptyOrSingle()?.value
+                            NadelJsonValues.getValueAt(result.data, instruction.queryPathToBackingField)
                         }
 
                     NadelHydrationResult(
@@ -430,9 +468,7 @@ internal class NadelHydrationTransform(
             .firstOrNull {
                 // Note: due to the validation, all instructions in here have a condition, so can call explicitly
                 val resultQueryPath = state.aliasHelper.getQueryPath(it.condition!!.fieldPath)
-                val node = JsonNodeExtractor.getNodesAt(parentNode, resultQueryPath)
-                    .emptyOrSingle()
-                it.condition.evaluate(node?.value)
+                it.condition.evaluate(NadelJsonValues.getValueAt(parentNode.value, resultQueryPath))
             }
     }
 
@@ -0,0 +1,188 @@
+package graphql.nadel.engine.transform.hydration.batch
+
+import graphql.nadel.engine.transform.hydration.batch.indexing.NadelBatchHydrationIndexKey
+import graphql.nadel.engine.transform.result.json.JsonNode
+import kotlinx.coroutines.CompletableDeferred
+import java.util.TreeMap
+import java.util.concurrent.atomic.AtomicBoolean
+
+/**
+ * Merges the batches of the batch hydrations resolved in one result transform pass, see
+ * [graphql.nadel.hints.NadelBatchHydrationMergingHint].
+ *
+ * Every batch hydration of the pass [join]s before it starts, then the pass is [seal]ed.
+ * A hydration [Participant.enqueue]s its source inputs per merge key and [Participant.arrive]s
+ * before it waits for anything. Once every participant arrived, the source inputs of a key are
+ * queried once using the query of the first participant to join, so the queries sent do not depend
+ * on which hydration got there first.
+ *
+ * Source inputs are enqueued as the partitions made by
+ * [graphql.nadel.hooks.NadelExecutionHooks.partitionBatchHydrationArgumentList] for their own instruction,
+ * see [getMergedPartitions].
+ *
+ * Participants also arrive when they finish, so a hydration that enqueues nothing never holds up the pass.
+ *
+ * A pass can span several results e.g. the events of a subscription window, see
+ * [graphql.nadel.engine.NadelSubscriptionHydrationWindow]. Then each result gets a [Participant] that
+ * [Participant.join]s the hydrations of that result and arrives once they all joined.
+ */
+internal class NadelBatchHydrationMerger {
+    private var participantCount = 0
+    private var arrivedCount = 0
+    private var isSealed = false
+
+    private val groups = HashMap<String, Group>()
+    private val isReady = CompletableDeferred<Unit>()
+
+    /**
+     * @param batches the batches that were queried, only given to the participant whose query was used
+     * so errors are only reported once
+     * @param index the resolved objects by index key, for the source inputs of every participant in the group
+     */
+    class Result(
+        val batches: List<NadelResolvedObjectBatch>,
+        val index: Map<NadelBatchHydrationIndexKey, JsonNode>,
+    )
+
+    /**
+     * Entries are sorted by the order participants joined in.
+     */
+    private class Group {
+        val queries = TreeMap<Int, suspend (partitions: List<List<JsonNode>>) -> Result>()
+        val partitions = TreeMap<Int, MutableList<List<List<JsonNode>>>>()
+        val isQueried = AtomicBoolean()
+        val result = CompletableDeferred<Result>()
+    }
+
+    inner class Participant internal constructor(private val order: Int) {
+        private var isArrived = false
+
+        /**
+         * @param partitions the source inputs to query for, as partitioned for their instruction
+         * @param query queries for the partitions of the whole group, only invoked for one participant
+         * @return a function to await the [Result], or `null` if this participant already arrived
+         */
+        fun enqueue(
+            key: String,
+            partitions: List<List<JsonNode>>,
+            query: suspend (partitions: List<List<JsonNode>>) -> Result,
+        ): (suspend () -> Result)? {
+            val group = synchronized(this@NadelBatchHydrationMerger) {
+                if (isArrived) {
+                    return null
+                }
+
+                groups.getOrPut(key, ::Group).also { group ->
+                    group.queries.putIfAbsent(order, query)
+                    group.partitions.getOrPut(order, ::mutableListOf).add(partitions)
+                }
+            }
+
+            return {
+                getResult(group, order)
+            }
+        }
+
+        /**
+         * Joins a participant to the same pass, e.g. for the batch hydrations of one of the results in the pass.
+         *
+         * Unlike [NadelBatchHydrationMerger.join] this works after the pass is sealed, as this participant
+         * has not arrived yet so the pass cannot be ready.
+         */
+        fun join(): Participant {
+            val order = synchronized(this@NadelBatchHydrationMerger) {
+                check(!isArrived)
+                participantCount++
+            }
+            return Participant(order)
+        }
+
+        fun arrive() {
+            val isLast = synchronized(this@NadelBatchHydrationMerger) {
+                if (isArrived) {
+                    return
+                }
+                isArrived = true
+                arrivedCount++
+                isSealed && arrivedCount == participantCount
+            }
+
+            if (isLast) {
+                isReady.complete(Unit)
+            }
+        }
+    }
+
+    fun join(): Participant {
+        val order = synchronized(this) {
+            check(!isSealed)
+            participantCount++
+        }
+        return Participant(order)
+    }
+
+    /**
+     * Invoked once every participant of the pass has joined.
+     */
+    fun seal() {
+        val isLast = synchronized(this) {
+            isSealed = true
+            arrivedCount == participantCount
+        }
+
+        if (isLast) {
+            isReady.complete(Unit)
+        }
+    }
+
+    private suspend fun getResult(group: Group, order: Int): Result {
+        isReady.await()
+
+        // No one can enqueue once everyone arrived, so the group is no longer modified
+        val (queryOrder, query) = group.queries.firstEntry()
+        if (group.isQueried.compareAndSet(false, true)) {
+            try {
+                group.result.complete(query(getMergedPartitions(group)))
+            } catch (e: Throwable) {
+                group.result.completeExceptionally(e)
+                throw e
+            }
+        }
+
+        val result = group.result.await()
+        return if (order == queryOrder) {
+            result
+        } else {
+            Result(batches = emptyList(), index = result.index)
+        }
+    }
+
+    /**
+     * The source inputs of instructions that the hook did not split are sent together, as one partition.
+     * Partitions that the hook did make are kept apart, so a batch never mixes source inputs the hook split up.
+     *
+     * Source inputs already in an earlier partition are dropped.
+     */
+    private fun getMergedPartitions(group: Group): List<List<JsonNode>> {
+        val enqueued = group.partitions.values.flatten()
+        val queued = LinkedHashSet<JsonNode>()
+
+        enqueued
+            .filter { it.size == 1 }
+            .forEach { (partition) ->
+                queued.addAll(partition)
+            }
+        val unpartitioned = queued.toList()
+
+        val partitioned = enqueued
+            .filter { it.size > 1 }
+            .flatMap { partitions ->
+                partitions.map { partition ->
+                    partition.filter(queued::add)
+                }
+            }
+
+        return (listOf(unpartitioned) + partitioned)
+            .filter { it.isNotEmpty() }
+    }
+}
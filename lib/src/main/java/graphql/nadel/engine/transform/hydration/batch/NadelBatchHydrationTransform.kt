@@ -7,9 +7,10 @@ import graphql.nadel.ServiceExecutionResult
 import graphql.nadel.engine.NadelExecutionContext
 import graphql.nadel.engine.NadelServiceExecutionContext
 import graphql.nadel.engine.blueprint.NadelBatchHydrationFieldInstruction
+import graphql.nadel.engine.blueprint.NadelFieldInstruction
 import graphql.nadel.engine.blueprint.NadelOverallExecutionBlueprint
 import graphql.nadel.engine.transform.GraphQLObjectTypeName
-import graphql.nadel.engine.transform.NadelTransform
+import graphql.nadel.engine.transform.NadelFieldInstructionTransform
 import graphql.nadel.engine.transform.NadelTransformFieldResult
 import graphql.nadel.engine.transform.NadelTransformServiceExecutionContext
 import graphql.nadel.engine.transform.artificial.NadelAliasHelper
@@ -26,7 +27,7 @@ import graphql.normalized.ExecutableNormalizedField
 
 internal class NadelBatchHydrationTransform(
     engine: NextgenEngine,
-) : NadelTransform<State> {
+) : NadelFieldInstructionTransform<State> {
     private val newHydrator = NadelNewBatchHydrator(engine)
 
     data class State(
@@ -38,6 +39,12 @@ internal class NadelBatchHydrationTransform(
         val aliasHelper: NadelAliasHelper,
     )
 
+    override val fieldInstructionType: Class<out NadelFieldInstruction>
+        get() = NadelBatchHydrationFieldInstruction::class.java
+
+    override val isRequestDependent: Boolean
+        get() = false
+
     override suspend fun isApplicable(
         executionContext: NadelExecutionContext,
         serviceExecutionContext: NadelServiceExecutionContext,
@@ -128,7 +135,7 @@ internal class NadelBatchHydrationTransform(
             flatten = true,
         )
 
-        return newHydrator.hydrate(state, executionBlueprint, parentNodes)
+        return newHydrator.hydrate(state, executionContext, executionBlueprint, parentNodes)
     }
 
     private fun makeTypeNameField(
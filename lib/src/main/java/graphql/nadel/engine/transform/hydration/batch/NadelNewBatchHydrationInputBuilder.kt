@@ -51,9 +51,24 @@ internal object NadelNewBatchHydrationInputBuilder {
         instruction: NadelBatchHydrationFieldInstruction,
         hydrationField: ExecutableNormalizedField,
         sourceInputs: List<JsonNode>,
+    ): List<NadelHydrationArgumentsBatch> {
+        return getInputValueBatches(
+            instruction = instruction,
+            hydrationField = hydrationField,
+            partitions = getPartitions(hooks, userContext, instruction, sourceInputs),
+        )
+    }
+
+    /**
+     * @param partitions the source inputs split by [getPartitions], each partition is sent in its own batches
+     */
+    fun getInputValueBatches(
+        instruction: NadelBatchHydrationFieldInstruction,
+        hydrationField: ExecutableNormalizedField,
+        partitions: List<List<JsonNode>>,
     ): List<NadelHydrationArgumentsBatch> {
         val nonBatchArgs = getNonBatchInputValues(instruction, hydrationField)
-        val batchArgs = getBatchArgumentValue(instruction, sourceInputs, hooks, userContext)
+        val batchArgs = getBatchArgumentValue(instruction, partitions)
 
         return batchArgs
             .map { batchedArgument ->
@@ -64,38 +79,52 @@ internal object NadelNewBatchHydrationInputBuilder {
             }
     }
 
-    private fun getBatchArgumentValue(
-        instruction: NadelBatchHydrationFieldInstruction,
-        sourceInputs: List<JsonNode>,
+    /**
+     * Splits the [sourceInputs] of the [instruction] into the partitions that can be sent together,
+     * see [NadelExecutionHooks.partitionBatchHydrationArgumentList].
+     */
+    fun getPartitions(
         hooks: NadelExecutionHooks,
         userContext: Any?,
+        instruction: NadelBatchHydrationFieldInstruction,
+        sourceInputs: List<JsonNode>,
+    ): List<List<JsonNode>> {
+        getBatchInputDef(instruction) ?: return emptyList()
+
+        return hooks
+            .partitionBatchHydrationArgumentList(
+                argumentValues = sourceInputs.map { it.value },
+                instruction = instruction,
+                userContext = userContext,
+            )
+            .map { partition ->
+                partition.map {
+                    JsonNode(it)
+                }
+            }
+    }
+
+    private fun getBatchArgumentValue(
+        instruction: NadelBatchHydrationFieldInstruction,
+        partitions: List<List<JsonNode>>,
     ): List<BatchedArgumentValue> {
         val batchSize = instruction.batchSize
 
         val (batchInputDef) = getBatchInputDef(instruction) ?: return emptyList()
         val batchArgDef = instruction.backingFieldDef.getArgument(batchInputDef.name)
 
-        val partitionArgumentList = hooks.partitionBatchHydrationArgumentList(
-            argumentValues = sourceInputs.map { it.value },
-            instruction = instruction,
-            userContext = userContext,
-        )
-
-        return partitionArgumentList
+        return partitions
             .flatMap {
                 it.chunked(size = batchSize)
             }
             .map { chunk ->
                 val normalizedInputValue = NormalizedInputValue(
                     GraphQLTypeUtil.simplePrint(batchArgDef.type),
-                    javaValueToAstValue(chunk),
+                    javaValueToAstValue(chunk.map { it.value }),
                 )
 
                 BatchedArgumentValue(
-                    sourceInputs = chunk
-                        .map {
-                            JsonNode(it)
-                        },
+                    sourceInputs = chunk,
                     argumentDef = batchInputDef,
                     argumentValue = normalizedInputValue,
                 )
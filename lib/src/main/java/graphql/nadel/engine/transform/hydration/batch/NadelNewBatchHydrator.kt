@@ -14,6 +14,7 @@ import graphql.nadel.engine.transform.GraphQLObjectTypeName
 import graphql.nadel.engine.transform.artificial.NadelAliasHelper
 import graphql.nadel.engine.transform.getInstructionsForNode
 import graphql.nadel.engine.transform.hydration.NadelHydrationFieldsBuilder
+import graphql.nadel.engine.transform.hydration.NadelHydrationResultCache
 import graphql.nadel.engine.transform.hydration.NadelHydrationUtil.getInstructionsToAddErrors
 import graphql.nadel.engine.transform.hydration.batch.NadelBatchHydrationTransform.State
 import graphql.nadel.engine.transform.hydration.batch.indexing.NadelBatchHydrationIndexBasedIndexer
@@ -23,7 +24,7 @@ import graphql.nadel.engine.transform.hydration.batch.indexing.NadelBatchHydrati
 import graphql.nadel.engine.transform.result.NadelResultInstruction
 import graphql.nadel.engine.transform.result.json.JsonNode
 import graphql.nadel.engine.transform.result.json.JsonNodeExtractor
-import graphql.nadel.engine.util.emptyOrSingle
+import graphql.nadel.engine.transform.result.json.NadelJsonValues
 import graphql.nadel.engine.util.flatten
 import graphql.nadel.engine.util.getField
 import graphql.nadel.engine.util.isList
@@ -89,7 +90,7 @@ import kotlinx.coroutines.coroutineScope
  *
  * 1. Source object -> Source inputs [getSourceObjectsMetadata]
  * 2. Source input -> instruction [getSourceInputs]
- * 3. Resolved objects need to be indexed [getIndexedResultsByInstruction]
+ * 3. Resolved objects need to be indexed [getIndex]
  *
  * e.g. of [SourceObjectMetadata]
  *
@@ -180,17 +181,30 @@ internal class NadelNewBatchHydrator(
         ) : SourceInput()
     }
 
+    /**
+     * @param batches the batches queried for the instruction, may not cover memoized objects
+     * @param index the resolved objects by index key
+     */
+    private data class InstructionResults(
+        val batches: List<NadelResolvedObjectBatch>,
+        val index: Map<NadelBatchHydrationIndexKey, JsonNode>,
+    )
+
     /**
      * todo: add validation that repeated directives must use the same $source object unless there is only one input
+     *
+     * @param executionContext the context of the result transform, it can differ from [State.executionContext]
+     * e.g. by carrying a [NadelBatchHydrationMerger.Participant]
      */
     suspend fun hydrate(
         state: State,
+        executionContext: NadelExecutionContext,
         executionBlueprint: NadelOverallExecutionBlueprint,
         sourceObjects: List<JsonNode>,
     ): List<NadelResultInstruction> {
         val context = NadelBatchHydratorContext(
             instructionsByObjectTypeNames = state.instructionsByObjectTypeNames,
-            executionContext = state.executionContext,
+            executionContext = executionContext,
             sourceField = state.virtualField,
             sourceFieldService = state.virtualFieldService,
             aliasHelper = state.aliasHelper,
@@ -213,7 +227,7 @@ internal class NadelNewBatchHydrator(
             emptyList()
         } else {
             val resultsByInstruction = executeHydrations(sourceInputsByInstruction)
-            val indexedResultsByInstruction = getIndexedResultsByInstruction(resultsByInstruction)
+            val indexedResultsByInstruction = resultsByInstruction.mapValues { it.value.index }
 
             val setData = getSetDataInstructions(
                 sourceObjectsMetadata = sourceObjectsMetadata,
@@ -222,7 +236,7 @@ internal class NadelNewBatchHydrator(
 
             val addErrors = resultsByInstruction
                 .flatMap { (_, results) ->
-                    getInstructionsToAddErrors(results)
+                    getInstructionsToAddErrors(results.batches)
                 }
 
             setData + addErrors
@@ -236,7 +250,7 @@ internal class NadelNewBatchHydrator(
     ) {
         executionContext.incrementalResultSupport.defer {
             val resultsByInstruction = executeHydrations(sourceInputsByInstruction)
-            val indexedResultsByInstruction = getIndexedResultsByInstruction(resultsByInstruction)
+            val indexedResultsByInstruction = resultsByInstruction.mapValues { it.value.index }
 
             val incremental = sourceObjectsMetadata
                 .mapNotNull { (sourceObject, sourceInputsPairedWithInstruction) ->
@@ -392,7 +406,25 @@ internal class NadelNewBatchHydrator(
     context(NadelBatchHydratorContext)
     private suspend fun executeHydrations(
         sourceInputsByInstruction: Map<NadelBatchHydrationFieldInstruction, List<SourceInput>>,
-    ): Map<NadelBatchHydrationFieldInstruction, List<NadelResolvedObjectBatch>> {
+    ): Map<NadelBatchHydrationFieldInstruction, InstructionResults> {
+        // Must enqueue every merged hydration before arriving, see NadelBatchHydrationMerger
+        val mergedResults = executionContext.batchHydrationMergeParticipant
+            ?.let { participant ->
+                sourceInputsByInstruction
+                    .mapNotNull { (instruction, sourceInputs) ->
+                        if (isMergeable(instruction)) {
+                            enqueueMergedQueries(participant, instruction, sourceInputs)
+                                ?.let { instruction to it }
+                        } else {
+                            null
+                        }
+                    }
+                    .toMap()
+                    .also {
+                        participant.arrive()
+                    }
+            }
+
         // It's important to ensure deferredResults is a List not a Sequence
         // We want to kick off ALL the hydrations at the same time, _then_ wait for them after.
         val deferredResults = coroutineScope {
@@ -400,11 +432,19 @@ internal class NadelNewBatchHydrator(
                 .entries
                 .map { (instruction, sourceInputs) ->
                     instruction to async {
-                        executeQueries(
-                            executionBlueprint = executionBlueprint,
-                            instruction = instruction,
-                            sourceInputs = sourceInputs,
-                        )
+                        val mergedResult = mergedResults?.get(instruction)
+                        if (mergedResult != null) {
+                            mergedResult()
+                        } else if (executionContext.hints.hydrationResultMemoization(instruction.backingService)) {
+                            executeMemoizedQueries(instruction, sourceInputs)
+                        } else {
+                            val batches = executeQueries(
+                                executionBlueprint = executionBlueprint,
+                                instruction = instruction,
+                                sourceInputs = sourceInputs,
+                            )
+                            InstructionResults(batches, getIndex(instruction, batches))
+                        }
                     }
                 }
         }
@@ -415,6 +455,164 @@ internal class NadelNewBatchHydrator(
             }
     }
 
+    /**
+     * Only queries for the objects that no other hydration in the request resolved or is resolving,
+     * see [NadelHydrationResultCache].
+     */
+    context(NadelBatchHydratorContext)
+    private suspend fun executeMemoizedQueries(
+        instruction: NadelBatchHydrationFieldInstruction,
+        sourceInputs: List<SourceInput>,
+    ): InstructionResults {
+        val queryableInputs = sourceInputs
+            .filterIsInstance<SourceInput.Queryable>()
+            // We don't want to query for null values, we always map those to null
+            .filter {
+                it.sourceInputNode.value != null
+            }
+
+        val claim = executionContext.hydrationResultCache.claimObjects(
+            scope = NadelHydrationResultCache.getBatchScope(instruction, sourceField),
+            keys = queryableInputs.map { it.indexKey },
+        )
+
+        val batches = try {
+            val ownedInputs = queryableInputs.filter { claim.isOwned(it.indexKey) }
+            val batches = if (ownedInputs.isEmpty()) {
+                emptyList()
+            } else {
+                executeQueries(
+                    executionBlueprint = executionBlueprint,
+                    instruction = instruction,
+                    sourceInputs = ownedInputs,
+                )
+            }
+            // Must only index once, indexing can remove artificial fields from the result objects
+            claim.complete(getIndex(instruction, batches))
+            batches
+        } catch (e: Throwable) {
+            // Don't leave other hydrations waiting, they will see null
+            claim.complete(emptyMap())
+            throw e
+        }
+
+        return InstructionResults(batches, claim.await())
+    }
+
+    /**
+     * Hydrations of subscription events are always merged with the other events of their window,
+     * see [graphql.nadel.engine.NadelSubscriptionHydrationWindow].
+     *
+     * Hydrations that create virtual types are not merged, as their hydration details decide how the
+     * backing query is planned and a merged query is sent with the hydration details of one instruction.
+     */
+    context(NadelBatchHydratorContext)
+    private fun isMergeable(instruction: NadelBatchHydrationFieldInstruction): Boolean {
+        val isMergingOn = executionContext.batchHydrationMergePass != null
+            || executionContext.hints.batchHydrationMerging(instruction.backingService)
+
+        return isMergingOn && !executionBlueprint.hasVirtualTypes(instruction.location)
+    }
+
+    /**
+     * Queues the source inputs to be queried together with other hydrations of the result transform pass that
+     * query the same backing field, see [NadelBatchHydrationMerger].
+     *
+     * The source inputs are partitioned for this [instruction] before they are queued, so
+     * [graphql.nadel.hooks.NadelExecutionHooks.partitionBatchHydrationArgumentList] only sees the values of
+     * one instruction, no matter which instruction the merged query is sent with.
+     *
+     * Objects already claimed by other hydrations are not queued when memoization is on, see [executeMemoizedQueries].
+     *
+     * @return a function to await the results, or `null` to query without merging
+     */
+    context(NadelBatchHydratorContext)
+    private fun enqueueMergedQueries(
+        participant: NadelBatchHydrationMerger.Participant,
+        instruction: NadelBatchHydrationFieldInstruction,
+        sourceInputs: List<SourceInput>,
+    ): (suspend () -> InstructionResults)? {
+        val queryableInputs = sourceInputs
+            .filterIsInstance<SourceInput.Queryable>()
+            // We don't want to query for null values, we always map those to null
+            .filter {
+                it.sourceInputNode.value != null
+            }
+
+        val scope = NadelHydrationResultCache.getBatchScope(instruction, sourceField)
+        val claim = if (executionContext.hints.hydrationResultMemoization(instruction.backingService)) {
+            executionContext.hydrationResultCache.claimObjects(scope, keys = queryableInputs.map { it.indexKey })
+        } else {
+            null
+        }
+
+        val ownedSourceInputs = queryableInputs
+            .asSequence()
+            .filter { claim == null || claim.isOwned(it.indexKey) }
+            .map { it.sourceInputNode }
+            .toCollection(LinkedHashSet())
+            .toList()
+        val partitions = try {
+            if (ownedSourceInputs.isEmpty()) {
+                emptyList()
+            } else {
+                NadelNewBatchHydrationInputBuilder.getPartitions(
+                    hooks = executionContext.hooks,
+                    userContext = executionContext.userContext,
+                    instruction = instruction,
+                    sourceInputs = ownedSourceInputs,
+                )
+            }
+        } catch (e: Throwable) {
+            claim?.complete(emptyMap())
+            throw e
+        }
+
+        val mergedResult = participant.enqueue(
+            // Hydrations are only merged if they would have sent the same batches
+            key = "$scope${instruction.batchSize}",
+            partitions = partitions,
+        ) { mergedPartitions ->
+            val batches = if (mergedPartitions.isEmpty()) {
+                emptyList()
+            } else {
+                executeArgumentBatches(
+                    executionBlueprint = executionBlueprint,
+                    instruction = instruction,
+                    argBatches = NadelNewBatchHydrationInputBuilder.getInputValueBatches(
+                        instruction = instruction,
+                        hydrationField = sourceField,
+                        partitions = mergedPartitions,
+                    ),
+                )
+            }
+            // Must only index once, indexing can remove artificial fields from the result objects
+            NadelBatchHydrationMerger.Result(batches, getIndex(instruction, batches))
+        }
+
+        if (mergedResult == null) {
+            // Don't leave other hydrations waiting for the claimed objects
+            claim?.complete(emptyMap())
+            return null
+        }
+
+        return {
+            val result = try {
+                mergedResult()
+            } catch (e: Throwable) {
+                claim?.complete(emptyMap())
+                throw e
+            }
+
+            if (claim == null) {
+                InstructionResults(result.batches, result.index)
+            } else {
+                claim.complete(result.index)
+                InstructionResults(result.batches, claim.await())
+            }
+        }
+    }
+
     context(NadelBatchHydratorContext)
     private suspend fun executeQueries(
         executionBlueprint: NadelOverallExecutionBlueprint,
@@ -433,6 +631,18 @@ internal class NadelNewBatchHydrator(
             .toCollection(LinkedHashSet())
             .toList()
 
+        return executeQueryBatches(executionBlueprint, instruction, uniqueSourceInputs)
+    }
+
+    /**
+     * @param uniqueSourceInputs the non null source inputs to query for, without duplicates
+     */
+    context(NadelBatchHydratorContext)
+    private suspend fun executeQueryBatches(
+        executionBlueprint: NadelOverallExecutionBlueprint,
+        instruction: NadelBatchHydrationFieldInstruction,
+        uniqueSourceInputs: List<JsonNode>,
+    ): List<NadelResolvedObjectBatch> {
         val argBatches = NadelNewBatchHydrationInputBuilder.getInputValueBatches(
             hooks = executionContext.hooks,
             userContext = executionContext.userContext,
@@ -441,6 +651,15 @@ internal class NadelNewBatchHydrator(
             sourceInputs = uniqueSourceInputs,
         )
 
+        return executeArgumentBatches(executionBlueprint, instruction, argBatches)
+    }
+
+    context(NadelBatchHydratorContext)
+    private suspend fun executeArgumentBatches(
+        executionBlueprint: NadelOverallExecutionBlueprint,
+        instruction: NadelBatchHydrationFieldInstruction,
+        argBatches: List<NadelHydrationArgumentsBatch>,
+    ): List<NadelResolvedObjectBatch> {
         val queries = NadelHydrationFieldsBuilder
             .makeBatchBackingQueries(
                 executionHints = executionContext.hints,
@@ -453,7 +672,7 @@ internal class NadelNewBatchHydrator(
 
         return coroutineScope {
             queries
-                .map { query ->
+                .mapIndexed { index, query ->
                     async { // This async executes the batches in parallel i.e. executes hydration as Deferred/Future
                         val hydrationSourceService = executionBlueprint.getServiceOwning(instruction.location)!!
                         val hydrationBackingField =
@@ -473,6 +692,7 @@ internal class NadelNewBatchHydrator(
                             topLevelField = query,
                             executionContext = executionContext,
                             hydrationDetails = serviceHydrationDetails,
+                            batchSize = argBatches[index].sourceInputs.size,
                         )
                     }
                 }
@@ -599,9 +819,7 @@ internal class NadelNewBatchHydrator(
                 it.condition.evaluate(sourceInput.value)
             } else {
                 val resultQueryPath = aliasHelper.getQueryPath(condition.fieldPath)
-                val node = JsonNodeExtractor.getNodesAt(sourceObject, resultQueryPath)
-                    .emptyOrSingle()
-                it.condition.evaluate(node?.value)
+                it.condition.evaluate(NadelJsonValues.getValueAt(sourceObject.value, resultQueryPath))
             }
         }
     }
@@ -624,9 +842,7 @@ internal class NadelNewBatchHydrator(
         return instructions.firstOrNull {
             // Note: due to the validation, all instructions in here have a condition, so can call explicitly
             val resultQueryPath = aliasHelper.getQueryPath(it.condition!!.fieldPath)
-            val node = JsonNodeExtractor.getNodesAt(sourceObject, resultQueryPath)
-                .emptyOrSingle()
-            it.condition.evaluate(node?.value)
+            it.condition.evaluate(NadelJsonValues.getValueAt(sourceObject.value, resultQueryPath))
         }
     }
 
@@ -683,13 +899,11 @@ internal class NadelNewBatchHydrator(
     }
 
     context(NadelBatchHydratorContext)
-    private fun getIndexedResultsByInstruction(
-        resultsByInstruction: Map<NadelBatchHydrationFieldInstruction, List<NadelResolvedObjectBatch>>,
-    ): Map<NadelBatchHydrationFieldInstruction, Map<NadelBatchHydrationIndexKey, JsonNode>> {
-        return resultsByInstruction
-            .mapValues { (instruction, results) ->
-                getIndexer(instruction).getIndex(results)
-            }
+    private fun getIndex(
+        instruction: NadelBatchHydrationFieldInstruction,
+        batches: List<NadelResolvedObjectBatch>,
+    ): Map<NadelBatchHydrationIndexKey, JsonNode> {
+        return getIndexer(instruction).getIndex(batches)
     }
 }
 
@@ -6,9 +6,10 @@ import graphql.nadel.ServiceExecutionHydrationDetails
 import graphql.nadel.ServiceExecutionResult
 import graphql.nadel.engine.NadelExecutionContext
 import graphql.nadel.engine.NadelServiceExecutionContext
+import graphql.nadel.engine.blueprint.NadelFieldInstruction
 import graphql.nadel.engine.blueprint.NadelOverallExecutionBlueprint
 import graphql.nadel.engine.blueprint.NadelPartitionInstruction
-import graphql.nadel.engine.transform.NadelTransform
+import graphql.nadel.engine.transform.NadelFieldInstructionTransform
 import graphql.nadel.engine.transform.NadelTransformFieldResult
 import graphql.nadel.engine.transform.NadelTransformServiceExecutionContext
 import graphql.nadel.engine.transform.partition.NadelPartitionMutationPayloadMerger.isMutationPayloadLike
@@ -31,7 +32,7 @@ import kotlinx.coroutines.awaitAll
 internal class NadelPartitionTransform(
     private val engine: NextgenEngine,
     private val partitionTransformHook: NadelPartitionTransformHook,
-) : NadelTransform<NadelPartitionTransform.State> {
+) : NadelFieldInstructionTransform<NadelPartitionTransform.State> {
     data class State(
         val executionContext: NadelExecutionContext,
         val fieldPartitionContext: Any,
@@ -40,6 +41,13 @@ internal class NadelPartitionTransform(
         val error: Throwable? = null,
     )
 
+    override val fieldInstructionType: Class<out NadelFieldInstruction>
+        get() = NadelPartitionInstruction::class.java
+
+    // Partitions depend on argument values and the partition hook
+    override val isRequestDependent: Boolean
+        get() = true
+
     override suspend fun isApplicable(
         executionContext: NadelExecutionContext,
         serviceExecutionContext: NadelServiceExecutionContext,
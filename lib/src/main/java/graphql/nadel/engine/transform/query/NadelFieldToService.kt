@@ -46,16 +46,38 @@ internal class NadelFieldToService(
         // comes from NadelExecutionHooks.getShardingTarget and is used purely as an opaque grouping key.
         val result = mutableListOf<NadelFieldAndService>()
         val batchedByGroup = LinkedHashMap<NadelBatchGroup, MutableList<ExecutableNormalizedField>>()
+
+        fun addToBatch(field: ExecutableNormalizedField, service: Service, shardingTarget: Any?) {
+            batchedByGroup.getOrPut(NadelBatchGroup(service, shardingTarget)) { mutableListOf() }.add(field)
+        }
+
         for (topLevelField in query.topLevelFields) {
             if (isNamespacedField(topLevelField)) {
-                result += getServicePairsForNamespacedFields(topLevelField)
+                // Each entry is a copy of the namespace field holding only the children owned by one service,
+                // so it can join that service's batch next to other namespaces and plain root fields.
+                // The namespace objects are merged back together by NadelResultMerger.
+                for (namespacedFieldAndService in getServicePairsForNamespacedFields(topLevelField)) {
+                    val service = namespacedFieldAndService.service
+                    val namespacedField = namespacedFieldAndService.fields.single()
+                    val shardingTargets = if (canBatchNamespacedField(service, executionHints)) {
+                        getShardingTargets(executionContext, service, namespacedField)
+                    } else {
+                        null
+                    }
+                    // The children may be routed to different shards, then the copy is sent on its own
+                    if (shardingTargets != null && shardingTargets.size == 1) {
+                        addToBatch(namespacedField, service, shardingTargets.single())
+                    } else {
+                        result += namespacedFieldAndService
+                    }
+                }
                 continue
             }
 
             val service = getService(topLevelField)
             if (canBatchRootField(topLevelField, service, executionHints)) {
                 val shardingTarget = executionContext.hooks.getShardingTarget(executionContext, service, topLevelField)
-                batchedByGroup.getOrPut(NadelBatchGroup(service, shardingTarget)) { mutableListOf() }.add(topLevelField)
+                addToBatch(topLevelField, service, shardingTarget)
             } else {
                 result += NadelFieldAndService(fields = listOf(topLevelField), service = service)
             }
@@ -86,6 +108,35 @@ internal class NadelFieldToService(
         return !dynamicServiceResolution.needsDynamicServiceResolution(field)
     }
 
+    /**
+     * Namespaced fields are batched under the same [NadelExecutionHints.batchRootFields] opt-in as root fields.
+     *
+     * `__typename` children are answered by the [introspectionService] so they are never batched.
+     */
+    private fun canBatchNamespacedField(
+        service: Service,
+        executionHints: NadelExecutionHints,
+    ): Boolean {
+        return service !== introspectionService && executionHints.batchRootFields(service)
+    }
+
+    /**
+     * The shard arguments of a namespaced field are on its children e.g. `issue(cloudId: ...)` in `jira { issue }`,
+     * so the sharding target of each child is asked for.
+     *
+     * @return the distinct sharding targets of the children of the [namespacedField]
+     */
+    private fun getShardingTargets(
+        executionContext: NadelExecutionContext,
+        service: Service,
+        namespacedField: ExecutableNormalizedField,
+    ): Set<Any?> {
+        return namespacedField.children
+            .mapTo(HashSet()) { childField ->
+                executionContext.hooks.getShardingTarget(executionContext, service, childField)
+            }
+    }
+
     /**
      * Returns the dynamically resolved service for the field, if it is annotated with @dynamicServiceResolution,
      * otherwise returns the originalService.
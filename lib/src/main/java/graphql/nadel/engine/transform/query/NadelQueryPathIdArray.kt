@@ -0,0 +1,43 @@
+package graphql.nadel.engine.transform.query
+
+import java.util.concurrent.atomic.AtomicReferenceArray
+
+/**
+ * A thread safe map from the ids of [NadelQueryPathIds] to values, backed by an array.
+ *
+ * Reads do not lock, the array is only replaced when a value is set for an id beyond its end.
+ */
+internal class NadelQueryPathIdArray<T : Any>(initialSize: Int) {
+    @Volatile
+    private var values = AtomicReferenceArray<T>(initialSize.coerceAtLeast(1))
+
+    operator fun get(id: Int): T? {
+        val values = values
+        return if (id < values.length()) {
+            values.get(id)
+        } else {
+            null
+        }
+    }
+
+    operator fun set(id: Int, value: T) {
+        synchronized(this) {
+            var values = values
+            if (id >= values.length()) {
+                val grown = AtomicReferenceArray<T>(maxOf(id + 1, values.length() * 2))
+                for (index in 0..<values.length()) {
+                    grown.set(index, values.get(index))
+                }
+                this.values = grown
+                values = grown
+            }
+            values.set(id, value)
+        }
+    }
+
+    inline fun getOrPut(id: Int, makeValue: () -> T): T {
+        return get(id) ?: makeValue().also {
+            set(id, it)
+        }
+    }
+}
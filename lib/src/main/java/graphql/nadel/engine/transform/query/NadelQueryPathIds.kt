@@ -0,0 +1,77 @@
+package graphql.nadel.engine.transform.query
+
+import graphql.normalized.ExecutableNormalizedField
+import graphql.normalized.ExecutableNormalizedOperation
+import java.util.concurrent.ConcurrentHashMap
+import java.util.concurrent.atomic.AtomicInteger
+
+/**
+ * Interns [NadelQueryPath]s into [Int] ids, so that caches can be arrays indexed by id, see [NadelQueryPathIdArray],
+ * instead of maps that hash every segment of a [NadelQueryPath] on each lookup.
+ *
+ * The paths are stored as a trie, looking up the id of a path only hashes its segments which cache their hash.
+ *
+ * Ids are only unique within one [NadelQueryPathIds].
+ */
+internal class NadelQueryPathIds() {
+    /**
+     * Assigns the ids of the result keys of every field in the [operation] up front.
+     *
+     * Other paths e.g. of artificial fields get their id the first time they are looked up.
+     */
+    constructor(operation: ExecutableNormalizedOperation) : this() {
+        operation.topLevelFields.forEach { field ->
+            add(root, field)
+        }
+    }
+
+    inner class Node internal constructor(val id: Int) {
+        private val children = ConcurrentHashMap<String, Node>()
+
+        fun getChild(segment: String): Node {
+            return children[segment]
+                ?: children.computeIfAbsent(segment) {
+                    Node(nextId.getAndIncrement())
+                }
+        }
+    }
+
+    private val nextId = AtomicInteger(ROOT_ID)
+
+    /**
+     * The node of [NadelQueryPath.root].
+     */
+    val root = Node(nextId.getAndIncrement())
+
+    /**
+     * The number of ids assigned so far, ids are always less than this.
+     */
+    val size: Int
+        get() = nextId.get()
+
+    fun getId(queryPath: NadelQueryPath): Int {
+        return getNode(queryPath.segments, fromIndex = 0).id
+    }
+
+    /**
+     * @return the node of the path made of [segments] from [fromIndex] onwards
+     */
+    fun getNode(segments: List<String>, fromIndex: Int): Node {
+        var node = root
+        for (index in fromIndex..<segments.size) {
+            node = node.getChild(segments[index])
+        }
+        return node
+    }
+
+    private fun add(parent: Node, field: ExecutableNormalizedField) {
+        val node = parent.getChild(field.resultKey)
+        field.children.forEach { child ->
+            add(node, child)
+        }
+    }
+
+    companion object {
+        const val ROOT_ID = 0
+    }
+}
@@ -0,0 +1,82 @@
+package graphql.nadel.engine.transform.result
+
+import graphql.nadel.engine.transform.query.NadelQueryPath
+import graphql.nadel.engine.util.AnyList
+import graphql.nadel.engine.util.AnyMap
+import graphql.nadel.engine.util.MutableJsonMap
+import graphql.nadel.engine.util.queryPath
+import graphql.normalized.ExecutableNormalizedField
+
+/**
+ * Applies [NadelResultVisitor]s and removes artificial fields in a single walk over the result.
+ *
+ * Visitors and removals are registered by query path. The walk only descends into the parts of the
+ * result that have something registered below them. The children of an object are rewritten before
+ * the object itself, and the visitors of an object run before its artificial fields are removed, so
+ * visitors can still read the artificial fields e.g. the aliased field of a rename.
+ *
+ * @param pathPrefix for incremental (defer) payloads, the prefix to remove from registered paths
+ */
+internal class NadelResultRewriter(
+    private val pathPrefix: NadelQueryPath? = null,
+) {
+    private class Node {
+        val children = LinkedHashMap<String, Node>()
+        val visitors = ArrayList<NadelResultVisitor>()
+        val removals = ArrayList<String>()
+    }
+
+    private val root = Node()
+
+    fun addVisitor(queryPath: NadelQueryPath, visitor: NadelResultVisitor) {
+        getNode(queryPath)?.visitors?.add(visitor)
+    }
+
+    fun addArtificialFieldRemovals(artificialFields: List<ExecutableNormalizedField>) {
+        artificialFields.forEach { field ->
+            getNode(field.queryPath.dropLast(1))?.removals?.add(field.resultKey)
+        }
+    }
+
+    fun rewrite(data: MutableJsonMap) {
+        rewrite(data, root)
+    }
+
+    private fun getNode(queryPath: NadelQueryPath): Node? {
+        val segments = if (pathPrefix == null) {
+            queryPath.segments
+        } else if (queryPath.startsWith(pathPrefix.segments)) {
+            queryPath.removePrefix(pathPrefix.segments).segments
+        } else {
+            return null
+        }
+
+        return segments.fold(root) { node, segment ->
+            node.children.getOrPut(segment, ::Node)
+        }
+    }
+
+    private fun rewriteValue(value: Any?, node: Node) {
+        when (value) {
+            is AnyMap -> {
+                @Suppress("UNCHECKED_CAST")
+                rewrite(value.asMutable() as MutableJsonMap, node)
+            }
+            is AnyList -> value.forEach { element ->
+                rewriteValue(element, node)
+            }
+        }
+    }
+
+    private fun rewrite(parent: MutableJsonMap, node: Node) {
+        for ((segment, child) in node.children) {
+            rewriteValue(parent[segment], child)
+        }
+        for (visitor in node.visitors) {
+            visitor.visit(parent)
+        }
+        for (key in node.removals) {
+            parent.remove(key)
+        }
+    }
+}
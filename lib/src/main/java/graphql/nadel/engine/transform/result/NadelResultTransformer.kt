@@ -8,8 +8,12 @@ import graphql.nadel.engine.NadelExecutionContext
 import graphql.nadel.engine.NadelServiceExecutionContext
 import graphql.nadel.engine.blueprint.NadelOverallExecutionBlueprint
 import graphql.nadel.engine.plan.NadelExecutionPlan
+import graphql.nadel.engine.transform.NadelTransform
+import graphql.nadel.engine.transform.hydration.batch.NadelBatchHydrationMerger
+import graphql.nadel.engine.transform.hydration.batch.NadelBatchHydrationTransform
 import graphql.nadel.engine.transform.query.NadelQueryPath
 import graphql.nadel.engine.transform.result.json.JsonNodes
+import graphql.nadel.engine.transform.result.json.NadelCachingJsonNodes
 import graphql.nadel.engine.util.JsonMap
 import graphql.nadel.engine.util.MutableJsonMap
 import graphql.nadel.engine.util.queryPath
@@ -30,7 +34,8 @@ internal class NadelResultTransformer(private val executionBlueprint: NadelOvera
         service: Service,
         result: ServiceExecutionResult,
     ): ServiceExecutionResult {
-        val nodes = JsonNodes(result.data)
+        val nodes = JsonNodes(result.data, pathPrefix = null, executionContext.queryPathIds)
+        val rewriter = makeRewriter(executionContext, service, pathPrefix = null)
         val instructions = getMutationInstructions(
             executionContext,
             serviceExecutionContext,
@@ -39,8 +44,10 @@ internal class NadelResultTransformer(private val executionBlueprint: NadelOvera
             overallToUnderlyingFields,
             service,
             result,
-            nodes
+            nodes,
+            rewriter,
         )
+        rewriter?.rewrite(result.data)
         mutate(result, instructions)
         return result
     }
@@ -55,10 +62,14 @@ internal class NadelResultTransformer(private val executionBlueprint: NadelOvera
         result: ServiceExecutionResult,
         deferPayload: DeferPayload,
     ): DeferPayload {
+        val data = deferPayload.getData<JsonMap?>()
+        val pathPrefix = NadelQueryPath(deferPayload.path.filterIsInstance<String>())
         val nodes = JsonNodes(
-            deferPayload.getData<JsonMap?>() ?: emptyMap(),
-            pathPrefix = NadelQueryPath(deferPayload.path.filterIsInstance<String>())
+            data ?: emptyMap(),
+            pathPrefix = pathPrefix,
+            executionContext.queryPathIds,
         )
+        val rewriter = makeRewriter(executionContext, service, pathPrefix)
         val instructions = getMutationInstructions(
             executionContext,
             serviceExecutionContext,
@@ -67,8 +78,12 @@ internal class NadelResultTransformer(private val executionBlueprint: NadelOvera
             overallToUnderlyingFields,
             service,
             result,
-            nodes
+            nodes,
+            rewriter,
         )
+        if (data != null) {
+            rewriter?.rewrite(data.asMutable())
+        }
         mutate(deferPayload, instructions)
         return deferPayload
     }
@@ -82,9 +97,22 @@ internal class NadelResultTransformer(private val executionBlueprint: NadelOvera
         service: Service,
         result: ServiceExecutionResult,
         nodes: JsonNodes,
+        rewriter: NadelResultRewriter?,
     ): List<NadelResultInstruction> {
         val asyncInstructions = ArrayList<Deferred<List<NadelResultInstruction>>>()
         val contextByTransform = executionPlan.transformContexts
+        // Subscription events join the pass of their window instead of making their own
+        val batchHydrationMergePass = executionContext.batchHydrationMergePass
+        val batchHydrationMerger = if (batchHydrationMergePass != null) {
+            null
+        } else if (executionContext.hints.batchHydrationMerging()) {
+            NadelBatchHydrationMerger()
+        } else {
+            null
+        }
+        if (rewriter == null && nodes is NadelCachingJsonNodes) {
+            nodes.index(getIndexedQueryPaths(executionPlan, artificialFields, overallToUnderlyingFields))
+        }
         coroutineScope {
             executionContext.timer.batch { timer ->
                 for ((field, steps) in executionPlan.transformationSteps) {
@@ -93,33 +121,73 @@ internal class NadelResultTransformer(private val executionBlueprint: NadelOvera
 
                     for (step in steps) {
                         val transformServiceExecutionContext = contextByTransform[step.transform]
+                        if (rewriter != null) {
+                            val visitor = step.transform.getResultVisitor(
+                                executionContext,
+                                serviceExecutionContext,
+                                executionBlueprint,
+                                service,
+                                field,
+                                underlyingFields.first().parent,
+                                step.state,
+                                transformServiceExecutionContext,
+                            )
+                            if (visitor != null) {
+                                rewriter.addVisitor(
+                                    queryPath = underlyingFields.first().parent?.queryPath ?: NadelQueryPath.root,
+                                    visitor = visitor,
+                                )
+                                continue
+                            }
+                        }
+                        val transform: NadelTransform<*> = step.transform
+                        val batchHydrationMergeParticipant = if (transform is NadelBatchHydrationTransform) {
+                            batchHydrationMergePass?.join() ?: batchHydrationMerger?.join()
+                        } else {
+                            null
+                        }
+                        val stepExecutionContext = if (batchHydrationMergeParticipant == null) {
+                            executionContext
+                        } else {
+                            executionContext.copy(batchHydrationMergeParticipant = batchHydrationMergeParticipant)
+                        }
                         asyncInstructions.add(
                             async {
-                                timer.time(step.resultTransformTimingStep) {
-                                    step.transform.getResultInstructions(
-                                        executionContext,
-                                        serviceExecutionContext,
-                                        executionBlueprint,
-                                        service,
-                                        field,
-                                        underlyingFields.first().parent,
-                                        result,
-                                        step.state,
-                                        nodes,
-                                        transformServiceExecutionContext
-                                    )
+                                try {
+                                    timer.time(step.resultTransformTimingStep) {
+                                        step.transform.getResultInstructions(
+                                            stepExecutionContext,
+                                            serviceExecutionContext,
+                                            executionBlueprint,
+                                            service,
+                                            field,
+                                            underlyingFields.first().parent,
+                                            result,
+                                            step.state,
+                                            nodes,
+                                            transformServiceExecutionContext
+                                        )
+                                    }
+                                } finally {
+                                    batchHydrationMergeParticipant?.arrive()
                                 }
                             }
                         )
                     }
                 }
             }
+            batchHydrationMerger?.seal()
+            batchHydrationMergePass?.arrive()
 
-            asyncInstructions.add(
-                async {
-                    getRemoveArtificialFieldInstructions(artificialFields, nodes)
-                }
-            )
+            if (rewriter == null) {
+                asyncInstructions.add(
+                    async {
+                        getRemoveArtificialFieldInstructions(artificialFields, nodes)
+                    }
+                )
+            } else {
+                rewriter.addArtificialFieldRemovals(artificialFields)
+            }
         }
         val instructions = asyncInstructions.awaitAll().flatten()
 
@@ -141,6 +209,44 @@ internal class NadelResultTransformer(private val executionBlueprint: NadelOvera
         return instructions
     }
 
+    /**
+     * @return the query paths whose nodes the transforms and the artificial field removals look up,
+     * so they can all be collected in one traversal, see [NadelCachingJsonNodes.index]
+     */
+    private fun getIndexedQueryPaths(
+        executionPlan: NadelExecutionPlan,
+        artificialFields: List<ExecutableNormalizedField>,
+        overallToUnderlyingFields: Map<ExecutableNormalizedField, List<ExecutableNormalizedField>>,
+    ): Set<NadelQueryPath> {
+        val queryPaths = HashSet<NadelQueryPath>()
+        for ((field, steps) in executionPlan.transformationSteps) {
+            val underlyingFields = overallToUnderlyingFields[field]
+            if (underlyingFields.isNullOrEmpty() || steps.isEmpty()) continue
+
+            queryPaths.add(underlyingFields.first().parent?.queryPath ?: NadelQueryPath.root)
+        }
+        artificialFields.forEach { field ->
+            queryPaths.add(field.queryPath.dropLast(1))
+        }
+        return queryPaths
+    }
+
+    /**
+     * @return the [NadelResultRewriter] to register [NadelResultVisitor]s to, or `null` if the result
+     * should only be transformed via [NadelResultInstruction]s
+     */
+    private fun makeRewriter(
+        executionContext: NadelExecutionContext,
+        service: Service,
+        pathPrefix: NadelQueryPath?,
+    ): NadelResultRewriter? {
+        return if (executionContext.hints.singlePassResultTransform(service)) {
+            NadelResultRewriter(pathPrefix)
+        } else {
+            null
+        }
+    }
+
     private fun mutate(result: ServiceExecutionResult, instructions: List<NadelResultInstruction>) {
         instructions.forEach { transformation ->
             when (transformation) {
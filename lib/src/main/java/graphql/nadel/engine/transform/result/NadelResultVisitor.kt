@@ -0,0 +1,16 @@
+package graphql.nadel.engine.transform.result
+
+import graphql.nadel.engine.transform.NadelTransform
+import graphql.nadel.engine.util.MutableJsonMap
+
+/**
+ * Rewrites the result one object at a time, see [NadelTransform.getResultVisitor].
+ */
+fun interface NadelResultVisitor {
+    /**
+     * Invoked once for every object in the result at the query path the visitor was registered for.
+     *
+     * The children of [parent] have already been visited.
+     */
+    fun visit(parent: MutableJsonMap)
+}
@@ -1,5 +1,6 @@
 package graphql.nadel.engine.transform.result.json
 
+import graphql.nadel.NadelRawJson
 import graphql.nadel.engine.util.AnyList
 import graphql.nadel.engine.util.AnyMap
 
@@ -10,7 +11,8 @@ import graphql.nadel.engine.util.AnyMap
  */
 data class JsonNode(val value: Any?) {
     init {
-        require(value == null || value is AnyMap || value is AnyList || value is Number || value is Boolean || value is String)
+        // Only checked when assertions are on, as this runs for every node
+        assert(value == null || value is AnyMap || value is AnyList || value is Number || value is Boolean || value is String || value is NadelRawJson)
     }
 
     companion object {
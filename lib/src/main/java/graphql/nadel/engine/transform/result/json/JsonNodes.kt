@@ -1,10 +1,11 @@
 package graphql.nadel.engine.transform.result.json
 
 import graphql.nadel.engine.transform.query.NadelQueryPath
+import graphql.nadel.engine.transform.query.NadelQueryPathIdArray
+import graphql.nadel.engine.transform.query.NadelQueryPathIds
 import graphql.nadel.engine.util.AnyList
 import graphql.nadel.engine.util.AnyMap
 import graphql.nadel.engine.util.JsonMap
-import java.util.concurrent.ConcurrentHashMap
 
 /**
  * Generic interface to extract a [JsonNode] from the result for a given [NadelQueryPath].
@@ -19,119 +20,195 @@ interface JsonNodes {
     fun getNodesAt(queryPath: NadelQueryPath, flatten: Boolean = false): List<JsonNode>
 
     companion object {
-        internal var nodesFactory: (JsonMap, NadelQueryPath?) -> JsonNodes = { data, pathPrefix ->
-            NadelCachingJsonNodes(data, pathPrefix)
-        }
-        
+        internal var nodesFactory: (JsonMap, NadelQueryPath?, NadelQueryPathIds) -> JsonNodes =
+            { data, pathPrefix, queryPathIds ->
+                NadelCachingJsonNodes(data, pathPrefix, queryPathIds)
+            }
+
         /**
          * @param data The JSON map data.
          * @param pathPrefix For incremental (defer) payloads, this is the prefix that needs to be removed from the path.
          */
         operator fun invoke(data: JsonMap, pathPrefix: NadelQueryPath? = null): JsonNodes {
-            return nodesFactory(data, pathPrefix)
+            return nodesFactory(data, pathPrefix, NadelQueryPathIds())
+        }
+
+        /**
+         * @param queryPathIds the ids of the query paths of the operation, see [NadelQueryPathIds].
+         */
+        internal operator fun invoke(
+            data: JsonMap,
+            pathPrefix: NadelQueryPath?,
+            queryPathIds: NadelQueryPathIds,
+        ): JsonNodes {
+            return nodesFactory(data, pathPrefix, queryPathIds)
         }
     }
 }
 
 /**
  * Utility class to extract data out of the given [data].
+ *
+ * Navigates and caches the raw values, see [NadelJsonValues], only the nodes returned are wrapped in [JsonNode]s.
+ * The caches are indexed by the ids of the query paths, see [NadelQueryPathIds].
  */
-class NadelCachingJsonNodes(
+class NadelCachingJsonNodes internal constructor(
     private val data: JsonMap,
-    private val pathPrefix: NadelQueryPath? = null, // for incremental (defer) payloads, we pass in the prefix we need to remove from path
+    private val pathPrefix: NadelQueryPath?, // for incremental (defer) payloads, we pass in the prefix we need to remove from path
+    private val queryPathIds: NadelQueryPathIds,
 ) : JsonNodes {
-    private val nodes = ConcurrentHashMap<NadelQueryPath, List<JsonNode>>()
+    constructor(
+        data: JsonMap,
+        pathPrefix: NadelQueryPath? = null,
+    ) : this(data, pathPrefix, NadelQueryPathIds())
 
-    override fun getNodesAt(queryPath: NadelQueryPath, flatten: Boolean): List<JsonNode> {
-        val rootNode = JsonNode(data)
+    /**
+     * The values at a query path with [List]s flattened, shared by the lookups of the paths below it.
+     */
+    private val flatValues = NadelQueryPathIdArray<List<Any?>>(queryPathIds.size)
+
+    /**
+     * The [flatValues] as [JsonNode]s, only for the query paths that were asked for.
+     */
+    private val flatNodes = NadelQueryPathIdArray<List<JsonNode>>(queryPathIds.size)
+
+    private val rootValues = listOf<Any?>(data)
 
+    override fun getNodesAt(queryPath: NadelQueryPath, flatten: Boolean): List<JsonNode> {
         return if (pathPrefix == null) {
-            getNodesAt(rootNode, queryPath, flatten)
+            getNodesAt(queryPath.segments, fromIndex = 0, flatten)
         } else if (queryPath.startsWith(pathPrefix.segments)) {
-            getNodesAt(rootNode, queryPath.removePrefix(pathPrefix.segments), flatten)
+            getNodesAt(queryPath.segments, fromIndex = pathPrefix.size, flatten)
         } else {
             emptyList()
         }
     }
 
     /**
-     * Extracts the nodes at the given query selection path.
+     * Extracts the nodes at the query selection path made of [segments] from [fromIndex] onwards.
      */
-    private fun getNodesAt(rootNode: JsonNode, queryPath: NadelQueryPath, flatten: Boolean = false): List<JsonNode> {
-
-        var queue = listOf(rootNode)
-
-        // todo work backwards here instead of forwards
-        for (index in queryPath.segments.indices) {
-            val subPath = NadelQueryPath(
-                queryPath.segments.subList(0, index + 1) // +1 as endIndex is exclusive
-            )
-            val hasMore = index < queryPath.segments.lastIndex
-            val pathSegment = queryPath.segments[index]
-
-            queue = if (hasMore || flatten) {
-                nodes.computeIfAbsent(subPath) {
-                    queue.flatMap { node ->
-                        getNodes(node, pathSegment, flattenLists = true)
-                    }
-                }
-            } else {
-                queue.flatMap { node ->
-                    getNodes(node, pathSegment, flattenLists = flatten)
-                }
-            }
+    private fun getNodesAt(segments: List<String>, fromIndex: Int, flatten: Boolean): List<JsonNode> {
+        if (fromIndex == segments.size) {
+            return toNodes(rootValues)
         }
 
-        return queue
-    }
+        // Walk down to the parent of the last segment, each step reuses the values of the step above
+        var node = queryPathIds.root
+        var parents = rootValues
+        for (index in fromIndex..<segments.lastIndex) {
+            node = node.getChild(segments[index])
+            val grandparents = parents
+            parents = flatValues.getOrPut(node.id) {
+                getChildValues(grandparents, segments[index], flatten = true)
+            }
+        }
 
-    private fun getNodes(node: JsonNode, segment: String, flattenLists: Boolean): Sequence<JsonNode> {
-        return when (node.value) {
-            is AnyMap -> getNodes(node.value, segment, flattenLists)
-            null -> emptySequence()
-            else -> throw IllegalNodeTypeException(node)
+        val segment = segments.last()
+        return if (flatten) {
+            node = node.getChild(segment)
+            flatNodes.getOrPut(node.id) {
+                toNodes(
+                    flatValues.getOrPut(node.id) {
+                        getChildValues(parents, segment, flatten = true)
+                    },
+                )
+            }
+        } else {
+            toNodes(getChildValues(parents, segment, flatten = false))
         }
     }
 
-    private fun getNodes(
-        map: AnyMap,
-        segment: String,
-        flattenLists: Boolean,
-    ): Sequence<JsonNode> {
-        val value = map[segment]
+    /**
+     * Collects the nodes at all the [queryPaths] in one depth first traversal of [data], as
+     * `getNodesAt(queryPath, flatten = true)` would for each of them.
+     *
+     * Call this before the nodes are looked up concurrently, those lookups then only read the caches.
+     */
+    internal fun index(queryPaths: Collection<NadelQueryPath>) {
+        val root = IndexTarget(queryPathIds.root)
+        for (queryPath in queryPaths) {
+            val fromIndex = when {
+                pathPrefix == null -> 0
+                queryPath.startsWith(pathPrefix.segments) -> pathPrefix.size
+                else -> continue
+            }
+
+            var target = root
+            for (index in fromIndex..<queryPath.size) {
+                target = target.getChild(queryPath.segments[index])
+            }
+            target.isRequested = true
+        }
 
-        // We flatten lists as these nodes contribute to the BFS queue
-        if (value is AnyList && flattenLists) {
-            return getFlatNodes(value)
+        try {
+            collectChildren(data, root)
+        } catch (e: IllegalNodeTypeException) {
+            // Leave it to the lookup of the transform that asked for the path to throw
+            return
         }
 
-        return sequenceOf(
-            JsonNode(value = value),
-        )
+        storeChildren(root)
     }
 
     /**
-     * Collects [JsonMap] nodes inside a [List]. Effectively we call this function to remove
-     * traces of [List]s.
-     *
-     * For example for the path /users we return the following nodes:
-     *
-     * `/users/[0]`
-     *
-     * `/users/[1]`
-     *
-     * etc.
+     * A query path to collect in [index].
      */
-    private fun getFlatNodes(
-        values: AnyList,
-    ): Sequence<JsonNode> {
-        return values
-            .asSequence()
-            .flatMap { value ->
-                when (value) {
-                    is AnyList -> getFlatNodes(value)
-                    else -> sequenceOf(JsonNode(value = value))
+    private class IndexTarget(val node: NadelQueryPathIds.Node) {
+        val children = LinkedHashMap<String, IndexTarget>()
+        val values = ArrayList<Any?>()
+        var isRequested = false
+
+        fun getChild(segment: String): IndexTarget {
+            return children.getOrPut(segment) {
+                IndexTarget(node.getChild(segment))
+            }
+        }
+    }
+
+    private fun collectChildren(parent: Any?, target: IndexTarget) {
+        when (parent) {
+            is AnyMap -> {
+                for ((segment, child) in target.children) {
+                    collectValue(parent[segment], child)
                 }
             }
+            null -> {}
+            else -> throw IllegalNodeTypeException(JsonNode(parent))
+        }
+    }
+
+    private fun collectValue(value: Any?, target: IndexTarget) {
+        if (value is AnyList) {
+            for (element in value) {
+                collectValue(element, target)
+            }
+        } else {
+            target.values.add(value)
+            if (target.children.isNotEmpty()) {
+                collectChildren(value, target)
+            }
+        }
+    }
+
+    private fun storeChildren(target: IndexTarget) {
+        for (child in target.children.values) {
+            flatValues[child.node.id] = child.values
+            if (child.isRequested) {
+                flatNodes[child.node.id] = toNodes(child.values)
+            }
+            storeChildren(child)
+        }
+    }
+
+    private fun getChildValues(parents: List<Any?>, segment: String, flatten: Boolean): List<Any?> {
+        val values = ArrayList<Any?>(parents.size)
+        for (parent in parents) {
+            NadelJsonValues.collectChildValues(parent, segment, flatten, values)
+        }
+        return values
+    }
+
+    private fun toNodes(values: List<Any?>): List<JsonNode> {
+        return values.mapTo(ArrayList(values.size), ::JsonNode)
     }
 }
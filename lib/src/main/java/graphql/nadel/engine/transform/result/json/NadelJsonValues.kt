@@ -0,0 +1,125 @@
+package graphql.nadel.engine.transform.result.json
+
+import graphql.nadel.engine.transform.query.NadelQueryPath
+import graphql.nadel.engine.util.AnyList
+import graphql.nadel.engine.util.AnyMap
+
+/**
+ * Navigates the result like [JsonNodeExtractor] but on the raw values, without wrapping every
+ * value that is visited in a [JsonNode].
+ *
+ * The engine uses this internally, [JsonNode] is only created for values that are handed to
+ * the [JsonNodes] API, hooks or [graphql.nadel.engine.transform.result.NadelResultInstruction]s.
+ */
+internal object NadelJsonValues {
+    /**
+     * Extracts the values at the given query selection path, in the same order as [JsonNodeExtractor.getNodesAt].
+     *
+     * @param flatten whether to flatten the [List]s at the end of the [queryPath], lists along the path
+     * are always flattened
+     */
+    fun getValuesAt(root: Any?, queryPath: NadelQueryPath, flatten: Boolean = false): List<Any?> {
+        val values = ArrayList<Any?>()
+        collectValuesAt(root, queryPath.segments, index = 0, flatten, values)
+        return values
+    }
+
+    /**
+     * Gets the value of [segment] from [parent] into [values], like the last segment of [getValuesAt].
+     */
+    fun collectChildValues(parent: Any?, segment: String, flatten: Boolean, values: MutableList<Any?>) {
+        val child = when (parent) {
+            is AnyMap -> parent[segment]
+            null -> return
+            else -> throw IllegalNodeTypeException(JsonNode(parent))
+        }
+
+        if (flatten && child is AnyList) {
+            collectFlatValues(child, values)
+        } else {
+            values.add(child)
+        }
+    }
+
+    /**
+     * @param index the index of the segment of [segments] to get from [value]
+     */
+    private fun collectValuesAt(
+        value: Any?,
+        segments: List<String>,
+        index: Int,
+        flatten: Boolean,
+        values: MutableList<Any?>,
+    ) {
+        if (index == segments.size) {
+            if (flatten && value is AnyList) {
+                collectFlatValues(value, values)
+            } else {
+                values.add(value)
+            }
+            return
+        }
+
+        val child = when (value) {
+            is AnyMap -> value[segments[index]]
+            null -> return
+            else -> throw IllegalNodeTypeException(JsonNode(value))
+        }
+
+        if (child is AnyList && index < segments.lastIndex) {
+            collectFlatValuesAt(child, segments, index + 1, flatten, values)
+        } else {
+            collectValuesAt(child, segments, index + 1, flatten, values)
+        }
+    }
+
+    /**
+     * Use this instead of `getNodesAt(…).emptyOrSingle()?.value`, it does not allocate unless
+     * there is a [List] along the [queryPath].
+     *
+     * @return the only value at the [queryPath], or `null` if there is none
+     */
+    fun getValueAt(root: Any?, queryPath: NadelQueryPath): Any? {
+        var value = root
+        for (segment in queryPath.segments) {
+            value = when (value) {
+                is AnyMap -> value[segment]
+                null -> return null
+                is AnyList -> {
+                    // Rare, fall back so there is exactly one value or an error as before
+                    return getValuesAt(root, queryPath).let { values ->
+                        if (values.isEmpty()) null else values.single()
+                    }
+                }
+                else -> throw IllegalNodeTypeException(JsonNode(value))
+            }
+        }
+        return value
+    }
+
+    private fun collectFlatValuesAt(
+        list: AnyList,
+        segments: List<String>,
+        index: Int,
+        flatten: Boolean,
+        values: MutableList<Any?>,
+    ) {
+        for (element in list) {
+            if (element is AnyList) {
+                collectFlatValuesAt(element, segments, index, flatten, values)
+            } else {
+                collectValuesAt(element, segments, index, flatten, values)
+            }
+        }
+    }
+
+    private fun collectFlatValues(list: AnyList, values: MutableList<Any?>) {
+        for (element in list) {
+            if (element is AnyList) {
+                collectFlatValues(element, values)
+            } else {
+                values.add(element)
+            }
+        }
+    }
+}
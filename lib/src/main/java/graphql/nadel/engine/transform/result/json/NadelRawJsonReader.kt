@@ -0,0 +1,346 @@
+package graphql.nadel.engine.transform.result.json
+
+import graphql.nadel.NadelRawJson
+import graphql.nadel.engine.transform.query.NadelQueryPath
+import graphql.nadel.engine.util.MutableJsonMap
+import java.math.BigInteger
+
+/**
+ * The result keys whose values must be read, see [NadelRawJsonReader].
+ *
+ * Lists are transparent, like in [NadelQueryPath], so a selection applies to every element of a list.
+ */
+internal class NadelRawJsonSelection {
+    val children = HashMap<String, NadelRawJsonSelection>()
+
+    /**
+     * Selects the value at the [queryPath] and every value above it.
+     */
+    fun add(queryPath: NadelQueryPath) {
+        queryPath.segments.fold(this) { selection, segment ->
+            selection.children.getOrPut(segment, ::NadelRawJsonSelection)
+        }
+    }
+}
+
+/**
+ * Reads UTF-8 JSON from [bytes] between [start] and [end].
+ *
+ * Given a [NadelRawJsonSelection], only the selected objects and lists are read into [Map]s and [List]s.
+ * Scalars are always read as they are cheap, the other objects and lists are skipped over and kept
+ * as [NadelRawJson] slices of [bytes].
+ */
+internal class NadelRawJsonReader(
+    private val bytes: ByteArray,
+    start: Int = 0,
+    private val end: Int = bytes.size,
+) {
+    private var pos = start
+
+    data class Response(
+        val data: MutableJsonMap,
+        val errors: MutableList<MutableJsonMap?>,
+        val extensions: MutableJsonMap,
+    )
+
+    /**
+     * Reads a GraphQL response i.e. an object with `data`, `errors` and `extensions`.
+     *
+     * @param selection the values of `data` to read, or `null` to read everything
+     */
+    fun readResponse(selection: NadelRawJsonSelection?): Response {
+        var data: MutableJsonMap? = null
+        var errors: MutableList<MutableJsonMap?>? = null
+        var extensions: MutableJsonMap? = null
+
+        readObjectEntries { key ->
+            when (key) {
+                "data" -> {
+                    @Suppress("UNCHECKED_CAST")
+                    data = readValue(selection ?: EVERYTHING) as MutableJsonMap?
+                }
+                "errors" -> {
+                    @Suppress("UNCHECKED_CAST")
+                    errors = readValue() as MutableList<MutableJsonMap?>?
+                }
+                "extensions" -> {
+                    @Suppress("UNCHECKED_CAST")
+                    extensions = readValue() as MutableJsonMap?
+                }
+                else -> skipValue()
+            }
+        }
+
+        return Response(
+            data = data ?: LinkedHashMap(),
+            errors = errors ?: ArrayList(),
+            extensions = extensions ?: LinkedHashMap(),
+        )
+    }
+
+    /**
+     * Reads the whole value.
+     */
+    fun readValue(): Any? {
+        return readValue(EVERYTHING)
+    }
+
+    private fun readValue(selection: NadelRawJsonSelection?): Any? {
+        skipWhitespace()
+        return when (val byte = peek()) {
+            '{'.code.toByte() -> {
+                if (selection == null) {
+                    readRaw()
+                } else {
+                    readObject(selection)
+                }
+            }
+            '['.code.toByte() -> {
+                if (selection == null) {
+                    readRaw()
+                } else {
+                    readList(selection)
+                }
+            }
+            '"'.code.toByte() -> readString()
+            't'.code.toByte() -> readLiteral("true", true)
+            'f'.code.toByte() -> readLiteral("false", false)
+            'n'.code.toByte() -> readLiteral("null", null)
+            else -> {
+                if (byte == '-'.code.toByte() || byte in '0'.code.toByte()..'9'.code.toByte()) {
+                    readNumber()
+                } else {
+                    fail()
+                }
+            }
+        }
+    }
+
+    private fun readObject(selection: NadelRawJsonSelection): MutableJsonMap {
+        val map = LinkedHashMap<String, Any?>()
+        readObjectEntries { key ->
+            map[key] = readValue(
+                if (selection === EVERYTHING) {
+                    EVERYTHING
+                } else {
+                    selection.children[key]
+                },
+            )
+        }
+        return map
+    }
+
+    private inline fun readObjectEntries(readEntry: (key: String) -> Unit) {
+        skipWhitespace()
+        expect('{')
+        skipWhitespace()
+        if (peek() == '}'.code.toByte()) {
+            pos++
+            return
+        }
+        while (true) {
+            skipWhitespace()
+            val key = readString()
+            skipWhitespace()
+            expect(':')
+            readEntry(key)
+            skipWhitespace()
+            when (next()) {
+                ','.code.toByte() -> continue
+                '}'.code.toByte() -> return
+                else -> fail(offset = -1)
+            }
+        }
+    }
+
+    private fun readList(selection: NadelRawJsonSelection): MutableList<Any?> {
+        val list = ArrayList<Any?>()
+        expect('[')
+        skipWhitespace()
+        if (peek() == ']'.code.toByte()) {
+            pos++
+            return list
+        }
+        while (true) {
+            list.add(readValue(selection))
+            skipWhitespace()
+            when (next()) {
+                ','.code.toByte() -> continue
+                ']'.code.toByte() -> return list
+                else -> fail(offset = -1)
+            }
+        }
+    }
+
+    private fun readRaw(): NadelRawJson {
+        val start = pos
+        skipValue()
+        return NadelRawJson(bytes, start, pos - start)
+    }
+
+    private fun skipValue() {
+        skipWhitespace()
+        var depth = 0
+        do {
+            when (next()) {
+                '{'.code.toByte(), '['.code.toByte() -> depth++
+                '}'.code.toByte(), ']'.code.toByte() -> depth--
+                '"'.code.toByte() -> skipStringContents()
+                ','.code.toByte(), ':'.code.toByte() -> {}
+                else -> {
+                    // Scalar, ends before the next delimiter
+                    while (pos < end && !isDelimiter(bytes[pos])) {
+                        pos++
+                    }
+                }
+            }
+            if (depth > 0) {
+                skipWhitespace()
+            }
+        } while (depth > 0)
+    }
+
+    private fun skipStringContents() {
+        while (true) {
+            when (next()) {
+                '"'.code.toByte() -> return
+                '\\'.code.toByte() -> pos++
+            }
+        }
+    }
+
+    private fun readString(): String {
+        expect('"')
+        val start = pos
+        // Fast path for strings without escapes, which are most of them
+        while (true) {
+            when (next()) {
+                '"'.code.toByte() -> return String(bytes, start, pos - 1 - start, Charsets.UTF_8)
+                '\\'.code.toByte() -> {
+                    pos = start
+                    return readEscapedString()
+                }
+            }
+        }
+    }
+
+    private fun readEscapedString(): String {
+        val builder = StringBuilder()
+        var chunkStart = pos
+        while (true) {
+            when (next()) {
+                '"'.code.toByte() -> {
+                    builder.append(String(bytes, chunkStart, pos - 1 - chunkStart, Charsets.UTF_8))
+                    return builder.toString()
+                }
+                '\\'.code.toByte() -> {
+                    builder.append(String(bytes, chunkStart, pos - 1 - chunkStart, Charsets.UTF_8))
+                    when (next().toInt().toChar()) {
+                        '"' -> builder.append('"')
+                        '\\' -> builder.append('\\')
+                        '/' -> builder.append('/')
+                        'b' -> builder.append('\b')
+                        'f' -> builder.append('\u000C')
+                        'n' -> builder.append('\n')
+                        'r' -> builder.append('\r')
+                        't' -> builder.append('\t')
+                        'u' -> {
+                            if (pos + 4 > end) {
+                                fail()
+                            }
+                            builder.append(String(bytes, pos, 4, Charsets.ISO_8859_1).toInt(radix = 16).toChar())
+                            pos += 4
+                        }
+                        else -> fail(offset = -1)
+                    }
+                    chunkStart = pos
+                }
+            }
+        }
+    }
+
+    private fun readNumber(): Number {
+        val start = pos
+        var isInteger = true
+        while (pos < end && !isDelimiter(bytes[pos])) {
+            when (bytes[pos]) {
+                '.'.code.toByte(), 'e'.code.toByte(), 'E'.code.toByte() -> isInteger = false
+            }
+            pos++
+        }
+
+        val text = String(bytes, start, pos - start, Charsets.ISO_8859_1)
+        return try {
+            if (isInteger) {
+                text.toIntOrNull() ?: text.toLongOrNull() ?: BigInteger(text)
+            } else {
+                text.toDouble()
+            }
+        } catch (e: NumberFormatException) {
+            fail(offset = start - pos)
+        }
+    }
+
+    private fun <T> readLiteral(literal: String, value: T): T {
+        for (char in literal) {
+            if (next() != char.code.toByte()) {
+                fail(offset = -1)
+            }
+        }
+        return value
+    }
+
+    private fun skipWhitespace() {
+        while (pos < end && isWhitespace(bytes[pos])) {
+            pos++
+        }
+    }
+
+    private fun expect(char: Char) {
+        if (next() != char.code.toByte()) {
+            fail(offset = -1)
+        }
+    }
+
+    private fun peek(): Byte {
+        if (pos >= end) {
+            fail()
+        }
+        return bytes[pos]
+    }
+
+    private fun next(): Byte {
+        if (pos >= end) {
+            fail()
+        }
+        return bytes[pos++]
+    }
+
+    private fun fail(offset: Int = 0): Nothing {
+        if (pos + offset >= end) {
+            error("Unexpected end of JSON")
+        }
+        error("Unexpected character in JSON at offset ${pos + offset}")
+    }
+
+    private companion object {
+        /**
+         * Selects every value, [NadelRawJsonSelection.children] are never read for it.
+         */
+        val EVERYTHING = NadelRawJsonSelection()
+
+        fun isWhitespace(byte: Byte): Boolean {
+            return byte == ' '.code.toByte()
+                || byte == '\n'.code.toByte()
+                || byte == '\r'.code.toByte()
+                || byte == '\t'.code.toByte()
+        }
+
+        fun isDelimiter(byte: Byte): Boolean {
+            return byte == ','.code.toByte()
+                || byte == '}'.code.toByte()
+                || byte == ']'.code.toByte()
+                || isWhitespace(byte)
+        }
+    }
+}
@@ -54,6 +54,10 @@ internal class NadelSkipIncludeTransform : NadelTransform<State> {
         val aliasHelper: NadelAliasHelper,
     )
 
+    // Modifies the query, see isApplicable
+    override val isRequestDependent: Boolean
+        get() = true
+
     /**
      * So this transform is a bit odd. Normally transform operate on a specific field.
      *
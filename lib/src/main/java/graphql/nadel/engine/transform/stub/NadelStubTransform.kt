@@ -5,9 +5,10 @@ import graphql.nadel.ServiceExecutionHydrationDetails
 import graphql.nadel.ServiceExecutionResult
 import graphql.nadel.engine.NadelExecutionContext
 import graphql.nadel.engine.NadelServiceExecutionContext
+import graphql.nadel.engine.blueprint.NadelFieldInstruction
 import graphql.nadel.engine.blueprint.NadelOverallExecutionBlueprint
 import graphql.nadel.engine.blueprint.NadelStubbedInstruction
-import graphql.nadel.engine.transform.NadelTransform
+import graphql.nadel.engine.transform.NadelFieldInstructionTransform
 import graphql.nadel.engine.transform.NadelTransformFieldResult
 import graphql.nadel.engine.transform.NadelTransformServiceExecutionContext
 import graphql.nadel.engine.transform.artificial.NadelAliasHelper
@@ -23,12 +24,18 @@ import graphql.nadel.engine.util.queryPath
 import graphql.nadel.engine.util.toBuilder
 import graphql.normalized.ExecutableNormalizedField
 
-internal class NadelStubTransform : NadelTransform<StubState> {
+internal class NadelStubTransform : NadelFieldInstructionTransform<StubState> {
     data class StubState(
         val stubByObjectTypeNames: Map<String, NadelStubbedInstruction>,
         val aliasHelper: NadelAliasHelper,
     )
 
+    override val fieldInstructionType: Class<out NadelFieldInstruction>
+        get() = NadelStubbedInstruction::class.java
+
+    override val isRequestDependent: Boolean
+        get() = false
+
     override suspend fun isApplicable(
         executionContext: NadelExecutionContext,
         serviceExecutionContext: NadelServiceExecutionContext,
@@ -15,10 +15,12 @@ import graphql.incremental.DelayedIncrementalPartialResult
 import graphql.incremental.DelayedIncrementalPartialResultImpl
 import graphql.incremental.IncrementalPayload
 import graphql.language.ArrayValue
+import graphql.language.AstPrinter
 import graphql.language.BooleanValue
 import graphql.language.Definition
 import graphql.language.Document
 import graphql.language.EnumTypeExtensionDefinition
+import graphql.language.EnumValue
 import graphql.language.FloatValue
 import graphql.language.ImplementingTypeDefinition
 import graphql.language.InputObjectTypeExtensionDefinition
@@ -669,3 +671,49 @@ internal inline fun <reified T : SDLDefinition<*>> parseDefinition(
 fun GraphQLSchema.isOperationType(type: GraphQLNamedType): Boolean {
     return type === queryType || type === mutationType || type === subscriptionType
 }
+
+/**
+ * Appends a canonical form of the [NormalizedInputValue] or [NormalizedInputValue.value].
+ *
+ * Two values only append the same text if they compile to the same AST [Value],
+ * so the output can be used in cache keys.
+ */
+internal fun StringBuilder.appendNormalizedInputValue(value: Any?) {
+    when (value) {
+        null -> append("null")
+        is NormalizedInputValue -> {
+            append(value.typeName).append('=')
+            appendNormalizedInputValue(value.value)
+        }
+        is List<*> -> {
+            append('[')
+            value.forEach {
+                appendNormalizedInputValue(it)
+                append(',')
+            }
+            append(']')
+        }
+        is Map<*, *> -> {
+            append('{')
+            value.forEach { (name, fieldValue) ->
+                append(name).append(':')
+                appendNormalizedInputValue(fieldValue)
+                append(',')
+            }
+            append('}')
+        }
+        is StringValue -> append('s').appendLengthPrefixed(value.value)
+        is IntValue -> append('i').append(value.value)
+        is BooleanValue -> append('b').append(value.isValue)
+        is EnumValue -> append('e').append(value.name)
+        is Value<*> -> append('v').appendLengthPrefixed(AstPrinter.printAstCompact(value))
+        else -> append('?').appendLengthPrefixed(value.toString())
+    }
+}
+
+/**
+ * Strings are length prefixed so their contents can never be confused with the surrounding key.
+ */
+internal fun StringBuilder.appendLengthPrefixed(value: String): StringBuilder {
+    return append(value.length).append('#').append(value)
+}
@@ -0,0 +1,49 @@
+package graphql.nadel.engine.util
+
+/**
+ * A small thread safe least recently used cache.
+ *
+ * Used by the engine for caches whose size grows with the number of distinct operations
+ * rather than the number of requests, so a simple lock is good enough.
+ */
+internal class NadelBoundedCache<K : Any, V : Any>(
+    private val maxSize: Int,
+) {
+    private val map = object : LinkedHashMap<K, V>(16, 0.75f, true) {
+        override fun removeEldestEntry(eldest: MutableMap.MutableEntry<K, V>?): Boolean {
+            return size > maxSize
+        }
+    }
+
+    val size: Int
+        get() = synchronized(map) { map.size }
+
+    operator fun get(key: K): V? {
+        return synchronized(map) {
+            map[key]
+        }
+    }
+
+    fun put(key: K, value: V) {
+        if (maxSize <= 0) {
+            return
+        }
+        synchronized(map) {
+            map[key] = value
+        }
+    }
+
+    /**
+     * Note: [compute] is invoked outside the lock, so two callers may compute the same value.
+     * The last one wins, which is fine for the deterministic values stored in these caches.
+     */
+    inline fun getOrPut(key: K, compute: () -> V): V {
+        return get(key) ?: compute().also { put(key, it) }
+    }
+
+    fun clear() {
+        synchronized(map) {
+            map.clear()
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package graphql.nadel.hints
+
+import graphql.nadel.Service
+
+fun interface NadelBatchHydrationMergingHint {
+    /**
+     * Global feature flag for merging batch hydrations. When false, every hydrated field sends its own batches.
+     */
+    operator fun invoke(): Boolean
+
+    /**
+     * Per backing service opt-in. Defaults to the global flag [invoke].
+     *
+     * When on, batch hydrations resolved from the same service result that query the same backing field
+     * with the same arguments, selection and batch size send their IDs in shared, de-duplicated batches
+     * e.g. `Issue.assignee` and `Comment.author` that both hydrate from `usersByIds`.
+     *
+     * [graphql.nadel.hooks.NadelExecutionHooks.partitionBatchHydrationArgumentList] is invoked per hydrated
+     * field with only its own IDs. IDs that the hook does not split are merged with the IDs of other hydrated
+     * fields, partitions that the hook does make are sent in their own batches.
+     *
+     * Hydrations that create virtual types are never merged.
+     *
+     * @param service the backing service of the hydration
+     */
+    operator fun invoke(service: Service): Boolean = invoke()
+}
@@ -12,8 +12,9 @@ fun interface NadelBatchRootFieldsHint {
     /**
      * Per-service opt-in for root-field batching. Defaults to the global flag [invoke].
      *
-     * Only affects sibling root fields with no shared namespace wrapper (e.g. the prefixed
-     * `jira_foo`, `jira_bar` form). Namespaced fields are already batched per service regardless.
+     * Batches plain root fields (e.g. the prefixed `jira_foo`, `jira_bar` form) and the children of
+     * namespaced fields owned by the service. Children of one namespaced field are always sent in one
+     * call per service, with this on they also share that call with other namespaces and root fields.
      *
      * @param service the service the root fields would be sent to
      * @return true to batch this service's root fields into a single call
@@ -0,0 +1,13 @@
+package graphql.nadel.hints
+
+import graphql.nadel.Service
+
+/**
+ * When ON for a [service], the underlying documents compiled for calls to that service are cached
+ * and reused for identical underlying operations. Per-service for gradual rollout; defaults to `false`.
+ *
+ * The size of the cache is set via [graphql.nadel.Nadel.Builder.compiledDocumentCacheMaxSize].
+ */
+fun interface NadelCompiledDocumentCacheHint {
+    operator fun invoke(service: Service): Boolean
+}
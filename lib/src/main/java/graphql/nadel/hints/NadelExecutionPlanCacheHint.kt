@@ -0,0 +1,14 @@
+package graphql.nadel.hints
+
+import graphql.nadel.Service
+
+/**
+ * When ON for a [service], the execution planner remembers which transforms applied to which fields
+ * for a given operation shape and skips the [graphql.nadel.engine.transform.NadelTransform.isApplicable]
+ * calls it already knows the answer to. Per-service for gradual rollout; defaults to `false`.
+ *
+ * The size of the cache is set via [graphql.nadel.Nadel.Builder.executionPlanCacheMaxSize].
+ */
+fun interface NadelExecutionPlanCacheHint {
+    operator fun invoke(service: Service): Boolean
+}
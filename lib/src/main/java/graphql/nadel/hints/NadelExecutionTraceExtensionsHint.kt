@@ -0,0 +1,10 @@
+package graphql.nadel.hints
+
+fun interface NadelExecutionTraceExtensionsHint {
+    /**
+     * Adds the execution trace to the extensions of the result as `nadelExecutionTrace`, also enables tracing.
+     *
+     * See [graphql.nadel.instrumentation.NadelInstrumentation.onExecutionTrace].
+     */
+    operator fun invoke(): Boolean
+}
@@ -0,0 +1,12 @@
+package graphql.nadel.hints
+
+import graphql.nadel.Service
+
+/**
+ * When ON for a backing [service], parent nodes of a non-batched hydration that ask for the same
+ * backing field with the same arguments share one call to that service instead of making one call each.
+ * Per-service for gradual rollout; defaults to `false`.
+ */
+fun interface NadelHydrationCoalescingHint {
+    operator fun invoke(service: Service): Boolean
+}
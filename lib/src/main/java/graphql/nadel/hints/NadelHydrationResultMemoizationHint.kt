@@ -0,0 +1,13 @@
+package graphql.nadel.hints
+
+import graphql.nadel.Service
+
+/**
+ * When ON for a backing [service], hydration results from that service are remembered for the rest of
+ * the request. Hydrated fields that ask for the same backing field with the same arguments and selection
+ * reuse them, and batch hydrations only send the IDs that were not resolved yet.
+ * Per-service for gradual rollout; defaults to `false`.
+ */
+fun interface NadelHydrationResultMemoizationHint {
+    operator fun invoke(service: Service): Boolean
+}
@@ -0,0 +1,13 @@
+package graphql.nadel.hints
+
+import graphql.nadel.Service
+
+/**
+ * When ON for a backing [service], hydration backing queries are sent with their arguments as variables
+ * instead of inlined literals. The document then only depends on the hydration and the selection of the
+ * hydrated field, so the service can cache the parsed and validated query across calls.
+ * Per-service for gradual rollout; defaults to `false`.
+ */
+fun interface NadelHydrationVariablesHint {
+    operator fun invoke(service: Service): Boolean
+}
@@ -0,0 +1,13 @@
+package graphql.nadel.hints
+
+import graphql.nadel.Service
+
+/**
+ * When ON for a [service], transforms that provide a
+ * [graphql.nadel.engine.transform.result.NadelResultVisitor] rewrite that service's result in a single
+ * walk over the response instead of returning instructions per result node.
+ * Per-service for gradual rollout; defaults to `false`.
+ */
+fun interface NadelSinglePassResultTransformHint {
+    operator fun invoke(service: Service): Boolean
+}
@@ -58,6 +58,11 @@ interface NadelExecutionHooks {
      *
      * Return `null` when the field is not bound to a specific shard; such fields are grouped together
      * (per service) separately from shard-specific ones.
+     *
+     * Namespaced fields e.g. `jira` are split into one copy per service, holding the children that service owns.
+     * The copy carries no shard arguments itself, so this is invoked for each child of the copy instead
+     * e.g. `issue(cloudId: ...)` in `jira { issue(cloudId: ...) }`. The copy is only batched when every child
+     * returns the same sharding target, otherwise it is sent in its own call.
      */
     fun getShardingTarget(
         executionContext: NadelExecutionContext,
@@ -105,8 +110,13 @@ interface NadelExecutionHooks {
      *  * batch hydration with arguments `"shard-0/issue-0", "shard-0/issue-1"`
      *  * batch hydration with arguments `"shard-1/issue-0", "shard-1/issue-1"`
      *
+     * With [graphql.nadel.hints.NadelBatchHydrationMergingHint] on, this is still invoked per [instruction] with
+     * only its own [argumentValues]. When this returns a single partition, its values may then be sent together
+     * with the values of other hydrated fields that query the same backing field. When it returns several
+     * partitions, each partition is sent in its own batches.
+     *
      * @param argumentValues list of argument values for this batch hydration
-     * @param instruction batch hydration instruction for this hydration
+     * @param instruction batch hydration instruction for this hydration, the one every argument value came from
      * @param instruction user context supplied to the execution input
      * @return list of argument values partitioned accordingly. If no partitioning needed, return
      * `listOf(argumentValues)`
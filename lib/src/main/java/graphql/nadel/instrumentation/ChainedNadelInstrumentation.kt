@@ -7,10 +7,14 @@ import graphql.execution.instrumentation.InstrumentationState
 import graphql.language.Document
 import graphql.nadel.instrumentation.parameters.NadelInstrumentationCreateStateParameters
 import graphql.nadel.instrumentation.parameters.NadelInstrumentationExecuteOperationParameters
+import graphql.nadel.instrumentation.parameters.NadelInstrumentationExecutionTraceParameters
 import graphql.nadel.instrumentation.parameters.NadelInstrumentationIsTimingEnabledParameters
+import graphql.nadel.instrumentation.parameters.NadelInstrumentationOnCacheLookupParameters
 import graphql.nadel.instrumentation.parameters.NadelInstrumentationOnErrorParameters
+import graphql.nadel.instrumentation.parameters.NadelInstrumentationOnIncrementalResultFlushParameters
 import graphql.nadel.instrumentation.parameters.NadelInstrumentationQueryExecutionParameters
 import graphql.nadel.instrumentation.parameters.NadelInstrumentationQueryValidationParameters
+import graphql.nadel.instrumentation.parameters.NadelInstrumentationStepTimingReportParameters
 import graphql.nadel.instrumentation.parameters.NadelInstrumentationTimingParameters
 import graphql.validation.ValidationError
 import java.util.Collections
@@ -35,6 +39,18 @@ class ChainedNadelInstrumentation(
         }
     }
 
+    override fun isStepTimingReportEnabled(params: NadelInstrumentationIsTimingEnabledParameters): Boolean {
+        return instrumentations.any {
+            it.isStepTimingReportEnabled(params)
+        }
+    }
+
+    override fun isExecutionTraceEnabled(params: NadelInstrumentationIsTimingEnabledParameters): Boolean {
+        return instrumentations.any {
+            it.isExecutionTraceEnabled(params)
+        }
+    }
+
     fun getInstrumentations(): List<NadelInstrumentation> {
         return Collections.unmodifiableList(instrumentations)
     }
@@ -57,6 +73,20 @@ class ChainedNadelInstrumentation(
         }
     }
 
+    override fun onStepTimingReport(parameters: NadelInstrumentationStepTimingReportParameters) {
+        instrumentations.forEach { instrumentation: NadelInstrumentation ->
+            val state = getStateFor(instrumentation, parameters.getInstrumentationState()!!)
+            instrumentation.onStepTimingReport(parameters.copy(instrumentationState = state))
+        }
+    }
+
+    override fun onExecutionTrace(parameters: NadelInstrumentationExecutionTraceParameters) {
+        instrumentations.forEach { instrumentation: NadelInstrumentation ->
+            val state = getStateFor(instrumentation, parameters.getInstrumentationState()!!)
+            instrumentation.onExecutionTrace(parameters.copy(instrumentationState = state))
+        }
+    }
+
     override fun onError(parameters: NadelInstrumentationOnErrorParameters) {
         instrumentations.forEach { instrumentation: NadelInstrumentation ->
             val state = getStateFor(instrumentation, parameters.getInstrumentationState()!!)
@@ -64,6 +94,20 @@ class ChainedNadelInstrumentation(
         }
     }
 
+    override fun onCacheLookup(parameters: NadelInstrumentationOnCacheLookupParameters) {
+        instrumentations.forEach { instrumentation: NadelInstrumentation ->
+            val state = getStateFor(instrumentation, parameters.getInstrumentationState()!!)
+            instrumentation.onCacheLookup(parameters.copy(instrumentationState = state))
+        }
+    }
+
+    override fun onIncrementalResultFlush(parameters: NadelInstrumentationOnIncrementalResultFlushParameters) {
+        instrumentations.forEach { instrumentation: NadelInstrumentation ->
+            val state = getStateFor(instrumentation, parameters.getInstrumentationState()!!)
+            instrumentation.onIncrementalResultFlush(parameters.copy(instrumentationState = state))
+        }
+    }
+
     override fun beginQueryExecution(parameters: NadelInstrumentationQueryExecutionParameters): InstrumentationContext<ExecutionResult> {
         return ChainedInstrumentationContext(
             instrumentations
@@ -7,10 +7,14 @@ import graphql.execution.instrumentation.SimpleInstrumentationContext.noOp
 import graphql.language.Document
 import graphql.nadel.instrumentation.parameters.NadelInstrumentationCreateStateParameters
 import graphql.nadel.instrumentation.parameters.NadelInstrumentationExecuteOperationParameters
+import graphql.nadel.instrumentation.parameters.NadelInstrumentationExecutionTraceParameters
 import graphql.nadel.instrumentation.parameters.NadelInstrumentationIsTimingEnabledParameters
+import graphql.nadel.instrumentation.parameters.NadelInstrumentationOnCacheLookupParameters
 import graphql.nadel.instrumentation.parameters.NadelInstrumentationOnErrorParameters
+import graphql.nadel.instrumentation.parameters.NadelInstrumentationOnIncrementalResultFlushParameters
 import graphql.nadel.instrumentation.parameters.NadelInstrumentationQueryExecutionParameters
 import graphql.nadel.instrumentation.parameters.NadelInstrumentationQueryValidationParameters
+import graphql.nadel.instrumentation.parameters.NadelInstrumentationStepTimingReportParameters
 import graphql.nadel.instrumentation.parameters.NadelInstrumentationTimingParameters
 import graphql.validation.ValidationError
 import java.util.concurrent.CompletableFuture
@@ -49,6 +53,39 @@ interface NadelInstrumentation {
     fun onStepTimed(parameters: NadelInstrumentationTimingParameters) {
     }
 
+    /**
+     * Whether to accumulate the timings of a request per step and report them once via [onStepTimingReport].
+     *
+     * Unlike [isTimingEnabled] this does not allocate per timed step, so it is cheap enough to enable for every request.
+     */
+    fun isStepTimingReportEnabled(params: NadelInstrumentationIsTimingEnabledParameters): Boolean {
+        return false
+    }
+
+    /**
+     * Called once per request with the timings of every step, see [isStepTimingReportEnabled].
+     */
+    fun onStepTimingReport(parameters: NadelInstrumentationStepTimingReportParameters) {
+    }
+
+    /**
+     * Whether to trace the service calls of a request and report them once via [onExecutionTrace].
+     *
+     * Tracing is cheap but not free, use this to sample requests.
+     */
+    fun isExecutionTraceEnabled(params: NadelInstrumentationIsTimingEnabledParameters): Boolean {
+        return false
+    }
+
+    /**
+     * Called once per traced request with the tree of service calls, see [isExecutionTraceEnabled].
+     *
+     * The trace is also added to the result extensions if [graphql.nadel.NadelExecutionHints.executionTraceExtensions]
+     * is on.
+     */
+    fun onExecutionTrace(parameters: NadelInstrumentationExecutionTraceParameters) {
+    }
+
     /**
      * This is called right at the start of query execution and its the first step in the instrumentation chain.
      *
@@ -112,4 +149,25 @@ interface NadelInstrumentation {
      */
     fun onError(parameters: NadelInstrumentationOnErrorParameters) {
     }
+
+    /**
+     * Called every time Nadel looks up a value in one of its internal caches, for metrics purposes.
+     *
+     * The cache in question can be obtained by looking at the value of [NadelInstrumentationOnCacheLookupParameters.cache].
+     *
+     * @param parameters to this step
+     */
+    fun onCacheLookup(parameters: NadelInstrumentationOnCacheLookupParameters) {
+    }
+
+    /**
+     * Called every time Nadel emits an incremental result for `@defer`, for metrics purposes.
+     *
+     * [NadelInstrumentationOnIncrementalResultFlushParameters.bufferedResultCount] grows when the client consumes
+     * results slower than they are produced.
+     *
+     * @param parameters to this step
+     */
+    fun onIncrementalResultFlush(parameters: NadelInstrumentationOnIncrementalResultFlushParameters) {
+    }
 }
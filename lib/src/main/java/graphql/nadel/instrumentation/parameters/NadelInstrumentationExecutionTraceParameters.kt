@@ -0,0 +1,93 @@
+package graphql.nadel.instrumentation.parameters
+
+import graphql.execution.instrumentation.InstrumentationState
+import java.time.Duration
+
+/**
+ * The service calls made for a request, as a tree where hydration and partition calls are children of
+ * the call whose result they belong to.
+ */
+data class NadelInstrumentationExecutionTraceParameters(
+    val calls: List<Call>,
+    /**
+     * Wall clock time from the start of execution until the trace was reported.
+     */
+    val duration: Duration,
+    private val context: Any?,
+    private val instrumentationState: InstrumentationState?,
+) {
+    fun <T> getContext(): T? {
+        @Suppress("UNCHECKED_CAST") // trust the caller
+        return context as T
+    }
+
+    fun <T : InstrumentationState> getInstrumentationState(): T? {
+        @Suppress("UNCHECKED_CAST") // trust the caller
+        return instrumentationState as T?
+    }
+
+    fun toSpecification(): Map<String, Any?> {
+        return mapOf(
+            "duration" to duration.toNanos(),
+            "calls" to calls.map(Call::toSpecification),
+        )
+    }
+
+    data class Call(
+        val kind: CallKind,
+        val serviceName: String,
+        /**
+         * Result keys of the field the call is made for.
+         *
+         * For hydrations this is the path to the hydrated field.
+         */
+        val fieldPath: List<String>,
+        /**
+         * Wall clock time from the start of execution until the call started.
+         */
+        val startOffset: Duration,
+        /**
+         * Wall clock time from the start of execution until the call ended, null if it had not ended when the
+         * trace was reported e.g. for deferred calls.
+         */
+        val endOffset: Duration?,
+        /**
+         * The internal latency spent during the call, see [graphql.nadel.time.NadelInternalLatencyTracker].
+         */
+        val internalLatency: Duration,
+        /**
+         * The UTF-8 size of the query sent to the service, 0 if no query was sent.
+         */
+        val queryBytes: Int,
+        /**
+         * The number of source objects hydrated by the call, 1 for other calls.
+         */
+        val batchSize: Int,
+        /**
+         * Whether the call is the last to end among its siblings, and its parent is on the critical path.
+         */
+        val isOnCriticalPath: Boolean,
+        val children: List<Call>,
+    ) {
+        fun toSpecification(): Map<String, Any?> {
+            return mapOf(
+                "kind" to kind.name,
+                "service" to serviceName,
+                "path" to fieldPath,
+                "start" to startOffset.toNanos(),
+                "end" to endOffset?.toNanos(),
+                "internalLatency" to internalLatency.toNanos(),
+                "queryBytes" to queryBytes,
+                "batchSize" to batchSize,
+                "criticalPath" to isOnCriticalPath,
+                "children" to children.map(Call::toSpecification),
+            )
+        }
+    }
+
+    enum class CallKind {
+        Service,
+        Hydration,
+        Partition,
+    }
+}
@@ -0,0 +1,28 @@
+package graphql.nadel.instrumentation.parameters
+
+import graphql.execution.instrumentation.InstrumentationState
+
+data class NadelInstrumentationOnCacheLookupParameters(
+    val cache: Cache,
+    /**
+     * The service the cached value is for, or null if the cache is not service specific.
+     */
+    val serviceName: String?,
+    /**
+     * Whether the value was found in the cache.
+     */
+    val isHit: Boolean,
+    private val instrumentationState: InstrumentationState?,
+) {
+    fun <T : InstrumentationState> getInstrumentationState(): T? {
+        @Suppress("UNCHECKED_CAST") // trust the caller
+        return instrumentationState as T?
+    }
+
+    enum class Cache {
+        /**
+         * The underlying [graphql.language.Document]s compiled for service calls.
+         */
+        CompiledDocument,
+    }
+}
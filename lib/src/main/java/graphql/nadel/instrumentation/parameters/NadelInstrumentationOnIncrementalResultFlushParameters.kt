@@ -0,0 +1,24 @@
+package graphql.nadel.instrumentation.parameters
+
+import graphql.execution.instrumentation.InstrumentationState
+
+data class NadelInstrumentationOnIncrementalResultFlushParameters(
+    /**
+     * The number of deferred payloads emitted together in one incremental result.
+     */
+    val payloadCount: Int,
+    /**
+     * The number of incremental results waiting to be consumed, including this one.
+     */
+    val bufferedResultCount: Int,
+    /**
+     * Whether more incremental results will follow.
+     */
+    val hasNext: Boolean,
+    private val instrumentationState: InstrumentationState?,
+) {
+    fun <T : InstrumentationState> getInstrumentationState(): T? {
+        @Suppress("UNCHECKED_CAST") // trust the caller
+        return instrumentationState as T?
+    }
+}
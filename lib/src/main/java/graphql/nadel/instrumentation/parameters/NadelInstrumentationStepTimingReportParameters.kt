@@ -0,0 +1,41 @@
+package graphql.nadel.instrumentation.parameters
+
+import graphql.execution.instrumentation.InstrumentationState
+import graphql.nadel.instrumentation.parameters.NadelInstrumentationTimingParameters.Step
+import java.time.Duration
+
+/**
+ * The timings of every step of a request, aggregated per [Step].
+ */
+data class NadelInstrumentationStepTimingReportParameters(
+    /**
+     * One entry per step that was timed at least once.
+     */
+    val timings: List<StepTiming>,
+    private val context: Any?,
+    private val instrumentationState: InstrumentationState?,
+) {
+    fun <T> getContext(): T? {
+        @Suppress("UNCHECKED_CAST") // trust the caller
+        return context as T
+    }
+
+    fun <T : InstrumentationState> getInstrumentationState(): T? {
+        @Suppress("UNCHECKED_CAST") // trust the caller
+        return instrumentationState as T?
+    }
+
+    data class StepTiming(
+        val step: Step,
+        /**
+         * The number of times the step was timed.
+         */
+        val count: Int,
+        val totalInternalLatency: Duration,
+        val maxInternalLatency: Duration,
+        /**
+         * The number of times the step threw an exception.
+         */
+        val exceptionCount: Int,
+    )
+}
@@ -1,6 +1,7 @@
 package graphql.nadel.instrumentation.parameters
 
 import graphql.execution.instrumentation.InstrumentationState
+import graphql.nadel.engine.instrumentation.NadelInstrumentationTimingStepOrdinals
 import graphql.nadel.engine.transform.NadelTransform
 import graphql.nadel.instrumentation.parameters.NadelInstrumentationTimingParameters.ChildStep
 import graphql.nadel.instrumentation.parameters.NadelInstrumentationTimingParameters.Step
@@ -18,6 +19,11 @@ data class NadelInstrumentationTimingParameters(
     val exception: Throwable?,
     private val context: Any?,
     private val instrumentationState: InstrumentationState?,
+    /**
+     * The number of calls that were already waiting when timing a wait e.g. [ChildStep.ServiceConcurrencyLimit],
+     * null for other steps.
+     */
+    val queueDepth: Int? = null,
 ) {
     fun <T> getContext(): T? {
         @Suppress("UNCHECKED_CAST") // trust the caller
@@ -84,8 +90,18 @@ data class NadelInstrumentationTimingParameters(
             name = transform.name,
         )
 
+        /**
+         * See [NadelInstrumentationTimingStepOrdinals].
+         */
+        internal val ordinal: Int = NadelInstrumentationTimingStepOrdinals.register(this)
+
         companion object {
             val DocumentCompilation = RootStep.ServiceExecution.child("DocumentCompilation")
+
+            /**
+             * Time spent waiting for a permit of the per service concurrency limits.
+             */
+            val ServiceConcurrencyLimit = RootStep.ServiceExecution.child("ServiceConcurrencyLimit")
         }
     }
 }
@@ -5,6 +5,8 @@ import graphql.nadel.engine.transform.query.NadelQueryPath
 import graphql.nadel.engine.transform.result.json.JsonNode
 import graphql.nadel.engine.transform.result.json.NadelJsonNodeIterator
 import kotlinx.coroutines.CompletableDeferred
+import java.util.IdentityHashMap
+import java.util.concurrent.ConcurrentHashMap
 
 /**
  * todo: this needs to track multiple responses
@@ -12,37 +14,60 @@ import kotlinx.coroutines.CompletableDeferred
 internal class NadelResultTracker {
     private val result = CompletableDeferred<ExecutionResult>()
 
+    /**
+     * Result paths of the nodes at a given [NadelQueryPath], keyed by node value identity.
+     *
+     * Only built for the query paths that [getResultPath] is asked about.
+     */
+    private val resultPathsByQueryPath =
+        ConcurrentHashMap<NadelQueryPath, Lazy<IdentityHashMap<Any?, NadelResultPath>>>()
+
     /**
      * So… in Nadel the result can change a lot.
      *
      * This function lets you track where a result node went to in the overall response sent to the user.
      *
-     * I haven't benchmarked this yet, but in theory it should be more performant than say using
-     * [graphql.nadel.engine.transform.result.json.JsonNodes].
-     *
      * In the past we used to track the [NadelResultPathSegment]s for each [JsonNode] but that was horrible
      * performance wise because we created one List for each result node
      * i.e. as the result grew, both in depth and result node count, you'd allocate tons of (big) lists.
      *
-     * This implementation keeps track of the _current_ [NadelResultPathSegment]s and returns that if it
-     * finds the [node] in question.
+     * Instead, the first lookup for a [queryPath] walks the final result once and indexes the nodes
+     * at that [queryPath]. Deferred work usually looks up every node at the same [queryPath],
+     * so every lookup after that is constant time.
      */
     suspend fun getResultPath(
         queryPath: NadelQueryPath,
         node: JsonNode,
     ): NadelResultPath? {
         val result = result.await()
+
+        val resultPaths = resultPathsByQueryPath
+            .computeIfAbsent(queryPath) {
+                lazy {
+                    getResultPaths(result, queryPath)
+                }
+            }
+            .value
+
+        return resultPaths[node.value]
+    }
+
+    private fun getResultPaths(
+        result: ExecutionResult,
+        queryPath: NadelQueryPath,
+    ): IdentityHashMap<Any?, NadelResultPath> {
         val data = result.toSpecification()["data"]
+        val resultPaths = IdentityHashMap<Any?, NadelResultPath>()
 
         val jsonNodeIterator = NadelJsonNodeIterator(root = data, queryPath = queryPath, flatten = true)
         for (ephemeralNode in jsonNodeIterator) {
-            if (ephemeralNode.queryPath.size == queryPath.segments.size && ephemeralNode.value === node.value) {
+            if (ephemeralNode.queryPath.size == queryPath.segments.size && ephemeralNode.value !in resultPaths) {
                 // Clone because underlying values are ephemeral too
-                return ephemeralNode.resultPath.clone()
+                resultPaths[ephemeralNode.value] = ephemeralNode.resultPath.clone()
             }
         }
 
-        return null
+        return resultPaths
     }
 
     fun complete(value: ExecutionResult) {
@@ -10,5 +10,12 @@ interface NadelInternalLatencyTracker {
      * of latency.
      */
     fun getInternalLatency(): Duration
+
+    /**
+     * Same as [getInternalLatency] in nanoseconds, override to avoid creating a [Duration].
+     */
+    fun getInternalLatencyNanos(): Long {
+        return getInternalLatency().toNanos()
+    }
 }
 
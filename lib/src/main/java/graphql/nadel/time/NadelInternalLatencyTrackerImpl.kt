@@ -19,6 +19,10 @@ open class NadelInternalLatencyTrackerImpl(
         return internalLatency.elapsed()
     }
 
+    override fun getInternalLatencyNanos(): Long {
+        return internalLatency.elapsedNanos()
+    }
+
     fun newExternalCall(): Closeable {
         return ExternalCall()
     }
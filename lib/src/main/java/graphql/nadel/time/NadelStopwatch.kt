@@ -49,13 +49,16 @@ class NadelStopwatch(
     }
 
     fun elapsed(): Duration {
+        return Duration.ofNanos(elapsedNanos())
+    }
+
+    fun elapsedNanos(): Long {
         val time = accumulator.get()
-        val ns = if (time.startedNs == null) {
+        return if (time.startedNs == null) {
             time.elapsedNs
         } else {
             time.elapsedNs + (ticker() - time.startedNs)
         }
-        return Duration.ofNanos(ns)
     }
 
     companion object {
@@ -28,6 +28,10 @@ class NadelFieldMap<T> private constructor(
         return map.isNotEmpty()
     }
 
+    internal fun <R> mapValues(transform: (T) -> R): NadelFieldMap<R> {
+        return NadelFieldMap(map.mapValues { (_, value) -> transform(value) })
+    }
+
     companion object {
         private val emptyMap = NadelFieldMap<Any>(kotlin.collections.emptyMap())
 
@@ -0,0 +1,325 @@
+package graphql.nadel.validation
+
+import graphql.language.AstPrinter
+import graphql.nadel.NadelSchemas
+import graphql.nadel.Service
+import graphql.nadel.engine.blueprint.NadelDeepRenameFieldInstruction
+import graphql.nadel.engine.blueprint.NadelFieldInstruction
+import graphql.nadel.engine.blueprint.NadelPartitionInstruction
+import graphql.nadel.engine.blueprint.NadelRenameFieldInstruction
+import graphql.nadel.engine.blueprint.NadelStubbedInstruction
+import graphql.nadel.engine.blueprint.NadelTypeRenameInstruction
+import graphql.nadel.engine.transform.query.NadelQueryPath
+import graphql.nadel.engine.util.makeFieldCoordinates
+import graphql.schema.FieldCoordinates
+import graphql.schema.idl.SchemaPrinter
+import java.io.DataInputStream
+import java.io.DataOutputStream
+import java.io.InputStream
+import java.io.OutputStream
+import java.security.MessageDigest
+
+/**
+ * A snapshot of the validated execution blueprint, so that the gateway can skip validation at startup.
+ *
+ * Write it once at build time with [write] and pass it to [graphql.nadel.Nadel.Builder.blueprintSnapshot].
+ * The snapshot is keyed by a hash of the overall and underlying SDL of every service. If the hash does
+ * not match the schemas that Nadel is built with, the snapshot is ignored and everything is validated.
+ *
+ * Only services whose instructions are plain data are in the snapshot i.e. renames, deep renames,
+ * partitions, stubs and the type names of the service. Hydrations hold field definitions and source
+ * fields of the engine schema, so services with hydrations are always validated.
+ *
+ * The snapshot must be written by the same version of Nadel that reads it.
+ */
+class NadelBlueprintSnapshot private constructor(
+    internal val hash: String,
+    private val schemaWideInputs: NadelSchemaValidationState.SchemaWideInputs,
+    private val services: List<ServiceSnapshot>,
+) {
+    private class ServiceSnapshot(
+        val name: String,
+        val underlyingTypeNames: Set<String>,
+        val reachableUnderlyingTypeNames: Set<String>,
+        val reducedUnderlyingTypeNames: Set<String>,
+        val overallTypeNames: Set<String>,
+        val typeRenames: List<Pair<String, String>>,
+        val fieldInstructions: List<NadelFieldInstruction>,
+    )
+
+    /**
+     * @return the validation of [schemas] from the snapshot, or null if the snapshot is not for [schemas]
+     */
+    internal fun toValidationState(schemas: NadelSchemas): NadelSchemaValidationState? {
+        if (hash != hash(schemas)) {
+            return null
+        }
+
+        val servicesByName = schemas.services.associateBy(Service::name)
+        val resultsByService = services.associate { snapshot ->
+            val service = servicesByName[snapshot.name] ?: return null
+
+            service to toResult(service, snapshot)
+        }
+
+        return NadelSchemaValidationState(
+            result = NadelSchemaValidationResults(resultsByService.values.toList()),
+            services = schemas.services,
+            resultsByService = resultsByService,
+            schemaWideInputs = schemaWideInputs,
+        )
+    }
+
+    private fun toResult(service: Service, snapshot: ServiceSnapshot): NadelSchemaValidationResult {
+        return NadelSchemaValidationResults(
+            snapshot.typeRenames.map { (overallName, underlyingName) ->
+                NadelValidatedTypeResult(
+                    NadelTypeRenameInstruction(
+                        service = service,
+                        overallName = overallName,
+                        underlyingName = underlyingName,
+                    ),
+                )
+            } + snapshot.fieldInstructions.map { instruction ->
+                NadelValidatedFieldResult(service, instruction)
+            } + NadelReachableServiceTypesResult(
+                service = service,
+                underlyingTypeNames = snapshot.underlyingTypeNames,
+                reachableUnderlyingTypeNames = snapshot.reachableUnderlyingTypeNames,
+                reducedUnderlyingTypeNames = snapshot.reducedUnderlyingTypeNames,
+                overallTypeNames = snapshot.overallTypeNames,
+            ),
+        )
+    }
+
+    private fun write(output: DataOutputStream) {
+        output.writeInt(MAGIC)
+        output.writeInt(VERSION)
+        output.writeUTF(hash)
+        output.writeStrings(schemaWideInputs.hydrationUnions)
+        output.writeStrings(schemaWideInputs.namespaceTypeNames)
+        output.writeStrings(schemaWideInputs.combinedTypeNames)
+        output.writeStrings(schemaWideInputs.hiddenTypeNames)
+
+        output.writeInt(services.size)
+        services.forEach { service ->
+            output.writeUTF(service.name)
+            output.writeStrings(service.underlyingTypeNames)
+            output.writeStrings(service.reachableUnderlyingTypeNames)
+            output.writeStrings(service.reducedUnderlyingTypeNames)
+            output.writeStrings(service.overallTypeNames)
+
+            output.writeInt(service.typeRenames.size)
+            service.typeRenames.forEach { (overallName, underlyingName) ->
+                output.writeUTF(overallName)
+                output.writeUTF(underlyingName)
+            }
+
+            output.writeInt(service.fieldInstructions.size)
+            service.fieldInstructions.forEach { instruction ->
+                writeFieldInstruction(output, instruction)
+            }
+        }
+        output.flush()
+    }
+
+    private fun writeFieldInstruction(output: DataOutputStream, instruction: NadelFieldInstruction) {
+        when (instruction) {
+            is NadelRenameFieldInstruction -> {
+                output.writeByte(RENAME)
+                output.writeCoordinates(instruction.location)
+                output.writeUTF(instruction.underlyingName)
+            }
+            is NadelDeepRenameFieldInstruction -> {
+                output.writeByte(DEEP_RENAME)
+                output.writeCoordinates(instruction.location)
+                output.writeStrings(instruction.queryPathToField.segments)
+            }
+            is NadelPartitionInstruction -> {
+                output.writeByte(PARTITION)
+                output.writeCoordinates(instruction.location)
+                output.writeStrings(instruction.pathToPartitionArg)
+            }
+            is NadelStubbedInstruction -> {
+                output.writeByte(STUBBED)
+                output.writeCoordinates(instruction.location)
+            }
+            else -> throw IllegalArgumentException("Cannot write ${instruction.javaClass.simpleName} to snapshot")
+        }
+    }
+
+    companion object {
+        private const val MAGIC = 0x4E41444C // NADL
+        private const val VERSION = 1
+
+        private const val RENAME = 0
+        private const val DEEP_RENAME = 1
+        private const val PARTITION = 2
+        private const val STUBBED = 3
+
+        /**
+         * Validates [schemas] and writes the snapshot to [output].
+         *
+         * @throws IllegalArgumentException if the schemas are not valid
+         */
+        @JvmStatic
+        @JvmOverloads
+        fun write(
+            schemas: NadelSchemas,
+            output: OutputStream,
+            validation: NadelSchemaValidation = NadelSchemaValidationFactory.create(),
+        ) {
+            val state = validation.validateAll(schemas, previous = null)
+            require(!state.result.isError) {
+                "Cannot write snapshot for invalid schemas"
+            }
+
+            NadelBlueprintSnapshot(
+                hash = hash(schemas),
+                schemaWideInputs = state.schemaWideInputs!!,
+                services = schemas.services.mapNotNull { service ->
+                    makeServiceSnapshot(service, state.resultsByService[service]!!)
+                },
+            ).write(DataOutputStream(output))
+        }
+
+        @JvmStatic
+        fun read(input: InputStream): NadelBlueprintSnapshot {
+            val data = DataInputStream(input)
+            require(data.readInt() == MAGIC) {
+                "Not a blueprint snapshot"
+            }
+            require(data.readInt() == VERSION) {
+                "Unsupported blueprint snapshot version"
+            }
+
+            return NadelBlueprintSnapshot(
+                hash = data.readUTF(),
+                schemaWideInputs = NadelSchemaValidationState.SchemaWideInputs(
+                    hydrationUnions = data.readStrings().toSet(),
+                    namespaceTypeNames = data.readStrings().toSet(),
+                    combinedTypeNames = data.readStrings().toSet(),
+                    hiddenTypeNames = data.readStrings().toSet(),
+                ),
+                services = List(data.readInt()) {
+                    ServiceSnapshot(
+                        name = data.readUTF(),
+                        underlyingTypeNames = data.readStrings().toSet(),
+                        reachableUnderlyingTypeNames = data.readStrings().toSet(),
+                        reducedUnderlyingTypeNames = data.readStrings().toSet(),
+                        overallTypeNames = data.readStrings().toSet(),
+                        typeRenames = List(data.readInt()) {
+                            data.readUTF() to data.readUTF()
+                        },
+                        fieldInstructions = List(data.readInt()) {
+                            readFieldInstruction(data)
+                        },
+                    )
+                },
+            )
+        }
+
+        /**
+         * @return the hash of the overall and underlying SDL of every service in [schemas]
+         */
+        internal fun hash(schemas: NadelSchemas): String {
+            val digest = MessageDigest.getInstance("SHA-256")
+            val schemaPrinter = SchemaPrinter()
+
+            schemas.services.forEach { service ->
+                digest.update(service.name)
+                service.definitionRegistry.definitions.forEach { definition ->
+                    digest.update(AstPrinter.printAstCompact(definition))
+                }
+                digest.update(schemaPrinter.print(service.underlyingSchema))
+            }
+
+            return digest.digest().joinToString(separator = "") { "%02x".format(it) }
+        }
+
+        private fun makeServiceSnapshot(service: Service, result: NadelSchemaValidationResult): ServiceSnapshot? {
+            val typeRenames = mutableListOf<Pair<String, String>>()
+            val fieldInstructions = mutableListOf<NadelFieldInstruction>()
+            var typeNames: NadelReachableServiceTypesResult? = null
+
+            NadelSchemaValidationResults.flatten(result).forEach { result ->
+                when (result) {
+                    is NadelValidatedTypeResult -> {
+                        typeRenames.add(result.typeRenameInstruction.overallName to result.typeRenameInstruction.underlyingName)
+                    }
+                    is NadelValidatedFieldResult -> {
+                        when (result.fieldInstruction) {
+                            is NadelRenameFieldInstruction,
+                            is NadelDeepRenameFieldInstruction,
+                            is NadelPartitionInstruction,
+                            is NadelStubbedInstruction,
+                            -> fieldInstructions.add(result.fieldInstruction)
+                            else -> return null
+                        }
+                    }
+                    is NadelReachableServiceTypesResult -> typeNames = result
+                    else -> return null
+                }
+            }
+
+            val serviceTypeNames = typeNames ?: return null
+
+            return ServiceSnapshot(
+                name = service.name,
+                underlyingTypeNames = serviceTypeNames.underlyingTypeNames,
+                reachableUnderlyingTypeNames = serviceTypeNames.reachableUnderlyingTypeNames,
+                reducedUnderlyingTypeNames = serviceTypeNames.reducedUnderlyingTypeNames,
+                overallTypeNames = serviceTypeNames.overallTypeNames,
+                typeRenames = typeRenames,
+                fieldInstructions = fieldInstructions,
+            )
+        }
+
+        private fun readFieldInstruction(data: DataInputStream): NadelFieldInstruction {
+            return when (val type = data.readByte().toInt()) {
+                RENAME -> NadelRenameFieldInstruction(
+                    location = data.readCoordinates(),
+                    underlyingName = data.readUTF(),
+                )
+                DEEP_RENAME -> NadelDeepRenameFieldInstruction(
+                    location = data.readCoordinates(),
+                    queryPathToField = NadelQueryPath(data.readStrings()),
+                )
+                PARTITION -> NadelPartitionInstruction(
+                    location = data.readCoordinates(),
+                    pathToPartitionArg = data.readStrings(),
+                )
+                STUBBED -> NadelStubbedInstruction(
+                    location = data.readCoordinates(),
+                )
+                else -> throw IllegalArgumentException("Unknown field instruction $type in snapshot")
+            }
+        }
+
+        private fun MessageDigest.update(value: String) {
+            update(value.toByteArray(Charsets.UTF_8))
+            // Separator so that "ab" + "c" does not hash the same as "a" + "bc"
+            update(0)
+        }
+
+        private fun DataOutputStream.writeStrings(values: Collection<String>) {
+            writeInt(values.size)
+            values.forEach(::writeUTF)
+        }
+
+        private fun DataInputStream.readStrings(): List<String> {
+            return List(readInt()) {
+                readUTF()
+            }
+        }
+
+        private fun DataOutputStream.writeCoordinates(coordinates: FieldCoordinates) {
+            writeUTF(coordinates.typeName)
+            writeUTF(coordinates.fieldName)
+        }
+
+        private fun DataInputStream.readCoordinates(): FieldCoordinates {
+            return makeFieldCoordinates(typeName = readUTF(), fieldName = readUTF())
+        }
+    }
+}
@@ -2,10 +2,12 @@ package graphql.nadel.validation
 
 import graphql.language.EnumTypeDefinition
 import graphql.language.ImplementingTypeDefinition
+import graphql.language.NamedNode
 import graphql.nadel.NadelSchemas
 import graphql.nadel.Service
 import graphql.nadel.definition.hydration.hasHydratedDefinition
 import graphql.nadel.definition.hydration.hasIdHydratedDefinition
+import graphql.nadel.engine.blueprint.NadelGenericHydrationInstruction
 import graphql.nadel.engine.blueprint.NadelOverallExecutionBlueprint
 import graphql.nadel.engine.blueprint.NadelTypeRenameInstructions
 import graphql.nadel.engine.blueprint.NadelUnderlyingExecutionBlueprint
@@ -20,11 +22,17 @@ import graphql.schema.GraphQLFieldsContainer
 import graphql.schema.GraphQLObjectType
 import graphql.schema.GraphQLSchema
 import graphql.schema.GraphQLUnionType
+import java.util.Collections
+import java.util.IdentityHashMap
+import java.util.concurrent.Callable
+import java.util.concurrent.ForkJoinPool
+import java.util.stream.Collectors
 
 class NadelSchemaValidation internal constructor(
     private val typeValidation: NadelTypeValidation,
     private val instructionDefinitionParser: NadelInstructionDefinitionParser,
     private val hook: NadelSchemaValidationHook,
+    private val parallelism: Int,
 ) {
     fun validate(
         schemas: NadelSchemas,
@@ -38,36 +46,173 @@ class NadelSchemaValidation internal constructor(
         schemas: NadelSchemas,
         fieldContributorMap: Map<FieldCoordinates, Service> = makeFieldContributorMap(schemas.services),
     ): NadelSchemaValidationResult {
+        return validateAll(schemas, fieldContributorMap, previous = null).result
+    }
+
+    /**
+     * Validates the given [schemas], reusing the results of [previous] for services that were not
+     * affected by the change, see [canReuse].
+     */
+    internal fun validateAll(
+        schemas: NadelSchemas,
+        fieldContributorMap: Map<FieldCoordinates, Service> = makeFieldContributorMap(schemas.services),
+        previous: NadelSchemaValidationState?,
+    ): NadelSchemaValidationState {
         val (engineSchema, services) = schemas
 
         val servicesByName = services.strictAssociateBy(Service::name)
 
         val operationTypes = getOperationTypeNames(engineSchema)
         val namespaceTypes = getNamespaceOperationTypes(engineSchema)
-        val hiddenTypeNames = getHiddenTypeNames(engineSchema)
+
+        val schemaWideInputs = NadelSchemaValidationState.SchemaWideInputs(
+            hydrationUnions = getHydrationUnions(engineSchema),
+            namespaceTypeNames = namespaceTypes,
+            combinedTypeNames = namespaceTypes + operationTypes.map { it.name },
+            hiddenTypeNames = getHiddenTypeNames(engineSchema),
+        )
 
         val instructionDefinitions = instructionDefinitionParser.parse(engineSchema)
-            .onError { return it }
+            .onError {
+                return NadelSchemaValidationState(
+                    result = it,
+                    services = services,
+                    resultsByService = emptyMap(),
+                    schemaWideInputs = null,
+                )
+            }
 
         val context = NadelValidationContext(
             engineSchema = engineSchema,
             servicesByName = servicesByName,
             fieldContributor = fieldContributorMap,
-            hydrationUnions = getHydrationUnions(engineSchema),
-            namespaceTypeNames = namespaceTypes,
-            combinedTypeNames = namespaceTypes + operationTypes.map { it.name },
-            hiddenTypeNames = hiddenTypeNames,
+            hydrationUnions = schemaWideInputs.hydrationUnions,
+            namespaceTypeNames = schemaWideInputs.namespaceTypeNames,
+            combinedTypeNames = schemaWideInputs.combinedTypeNames,
+            hiddenTypeNames = schemaWideInputs.hiddenTypeNames,
             instructionDefinitions = instructionDefinitions,
             hook = hook,
         )
 
-        return with(context) {
-            services
-                .map {
-                    typeValidation.validate(it)
-                }
-                .toResult()
+        val reusableResults = getReusableResults(services, schemaWideInputs, previous)
+
+        val validatedResults = with(context) {
+            validateServices(services.filter { it !in reusableResults })
+        }
+        val resultsByService = services.associateWithTo(IdentityHashMap()) { service ->
+            reusableResults[service] ?: validatedResults[service]!!
+        }
+
+        return NadelSchemaValidationState(
+            result = with(context) {
+                services
+                    .map {
+                        resultsByService[it]!!
+                    }
+                    .toResult()
+            },
+            services = services,
+            resultsByService = resultsByService,
+            schemaWideInputs = schemaWideInputs,
+        )
+    }
+
+    /**
+     * Validates each service in its own task, up to [parallelism] at a time.
+     *
+     * The validation of one service does not depend on the validation of another service,
+     * and the results are put back together in service order, so the errors are always
+     * in the same order no matter which service finishes first.
+     */
+    context(NadelValidationContext)
+    private fun validateServices(services: List<Service>): Map<Service, NadelSchemaValidationResult> {
+        if (parallelism <= 1 || services.size <= 1) {
+            return services.associateWithTo(IdentityHashMap()) { service ->
+                typeValidation.validate(service)
+            }
+        }
+
+        val pool = ForkJoinPool(parallelism)
+        val results = try {
+            pool
+                .submit(
+                    Callable {
+                        // Ordered, so the results line up with the services
+                        services
+                            .parallelStream()
+                            .map { service ->
+                                typeValidation.validate(service)
+                            }
+                            .collect(Collectors.toList())
+                    },
+                )
+                .join()
+        } finally {
+            pool.shutdown()
+        }
+
+        return services.zip(results).toMap(IdentityHashMap())
+    }
+
+    /**
+     * A service's previous result can be reused if the service is the same instance, and it does not
+     * reference any type defined by a changed service, and it does not hydrate from a changed service.
+     *
+     * The validation of a service only looks at the definitions of the types it references and the
+     * backing fields it hydrates from, so there is no need to look any further than that.
+     */
+    private fun getReusableResults(
+        services: List<Service>,
+        schemaWideInputs: NadelSchemaValidationState.SchemaWideInputs,
+        previous: NadelSchemaValidationState?,
+    ): Map<Service, NadelSchemaValidationResult> {
+        if (previous == null || previous.schemaWideInputs != schemaWideInputs) {
+            return emptyMap()
+        }
+
+        val currentServices = services.toCollection(Collections.newSetFromMap(IdentityHashMap()))
+        val changedServices = Collections.newSetFromMap<Service>(IdentityHashMap())
+        val previousServices = previous.services.toCollection(Collections.newSetFromMap(IdentityHashMap()))
+        previousServices.filterTo(changedServices) { it !in currentServices }
+        services.filterTo(changedServices) { it !in previousServices }
+
+        val changedTypeNames = changedServices
+            .asSequence()
+            .flatMap { service ->
+                service.definitionRegistry.definitions
+            }
+            .filterIsInstance<NamedNode<*>>()
+            .map { it.name }
+            .filterTo(HashSet()) {
+                it !in schemaWideInputs.combinedTypeNames
+            }
+
+        return previous.resultsByService
+            .filter { (service, result) ->
+                service in currentServices && canReuse(result, changedServices, changedTypeNames)
+            }
+    }
+
+    private fun canReuse(
+        result: NadelSchemaValidationResult,
+        changedServices: Set<Service>,
+        changedTypeNames: Set<String>,
+    ): Boolean {
+        if (result.isError) {
+            return false
         }
+
+        return result.asSequence()
+            .all { result ->
+                when (result) {
+                    is NadelReachableServiceTypesResult -> result.overallTypeNames.none { it in changedTypeNames }
+                    is NadelValidatedFieldResult -> {
+                        val instruction = result.fieldInstruction
+                        instruction !is NadelGenericHydrationInstruction || instruction.backingService !in changedServices
+                    }
+                    else -> true
+                }
+            }
     }
 
     private fun getHydrationUnions(engineSchema: GraphQLSchema): Set<String> {
@@ -103,11 +248,33 @@ class NadelSchemaValidation internal constructor(
     fun validateAndGenerateBlueprint(
         schemas: NadelSchemas,
     ): NadelOverallExecutionBlueprint {
+        return validateAndGenerateBlueprint(schemas, previous = null).first
+    }
+
+    /**
+     * Also returns the [NadelSchemaValidationState] so that it can be passed in as [previous]
+     * when the schemas are next rebuilt.
+     */
+    internal fun validateAndGenerateBlueprint(
+        schemas: NadelSchemas,
+        previous: NadelSchemaValidationState?,
+    ): Pair<NadelOverallExecutionBlueprint, NadelSchemaValidationState> {
         val fieldContributorMap = makeFieldContributorMap(schemas.services)
-        val all = validateAll(
+        val state = validateAll(
             schemas = schemas,
             fieldContributorMap = fieldContributorMap,
-        ).asSequence().toList()
+            previous = previous,
+        )
+
+        return generateBlueprint(schemas, fieldContributorMap, state.result) to state
+    }
+
+    private fun generateBlueprint(
+        schemas: NadelSchemas,
+        fieldContributorMap: Map<FieldCoordinates, Service>,
+        result: NadelSchemaValidationResult,
+    ): NadelOverallExecutionBlueprint {
+        val all = result.asSequence().toList()
 
         val fieldInstructions = all
             .filterIsInstance<NadelValidatedFieldResult>()
@@ -30,6 +30,7 @@ abstract class NadelSchemaValidationFactory {
             ),
             instructionDefinitionParser = definitionParser,
             hook = hook,
+            parallelism = parallelism,
         )
     }
 
@@ -86,5 +87,14 @@ abstract class NadelSchemaValidationFactory {
         get() = object : NadelSchemaValidationHook() {
         }
 
+    /**
+     * How many services are validated at the same time. Defaults to `1` i.e. the services
+     * are validated one after another.
+     *
+     * When greater than `1` the [hook] is called from multiple threads at once, so it must be thread safe.
+     */
+    open val parallelism: Int
+        get() = 1
+
     companion object : NadelSchemaValidationFactory()
 }
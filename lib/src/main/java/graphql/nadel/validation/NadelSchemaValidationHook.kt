@@ -5,6 +5,10 @@ import graphql.schema.GraphQLFieldDefinition
 import graphql.schema.GraphQLFieldsContainer
 import graphql.schema.GraphQLSchema
 
+/**
+ * Implementations must be thread safe if [NadelSchemaValidationFactory.parallelism] is greater than `1`,
+ * as services are then validated on multiple threads at once.
+ */
 abstract class NadelSchemaValidationHook {
     open fun parseDefinitions(
         engineSchema: GraphQLSchema,
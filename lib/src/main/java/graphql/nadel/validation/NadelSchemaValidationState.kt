@@ -0,0 +1,35 @@
+package graphql.nadel.validation
+
+import graphql.nadel.NadelSchemas
+import graphql.nadel.Service
+
+/**
+ * The validation of one [NadelSchemas], kept so that a rebuild which only changes some services
+ * can reuse the results of the other services, see [NadelSchemaValidation.validateAndGenerateBlueprint].
+ */
+internal class NadelSchemaValidationState(
+    val result: NadelSchemaValidationResult,
+    /**
+     * The services this state is for.
+     */
+    val services: List<Service>,
+    /**
+     * The results of each validated [Service], keyed by identity as unchanged services are kept as is.
+     *
+     * Empty if the schema could not be validated service by service. May not have a result
+     * for every service when loaded from a [NadelBlueprintSnapshot].
+     */
+    val resultsByService: Map<Service, NadelSchemaValidationResult>,
+    /**
+     * The inputs of the [NadelValidationContext] that are derived from the engine schema as a whole.
+     * If any of them change, no result can be reused.
+     */
+    val schemaWideInputs: SchemaWideInputs?,
+) {
+    data class SchemaWideInputs(
+        val hydrationUnions: Set<String>,
+        val namespaceTypeNames: Set<String>,
+        val combinedTypeNames: Set<String>,
+        val hiddenTypeNames: Set<String>,
+    )
+}
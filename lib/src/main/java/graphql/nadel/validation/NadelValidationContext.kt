@@ -3,6 +3,7 @@ package graphql.nadel.validation
 import graphql.nadel.Service
 import graphql.schema.FieldCoordinates
 import graphql.schema.GraphQLSchema
+import java.util.concurrent.ConcurrentHashMap
 
 data class NadelValidationContext internal constructor(
     val engineSchema: GraphQLSchema,
@@ -15,7 +16,10 @@ data class NadelValidationContext internal constructor(
     val instructionDefinitions: NadelInstructionDefinitionRegistry,
     val hook: NadelSchemaValidationHook,
 ) {
-    private val visitedTypes: MutableSet<NadelServiceSchemaElementRef> = hashSetOf()
+    /**
+     * Concurrent as services are validated in parallel, see [NadelSchemaValidationFactory.parallelism].
+     */
+    private val visitedTypes: MutableSet<NadelServiceSchemaElementRef> = ConcurrentHashMap.newKeySet()
 
     /**
      * @return true to visit
@@ -0,0 +1,241 @@
+package graphql.nadel
+
+import graphql.language.ArrayValue
+import graphql.language.StringValue
+import graphql.nadel.NadelExecutionInput.Companion.newNadelExecutionInput
+import graphql.nadel.instrumentation.NadelInstrumentation
+import graphql.nadel.instrumentation.parameters.NadelInstrumentationExecutionTraceParameters
+import graphql.nadel.instrumentation.parameters.NadelInstrumentationExecutionTraceParameters.CallKind
+import graphql.nadel.instrumentation.parameters.NadelInstrumentationIsTimingEnabledParameters
+import kotlinx.coroutines.future.await
+import kotlinx.coroutines.test.runTest
+import java.util.Collections
+import java.util.concurrent.CompletableFuture
+import kotlin.test.Test
+import kotlin.test.assertEquals
+import kotlin.test.assertNull
+import kotlin.test.assertTrue
+
+private const val source = "$" + "source"
+
+class NadelExecutionTraceTest {
+    private val traces = Collections.synchronizedList(mutableListOf<NadelInstrumentationExecutionTraceParameters>())
+
+    private val query = """
+        query {
+            issues {
+                id
+                assignee {
+                    name
+                }
+            }
+        }
+    """.trimIndent()
+
+    private fun makeNadel(isTraceEnabled: Boolean): Nadel {
+        return Nadel.newNadel()
+            .overallSchemas(
+                mapOf(
+                    "issues" to """
+                        type Query {
+                            issues: [Issue]
+                        }
+                        type Issue {
+                            id: ID!
+                            assignee: User
+                                @hydrated(
+                                    service: "users"
+                                    field: "usersByIds"
+                                    arguments: [{name: "ids", value: "$source.assigneeId"}]
+                                    identifiedBy: "id"
+                                    batchSize: 2
+                                )
+                        }
+                    """.trimIndent(),
+                    "users" to """
+                        type Query {
+                            usersByIds(ids: [ID!]!): [User]
+                        }
+                        type User {
+                            id: ID!
+                            name: String
+                        }
+                    """.trimIndent(),
+                ),
+            )
+            .underlyingSchemas(
+                mapOf(
+                    "issues" to """
+                        type Query {
+                            issues: [Issue]
+                        }
+                        type Issue {
+                            id: ID!
+                            assigneeId: ID
+                        }
+                    """.trimIndent(),
+                    "users" to """
+                        type Query {
+                            usersByIds(ids: [ID!]!): [User]
+                        }
+                        type User {
+                            id: ID!
+                            name: String
+                        }
+                    """.trimIndent(),
+                ),
+            )
+            .serviceExecutionFactory(
+                object : ServiceExecutionFactory {
+                    override fun getServiceExecution(serviceName: String): ServiceExecution {
+                        return when (serviceName) {
+                            "issues" -> ServiceExecution(::executeIssues)
+                            "users" -> ServiceExecution(::executeUsers)
+                            else -> throw UnsupportedOperationException(serviceName)
+                        }
+                    }
+                },
+            )
+            .instrumentation(
+                object : NadelInstrumentation {
+                    override fun isExecutionTraceEnabled(params: NadelInstrumentationIsTimingEnabledParameters): Boolean {
+                        return isTraceEnabled
+                    }
+
+                    override fun onExecutionTrace(parameters: NadelInstrumentationExecutionTraceParameters) {
+                        traces.add(parameters)
+                    }
+                },
+            )
+            .build()
+    }
+
+    @Test
+    fun `reports tree of service calls`() = runTest {
+        // Given
+        val nadel = makeNadel(isTraceEnabled = true)
+
+        // When
+        val result = nadel
+            .execute(
+                newNadelExecutionInput()
+                    .query(query)
+                    .build(),
+            )
+            .await()
+
+        // Then
+        assertTrue(result.errors.isEmpty())
+        assertNull(result.extensions?.get("nadelExecutionTrace"))
+
+        val issuesCall = traces.single().calls.single()
+        assertEquals(CallKind.Service, issuesCall.kind)
+        assertEquals("issues", issuesCall.serviceName)
+        assertEquals(listOf("issues"), issuesCall.fieldPath)
+        assertEquals(1, issuesCall.batchSize)
+        assertTrue(issuesCall.queryBytes > 0)
+        assertTrue(issuesCall.isOnCriticalPath)
+
+        val usersCalls = issuesCall.children
+        assertEquals(listOf(CallKind.Hydration, CallKind.Hydration), usersCalls.map { it.kind })
+        assertEquals(listOf("users", "users"), usersCalls.map { it.serviceName })
+        assertEquals(listOf("issues", "assignee"), usersCalls.first().fieldPath)
+        assertEquals(listOf(1, 2), usersCalls.map { it.batchSize }.sorted())
+        assertEquals(1, usersCalls.count { it.isOnCriticalPath })
+        assertTrue(
+            usersCalls.all { call ->
+                call.startOffset >= issuesCall.startOffset && call.endOffset!! <= issuesCall.endOffset!!
+            },
+        )
+    }
+
+    @Test
+    fun `adds trace to extensions when hint is on`() = runTest {
+        // Given
+        val nadel = makeNadel(isTraceEnabled = false)
+
+        // When
+        val result = nadel
+            .execute(
+                newNadelExecutionInput()
+                    .query(query)
+                    .executionHints(
+                        NadelExecutionHints.newHints()
+                            .executionTraceExtensions { true }
+                            .build(),
+                    )
+                    .build(),
+            )
+            .await()
+
+        // Then
+        assertTrue(result.errors.isEmpty())
+
+        @Suppress("UNCHECKED_CAST")
+        val trace = result.extensions["nadelExecutionTrace"] as Map<String, Any?>
+        assertEquals(traces.single().toSpecification(), trace)
+
+        @Suppress("UNCHECKED_CAST")
+        val calls = trace["calls"] as List<Map<String, Any?>>
+        assertEquals("issues", calls.single()["service"])
+    }
+
+    @Test
+    fun `does not trace by default`() = runTest {
+        // Given
+        val nadel = makeNadel(isTraceEnabled = false)
+
+        // When
+        val result = nadel
+            .execute(
+                newNadelExecutionInput()
+                    .query(query)
+                    .build(),
+            )
+            .await()
+
+        // Then
+        assertTrue(result.errors.isEmpty())
+        assertTrue(traces.isEmpty())
+    }
+
+    private fun executeIssues(parameters: ServiceExecutionParameters): CompletableFuture<ServiceExecutionResult> {
+        val field = parameters.executableNormalizedField
+        val issues = (1..3).map { id ->
+            field.children.associate { child ->
+                child.resultKey to when (child.fieldName) {
+                    "id" -> "issue-$id"
+                    "assigneeId" -> "user-$id"
+                    "__typename" -> "Issue"
+                    else -> null
+                }
+            }
+        }
+
+        return CompletableFuture.completedFuture(
+            NadelServiceExecutionResultImpl(data = mutableMapOf(field.resultKey to issues)),
+        )
+    }
+
+    private fun executeUsers(parameters: ServiceExecutionParameters): CompletableFuture<ServiceExecutionResult> {
+        val field = parameters.executableNormalizedField
+        val ids = when (val value = field.normalizedArguments["ids"]!!.value) {
+            is ArrayValue -> value.values.map { (it as StringValue).value }
+            else -> (value as List<*>).map { it as String }
+        }
+        val users = ids.map { id ->
+            field.children.associate { child ->
+                child.resultKey to when (child.fieldName) {
+                    "id" -> id
+                    "name" -> "Name of $id"
+                    "__typename" -> "User"
+                    else -> null
+                }
+            }
+        }
+
+        return CompletableFuture.completedFuture(
+            NadelServiceExecutionResultImpl(data = mutableMapOf(field.resultKey to users)),
+        )
+    }
+}
@@ -0,0 +1,370 @@
+package graphql.nadel
+
+import graphql.ExecutionResult
+import graphql.nadel.NadelExecutionInput.Companion.newNadelExecutionInput
+import graphql.language.ArrayValue
+import graphql.language.StringValue
+import graphql.normalized.ExecutableNormalizedField
+import kotlinx.coroutines.flow.Flow
+import kotlinx.coroutines.flow.flow
+import kotlinx.coroutines.flow.flowOf
+import kotlinx.coroutines.flow.toList
+import kotlinx.coroutines.future.await
+import kotlinx.coroutines.reactive.asFlow
+import kotlinx.coroutines.reactive.asPublisher
+import kotlinx.coroutines.test.runTest
+import org.reactivestreams.Publisher
+import java.time.Duration
+import java.util.concurrent.CompletableFuture
+import java.util.concurrent.CopyOnWriteArrayList
+import java.util.concurrent.atomic.AtomicInteger
+import kotlin.test.Test
+import kotlin.test.assertEquals
+import kotlin.test.assertTrue
+
+private const val source = "$" + "source"
+
+class NadelSubscriptionTest {
+    private val issuesCalls = AtomicInteger()
+    private val usersCalls = AtomicInteger()
+    private val usersByIdsCalls = CopyOnWriteArrayList<List<String>>()
+
+    private val nadel = makeNadel(subscriptionHydrationWindow = Duration.ofMillis(50))
+
+    private fun makeNadel(subscriptionHydrationWindow: Duration): Nadel = Nadel.newNadel()
+        .overallSchemas(
+            mapOf(
+                "issues" to """
+                    type Query {
+                        issue(id: ID!): Issue
+                    }
+                    type Subscription {
+                        issueUpdated: Issue
+                    }
+                    type Issue {
+                        id: ID!
+                        title: String @renamed(from: "name")
+                        assignee: User
+                            @hydrated(
+                                service: "users"
+                                field: "user"
+                                arguments: [{name: "id", value: "$source.assigneeId"}]
+                            )
+                        watchers: [User]
+                            @hydrated(
+                                service: "users"
+                                field: "usersByIds"
+                                arguments: [{name: "ids", value: "$source.watcherIds"}]
+                                identifiedBy: "id"
+                            )
+                    }
+                """.trimIndent(),
+                "users" to """
+                    type Query {
+                        user(id: ID!): User
+                        usersByIds(ids: [ID!]!): [User]
+                    }
+                    type User {
+                        id: ID!
+                        name: String
+                    }
+                """.trimIndent(),
+            ),
+        )
+        .underlyingSchemas(
+            mapOf(
+                "issues" to """
+                    type Query {
+                        issue(id: ID!): Issue
+                    }
+                    type Subscription {
+                        issueUpdated: Issue
+                    }
+                    type Issue {
+                        id: ID!
+                        name: String
+                        assigneeId: ID
+                        watcherIds: [ID]
+                    }
+                """.trimIndent(),
+                "users" to """
+                    type Query {
+                        user(id: ID!): User
+                        usersByIds(ids: [ID!]!): [User]
+                    }
+                    type User {
+                        id: ID!
+                        name: String
+                    }
+                """.trimIndent(),
+            ),
+        )
+        .serviceExecutionFactory(
+            object : ServiceExecutionFactory {
+                override fun getServiceExecution(serviceName: String): ServiceExecution {
+                    return when (serviceName) {
+                        "issues" -> ServiceExecution(::executeIssues)
+                        "users" -> ServiceExecution(::executeUsers)
+                        else -> throw UnsupportedOperationException(serviceName)
+                    }
+                }
+            },
+        )
+        .subscriptionHydrationWindow(subscriptionHydrationWindow)
+        .build()
+
+    @Test
+    fun `transforms every event of the subscription`() = runTest {
+        // When
+        val result = nadel
+            .execute(
+                newNadelExecutionInput()
+                    .query(
+                        """
+                            subscription {
+                                issueUpdated {
+                                    id
+                                    title
+                                    assignee {
+                                        name
+                                    }
+                                }
+                            }
+                        """.trimIndent(),
+                    )
+                    .build(),
+            )
+            .await()
+
+        // Then
+        assertTrue(result.errors.isEmpty())
+        val events = result.getData<Publisher<ExecutionResult>>()
+            .asFlow()
+            .toList()
+            .map { it.toSpecification() }
+
+        assertEquals(
+            listOf(
+                mapOf(
+                    "data" to mapOf(
+                        "issueUpdated" to mapOf(
+                            "id" to "1",
+                            "title" to "First",
+                            "assignee" to mapOf("name" to "Name of user-1"),
+                        ),
+                    ),
+                ),
+                mapOf(
+                    "data" to mapOf(
+                        "issueUpdated" to mapOf(
+                            "id" to "2",
+                            "title" to "Second",
+                            "assignee" to mapOf("name" to "Name of user-2"),
+                        ),
+                    ),
+                ),
+            ),
+            events,
+        )
+        // The subscription is only started once, each event is hydrated
+        assertEquals(1, issuesCalls.get())
+        assertEquals(2, usersCalls.get())
+    }
+
+    @Test
+    fun `batch hydrates events within the window together`() = runTest {
+        // Given
+        val nadel = makeNadel(subscriptionHydrationWindow = Duration.ofMinutes(1))
+
+        // When
+        val events = executeWatchersSubscription(nadel)
+
+        // Then
+        assertEquals(
+            listOf(
+                listOf("Name of user-1", "Name of user-2"),
+                listOf("Name of user-2", "Name of user-3"),
+            ),
+            events,
+        )
+        // Both events are sent as soon as the service has no more, not when the window elapses
+        assertEquals(listOf(setOf("user-1", "user-2", "user-3")), usersByIdsCalls.map { it.toSet() })
+    }
+
+    @Test
+    fun `batch hydrates every event on its own without a window`() = runTest {
+        // Given
+        val nadel = makeNadel(subscriptionHydrationWindow = Duration.ZERO)
+
+        // When
+        val events = executeWatchersSubscription(nadel)
+
+        // Then
+        assertEquals(
+            listOf(
+                listOf("Name of user-1", "Name of user-2"),
+                listOf("Name of user-2", "Name of user-3"),
+            ),
+            events,
+        )
+        assertEquals(listOf(listOf("user-1", "user-2"), listOf("user-2", "user-3")), usersByIdsCalls)
+    }
+
+    @Test
+    fun `returns error if service does not stream`() = runTest {
+        // When
+        val result = nadel
+            .execute(
+                newNadelExecutionInput()
+                    .query(
+                        """
+                            subscription {
+                                issueUpdated {
+                                    id
+                                }
+                            }
+                        """.trimIndent(),
+                    )
+                    .operationName(null)
+                    .context("no-stream")
+                    .build(),
+            )
+            .await()
+
+        // Then
+        assertEquals(mapOf("issueUpdated" to null), result.getData<Map<String, Any?>>())
+        assertEquals(listOf("Cannot subscribe"), result.errors.map { it.message })
+    }
+
+    /**
+     * @return the names of the watchers of each event
+     */
+    private suspend fun executeWatchersSubscription(nadel: Nadel): List<List<Any?>> {
+        val result = nadel
+            .execute(
+                newNadelExecutionInput()
+                    .query(
+                        """
+                            subscription {
+                                issueUpdated {
+                                    watchers {
+                                        name
+                                    }
+                                }
+                            }
+                        """.trimIndent(),
+                    )
+                    .build(),
+            )
+            .await()
+
+        assertTrue(result.errors.isEmpty())
+        return result.getData<Publisher<ExecutionResult>>()
+            .asFlow()
+            .toList()
+            .map { event ->
+                val issue = event.getData<Map<String, Map<String, Any?>>>()["issueUpdated"]!!
+                (issue["watchers"] as List<*>).map { (it as Map<*, *>)["name"] }
+            }
+    }
+
+    private fun executeIssues(parameters: ServiceExecutionParameters): CompletableFuture<ServiceExecutionResult> {
+        issuesCalls.incrementAndGet()
+        val field = parameters.executableNormalizedField
+
+        if (parameters.context == "no-stream") {
+            return CompletableFuture.completedFuture(
+                NadelServiceExecutionResultImpl(
+                    data = mutableMapOf(field.resultKey to null),
+                    errors = mutableListOf(mutableMapOf("message" to "Cannot subscribe")),
+                ),
+            )
+        }
+
+        val events = listOf(
+            mapOf(
+                "id" to "1",
+                "name" to "First",
+                "assigneeId" to "user-1",
+                "watcherIds" to listOf("user-1", "user-2"),
+            ),
+            mapOf(
+                "id" to "2",
+                "name" to "Second",
+                "assigneeId" to "user-2",
+                "watcherIds" to listOf("user-2", "user-3"),
+            ),
+        )
+
+        return CompletableFuture.completedFuture(
+            NadelSubscriptionServiceExecutionResult(
+                eventPublisher = flowOf(*events.toTypedArray())
+                    .asPublisherOfResults(field, typeName = "Issue"),
+            ),
+        )
+    }
+
+    private fun executeUsers(parameters: ServiceExecutionParameters): CompletableFuture<ServiceExecutionResult> {
+        usersCalls.incrementAndGet()
+        val field = parameters.executableNormalizedField
+
+        if (field.name == "usersByIds") {
+            val ids = when (val value = field.normalizedArguments["ids"]!!.value) {
+                is ArrayValue -> value.values.map { (it as StringValue).value }
+                else -> (value as List<*>).map { it as String }
+            }
+            usersByIdsCalls.add(ids)
+
+            return CompletableFuture.completedFuture(
+                NadelServiceExecutionResultImpl(
+                    data = mutableMapOf(
+                        field.resultKey to ids.map { id ->
+                            makeObject(field, typeName = "User", mapOf("id" to id, "name" to "Name of $id"))
+                        },
+                    ),
+                ),
+            )
+        }
+
+        val id = when (val value = field.normalizedArguments["id"]!!.value) {
+            is StringValue -> value.value
+            else -> value.toString()
+        }
+
+        return CompletableFuture.completedFuture(
+            NadelServiceExecutionResultImpl(
+                data = mutableMapOf(
+                    field.resultKey to makeObject(field, typeName = "User", mapOf("id" to id, "name" to "Name of $id")),
+                ),
+            ),
+        )
+    }
+
+    private fun Flow<Map<String, Any?>>.asPublisherOfResults(
+        field: ExecutableNormalizedField,
+        typeName: String,
+    ): Publisher<NadelServiceExecutionResultImpl> {
+        return flow {
+            collect { values ->
+                emit(
+                    NadelServiceExecutionResultImpl(
+                        data = mutableMapOf(field.resultKey to makeObject(field, typeName, values)),
+                    ),
+                )
+            }
+        }.asPublisher()
+    }
+
+    private fun makeObject(
+        field: ExecutableNormalizedField,
+        typeName: String,
+        values: Map<String, Any?>,
+    ): Map<String, Any?> {
+        return field.children.associate { child ->
+            child.resultKey to when (child.name) {
+                "__typename" -> typeName
+                else -> values[child.name]
+            }
+        }
+    }
+}
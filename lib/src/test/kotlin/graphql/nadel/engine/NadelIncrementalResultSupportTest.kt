@@ -6,6 +6,7 @@ import graphql.incremental.DelayedIncrementalPartialResultImpl
 import graphql.nadel.test.mock
 import io.mockk.confirmVerified
 import io.mockk.every
+import io.mockk.verify
 import io.mockk.verifyAll
 import io.mockk.verifyOrder
 import kotlinx.coroutines.CompletableDeferred
@@ -28,6 +29,9 @@ import kotlinx.coroutines.withTimeoutOrNull
 import org.junit.jupiter.api.AfterEach
 import org.junit.jupiter.api.Test
 import org.junit.jupiter.api.assertThrows
+import java.time.Duration
+import java.util.Collections
+import java.util.concurrent.atomic.AtomicInteger
 import kotlin.test.assertFalse
 import kotlin.test.assertTrue
 import kotlin.time.Duration.Companion.milliseconds
@@ -684,6 +688,135 @@ class NadelIncrementalResultSupportTest {
         assertTrue(exception.message == "Cannot close outstanding job more than once")
     }
 
+    @Test
+    fun `deferred jobs wait for consumer instead of dropping results when channel is full`() = runTest {
+        val sendCount = AtomicInteger()
+        val pendingSendCount = AtomicInteger()
+        val secondSendStarted = CompletableDeferred<Unit>()
+        val bufferChannel = Channel<DelayedIncrementalPartialResult>(capacity = 1)
+        val channel = object : Channel<DelayedIncrementalPartialResult> by bufferChannel {
+            override suspend fun send(element: DelayedIncrementalPartialResult) {
+                pendingSendCount.incrementAndGet()
+                if (sendCount.incrementAndGet() == 2) {
+                    secondSendStarted.complete(Unit)
+                }
+                bufferChannel.send(element)
+                pendingSendCount.decrementAndGet()
+            }
+        }
+        val flushes = Collections.synchronizedList(mutableListOf<NadelIncrementalResultSupport.Flush>())
+
+        val subject = NadelIncrementalResultSupport(lazy { accumulator }, channel, onFlush = flushes::add)
+
+        every {
+            accumulator.accumulate(any())
+        } returns Unit
+        every {
+            accumulator.getIncrementalPartialResult(any())
+        } answers {
+            DelayedIncrementalPartialResultImpl.newIncrementalExecutionResult()
+                .incrementalItems(emptyList())
+                .hasNext(firstArg())
+                .build()
+        }
+
+        // When
+        repeat(3) {
+            subject.defer {
+                DelayedIncrementalPartialResultImpl.newIncrementalExecutionResult()
+                    .incrementalItems(emptyList())
+                    .hasNext(true)
+                    .build()
+            }
+        }
+        subject.onInitialResultComplete()
+
+        // Then
+        secondSendStarted.await()
+        // The second result is stuck in send until it is consumed, the third job is waiting for it
+        assertTrue(pendingSendCount.get() == 1)
+        assertTrue(sendCount.get() == 2)
+        assertTrue(flushes.size == 1)
+        assertTrue(flushes.single().bufferedResultCount == 1)
+
+        val results = subject.resultFlow().toList()
+        assertTrue(results.size == 3)
+        assertTrue(results.map { it.hasNext() } == listOf(true, true, false))
+        assertTrue(flushes.map { it.hasNext } == listOf(true, true, false))
+
+        verify(exactly = 3) {
+            accumulator.accumulate(any())
+        }
+        verify(exactly = 2) {
+            accumulator.getIncrementalPartialResult(true)
+        }
+        verify(exactly = 1) {
+            accumulator.getIncrementalPartialResult(false)
+        }
+    }
+
+    @Test
+    fun `results completed within flush interval are emitted together`() = runTest {
+        val channel = Channel<DelayedIncrementalPartialResult>(UNLIMITED)
+
+        val subject = NadelIncrementalResultSupport(
+            lazy { accumulator },
+            channel,
+            flushInterval = Duration.ofMillis(50),
+        )
+        val lastLock = Mutex(true)
+
+        every {
+            accumulator.accumulate(any())
+        } returns Unit
+        every {
+            accumulator.getIncrementalPartialResult(any())
+        } answers {
+            DelayedIncrementalPartialResultImpl.newIncrementalExecutionResult()
+                .incrementalItems(emptyList())
+                .hasNext(firstArg())
+                .build()
+        }
+
+        // When
+        repeat(2) {
+            subject.defer {
+                DelayedIncrementalPartialResultImpl.newIncrementalExecutionResult()
+                    .incrementalItems(emptyList())
+                    .hasNext(true)
+                    .build()
+            }
+        }
+        subject.defer {
+            lastLock.withLock {
+                DelayedIncrementalPartialResultImpl.newIncrementalExecutionResult()
+                    .incrementalItems(emptyList())
+                    .hasNext(true)
+                    .build()
+            }
+        }
+        subject.onInitialResultComplete()
+
+        // Then
+        val first = channel.receive()
+        assertTrue(first.hasNext())
+
+        lastLock.unlock()
+
+        val last = channel.receive()
+        assertFalse(last.hasNext())
+
+        assertTrue(channel.toList().isEmpty())
+
+        verifyOrder {
+            accumulator.accumulate(any())
+            accumulator.accumulate(any())
+            accumulator.getIncrementalPartialResult(true)
+            accumulator.accumulate(any())
+            accumulator.getIncrementalPartialResult(false)
+        }
+    }
+
     @Test
     fun `channel still closes if the last defer job fails`() {
         var testCompleted = false
@@ -0,0 +1,150 @@
+package graphql.nadel.engine
+
+import graphql.nadel.Service
+import graphql.nadel.engine.instrumentation.NadelInstrumentationTimer
+import graphql.nadel.instrumentation.NadelInstrumentation
+import graphql.nadel.instrumentation.parameters.NadelInstrumentationTimingParameters
+import graphql.nadel.instrumentation.parameters.NadelInstrumentationTimingParameters.ChildStep
+import graphql.nadel.test.mock
+import io.mockk.every
+import kotlinx.coroutines.CompletableDeferred
+import kotlinx.coroutines.launch
+import kotlinx.coroutines.test.runTest
+import kotlinx.coroutines.yield
+import java.util.Collections
+import java.util.concurrent.atomic.AtomicInteger
+import kotlin.test.Test
+import kotlin.test.assertEquals
+import kotlin.test.assertTrue
+
+class NadelServiceConcurrencyLimiterTest {
+    private val timings = Collections.synchronizedList(mutableListOf<NadelInstrumentationTimingParameters>())
+
+    private val service = mock<Service> {
+        every { it.name } returns "issues"
+    }
+
+    @Test
+    fun `limits calls of one request`() = runTest {
+        // Given
+        val subject = NadelServiceConcurrencyLimiter(
+            maxConcurrentCallsPerRequest = 2,
+            maxConcurrentCalls = Int.MAX_VALUE,
+        )
+        val executionContext = makeExecutionContext()
+
+        val inFlight = AtomicInteger()
+        val maxInFlight = AtomicInteger()
+        val gate = CompletableDeferred<Unit>()
+
+        // When
+        val calls = (1..5).map {
+            launch {
+                subject.withPermit(executionContext, service) {
+                    maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), ::maxOf)
+                    gate.await()
+                    inFlight.decrementAndGet()
+                }
+            }
+        }
+        yield()
+        gate.complete(Unit)
+        calls.forEach { it.join() }
+
+        // Then
+        assertEquals(2, maxInFlight.get())
+        assertEquals(5, timings.size)
+        assertTrue(timings.all { it.step == ChildStep.ServiceConcurrencyLimit })
+        assertEquals(listOf(0, 0, 0, 1, 2), timings.map { it.queueDepth }.sortedBy { it })
+    }
+
+    @Test
+    fun `limits calls across requests`() = runTest {
+        // Given
+        val subject = NadelServiceConcurrencyLimiter(
+            maxConcurrentCallsPerRequest = Int.MAX_VALUE,
+            maxConcurrentCalls = 1,
+        )
+        val executionContexts = listOf(makeExecutionContext(), makeExecutionContext())
+
+        val inFlight = AtomicInteger()
+        val maxInFlight = AtomicInteger()
+        val gate = CompletableDeferred<Unit>()
+
+        // When
+        val calls = executionContexts.map { executionContext ->
+            launch {
+                subject.withPermit(executionContext, service) {
+                    maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), ::maxOf)
+                    gate.await()
+                    inFlight.decrementAndGet()
+                }
+            }
+        }
+        yield()
+        gate.complete(Unit)
+        calls.forEach { it.join() }
+
+        // Then
+        assertEquals(1, maxInFlight.get())
+    }
+
+    @Test
+    fun `releases permits when call fails`() = runTest {
+        // Given
+        val subject = NadelServiceConcurrencyLimiter(
+            maxConcurrentCallsPerRequest = 1,
+            maxConcurrentCalls = 1,
+        )
+        val executionContext = makeExecutionContext()
+
+        // When
+        runCatching {
+            subject.withPermit(executionContext, service) {
+                throw UnsupportedOperationException()
+            }
+        }
+        val result = subject.withPermit(executionContext, service) {
+            "Hello"
+        }
+
+        // Then
+        assertEquals("Hello", result)
+    }
+
+    @Test
+    fun `does not time calls when unbounded`() = runTest {
+        // Given
+        val subject = NadelServiceConcurrencyLimiter(
+            maxConcurrentCallsPerRequest = Int.MAX_VALUE,
+            maxConcurrentCalls = Int.MAX_VALUE,
+        )
+
+        // When
+        subject.withPermit(makeExecutionContext(), service) {
+        }
+
+        // Then
+        assertTrue(timings.isEmpty())
+    }
+
+    private fun makeExecutionContext(): NadelExecutionContext {
+        val timer = NadelInstrumentationTimer(
+            isEnabled = true,
+            ticker = { 0L },
+            instrumentation = object : NadelInstrumentation {
+                override fun onStepTimed(parameters: NadelInstrumentationTimingParameters) {
+                    timings.add(parameters)
+                }
+            },
+            userContext = null,
+            instrumentationState = null,
+        )
+        val servicePermits = NadelServiceConcurrencyLimiter.RequestPermits()
+
+        return mock {
+            every { it.timer } returns timer
+            every { it.servicePermits } returns servicePermits
+        }
+    }
+}
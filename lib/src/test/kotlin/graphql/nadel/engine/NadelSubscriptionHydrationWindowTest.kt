@@ -0,0 +1,76 @@
+package graphql.nadel.engine
+
+import kotlinx.coroutines.delay
+import kotlinx.coroutines.flow.flow
+import kotlinx.coroutines.flow.flowOf
+import kotlinx.coroutines.flow.map
+import kotlinx.coroutines.flow.toList
+import kotlinx.coroutines.test.currentTime
+import kotlinx.coroutines.test.runTest
+import java.time.Duration
+import kotlin.test.Test
+import kotlin.test.assertEquals
+
+class NadelSubscriptionHydrationWindowTest {
+    private val subject = NadelSubscriptionHydrationWindow(Duration.ofMillis(100))
+
+    @Test
+    fun `groups events that arrive within window of the first event`() = runTest {
+        // Given
+        val events = flow {
+            emit(1)
+            delay(50)
+            emit(2)
+            delay(100)
+            emit(3)
+            delay(150)
+            emit(4)
+        }
+
+        // When
+        val windows = subject.getWindows(events).toList()
+
+        // Then
+        assertEquals(listOf(listOf(1, 2), listOf(3), listOf(4)), windows)
+    }
+
+    @Test
+    fun `sends window once it elapses`() = runTest {
+        // Given
+        val events = flow {
+            emit(1)
+            delay(1000)
+            emit(2)
+        }
+
+        // When
+        val windows = subject.getWindows(events)
+            .map { it to currentTime }
+            .toList()
+
+        // Then
+        assertEquals(listOf(listOf(1) to 100L, listOf(2) to 1000L), windows)
+    }
+
+    @Test
+    fun `sends last window once events end`() = runTest {
+        // When
+        val windows = subject.getWindows(flowOf(1, 2)).toList()
+
+        // Then
+        assertEquals(listOf(listOf(1, 2)), windows)
+        assertEquals(0, currentTime)
+    }
+
+    @Test
+    fun `zero window sends every event on its own`() = runTest {
+        // Given
+        val subject = NadelSubscriptionHydrationWindow(Duration.ZERO)
+
+        // When
+        val windows = subject.getWindows(flowOf(1, 2)).toList()
+
+        // Then
+        assertEquals(listOf(listOf(1), listOf(2)), windows)
+    }
+}
@@ -0,0 +1,172 @@
+package graphql.nadel.engine.blueprint
+
+import graphql.introspection.IntrospectionQuery
+import graphql.nadel.Nadel
+import graphql.nadel.NadelExecutionHints
+import graphql.nadel.NadelExecutionInput.Companion.newNadelExecutionInput
+import graphql.nadel.ServiceExecution
+import graphql.nadel.ServiceExecutionFactory
+import graphql.schema.GraphQLSchema
+import kotlinx.coroutines.future.await
+import kotlinx.coroutines.test.runTest
+import kotlin.test.Test
+import kotlin.test.assertEquals
+import kotlin.test.assertTrue
+
+class NadelDefaultIntrospectionRunnerTest {
+    private val runners = mutableMapOf<GraphQLSchema, NadelDefaultIntrospectionRunner>()
+
+    private val nadel = Nadel.newNadel()
+        .overallSchemas(
+            mapOf(
+                "issues" to """
+                    type Query {
+                        issue(id: ID!): Issue
+                    }
+                    type Issue {
+                        id: ID!
+                        title: String
+                    }
+                """.trimIndent(),
+            ),
+        )
+        .underlyingSchemas(
+            mapOf(
+                "issues" to """
+                    type Query {
+                        issue(id: ID!): Issue
+                    }
+                    type Issue {
+                        id: ID!
+                        title: String
+                    }
+                """.trimIndent(),
+            ),
+        )
+        .serviceExecutionFactory(
+            object : ServiceExecutionFactory {
+                override fun getServiceExecution(serviceName: String): ServiceExecution {
+                    return ServiceExecution {
+                        throw UnsupportedOperationException(serviceName)
+                    }
+                }
+            },
+        )
+        .introspectionRunnerFactory { schema ->
+            NadelDefaultIntrospectionRunner(schema).also { runners[schema] = it }
+        }
+        .build()
+
+    private val querySchemaRunner: NadelDefaultIntrospectionRunner
+        get() = runners[nadel.querySchema]!!
+
+    @Test
+    fun `precomputed introspection query result is used`() = runTest {
+        // Given
+        val runner = querySchemaRunner
+        assertEquals(2, runner.resultCacheSize)
+
+        // When
+        val results = (1..2).map {
+            nadel
+                .execute(
+                    newNadelExecutionInput()
+                        .query(IntrospectionQuery.INTROSPECTION_QUERY)
+                        .operationName("IntrospectionQuery")
+                        .build(),
+                )
+                .await()
+        }
+
+        // Then
+        assertTrue(results.all { it.errors.isEmpty() })
+        assertEquals(results[0].getData<Any?>(), results[1].getData<Any?>())
+        assertEquals(2, runner.resultCacheSize)
+    }
+
+    @Test
+    fun `precomputed introspection query result is used when all document variables hint is on`() = runTest {
+        // Given
+        val runner = querySchemaRunner
+        assertEquals(2, runner.resultCacheSize)
+
+        // When
+        val result = nadel
+            .execute(
+                newNadelExecutionInput()
+                    .query(IntrospectionQuery.INTROSPECTION_QUERY)
+                    .operationName("IntrospectionQuery")
+                    .executionHints(
+                        NadelExecutionHints.newHints()
+                            .allDocumentVariablesHint { true }
+                            .build(),
+                    )
+                    .build(),
+            )
+            .await()
+
+        // Then
+        assertTrue(result.errors.isEmpty())
+        assertEquals(2, runner.resultCacheSize)
+    }
+
+    @Test
+    fun `caches results per document and variables`() = runTest {
+        // Given
+        val runner = querySchemaRunner
+        val query = """
+            query (${"$"}name: String!) {
+                __type(name: ${"$"}name) {
+                    name
+                    fields {
+                        name
+                    }
+                }
+            }
+        """.trimIndent()
+
+        // When
+        val results = listOf("Issue", "Query", "Issue").map { name ->
+            nadel
+                .execute(
+                    newNadelExecutionInput()
+                        .query(query)
+                        .variables(mapOf("name" to name))
+                        .build(),
+                )
+                .await()
+        }
+
+        // Then
+        assertEquals(4, runner.resultCacheSize)
+        assertEquals(
+            listOf("Issue", "Query", "Issue"),
+            results.map { result ->
+                result.getData<Map<String, Map<String, Any?>>>()["__type"]!!["name"]
+            },
+        )
+        assertEquals(results[0].getData<Any?>(), results[2].getData<Any?>())
+    }
+
+    @Test
+    fun `cached results can be modified`() = runTest {
+        // Given
+        val runner = querySchemaRunner
+        val input = newNadelExecutionInput()
+            .query("query { __schema { queryType { name } } }")
+            .build()
+
+        // When
+        nadel.execute(input).await()
+            .getData<MutableMap<String, Any?>>()
+            .clear()
+        val result = nadel.execute(input).await()
+
+        // Then
+        assertEquals(3, runner.resultCacheSize)
+        assertEquals(
+            mapOf("__schema" to mapOf("queryType" to mapOf("name" to "Query"))),
+            result.getData<Map<String, Any?>>(),
+        )
+    }
+}
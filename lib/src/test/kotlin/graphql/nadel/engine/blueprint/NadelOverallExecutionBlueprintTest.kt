@@ -0,0 +1,83 @@
+package graphql.nadel.engine.blueprint
+
+import graphql.nadel.util.NadelFieldMap
+import graphql.normalized.ExecutableNormalizedField
+import graphql.normalized.ExecutableNormalizedField.newNormalizedField
+import graphql.schema.FieldCoordinates
+import graphql.schema.idl.SchemaGenerator
+import org.junit.jupiter.api.Test
+import kotlin.test.assertEquals
+import kotlin.test.assertTrue
+
+class NadelOverallExecutionBlueprintTest {
+    private val blueprint = NadelOverallExecutionBlueprint(
+        engineSchema = SchemaGenerator.createdMockedSchema(
+            // language=GraphQL
+            """
+                type Query {
+                    issue: Issue
+                }
+                type Issue {
+                    title: String
+                    key: String
+                }
+            """.trimIndent(),
+        ),
+        fieldInstructions = NadelFieldMap.groupBy(
+            values = listOf(
+                NadelRenameFieldInstruction(
+                    location = FieldCoordinates.coordinates("Issue", "title"),
+                    underlyingName = "name",
+                ),
+                NadelStubbedInstruction(
+                    location = FieldCoordinates.coordinates("Issue", "title"),
+                ),
+                NadelStubbedInstruction(
+                    location = FieldCoordinates.coordinates("Comment", "title"),
+                ),
+            ),
+            getCoordinates = NadelFieldInstruction::location,
+        ),
+        underlyingTypeNamesByService = emptyMap(),
+        reachableUnderlyingTypeNamesByService = emptyMap(),
+        reducedUnderlyingTypeNamesByService = emptyMap(),
+        overallTypeNamesByService = emptyMap(),
+        underlyingBlueprints = emptyMap(),
+        coordinatesToService = emptyMap(),
+        typeRenamesByOverallTypeName = emptyMap(),
+    )
+
+    @Test
+    fun `gets instruction types of field`() {
+        // When
+        val types = blueprint.getFieldInstructionTypes(makeField("title", "Issue"))
+
+        // Then
+        assertEquals(setOf(NadelRenameFieldInstruction::class.java, NadelStubbedInstruction::class.java), types)
+    }
+
+    @Test
+    fun `gets instruction types across object types`() {
+        // When
+        val types = blueprint.getFieldInstructionTypes(makeField("title", "Comment", "Page"))
+
+        // Then
+        assertEquals(setOf(NadelStubbedInstruction::class.java), types)
+    }
+
+    @Test
+    fun `field without instructions has no instruction types`() {
+        // When
+        val types = blueprint.getFieldInstructionTypes(makeField("key", "Issue"))
+
+        // Then
+        assertTrue(types.isEmpty())
+    }
+
+    private fun makeField(fieldName: String, vararg objectTypeNames: String): ExecutableNormalizedField {
+        return newNormalizedField()
+            .objectTypeNames(objectTypeNames.toList())
+            .fieldName(fieldName)
+            .build()
+    }
+}
@@ -0,0 +1,169 @@
+package graphql.nadel.engine.document
+
+import graphql.language.AstPrinter
+import graphql.language.Document
+import graphql.language.OperationDefinition
+import graphql.language.StringValue
+import graphql.nadel.NadelExecutionHints
+import graphql.nadel.Service
+import graphql.nadel.engine.NadelExecutionContext
+import graphql.nadel.test.mock
+import graphql.normalized.ExecutableNormalizedField
+import graphql.normalized.ExecutableNormalizedField.newNormalizedField
+import graphql.normalized.ExecutableNormalizedOperationToAstCompiler.CompilerResult
+import graphql.normalized.NormalizedInputValue
+import graphql.parser.Parser
+import io.mockk.every
+import org.junit.jupiter.api.Test
+import kotlin.test.assertEquals
+import kotlin.test.assertFailsWith
+import kotlin.test.assertNotEquals
+import kotlin.test.assertNull
+import kotlin.test.assertTrue
+
+class NadelCompiledDocumentCacheTest {
+    private val service = mock<Service> {
+        every { it.name } returns "issues"
+    }
+
+    @Test
+    fun `no key when hint is off`() {
+        val cache = NadelCompiledDocumentCache(maxSize = 10)
+
+        // When
+        val key = getKey(cache, makeContext(enabled = false), makeQuery(id = "1"))
+
+        // Then
+        assertNull(key)
+    }
+
+    @Test
+    fun `same fields and values share entry`() {
+        val cache = NadelCompiledDocumentCache(maxSize = 10)
+        val context = makeContext(enabled = true)
+
+        val key = getKey(cache, context, makeQuery(id = "1"))!!
+        val cached = cache.put(key, CompilerResult(makeDocument(), mutableMapOf()))
+
+        // When
+        val otherKey = getKey(cache, context, makeQuery(id = "1"))!!
+
+        // Then
+        assertTrue(cache[otherKey] === cached)
+    }
+
+    @Test
+    fun `cached document prints query once`() {
+        val cache = NadelCompiledDocumentCache(maxSize = 10)
+        val context = makeContext(enabled = true)
+        val document = makeDocument()
+
+        val key = getKey(cache, context, makeQuery(id = "1"))!!
+        cache.put(key, CompilerResult(document, mutableMapOf()))
+
+        // When
+        val first = cache[getKey(cache, context, makeQuery(id = "1"))!!]!!.queryString.value
+        val second = cache[getKey(cache, context, makeQuery(id = "1"))!!]!!.queryString.value
+
+        // Then
+        assertEquals(AstPrinter.printAstCompact(document), first)
+        assertTrue(first === second)
+    }
+
+    @Test
+    fun `different argument values do not share entry`() {
+        val cache = NadelCompiledDocumentCache(maxSize = 10)
+        val context = makeContext(enabled = true)
+
+        // When
+        val key = getKey(cache, context, makeQuery(id = "1"))
+        val otherKey = getKey(cache, context, makeQuery(id = "2"))
+
+        // Then
+        assertNotEquals(key, otherKey)
+    }
+
+    @Test
+    fun `different aliases do not share entry`() {
+        val cache = NadelCompiledDocumentCache(maxSize = 10)
+        val context = makeContext(enabled = true)
+
+        // When
+        val key = getKey(cache, context, makeQuery(id = "1", alias = "a"))
+        val otherKey = getKey(cache, context, makeQuery(id = "1", alias = "b"))
+
+        // Then
+        assertNotEquals(key, otherKey)
+    }
+
+    @Test
+    fun `cached variables are read only`() {
+        val cache = NadelCompiledDocumentCache(maxSize = 10)
+        val key = getKey(cache, makeContext(enabled = true), makeQuery(id = "1"))!!
+
+        // When
+        val cached = cache.put(key, CompilerResult(makeDocument(), mutableMapOf<String, Any>("v0" to "1")))
+
+        // Then
+        assertEquals(mapOf<String, Any>("v0" to "1"), cached.variables)
+        assertFailsWith<UnsupportedOperationException> {
+            @Suppress("UNCHECKED_CAST")
+            (cached.variables as MutableMap<String, Any>)["v1"] = "2"
+        }
+    }
+
+    private fun getKey(
+        cache: NadelCompiledDocumentCache,
+        executionContext: NadelExecutionContext,
+        field: ExecutableNormalizedField,
+    ): NadelCompiledDocumentCache.Key? {
+        return cache.getKey(
+            executionContext = executionContext,
+            service = service,
+            operationKind = OperationDefinition.Operation.QUERY,
+            operationName = null,
+            topLevelFields = listOf(field),
+            variablePredicate = DocumentPredicates.jsonPredicate,
+            deferSupport = false,
+            forcePrintBareFields = emptySet(),
+        )
+    }
+
+    private fun makeDocument(): Document {
+        return Parser().parseDocument("query { issue(id: \"1\") { title } }")
+    }
+
+    private fun makeContext(enabled: Boolean): NadelExecutionContext {
+        val hints = NadelExecutionHints.newHints()
+            .compiledDocumentCache { enabled }
+            .build()
+
+        return mock {
+            every { it.hints } returns hints
+        }
+    }
+
+    private fun makeQuery(
+        id: String,
+        alias: String? = null,
+    ): ExecutableNormalizedField {
+        return newNormalizedField()
+            .objectTypeNames(listOf("Query"))
+            .fieldName("issue")
+            .alias(alias)
+            .normalizedArguments(
+                mapOf(
+                    "id" to NormalizedInputValue("ID!", StringValue(id)),
+                ),
+            )
+            .children(
+                listOf(
+                    newNormalizedField()
+                        .objectTypeNames(listOf("Issue"))
+                        .fieldName("title")
+                        .build(),
+                ),
+            )
+            .build()
+    }
+}
@@ -3,6 +3,7 @@ package graphql.nadel.engine.instrumentation
 import graphql.execution.instrumentation.InstrumentationState
 import graphql.nadel.instrumentation.NadelInstrumentation
 import graphql.nadel.instrumentation.parameters.NadelInstrumentationIsTimingEnabledParameters
+import graphql.nadel.instrumentation.parameters.NadelInstrumentationStepTimingReportParameters
 import graphql.nadel.instrumentation.parameters.NadelInstrumentationTimingParameters
 import graphql.nadel.instrumentation.parameters.NadelInstrumentationTimingParameters.ChildStep
 import graphql.nadel.instrumentation.parameters.NadelInstrumentationTimingParameters.RootStep
@@ -17,7 +18,7 @@ class NadelInstrumentationTimerTest : DescribeSpec({
         it("records the time on success") {
             // given
             var time = 10L
-            val ticker = { Duration.ofMillis(time) }
+            val ticker = { Duration.ofMillis(time).toNanos() }
 
             var instrumentationParams: NadelInstrumentationTimingParameters? = null
             val instrumentation = object : NadelInstrumentation {
@@ -52,7 +53,7 @@ class NadelInstrumentationTimerTest : DescribeSpec({
         it("returns the result from the input function") {
             // given
             var time = 10L
-            val ticker = { Duration.ofMillis(time) }
+            val ticker = { Duration.ofMillis(time).toNanos() }
 
             var instrumentationParams: NadelInstrumentationTimingParameters? = null
             val instrumentation = object : NadelInstrumentation {
@@ -84,7 +85,7 @@ class NadelInstrumentationTimerTest : DescribeSpec({
         it("emits time on exception") {
             // given
             var time = 10L
-            val ticker = { Duration.ofMillis(time) }
+            val ticker = { Duration.ofMillis(time).toNanos() }
 
             var instrumentationParams: NadelInstrumentationTimingParameters? = null
             val instrumentation = object : NadelInstrumentation {
@@ -126,7 +127,7 @@ class NadelInstrumentationTimerTest : DescribeSpec({
         it("passes the user context and instrumentation state to the instrumentation") {
             // given
             var time = 10L
-            val ticker = { Duration.ofMillis(time) }
+            val ticker = { Duration.ofMillis(time).toNanos() }
 
             var instrumentationParams: NadelInstrumentationTimingParameters? = null
             val instrumentation = object : NadelInstrumentation {
@@ -174,7 +175,7 @@ class NadelInstrumentationTimerTest : DescribeSpec({
         it("handles exceptions inside onStepTimed") {
             // given
             var time = 10L
-            val ticker = { Duration.ofMillis(time) }
+            val ticker = { Duration.ofMillis(time).toNanos() }
 
             var instrumentationParams: NadelInstrumentationTimingParameters? = null
             val instrumentation = object : NadelInstrumentation {
@@ -214,7 +215,7 @@ class NadelInstrumentationTimerTest : DescribeSpec({
         it("handles exceptions inside onStepTimed when already handling exception from function") {
             // given
             var time = 10L
-            val ticker = { Duration.ofMillis(time) }
+            val ticker = { Duration.ofMillis(time).toNanos() }
 
             var instrumentationParams: NadelInstrumentationTimingParameters? = null
             val instrumentation = object : NadelInstrumentation {
@@ -257,7 +258,7 @@ class NadelInstrumentationTimerTest : DescribeSpec({
         it("time returns function result") {
             // given
             var time = 10L
-            val ticker = { Duration.ofMillis(time) }
+            val ticker = { Duration.ofMillis(time).toNanos() }
 
             val instrumentationParams = mutableListOf<NadelInstrumentationTimingParameters>()
             val instrumentation = object : NadelInstrumentation {
@@ -298,7 +299,7 @@ class NadelInstrumentationTimerTest : DescribeSpec({
         it("exceptions inside function are thrown to caller") {
             // given
             var time = 10L
-            val ticker = { Duration.ofMillis(time) }
+            val ticker = { Duration.ofMillis(time).toNanos() }
 
             val instrumentationParams = mutableListOf<NadelInstrumentationTimingParameters>()
             val instrumentation = object : NadelInstrumentation {
@@ -345,7 +346,7 @@ class NadelInstrumentationTimerTest : DescribeSpec({
         it("batch timer does not emit times until submit is invoked") {
             // given
             var time = 10L
-            val ticker = { Duration.ofMillis(time) }
+            val ticker = { Duration.ofMillis(time).toNanos() }
 
             val instrumentationParams = mutableListOf<NadelInstrumentationTimingParameters>()
             val instrumentation = object : NadelInstrumentation {
@@ -386,7 +387,7 @@ class NadelInstrumentationTimerTest : DescribeSpec({
         it("takes the highest time in a batch") {
             // given
             var time = 10L
-            val ticker = { Duration.ofMillis(time) }
+            val ticker = { Duration.ofMillis(time).toNanos() }
 
             val instrumentationParams = mutableListOf<NadelInstrumentationTimingParameters>()
             val instrumentation = object : NadelInstrumentation {
@@ -459,4 +460,98 @@ class NadelInstrumentationTimerTest : DescribeSpec({
             assert(resultTransformBatchHydration.internalLatency == Duration.ofMillis(256))
         }
     }
+
+    describe("flushReport") {
+        it("reports timings per step once") {
+            // given
+            var time = 10L
+            val ticker = { Duration.ofMillis(time).toNanos() }
+
+            val reports = mutableListOf<NadelInstrumentationStepTimingReportParameters>()
+            val instrumentation = object : NadelInstrumentation {
+                override fun onStepTimed(parameters: NadelInstrumentationTimingParameters) {
+                    throw UnsupportedOperationException("Only the report is enabled")
+                }
+
+                override fun onStepTimingReport(parameters: NadelInstrumentationStepTimingReportParameters) {
+                    reports.add(parameters)
+                }
+            }
+            val timer = NadelInstrumentationTimer(
+                isEnabled = false,
+                ticker = ticker,
+                instrumentation = instrumentation,
+                userContext = null,
+                instrumentationState = null,
+                isReportEnabled = true,
+            )
+            val hydrationStep = ChildStep(parent = RootStep.ResultTransforming, "NadelHydrationTransform")
+
+            // when
+            timer.time(RootStep.ExecutionPlanning) {
+                time += 16
+            }
+            assertThrows<UnsupportedOperationException> {
+                timer.time(RootStep.ExecutionPlanning) {
+                    time += 32
+                    throw UnsupportedOperationException()
+                }
+            }
+            timer.batch { batchTimer ->
+                batchTimer.time(hydrationStep) { time += 64 }
+                batchTimer.time(hydrationStep) { time += 128 }
+            }
+            timer.flushReport()
+            timer.flushReport()
+
+            // then
+            val report = reports.single()
+            assert(report.timings.size == 2)
+
+            val planning = report.timings.single { it.step == RootStep.ExecutionPlanning }
+            assert(planning.count == 2)
+            assert(planning.exceptionCount == 1)
+            assert(planning.totalInternalLatency == Duration.ofMillis(48))
+            assert(planning.maxInternalLatency == Duration.ofMillis(32))
+
+            val hydration = report.timings.single { it.step == hydrationStep }
+            assert(hydration.count == 2)
+            assert(hydration.exceptionCount == 0)
+            assert(hydration.totalInternalLatency == Duration.ofMillis(192))
+            assert(hydration.maxInternalLatency == Duration.ofMillis(128))
+        }
+
+        it("reports steps created after the timer") {
+            // given
+            var time = 10L
+            val ticker = { Duration.ofMillis(time).toNanos() }
+
+            var report: NadelInstrumentationStepTimingReportParameters? = null
+            val instrumentation = object : NadelInstrumentation {
+                override fun onStepTimingReport(parameters: NadelInstrumentationStepTimingReportParameters) {
+                    report = parameters
+                }
+            }
+            val timer = NadelInstrumentationTimer(
+                isEnabled = false,
+                ticker = ticker,
+                instrumentation = instrumentation,
+                userContext = null,
+                instrumentationState = null,
+                isReportEnabled = true,
+            )
+            val step = ChildStep(parent = RootStep.ServiceExecution, "NewService${System.nanoTime()}")
+
+            // when
+            timer.time(step) {
+                time += 8
+            }
+            timer.flushReport()
+
+            // then
+            val timing = requireNotNull(report).timings.single()
+            assert(timing.step == step)
+            assert(timing.totalInternalLatency == Duration.ofMillis(8))
+        }
+    }
 })
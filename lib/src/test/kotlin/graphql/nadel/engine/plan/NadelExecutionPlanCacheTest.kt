@@ -0,0 +1,114 @@
+package graphql.nadel.engine.plan
+
+import graphql.nadel.NadelExecutionHints
+import graphql.nadel.Service
+import graphql.nadel.engine.NadelExecutionContext
+import graphql.nadel.test.mock
+import graphql.normalized.ExecutableNormalizedField
+import graphql.normalized.ExecutableNormalizedField.newNormalizedField
+import io.mockk.every
+import org.junit.jupiter.api.Test
+import java.util.BitSet
+import kotlin.test.assertFalse
+import kotlin.test.assertNotNull
+import kotlin.test.assertNull
+import kotlin.test.assertTrue
+
+class NadelExecutionPlanCacheTest {
+    private val service = mock<Service> {
+        every { it.name } returns "issues"
+    }
+
+    @Test
+    fun `no key when hint is off`() {
+        val cache = NadelExecutionPlanCache(maxSize = 10)
+
+        // When
+        val key = cache.getKey(makeContext(enabled = false), service, listOf(makeQuery()), hydrationDetails = null)
+
+        // Then
+        assertNull(key)
+    }
+
+    @Test
+    fun `no key when cache is disabled`() {
+        val cache = NadelExecutionPlanCache(maxSize = 0)
+
+        // When
+        val key = cache.getKey(makeContext(enabled = true), service, listOf(makeQuery()), hydrationDetails = null)
+
+        // Then
+        assertNull(key)
+    }
+
+    @Test
+    fun `same shape with different aliases shares entry`() {
+        val cache = NadelExecutionPlanCache(maxSize = 10)
+        val context = makeContext(enabled = true)
+        val entry = NadelExecutionPlanCache.Entry(listOf(BitSet()))
+
+        val key = cache.getKey(context, service, listOf(makeQuery(alias = "a")), hydrationDetails = null)!!
+        cache.put(key, entry)
+
+        // When
+        val otherKey = cache.getKey(context, service, listOf(makeQuery(alias = "b")), hydrationDetails = null)!!
+
+        // Then
+        assertTrue(cache[otherKey] === entry)
+    }
+
+    @Test
+    fun `different shape does not share entry`() {
+        val cache = NadelExecutionPlanCache(maxSize = 10)
+        val context = makeContext(enabled = true)
+
+        val key = cache.getKey(context, service, listOf(makeQuery(childName = "title")), hydrationDetails = null)!!
+        cache.put(key, NadelExecutionPlanCache.Entry(listOf(BitSet())))
+
+        // When
+        val otherKey = cache.getKey(context, service, listOf(makeQuery(childName = "key")), hydrationDetails = null)!!
+
+        // Then
+        assertNotNull(cache[key])
+        assertNull(cache[otherKey])
+    }
+
+    @Test
+    fun `unknown fields are assumed applicable`() {
+        val applicable = BitSet().apply { set(2) }
+        val entry = NadelExecutionPlanCache.Entry(listOf(applicable))
+
+        assertTrue(entry.isApplicable(fieldIndex = 0, transformIndex = 2))
+        assertFalse(entry.isApplicable(fieldIndex = 0, transformIndex = 1))
+        assertTrue(entry.isApplicable(fieldIndex = 1, transformIndex = 1))
+    }
+
+    private fun makeContext(enabled: Boolean): NadelExecutionContext {
+        val hints = NadelExecutionHints.newHints()
+            .executionPlanCache { enabled }
+            .build()
+
+        return mock {
+            every { it.hints } returns hints
+        }
+    }
+
+    private fun makeQuery(
+        alias: String? = null,
+        childName: String = "title",
+    ): ExecutableNormalizedField {
+        return newNormalizedField()
+            .objectTypeNames(listOf("Query"))
+            .fieldName("issue")
+            .alias(alias)
+            .children(
+                listOf(
+                    newNormalizedField()
+                        .objectTypeNames(listOf("Issue"))
+                        .fieldName(childName)
+                        .build(),
+                ),
+            )
+            .build()
+    }
+}
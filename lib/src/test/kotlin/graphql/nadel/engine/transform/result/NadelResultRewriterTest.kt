@@ -0,0 +1,136 @@
+package graphql.nadel.engine.transform.result
+
+import com.fasterxml.jackson.module.kotlin.readValue
+import graphql.nadel.engine.transform.query.NadelQueryPath
+import graphql.nadel.engine.util.MutableJsonMap
+import graphql.nadel.jsonObjectMapper
+import graphql.normalized.ExecutableNormalizedField
+import org.junit.jupiter.api.Test
+import kotlin.test.assertEquals
+
+class NadelResultRewriterTest {
+    @Test
+    fun `visits every object at query path and removes artificial fields`() {
+        // Given
+        val data = jsonObjectMapper.readValue<MutableJsonMap>(
+            // language=JSON
+            """
+                {
+                  "issues": [
+                    {"rename__title__name": "First", "owner": {"id": "1"}},
+                    null,
+                    [{"rename__title__name": "Second", "owner": null}]
+                  ]
+                }
+            """.trimIndent(),
+        )
+
+        val subject = NadelResultRewriter()
+        subject.addVisitor(NadelQueryPath(listOf("issues"))) { parent ->
+            parent["title"] = parent["rename__title__name"]
+        }
+        subject.addVisitor(NadelQueryPath(listOf("issues", "owner"))) { parent ->
+            parent["name"] = "Owner ${parent["id"]}"
+        }
+        subject.addArtificialFieldRemovals(
+            listOf(
+                makeField(parentResultKey = "issues", resultKey = "rename__title__name"),
+                makeField(parentResultKey = "owner", resultKey = "id", grandparentResultKey = "issues"),
+            ),
+        )
+
+        // When
+        subject.rewrite(data)
+
+        // Then
+        val expected = jsonObjectMapper.readValue<MutableJsonMap>(
+            // language=JSON
+            """
+                {
+                  "issues": [
+                    {"owner": {"name": "Owner 1"}, "title": "First"},
+                    null,
+                    [{"owner": null, "title": "Second"}]
+                  ]
+                }
+            """.trimIndent(),
+        )
+        assertEquals(expected, data)
+    }
+
+    @Test
+    fun `visits children before parent`() {
+        // Given
+        val data = jsonObjectMapper.readValue<MutableJsonMap>(
+            // language=JSON
+            """
+                {"me": {"friend": {"id": "2"}}}
+            """.trimIndent(),
+        )
+
+        val visited = mutableListOf<String>()
+        val subject = NadelResultRewriter()
+        subject.addVisitor(NadelQueryPath(listOf("me"))) {
+            visited.add("me")
+        }
+        subject.addVisitor(NadelQueryPath.root) {
+            visited.add("root")
+        }
+        subject.addVisitor(NadelQueryPath(listOf("me", "friend"))) {
+            visited.add("friend")
+        }
+
+        // When
+        subject.rewrite(data)
+
+        // Then
+        assertEquals(listOf("friend", "me", "root"), visited)
+    }
+
+    @Test
+    fun `ignores query paths outside of defer payload`() {
+        // Given
+        val data = jsonObjectMapper.readValue<MutableJsonMap>(
+            // language=JSON
+            """
+                {"name": "Defer"}
+            """.trimIndent(),
+        )
+
+        val subject = NadelResultRewriter(pathPrefix = NadelQueryPath(listOf("me")))
+        subject.addVisitor(NadelQueryPath(listOf("me"))) { parent ->
+            parent["visited"] = true
+        }
+        subject.addVisitor(NadelQueryPath(listOf("other"))) { parent ->
+            parent["other"] = true
+        }
+
+        // When
+        subject.rewrite(data)
+
+        // Then
+        assertEquals(mapOf<String, Any?>("name" to "Defer", "visited" to true), data)
+    }
+
+    private fun makeField(
+        parentResultKey: String,
+        resultKey: String,
+        grandparentResultKey: String? = null,
+    ): ExecutableNormalizedField {
+        val grandparent = grandparentResultKey?.let {
+            ExecutableNormalizedField.newNormalizedField()
+                .fieldName(it)
+                .build()
+        }
+        val parent = ExecutableNormalizedField.newNormalizedField()
+            .fieldName(parentResultKey)
+            .parent(grandparent)
+            .build()
+
+        return ExecutableNormalizedField.newNormalizedField()
+            .alias(resultKey)
+            .fieldName("field")
+            .parent(parent)
+            .build()
+    }
+}
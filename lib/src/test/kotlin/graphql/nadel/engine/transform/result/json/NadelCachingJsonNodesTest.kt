@@ -0,0 +1,87 @@
+package graphql.nadel.engine.transform.result.json
+
+import com.fasterxml.jackson.module.kotlin.readValue
+import graphql.nadel.engine.transform.query.NadelQueryPath
+import graphql.nadel.engine.transform.query.NadelQueryPathIds
+import graphql.nadel.engine.util.JsonMap
+import graphql.nadel.jsonObjectMapper
+import org.junit.jupiter.api.Test
+import kotlin.test.assertEquals
+
+class NadelCachingJsonNodesTest {
+    // language=JSON
+    private val data = jsonObjectMapper.readValue<JsonMap>(
+        """
+            {
+              "issues": [
+                {"id": "1", "labels": [["a", "b"], ["c"]], "owner": {"name": "Jo"}},
+                null,
+                {"id": "2", "labels": [], "owner": null}
+              ],
+              "me": {"name": "Al"}
+            }
+        """.trimIndent(),
+    )
+
+    private val paths = listOf(
+        emptyList(),
+        listOf("issues"),
+        listOf("issues", "id"),
+        listOf("issues", "labels"),
+        listOf("issues", "owner", "name"),
+        listOf("me", "name"),
+        listOf("missing", "name"),
+    ).map(::NadelQueryPath)
+
+    @Test
+    fun `matches JsonNodeExtractor`() {
+        // Shared ids so lookups after the first hit the caches
+        val nodes = NadelCachingJsonNodes(data, pathPrefix = null, NadelQueryPathIds())
+
+        repeat(2) {
+            for (path in paths) {
+                for (flatten in listOf(false, true)) {
+                    assertEquals(
+                        JsonNodeExtractor.getNodesAt(data, path, flatten),
+                        nodes.getNodesAt(path, flatten),
+                        "$path flatten=$flatten",
+                    )
+                }
+            }
+        }
+    }
+
+    @Test
+    fun `index matches lookups`() {
+        // Given
+        val nodes = NadelCachingJsonNodes(data)
+
+        // When
+        nodes.index(paths)
+
+        // Then
+        for (path in paths) {
+            assertEquals(
+                JsonNodeExtractor.getNodesAt(data, path, flatten = true),
+                nodes.getNodesAt(path, flatten = true),
+                "$path",
+            )
+        }
+    }
+
+    @Test
+    fun `removes path prefix`() {
+        // Given
+        val nodes = NadelCachingJsonNodes(data, pathPrefix = NadelQueryPath(listOf("deferred")))
+
+        // Then
+        assertEquals(
+            listOf(JsonNode("Al")),
+            nodes.getNodesAt(NadelQueryPath(listOf("deferred", "me", "name"))),
+        )
+        assertEquals(
+            emptyList(),
+            nodes.getNodesAt(NadelQueryPath(listOf("me", "name"))),
+        )
+    }
+}
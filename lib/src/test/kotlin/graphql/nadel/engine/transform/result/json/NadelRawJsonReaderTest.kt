@@ -0,0 +1,80 @@
+package graphql.nadel.engine.transform.result.json
+
+import com.fasterxml.jackson.module.kotlin.readValue
+import graphql.nadel.NadelRawJson
+import graphql.nadel.engine.transform.query.NadelQueryPath
+import graphql.nadel.engine.util.JsonMap
+import graphql.nadel.jsonObjectMapper
+import org.junit.jupiter.api.Test
+import kotlin.test.assertEquals
+import kotlin.test.assertTrue
+
+class NadelRawJsonReaderTest {
+    // language=JSON
+    private val response = """
+        {
+          "data": {
+            "issues": [
+              {
+                "id": "ISSUE-1",
+                "rename__title__name": "Fix \"quotes\", braces } and é",
+                "comments": [{"id": 1, "body": "]"}],
+                "project": {"key": "JRA", "lead": null}
+              },
+              {
+                "id": "ISSUE-2",
+                "rename__title__name": "Second",
+                "comments": [],
+                "project": {"key": "CONF", "lead": {"id": -12.5e2}}
+              }
+            ]
+          },
+          "errors": [{"message": "Partial", "path": ["issues", 0, "project"]}],
+          "extensions": {"cost": 9007199254740993}
+        }
+    """.trimIndent()
+
+    @Test
+    fun `reads whole response without selection`() {
+        // When
+        val result = NadelRawJsonReader(response.toByteArray()).readResponse(selection = null)
+
+        // Then
+        val expected = jsonObjectMapper.readValue<JsonMap>(response)
+        assertEquals(expected["data"], result.data)
+        assertEquals(expected["errors"], result.errors)
+        assertEquals(expected["extensions"], result.extensions)
+    }
+
+    @Test
+    fun `keeps unselected objects and lists raw`() {
+        // Given
+        val selection = NadelRawJsonSelection()
+        selection.add(NadelQueryPath(listOf("issues", "rename__title__name")))
+
+        // When
+        val result = NadelRawJsonReader(response.toByteArray()).readResponse(selection)
+
+        // Then
+        @Suppress("UNCHECKED_CAST")
+        val issues = result.data["issues"] as List<JsonMap>
+        assertEquals(2, issues.size)
+        assertEquals("ISSUE-1", issues[0]["id"])
+        assertEquals("Fix \"quotes\", braces } and é", issues[0]["rename__title__name"])
+
+        val comments = issues[0]["comments"]
+        assertTrue(comments is NadelRawJson)
+        assertEquals("""[{"id": 1, "body": "]"}]""", comments.toString())
+        assertEquals(listOf(mapOf("id" to 1, "body" to "]")), comments.decode())
+
+        val project = issues[1]["project"]
+        assertTrue(project is NadelRawJson)
+        assertEquals(
+            jsonObjectMapper.readValue<JsonMap>("""{"key": "CONF", "lead": {"id": -12.5e2}}"""),
+            project.decode(),
+        )
+
+        // Errors and extensions are always read
+        assertEquals("Partial", result.errors.single()!!["message"])
+    }
+}
@@ -8,6 +8,7 @@ import graphql.nadel.engine.util.singleOfType
 import graphql.nadel.instrumentation.ChainedNadelInstrumentation.ChainedInstrumentationState
 import graphql.nadel.instrumentation.parameters.NadelInstrumentationCreateStateParameters
 import graphql.nadel.instrumentation.parameters.NadelInstrumentationExecuteOperationParameters
+import graphql.nadel.instrumentation.parameters.NadelInstrumentationOnCacheLookupParameters
 import graphql.nadel.instrumentation.parameters.NadelInstrumentationOnErrorParameters
 import graphql.nadel.instrumentation.parameters.NadelInstrumentationQueryExecutionParameters
 import graphql.nadel.instrumentation.parameters.NadelInstrumentationQueryValidationParameters
@@ -122,7 +123,7 @@ class ChainedNadelInstrumentationTest : DescribeSpec({
                 } returns chainedState
 
                 every {
-                    params.copy(any(), any(), any(), any(), any())
+                    params.copy(any(), any(), any(), any(), any(), any())
                 } answers { copyCall ->
                     val newState = copyCall.invocation.args.singleOfType<InstrumentationState>()
                     mock { newParams ->
@@ -353,6 +354,41 @@ class ChainedNadelInstrumentationTest : DescribeSpec({
                     assert(params.captured.getInstrumentationState<State>()?.something == instrumentation.key)
                 }
         }
+
+        it("passes on correct state for onCacheLookup") {
+            // when
+            chainedInstrumentation.onCacheLookup(mock { params ->
+                every {
+                    params.getInstrumentationState<InstrumentationState>()
+                } returns chainedState
+
+                every {
+                    params.copy(any(), any(), any(), any())
+                } answers { copyCall ->
+                    val newState = copyCall.invocation.args.singleOfType<InstrumentationState>()
+                    mock { newParams ->
+                        every {
+                            newParams.getInstrumentationState<InstrumentationState>()
+                        } answers {
+                            newState
+                        }
+                    }
+                }
+            })
+
+            // then
+            chainedInstrumentation.getInstrumentations()
+                .map { it as TestInstrumentation }
+                .forEach { instrumentation ->
+                    val params = slot<NadelInstrumentationOnCacheLookupParameters>()
+                    verify(exactly = 1) {
+                        instrumentation.onCacheLookup(capture(params))
+                    }
+
+                    assert(params.isCaptured)
+                    assert(params.captured.getInstrumentationState<State>()?.something == instrumentation.key)
+                }
+        }
     }
 
     describe("parameter delegation") {
@@ -372,7 +408,7 @@ class ChainedNadelInstrumentationTest : DescribeSpec({
             val paramsCopy = mock<NadelInstrumentationTimingParameters>()
             val params = mock<NadelInstrumentationTimingParameters> { params ->
                 every { params.getInstrumentationState<InstrumentationState>() } returns chainedState
-                every { params.copy(any(), any(), any(), any(), any()) } returns paramsCopy
+                every { params.copy(any(), any(), any(), any(), any(), any()) } returns paramsCopy
             }
 
             // when
@@ -506,5 +542,25 @@ class ChainedNadelInstrumentationTest : DescribeSpec({
                     }
                 }
         }
+
+        it("passes on correct parameters for onCacheLookup") {
+            // given
+            val paramsCopy = mock<NadelInstrumentationOnCacheLookupParameters>()
+            val params = mock<NadelInstrumentationOnCacheLookupParameters> { params ->
+                every { params.getInstrumentationState<InstrumentationState>() } returns chainedState
+                every { params.copy(any(), any(), any(), any()) } returns paramsCopy
+            }
+
+            // when
+            chainedInstrumentation.onCacheLookup(params)
+
+            // then
+            chainedInstrumentation.getInstrumentations()
+                .forEach { instrumentation ->
+                    verify(exactly = 1) {
+                        instrumentation.onCacheLookup(paramsCopy)
+                    }
+                }
+        }
     }
 })
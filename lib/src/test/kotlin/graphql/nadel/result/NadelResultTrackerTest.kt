@@ -513,6 +513,67 @@ class NadelResultTrackerTest {
         assertTrue(visited == expected)
     }
 
+    @Test
+    fun canSearchMultipleQueryPaths() = runTest {
+        // Given
+        val result = resultOf(
+            """
+                {
+                    "data": {
+                        "issues": [
+                            {"key": "GQLGW-1", "assignee": {"name": "Franklin"}},
+                            {"key": "GQLGW-2", "assignee": {"name": "Steven"}}
+                        ]
+                    }
+                }
+            """.trimIndent()
+        )
+
+        @Suppress("UNCHECKED_CAST")
+        val issues = result.getData<JsonMap>()["issues"] as List<JsonMap>
+
+        val subject = NadelResultTracker()
+        subject.complete(result)
+
+        // Then
+        issues.forEachIndexed { index, issue ->
+            assertTrue(
+                subject.getResultPath(
+                    NadelQueryPath(listOf("issues")),
+                    JsonNode(issue),
+                ) == NadelResultPathBuilder()
+                    .add("issues")
+                    .add(index)
+                    .build(),
+            )
+            assertTrue(
+                subject.getResultPath(
+                    NadelQueryPath(listOf("issues", "assignee")),
+                    JsonNode(issue["assignee"]),
+                ) == NadelResultPathBuilder()
+                    .add("issues")
+                    .add(index)
+                    .add("assignee")
+                    .build(),
+            )
+        }
+
+        // Node not at the query path
+        assertTrue(
+            subject.getResultPath(
+                NadelQueryPath(listOf("issues")),
+                JsonNode(issues[0]["assignee"]),
+            ) == null,
+        )
+        // Equal but not the same node
+        assertTrue(
+            subject.getResultPath(
+                NadelQueryPath(listOf("issues")),
+                JsonNode(LinkedHashMap(issues[0])),
+            ) == null,
+        )
+    }
+
     private fun resultOf(json: String): ExecutionResult {
         val result = jsonObjectMapper.readValue<JsonMap>(json)
         @Suppress("UNCHECKED_CAST")
@@ -0,0 +1,140 @@
+package graphql.nadel.validation
+
+import graphql.nadel.NadelSchemas
+import graphql.nadel.NadelSchemas.Companion.newNadelSchemas
+import graphql.nadel.engine.blueprint.NadelRenameFieldInstruction
+import graphql.nadel.engine.util.makeFieldCoordinates
+import org.junit.jupiter.api.Test
+import org.junit.jupiter.api.assertThrows
+import java.io.ByteArrayInputStream
+import java.io.ByteArrayOutputStream
+import kotlin.test.assertEquals
+import kotlin.test.assertNotNull
+import kotlin.test.assertNull
+import kotlin.test.assertTrue
+
+private const val source = "$" + "source"
+
+class NadelBlueprintSnapshotTest {
+    private val usersSchema = """
+        type Query {
+            user(id: ID!): User
+        }
+        type User @renamed(from: "Account") {
+            id: ID!
+            name: String @renamed(from: "displayName")
+        }
+    """.trimIndent()
+
+    private val usersUnderlyingSchema = """
+        type Query {
+            user(id: ID!): Account
+        }
+        type Account {
+            id: ID!
+            displayName: String
+        }
+    """.trimIndent()
+
+    private val issuesSchema = """
+        type Query {
+            issue(id: ID!): Issue
+        }
+        type Issue {
+            id: ID!
+            assignee: User
+                @hydrated(
+                    service: "users"
+                    field: "user"
+                    arguments: [{name: "id", value: "$source.assigneeId"}]
+                )
+        }
+    """.trimIndent()
+
+    private val issuesUnderlyingSchema = """
+        type Query {
+            issue(id: ID!): Issue
+        }
+        type Issue {
+            id: ID!
+            assigneeId: ID
+        }
+    """.trimIndent()
+
+    @Test
+    fun `reuses snapshot for services without hydrations`() {
+        // Given
+        val schemas = makeSchemas(usersUnderlyingSchema)
+        val snapshot = roundTrip(schemas)
+
+        // When
+        val state = snapshot.toValidationState(schemas)
+
+        // Then
+        assertNotNull(state)
+        val (users, issues) = schemas.services
+        assertTrue(users in state.resultsByService)
+        assertTrue(issues !in state.resultsByService)
+
+        val validation = NadelSchemaValidationFactory.create()
+        val (blueprint, newState) = validation.validateAndGenerateBlueprint(schemas, previous = state)
+        assertTrue(newState.resultsByService[users] === state.resultsByService[users])
+        assertTrue(!newState.result.isError)
+
+        val expected = validation.validateAndGenerateBlueprint(schemas)
+        assertEquals(expected.getUnderlyingTypeName("User"), blueprint.getUnderlyingTypeName("User"))
+        assertEquals(
+            expected.fieldInstructions[makeFieldCoordinates("Issue", "assignee")]?.map { it.javaClass },
+            blueprint.fieldInstructions[makeFieldCoordinates("Issue", "assignee")]?.map { it.javaClass },
+        )
+        assertEquals(
+            NadelRenameFieldInstruction(makeFieldCoordinates("User", "name"), "displayName"),
+            blueprint.fieldInstructions[makeFieldCoordinates("User", "name")]?.single(),
+        )
+    }
+
+    @Test
+    fun `ignores snapshot for other schemas`() {
+        // Given
+        val snapshot = roundTrip(makeSchemas(usersUnderlyingSchema))
+        val changedSchemas = makeSchemas(
+            """
+                type Query {
+                    user(id: ID!): Account
+                }
+                type Account {
+                    id: ID!
+                    displayName: String
+                    email: String
+                }
+            """.trimIndent(),
+        )
+
+        // When
+        val state = snapshot.toValidationState(changedSchemas)
+
+        // Then
+        assertNull(state)
+    }
+
+    @Test
+    fun `rejects input that is not a snapshot`() {
+        assertThrows<IllegalArgumentException> {
+            NadelBlueprintSnapshot.read(ByteArrayInputStream("type Query { echo: String }".toByteArray()))
+        }
+    }
+
+    private fun makeSchemas(usersUnderlyingSchema: String): NadelSchemas {
+        return newNadelSchemas()
+            .overallSchemas(mapOf("users" to usersSchema, "issues" to issuesSchema))
+            .underlyingSchemas(mapOf("users" to usersUnderlyingSchema, "issues" to issuesUnderlyingSchema))
+            .stubServiceExecution()
+            .build()
+    }
+
+    private fun roundTrip(schemas: NadelSchemas): NadelBlueprintSnapshot {
+        val output = ByteArrayOutputStream()
+        NadelBlueprintSnapshot.write(schemas, output)
+        return NadelBlueprintSnapshot.read(ByteArrayInputStream(output.toByteArray()))
+    }
+}
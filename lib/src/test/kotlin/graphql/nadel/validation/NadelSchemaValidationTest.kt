@@ -3,6 +3,8 @@ package graphql.nadel.validation
 import graphql.nadel.NadelSchemas.Companion.newNadelSchemas
 import io.kotest.core.spec.style.DescribeSpec
 
+private const val source = "$" + "source"
+
 class NadelSchemaValidationTest : DescribeSpec({
     describe("validate") {
         it("takes in overall schema and services to validate") {
@@ -26,6 +28,160 @@ class NadelSchemaValidationTest : DescribeSpec({
             val errors = validate(fixture)
             assert(errors.isEmpty())
         }
+
+        it("returns errors in the same order when validating services in parallel") {
+            // Given
+            val serviceNames = (0 until 16).map { "service$it" }
+            val schemas = newNadelSchemas()
+                .overallSchemas(
+                    serviceNames.associateWith<String, String> { name ->
+                        """
+                            type Query {
+                                ${name}Echo: String
+                                ${name}Missing: String
+                                ${name}AlsoMissing: Int
+                            }
+                        """.trimIndent()
+                    },
+                )
+                .underlyingSchemas(
+                    serviceNames.associateWith<String, String> { name ->
+                        """
+                            type Query {
+                                ${name}Echo: String
+                            }
+                        """.trimIndent()
+                    },
+                )
+                .stubServiceExecution()
+                .build()
+
+            fun makeValidation(parallelism: Int): NadelSchemaValidation {
+                return object : NadelSchemaValidationFactory() {
+                    override val parallelism: Int
+                        get() = parallelism
+                }.create()
+            }
+
+            // When
+            val serialErrors = makeValidation(parallelism = 1).validate(schemas).toList()
+            val parallelErrors = makeValidation(parallelism = 4).validate(schemas).toList()
+
+            // Then
+            assert(serialErrors.size == serviceNames.size * 2)
+            assert(serialErrors.map { it.message } == parallelErrors.map { it.message })
+        }
+    }
+
+    describe("validateAndGenerateBlueprint") {
+        val overallSchemas = mapOf(
+            "users" to """
+                type Query {
+                    user(id: ID!): User
+                }
+                type User {
+                    id: ID!
+                    name: String
+                }
+            """.trimIndent(),
+            "issues" to """
+                type Query {
+                    issue(id: ID!): Issue
+                }
+                type Issue {
+                    id: ID!
+                    assignee: User
+                        @hydrated(
+                            service: "users"
+                            field: "user"
+                            arguments: [{name: "id", value: "$source.assigneeId"}]
+                        )
+                }
+            """.trimIndent(),
+            "comments" to """
+                type Query {
+                    comment(id: ID!): Comment
+                }
+                type Comment {
+                    id: ID!
+                    body: String
+                }
+            """.trimIndent(),
+        )
+        val underlyingSchemas = mapOf(
+            "users" to overallSchemas["users"]!!,
+            "issues" to """
+                type Query {
+                    issue(id: ID!): Issue
+                }
+                type Issue {
+                    id: ID!
+                    assigneeId: ID
+                }
+            """.trimIndent(),
+            "comments" to overallSchemas["comments"]!!,
+        )
+
+        it("reuses the results of services not affected by the change") {
+            // Given
+            val validation = NadelSchemaValidationFactory.create()
+            val schemas = newNadelSchemas()
+                .overallSchemas(overallSchemas)
+                .underlyingSchemas(underlyingSchemas)
+                .stubServiceExecution()
+                .build()
+            val (_, previous) = validation.validateAndGenerateBlueprint(schemas, previous = null)
+
+            val usersSchema = """
+                type Query {
+                    user(id: ID!): User
+                }
+                type User {
+                    id: ID!
+                    name: String
+                    email: String
+                }
+            """.trimIndent()
+            val newSchemas = newNadelSchemas()
+                .overallSchema("users", usersSchema)
+                .underlyingSchema("users", usersSchema)
+                .stubServiceExecution()
+                .build(base = schemas)
+
+            // When
+            val (blueprint, state) = validation.validateAndGenerateBlueprint(newSchemas, previous)
+
+            // Then
+            assert(!state.result.isError)
+            assert(newSchemas.services.map { it.name } == listOf("users", "issues", "comments"))
+
+            val (users, issues, comments) = newSchemas.services
+            assert(users !== schemas.services[0])
+            assert(issues === schemas.services[1])
+            assert(comments === schemas.services[2])
+
+            assert(state.resultsByService[comments] === previous.resultsByService[comments])
+            // Issues reference the User type so they are validated again
+            assert(state.resultsByService[issues] !== previous.resultsByService[issues])
+            assert(blueprint.engineSchema.getObjectType("User").getField("email") != null)
+        }
+
+        it("validates everything again without previous state") {
+            // Given
+            val validation = NadelSchemaValidationFactory.create()
+            val schemas = newNadelSchemas()
+                .overallSchemas(overallSchemas)
+                .underlyingSchemas(underlyingSchemas)
+                .stubServiceExecution()
+                .build()
+            val (_, previous) = validation.validateAndGenerateBlueprint(schemas, previous = null)
+
+            // When
+            val (_, state) = validation.validateAndGenerateBlueprint(schemas, previous = null)
+
+            // Then
+            assert(schemas.services.none { state.resultsByService[it] === previous.resultsByService[it] })
+        }
     }
 })
 
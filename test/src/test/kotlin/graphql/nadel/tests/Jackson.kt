@@ -1,17 +1,34 @@
 package graphql.nadel.tests
 
+import com.fasterxml.jackson.core.JsonGenerator
 import com.fasterxml.jackson.core.util.DefaultIndenter
 import com.fasterxml.jackson.core.util.DefaultPrettyPrinter
 import com.fasterxml.jackson.core.util.Separators
 import com.fasterxml.jackson.databind.ObjectMapper
 import com.fasterxml.jackson.databind.ObjectWriter
+import com.fasterxml.jackson.databind.SerializerProvider
+import com.fasterxml.jackson.databind.module.SimpleModule
+import com.fasterxml.jackson.databind.ser.std.StdSerializer
 import com.fasterxml.jackson.dataformat.yaml.YAMLFactory
 import com.fasterxml.jackson.dataformat.yaml.YAMLGenerator.Feature.LITERAL_BLOCK_STYLE
 import com.fasterxml.jackson.dataformat.yaml.YAMLGenerator.Feature.SPLIT_LINES
 import com.fasterxml.jackson.dataformat.yaml.YAMLGenerator.Feature.WRITE_DOC_START_MARKER
+import graphql.nadel.NadelRawJson
+
+/**
+ * Writes the [NadelRawJson] left in results from [graphql.nadel.NadelRawJsonServiceExecutionResult]s as is.
+ */
+private object NadelRawJsonSerializer : StdSerializer<NadelRawJson>(NadelRawJson::class.java) {
+    override fun serialize(value: NadelRawJson, gen: JsonGenerator, provider: SerializerProvider) {
+        gen.writeRawValue(value.toString())
+    }
+}
 
 val jsonObjectMapper: ObjectMapper = ObjectMapper()
     .findAndRegisterModules()
+    .registerModule(
+        SimpleModule().addSerializer(NadelRawJson::class.java, NadelRawJsonSerializer),
+    )
 
 val yamlObjectMapper: ObjectMapper = YAMLFactory()
     .enable(LITERAL_BLOCK_STYLE)
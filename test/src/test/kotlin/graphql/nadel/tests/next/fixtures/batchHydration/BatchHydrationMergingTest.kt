@@ -0,0 +1,173 @@
+package graphql.nadel.tests.next.fixtures.batchHydration
+
+import graphql.ExecutionResult
+import graphql.incremental.DelayedIncrementalPartialResult
+import graphql.nadel.Nadel
+import graphql.nadel.NadelExecutionHints
+import graphql.nadel.engine.blueprint.NadelBatchHydrationFieldInstruction
+import graphql.nadel.hooks.NadelExecutionHooks
+import graphql.nadel.tests.next.NadelIntegrationTest
+import java.util.Collections
+import kotlin.test.assertEquals
+
+/**
+ * `Issue.assignee` and `Comment.author` both hydrate from `usersByIds`, so with merging on their IDs are sent
+ * in one de-duplicated batch instead of one batch per hydrated field.
+ *
+ * The IDs are still partitioned per hydrated field, so the hook only sees the IDs of its instruction.
+ */
+class BatchHydrationMergingTest : NadelIntegrationTest(
+    query = """
+        query {
+          issues {
+            id
+            assignee {
+              name
+            }
+            comments {
+              id
+              author {
+                name
+              }
+            }
+          }
+        }
+    """.trimIndent(),
+    services = listOf(
+        Service(
+            name = "issues",
+            overallSchema = """
+                type Query {
+                  issues: [Issue]
+                }
+                type Issue {
+                  id: ID!
+                  assigneeId: ID @hidden
+                  assignee: User
+                    @hydrated(
+                      service: "users"
+                      field: "usersByIds"
+                      arguments: [{name: "ids", value: "$source.assigneeId"}]
+                      identifiedBy: "id"
+                      batchSize: 5
+                    )
+                  comments: [Comment]
+                }
+                type Comment {
+                  id: ID!
+                  authorId: ID @hidden
+                  author: User
+                    @hydrated(
+                      service: "users"
+                      field: "usersByIds"
+                      arguments: [{name: "ids", value: "$source.authorId"}]
+                      identifiedBy: "id"
+                      batchSize: 5
+                    )
+                }
+            """.trimIndent(),
+            runtimeWiring = { wiring ->
+                data class Comment(
+                    val id: String,
+                    val authorId: String,
+                )
+
+                data class Issue(
+                    val id: String,
+                    val assigneeId: String,
+                    val comments: List<Comment>,
+                )
+
+                val issues = listOf(
+                    Issue(
+                        id = "issue/1",
+                        assigneeId = "user/1",
+                        comments = listOf(
+                            Comment(id = "comment/1", authorId = "user/2"),
+                            Comment(id = "comment/2", authorId = "user/3"),
+                        ),
+                    ),
+                    Issue(
+                        id = "issue/2",
+                        assigneeId = "user/2",
+                        comments = listOf(
+                            Comment(id = "comment/3", authorId = "user/1"),
+                        ),
+                    ),
+                )
+
+                wiring
+                    .type("Query") { type ->
+                        type.dataFetcher("issues") {
+                            issues
+                        }
+                    }
+            },
+        ),
+        Service(
+            name = "users",
+            overallSchema = """
+                type Query {
+                  usersByIds(ids: [ID!]!): [User]
+                }
+                type User {
+                  id: ID!
+                  name: String
+                }
+            """.trimIndent(),
+            runtimeWiring = { wiring ->
+                data class User(
+                    val id: String,
+                    val name: String,
+                )
+
+                val usersById = listOf(
+                    User(id = "user/1", name = "Franklin Wang"),
+                    User(id = "user/2", name = "Steven Barker"),
+                    User(id = "user/3", name = "Artyom Emelyanenko"),
+                ).associateBy { it.id }
+
+                wiring
+                    .type("Query") { type ->
+                        type.dataFetcher("usersByIds") { env ->
+                            env.getArgument<List<String>>("ids")!!.map(usersById::get)
+                        }
+                    }
+            },
+        ),
+    ),
+) {
+    private val partitionedArguments = Collections.synchronizedList(mutableListOf<Pair<String, List<Any?>>>())
+
+    override fun makeExecutionHints(): NadelExecutionHints.Builder {
+        return super.makeExecutionHints()
+            .batchHydrationMerging { true }
+    }
+
+    override fun makeNadel(): Nadel.Builder {
+        return super.makeNadel()
+            .executionHooks(
+                object : NadelExecutionHooks {
+                    override fun <T> partitionBatchHydrationArgumentList(
+                        argumentValues: List<T>,
+                        instruction: NadelBatchHydrationFieldInstruction,
+                        userContext: Any?,
+                    ): List<List<T>> {
+                        val location = instruction.location
+                        partitionedArguments.add("${location.typeName}.${location.fieldName}" to argumentValues)
+                        return listOf(argumentValues)
+                    }
+                },
+            )
+    }
+
+    override fun assert(result: ExecutionResult, incrementalResults: List<DelayedIncrementalPartialResult>?) {
+        assertEquals(
+            setOf(
+                "Issue.assignee" to listOf("user/1", "user/2"),
+                "Comment.author" to listOf("user/2", "user/3", "user/1"),
+            ),
+            partitionedArguments.toSet(),
+        )
+    }
+}
@@ -0,0 +1,233 @@
+// @formatter:off
+package graphql.nadel.tests.next.fixtures.batchHydration
+
+import graphql.nadel.tests.next.ExpectedNadelResult
+import graphql.nadel.tests.next.ExpectedServiceCall
+import graphql.nadel.tests.next.TestSnapshot
+import graphql.nadel.tests.next.listOfJsonStrings
+import kotlin.Suppress
+import kotlin.collections.List
+import kotlin.collections.listOf
+
+private suspend fun main() {
+    graphql.nadel.tests.next.update<BatchHydrationMergingTest>()
+}
+
+/**
+ * This class is generated. Do NOT modify.
+ *
+ * Refer to [graphql.nadel.tests.next.UpdateTestSnapshots]
+ */
+@Suppress("unused")
+public class BatchHydrationMergingTestSnapshot : TestSnapshot() {
+    /**
+     * Query
+     *
+     * ```graphql
+     * query {
+     *   issues {
+     *     id
+     *     assignee {
+     *       name
+     *     }
+     *     comments {
+     *       id
+     *       author {
+     *         name
+     *       }
+     *     }
+     *   }
+     * }
+     * ```
+     *
+     * Variables
+     *
+     * ```json
+     * {}
+     * ```
+     */
+    override val calls: List<ExpectedServiceCall> = listOf(
+            ExpectedServiceCall(
+                service = "issues",
+                query = """
+                | {
+                |   issues {
+                |     id
+                |     batch_hydration__assignee__assigneeId: assigneeId
+                |     __typename__batch_hydration__assignee: __typename
+                |     comments {
+                |       id
+                |       batch_hydration__author__authorId: authorId
+                |       __typename__batch_hydration__author: __typename
+                |     }
+                |   }
+                | }
+                """.trimMargin(),
+                variables = "{}",
+                result = """
+                | {
+                |   "data": {
+                |     "issues": [
+                |       {
+                |         "id": "issue/1",
+                |         "batch_hydration__assignee__assigneeId": "user/1",
+                |         "__typename__batch_hydration__assignee": "Issue",
+                |         "comments": [
+                |           {
+                |             "id": "comment/1",
+                |             "batch_hydration__author__authorId": "user/2",
+                |             "__typename__batch_hydration__author": "Comment"
+                |           },
+                |           {
+                |             "id": "comment/2",
+                |             "batch_hydration__author__authorId": "user/3",
+                |             "__typename__batch_hydration__author": "Comment"
+                |           }
+                |         ]
+                |       },
+                |       {
+                |         "id": "issue/2",
+                |         "batch_hydration__assignee__assigneeId": "user/2",
+                |         "__typename__batch_hydration__assignee": "Issue",
+                |         "comments": [
+                |           {
+                |             "id": "comment/3",
+                |             "batch_hydration__author__authorId": "user/1",
+                |             "__typename__batch_hydration__author": "Comment"
+                |           }
+                |         ]
+                |       }
+                |     ]
+                |   }
+                | }
+                """.trimMargin(),
+                delayedResults = listOfJsonStrings(
+                ),
+            ),
+            ExpectedServiceCall(
+                service = "users",
+                query = """
+                | {
+                |   usersByIds(ids: ["user/2", "user/3", "user/1"]) {
+                |     name
+                |     batch_hydration__author__id: id
+                |   }
+                | }
+                """.trimMargin(),
+                variables = "{}",
+                result = """
+                | {
+                |   "data": {
+                |     "usersByIds": [
+                |       {
+                |         "name": "Steven Barker",
+                |         "batch_hydration__author__id": "user/2"
+                |       },
+                |       {
+                |         "name": "Artyom Emelyanenko",
+                |         "batch_hydration__author__id": "user/3"
+                |       },
+                |       {
+                |         "name": "Franklin Wang",
+                |         "batch_hydration__author__id": "user/1"
+                |       }
+                |     ]
+                |   }
+                | }
+                """.trimMargin(),
+                delayedResults = listOfJsonStrings(
+                ),
+            ),
+        )
+
+    /**
+     * ```json
+     * {
+     *   "data": {
+     *     "issues": [
+     *       {
+     *         "id": "issue/1",
+     *         "comments": [
+     *           {
+     *             "id": "comment/1",
+     *             "author": {
+     *               "name": "Steven Barker"
+     *             }
+     *           },
+     *           {
+     *             "id": "comment/2",
+     *             "author": {
+     *               "name": "Artyom Emelyanenko"
+     *             }
+     *           }
+     *         ],
+     *         "assignee": {
+     *           "name": "Franklin Wang"
+     *         }
+     *       },
+     *       {
+     *         "id": "issue/2",
+     *         "comments": [
+     *           {
+     *             "id": "comment/3",
+     *             "author": {
+     *               "name": "Franklin Wang"
+     *             }
+     *           }
+     *         ],
+     *         "assignee": {
+     *           "name": "Steven Barker"
+     *         }
+     *       }
+     *     ]
+     *   }
+     * }
+     * ```
+     */
+    override val result: ExpectedNadelResult = ExpectedNadelResult(
+            result = """
+            | {
+            |   "data": {
+            |     "issues": [
+            |       {
+            |         "id": "issue/1",
+            |         "comments": [
+            |           {
+            |             "id": "comment/1",
+            |             "author": {
+            |               "name": "Steven Barker"
+            |             }
+            |           },
+            |           {
+            |             "id": "comment/2",
+            |             "author": {
+            |               "name": "Artyom Emelyanenko"
+            |             }
+            |           }
+            |         ],
+            |         "assignee": {
+            |           "name": "Franklin Wang"
+            |         }
+            |       },
+            |       {
+            |         "id": "issue/2",
+            |         "comments": [
+            |           {
+            |             "id": "comment/3",
+            |             "author": {
+            |               "name": "Franklin Wang"
+            |             }
+            |           }
+            |         ],
+            |         "assignee": {
+            |           "name": "Steven Barker"
+            |         }
+            |       }
+            |     ]
+            |   }
+            | }
+            """.trimMargin(),
+            delayedResults = listOfJsonStrings(
+            ),
+        )
+}
@@ -0,0 +1,97 @@
+package graphql.nadel.tests.next.fixtures.batchHydration
+
+import graphql.nadel.NadelExecutionHints
+import graphql.nadel.tests.next.NadelIntegrationTest
+
+/**
+ * With the hint on, every batch sends the same document and only the `ids` variable changes.
+ */
+class BatchHydrationVariablesTest : NadelIntegrationTest(
+    query = """
+        query {
+          issues {
+            id
+            assignee {
+              name
+            }
+          }
+        }
+    """.trimIndent(),
+    services = listOf(
+        Service(
+            name = "issues",
+            overallSchema = """
+                type Query {
+                  issues: [Issue]
+                }
+                type Issue {
+                  id: ID!
+                  assigneeId: ID @hidden
+                  assignee: User
+                    @hydrated(
+                      service: "users"
+                      field: "usersByIds"
+                      arguments: [{name: "ids", value: "$source.assigneeId"}]
+                      identifiedBy: "id"
+                      batchSize: 2
+                    )
+                }
+            """.trimIndent(),
+            runtimeWiring = { wiring ->
+                data class Issue(
+                    val id: String,
+                    val assigneeId: String,
+                )
+
+                val issues = listOf(
+                    Issue(id = "issue/1", assigneeId = "user/1"),
+                    Issue(id = "issue/2", assigneeId = "user/2"),
+                    Issue(id = "issue/3", assigneeId = "user/3"),
+                )
+
+                wiring
+                    .type("Query") { type ->
+                        type.dataFetcher("issues") {
+                            issues
+                        }
+                    }
+            },
+        ),
+        Service(
+            name = "users",
+            overallSchema = """
+                type Query {
+                  usersByIds(ids: [ID!]!): [User]
+                }
+                type User {
+                  id: ID!
+                  name: String
+                }
+            """.trimIndent(),
+            runtimeWiring = { wiring ->
+                data class User(
+                    val id: String,
+                    val name: String,
+                )
+
+                val usersById = listOf(
+                    User(id = "user/1", name = "Franklin Wang"),
+                    User(id = "user/2", name = "Steven Barker"),
+                    User(id = "user/3", name = "Artyom Emelyanenko"),
+                ).associateBy { it.id }
+
+                wiring
+                    .type("Query") { type ->
+                        type.dataFetcher("usersByIds") { env ->
+                            env.getArgument<List<String>>("ids")!!.map(usersById::get)
+                        }
+                    }
+            },
+        ),
+    ),
+) {
+    override fun makeExecutionHints(): NadelExecutionHints.Builder {
+        return super.makeExecutionHints()
+            .hydrationVariables { true }
+    }
+}
@@ -0,0 +1,211 @@
+// @formatter:off
+package graphql.nadel.tests.next.fixtures.batchHydration
+
+import graphql.nadel.tests.next.ExpectedNadelResult
+import graphql.nadel.tests.next.ExpectedServiceCall
+import graphql.nadel.tests.next.TestSnapshot
+import graphql.nadel.tests.next.listOfJsonStrings
+import kotlin.Suppress
+import kotlin.collections.List
+import kotlin.collections.listOf
+
+private suspend fun main() {
+    graphql.nadel.tests.next.update<BatchHydrationVariablesTest>()
+}
+
+/**
+ * This class is generated. Do NOT modify.
+ *
+ * Refer to [graphql.nadel.tests.next.UpdateTestSnapshots]
+ */
+@Suppress("unused")
+public class BatchHydrationVariablesTestSnapshot : TestSnapshot() {
+    /**
+     * Query
+     *
+     * ```graphql
+     * query {
+     *   issues {
+     *     id
+     *     assignee {
+     *       name
+     *     }
+     *   }
+     * }
+     * ```
+     *
+     * Variables
+     *
+     * ```json
+     * {}
+     * ```
+     */
+    override val calls: List<ExpectedServiceCall> = listOf(
+            ExpectedServiceCall(
+                service = "issues",
+                query = """
+                | {
+                |   issues {
+                |     id
+                |     batch_hydration__assignee__assigneeId: assigneeId
+                |     __typename__batch_hydration__assignee: __typename
+                |   }
+                | }
+                """.trimMargin(),
+                variables = "{}",
+                result = """
+                | {
+                |   "data": {
+                |     "issues": [
+                |       {
+                |         "id": "issue/1",
+                |         "batch_hydration__assignee__assigneeId": "user/1",
+                |         "__typename__batch_hydration__assignee": "Issue"
+                |       },
+                |       {
+                |         "id": "issue/2",
+                |         "batch_hydration__assignee__assigneeId": "user/2",
+                |         "__typename__batch_hydration__assignee": "Issue"
+                |       },
+                |       {
+                |         "id": "issue/3",
+                |         "batch_hydration__assignee__assigneeId": "user/3",
+                |         "__typename__batch_hydration__assignee": "Issue"
+                |       }
+                |     ]
+                |   }
+                | }
+                """.trimMargin(),
+                delayedResults = listOfJsonStrings(
+                ),
+            ),
+            ExpectedServiceCall(
+                service = "users",
+                query = """
+                | query (${'$'}v0: [ID!]!) {
+                |   usersByIds(ids: ${'$'}v0) {
+                |     name
+                |     batch_hydration__assignee__id: id
+                |   }
+                | }
+                """.trimMargin(),
+                variables = """
+                | {
+                |   "v0": [
+                |     "user/1",
+                |     "user/2"
+                |   ]
+                | }
+                """.trimMargin(),
+                result = """
+                | {
+                |   "data": {
+                |     "usersByIds": [
+                |       {
+                |         "name": "Franklin Wang",
+                |         "batch_hydration__assignee__id": "user/1"
+                |       },
+                |       {
+                |         "name": "Steven Barker",
+                |         "batch_hydration__assignee__id": "user/2"
+                |       }
+                |     ]
+                |   }
+                | }
+                """.trimMargin(),
+                delayedResults = listOfJsonStrings(
+                ),
+            ),
+            ExpectedServiceCall(
+                service = "users",
+                query = """
+                | query (${'$'}v0: [ID!]!) {
+                |   usersByIds(ids: ${'$'}v0) {
+                |     name
+                |     batch_hydration__assignee__id: id
+                |   }
+                | }
+                """.trimMargin(),
+                variables = """
+                | {
+                |   "v0": [
+                |     "user/3"
+                |   ]
+                | }
+                """.trimMargin(),
+                result = """
+                | {
+                |   "data": {
+                |     "usersByIds": [
+                |       {
+                |         "name": "Artyom Emelyanenko",
+                |         "batch_hydration__assignee__id": "user/3"
+                |       }
+                |     ]
+                |   }
+                | }
+                """.trimMargin(),
+                delayedResults = listOfJsonStrings(
+                ),
+            ),
+        )
+
+    /**
+     * ```json
+     * {
+     *   "data": {
+     *     "issues": [
+     *       {
+     *         "id": "issue/1",
+     *         "assignee": {
+     *           "name": "Franklin Wang"
+     *         }
+     *       },
+     *       {
+     *         "id": "issue/2",
+     *         "assignee": {
+     *           "name": "Steven Barker"
+     *         }
+     *       },
+     *       {
+     *         "id": "issue/3",
+     *         "assignee": {
+     *           "name": "Artyom Emelyanenko"
+     *         }
+     *       }
+     *     ]
+     *   }
+     * }
+     * ```
+     */
+    override val result: ExpectedNadelResult = ExpectedNadelResult(
+            result = """
+            | {
+            |   "data": {
+            |     "issues": [
+            |       {
+            |         "id": "issue/1",
+            |         "assignee": {
+            |           "name": "Franklin Wang"
+            |         }
+            |       },
+            |       {
+            |         "id": "issue/2",
+            |         "assignee": {
+            |           "name": "Steven Barker"
+            |         }
+            |       },
+            |       {
+            |         "id": "issue/3",
+            |         "assignee": {
+            |           "name": "Artyom Emelyanenko"
+            |         }
+            |       }
+            |     ]
+            |   }
+            | }
+            """.trimMargin(),
+            delayedResults = listOfJsonStrings(
+            ),
+        )
+}
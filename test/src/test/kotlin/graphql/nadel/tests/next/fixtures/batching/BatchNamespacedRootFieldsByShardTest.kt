@@ -0,0 +1,84 @@
+package graphql.nadel.tests.next.fixtures.batching
+
+import graphql.nadel.Nadel
+import graphql.nadel.NadelExecutionHints
+import graphql.nadel.engine.NadelExecutionContext
+import graphql.nadel.hooks.NadelExecutionHooks
+import graphql.nadel.tests.next.NadelIntegrationTest
+import graphql.normalized.ExecutableNormalizedField
+
+/**
+ * Namespaced fields carry no shard arguments themselves, so [getShardingTarget] is asked for their children.
+ *
+ * Here [getShardingTarget] returns the field's `cloudId` argument as the (opaque) shard key, so:
+ *  - `issue` and `jira { issue }` (cloudId "site-1") share a shard and batch into a single call
+ *  - `jiraAdmin { setting }` (cloudId "site-2") is a different shard and is sent separately
+ */
+class BatchNamespacedRootFieldsByShardTest : NadelIntegrationTest(
+    query = """
+        query {
+          issue(cloudId: "site-1")
+          jira {
+            issue(cloudId: "site-1")
+          }
+          jiraAdmin {
+            setting(cloudId: "site-2")
+          }
+        }
+    """.trimIndent(),
+    services = listOf(
+        Service(
+            name = "jira",
+            overallSchema = """
+                type Query {
+                  issue(cloudId: String!): String
+                  jira: JiraQuery @namespaced
+                  jiraAdmin: JiraAdminQuery @namespaced
+                }
+                type JiraQuery {
+                  issue(cloudId: String!): String
+                }
+                type JiraAdminQuery {
+                  setting(cloudId: String!): String
+                }
+            """.trimIndent(),
+            runtimeWiring = { wiring ->
+                wiring
+                    .type("Query") { type ->
+                        type
+                            .dataFetcher("issue") { env -> "${env.getArgument<String>("cloudId")}/root-issue" }
+                            .dataFetcher("jira") { Unit }
+                            .dataFetcher("jiraAdmin") { Unit }
+                    }
+                    .type("JiraQuery") { type ->
+                        type
+                            .dataFetcher("issue") { env -> "${env.getArgument<String>("cloudId")}/jira-issue" }
+                    }
+                    .type("JiraAdminQuery") { type ->
+                        type
+                            .dataFetcher("setting") { env -> "${env.getArgument<String>("cloudId")}/setting" }
+                    }
+            },
+        ),
+    ),
+) {
+    override fun makeExecutionHints(): NadelExecutionHints.Builder {
+        return super.makeExecutionHints()
+            .batchRootFields { true }
+    }
+
+    override fun makeNadel(): Nadel.Builder {
+        return super.makeNadel()
+            .executionHooks(
+                object : NadelExecutionHooks {
+                    override fun getShardingTarget(
+                        executionContext: NadelExecutionContext,
+                        service: graphql.nadel.Service,
+                        field: ExecutableNormalizedField,
+                    ): Any? {
+                        return field.resolvedArguments["cloudId"]
+                    }
+                },
+            )
+    }
+}
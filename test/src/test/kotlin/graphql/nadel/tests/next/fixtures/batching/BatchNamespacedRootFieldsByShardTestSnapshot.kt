@@ -0,0 +1,125 @@
+// @formatter:off
+package graphql.nadel.tests.next.fixtures.batching
+
+import graphql.nadel.tests.next.ExpectedNadelResult
+import graphql.nadel.tests.next.ExpectedServiceCall
+import graphql.nadel.tests.next.TestSnapshot
+import graphql.nadel.tests.next.listOfJsonStrings
+import kotlin.Suppress
+import kotlin.collections.List
+import kotlin.collections.listOf
+
+private suspend fun main() {
+    graphql.nadel.tests.next.update<BatchNamespacedRootFieldsByShardTest>()
+}
+
+/**
+ * This class is generated. Do NOT modify.
+ *
+ * Refer to [graphql.nadel.tests.next.UpdateTestSnapshots]
+ */
+@Suppress("unused")
+public class BatchNamespacedRootFieldsByShardTestSnapshot : TestSnapshot() {
+    /**
+     * Query
+     *
+     * ```graphql
+     * query {
+     *   issue(cloudId: "site-1")
+     *   jira {
+     *     issue(cloudId: "site-1")
+     *   }
+     *   jiraAdmin {
+     *     setting(cloudId: "site-2")
+     *   }
+     * }
+     * ```
+     *
+     * Variables
+     *
+     * ```json
+     * {}
+     * ```
+     */
+    override val calls: List<ExpectedServiceCall> = listOf(
+            ExpectedServiceCall(
+                service = "jira",
+                query = """
+                | {
+                |   issue(cloudId: "site-1")
+                |   jira {
+                |     issue(cloudId: "site-1")
+                |   }
+                | }
+                """.trimMargin(),
+                variables = "{}",
+                result = """
+                | {
+                |   "data": {
+                |     "issue": "site-1/root-issue",
+                |     "jira": {
+                |       "issue": "site-1/jira-issue"
+                |     }
+                |   }
+                | }
+                """.trimMargin(),
+                delayedResults = listOfJsonStrings(
+                ),
+            ),
+            ExpectedServiceCall(
+                service = "jira",
+                query = """
+                | {
+                |   jiraAdmin {
+                |     setting(cloudId: "site-2")
+                |   }
+                | }
+                """.trimMargin(),
+                variables = "{}",
+                result = """
+                | {
+                |   "data": {
+                |     "jiraAdmin": {
+                |       "setting": "site-2/setting"
+                |     }
+                |   }
+                | }
+                """.trimMargin(),
+                delayedResults = listOfJsonStrings(
+                ),
+            ),
+        )
+
+    /**
+     * ```json
+     * {
+     *   "data": {
+     *     "issue": "site-1/root-issue",
+     *     "jira": {
+     *       "issue": "site-1/jira-issue"
+     *     },
+     *     "jiraAdmin": {
+     *       "setting": "site-2/setting"
+     *     }
+     *   }
+     * }
+     * ```
+     */
+    override val result: ExpectedNadelResult = ExpectedNadelResult(
+            result = """
+            | {
+            |   "data": {
+            |     "issue": "site-1/root-issue",
+            |     "jira": {
+            |       "issue": "site-1/jira-issue"
+            |     },
+            |     "jiraAdmin": {
+            |       "setting": "site-2/setting"
+            |     }
+            |   }
+            | }
+            """.trimMargin(),
+            delayedResults = listOfJsonStrings(
+            ),
+        )
+}
@@ -0,0 +1,93 @@
+package graphql.nadel.tests.next.fixtures.batching
+
+import graphql.nadel.NadelExecutionHints
+import graphql.nadel.tests.next.NadelIntegrationTest
+
+/**
+ * With root-field batching on, the children of namespaced fields join the batch of the service that owns them.
+ *
+ * The snapshot should record:
+ *  - a single call to "jira" containing `issue`, `jira { issue }` and `jiraAdmin { setting }`, and
+ *  - a single call to "users" containing `jira { user }`.
+ */
+class BatchNamespacedRootFieldsTest : NadelIntegrationTest(
+    query = """
+        query {
+          issue
+          jira {
+            issue
+            user
+          }
+          jiraAdmin {
+            setting
+          }
+        }
+    """.trimIndent(),
+    services = listOf(
+        Service(
+            name = "jira",
+            overallSchema = """
+                type Query {
+                  issue: String
+                  jira: JiraQuery @namespaced
+                  jiraAdmin: JiraAdminQuery @namespaced
+                }
+                type JiraQuery {
+                  issue: String
+                }
+                type JiraAdminQuery {
+                  setting: String
+                }
+            """.trimIndent(),
+            runtimeWiring = { wiring ->
+                wiring
+                    .type("Query") { type ->
+                        type
+                            .dataFetcher("issue") { "root-issue" }
+                            .dataFetcher("jira") { Unit }
+                            .dataFetcher("jiraAdmin") { Unit }
+                    }
+                    .type("JiraQuery") { type ->
+                        type
+                            .dataFetcher("issue") { "jira-issue" }
+                    }
+                    .type("JiraAdminQuery") { type ->
+                        type
+                            .dataFetcher("setting") { "jira-admin-setting" }
+                    }
+            },
+        ),
+        Service(
+            name = "users",
+            overallSchema = """
+                extend type JiraQuery {
+                  user: String
+                }
+            """.trimIndent(),
+            underlyingSchema = """
+                type Query {
+                  jira: JiraQuery
+                }
+                type JiraQuery {
+                  user: String
+                }
+            """.trimIndent(),
+            runtimeWiring = { wiring ->
+                wiring
+                    .type("Query") { type ->
+                        type
+                            .dataFetcher("jira") { Unit }
+                    }
+                    .type("JiraQuery") { type ->
+                        type
+                            .dataFetcher("user") { "jira-user" }
+                    }
+            },
+        ),
+    ),
+) {
+    override fun makeExecutionHints(): NadelExecutionHints.Builder {
+        return super.makeExecutionHints()
+            .batchRootFields { true }
+    }
+}
@@ -0,0 +1,134 @@
+// @formatter:off
+package graphql.nadel.tests.next.fixtures.batching
+
+import graphql.nadel.tests.next.ExpectedNadelResult
+import graphql.nadel.tests.next.ExpectedServiceCall
+import graphql.nadel.tests.next.TestSnapshot
+import graphql.nadel.tests.next.listOfJsonStrings
+import kotlin.Suppress
+import kotlin.collections.List
+import kotlin.collections.listOf
+
+private suspend fun main() {
+    graphql.nadel.tests.next.update<BatchNamespacedRootFieldsTest>()
+}
+
+/**
+ * This class is generated. Do NOT modify.
+ *
+ * Refer to [graphql.nadel.tests.next.UpdateTestSnapshots]
+ */
+@Suppress("unused")
+public class BatchNamespacedRootFieldsTestSnapshot : TestSnapshot() {
+    /**
+     * Query
+     *
+     * ```graphql
+     * query {
+     *   issue
+     *   jira {
+     *     issue
+     *     user
+     *   }
+     *   jiraAdmin {
+     *     setting
+     *   }
+     * }
+     * ```
+     *
+     * Variables
+     *
+     * ```json
+     * {}
+     * ```
+     */
+    override val calls: List<ExpectedServiceCall> = listOf(
+            ExpectedServiceCall(
+                service = "jira",
+                query = """
+                | {
+                |   issue
+                |   jira {
+                |     issue
+                |   }
+                |   jiraAdmin {
+                |     setting
+                |   }
+                | }
+                """.trimMargin(),
+                variables = "{}",
+                result = """
+                | {
+                |   "data": {
+                |     "issue": "root-issue",
+                |     "jira": {
+                |       "issue": "jira-issue"
+                |     },
+                |     "jiraAdmin": {
+                |       "setting": "jira-admin-setting"
+                |     }
+                |   }
+                | }
+                """.trimMargin(),
+                delayedResults = listOfJsonStrings(
+                ),
+            ),
+            ExpectedServiceCall(
+                service = "users",
+                query = """
+                | {
+                |   jira {
+                |     user
+                |   }
+                | }
+                """.trimMargin(),
+                variables = "{}",
+                result = """
+                | {
+                |   "data": {
+                |     "jira": {
+                |       "user": "jira-user"
+                |     }
+                |   }
+                | }
+                """.trimMargin(),
+                delayedResults = listOfJsonStrings(
+                ),
+            ),
+        )
+
+    /**
+     * ```json
+     * {
+     *   "data": {
+     *     "issue": "root-issue",
+     *     "jira": {
+     *       "issue": "jira-issue",
+     *       "user": "jira-user"
+     *     },
+     *     "jiraAdmin": {
+     *       "setting": "jira-admin-setting"
+     *     }
+     *   }
+     * }
+     * ```
+     */
+    override val result: ExpectedNadelResult = ExpectedNadelResult(
+            result = """
+            | {
+            |   "data": {
+            |     "issue": "root-issue",
+            |     "jira": {
+            |       "issue": "jira-issue",
+            |       "user": "jira-user"
+            |     },
+            |     "jiraAdmin": {
+            |       "setting": "jira-admin-setting"
+            |     }
+            |   }
+            | }
+            """.trimMargin(),
+            delayedResults = listOfJsonStrings(
+            ),
+        )
+}
@@ -0,0 +1,96 @@
+package graphql.nadel.tests.next.fixtures.hydration
+
+import graphql.nadel.NadelExecutionHints
+import graphql.nadel.tests.next.NadelIntegrationTest
+
+/**
+ * Issues 1 and 3 share an assignee, so identity is only called once for them.
+ */
+class HydrationCoalescingTest : NadelIntegrationTest(
+    query = """
+        query {
+          issues {
+            id
+            assignee {
+              id
+              name
+            }
+          }
+        }
+    """.trimIndent(),
+    variables = mapOf(),
+    services = listOf(
+        Service(
+            name = "issues",
+            overallSchema = """
+                type Query {
+                  issues: [Issue]
+                }
+                type Issue {
+                  id: ID!
+                  assigneeId: ID @hidden
+                  assignee: User
+                    @hydrated(
+                      service: "identity"
+                      field: "userById"
+                      arguments: [{name: "id", value: "$source.assigneeId"}]
+                    )
+                }
+            """.trimIndent(),
+            runtimeWiring = { wiring ->
+                data class Issue(
+                    val id: String,
+                    val assigneeId: String,
+                )
+
+                val issues = listOf(
+                    Issue(id = "issue/1", assigneeId = "user/1"),
+                    Issue(id = "issue/2", assigneeId = "user/2"),
+                    Issue(id = "issue/3", assigneeId = "user/1"),
+                )
+
+                wiring
+                    .type("Query") { type ->
+                        type.dataFetcher("issues") {
+                            issues
+                        }
+                    }
+            },
+        ),
+        Service(
+            name = "identity",
+            overallSchema = """
+                type Query {
+                  userById(id: ID!): User
+                }
+                type User {
+                  id: ID!
+                  name: String
+                }
+            """.trimIndent(),
+            runtimeWiring = { wiring ->
+                data class User(
+                    val id: String,
+                    val name: String,
+                )
+
+                val usersById = listOf(
+                    User(id = "user/1", name = "Franklin Wang"),
+                    User(id = "user/2", name = "Steven Barker"),
+                ).associateBy { it.id }
+
+                wiring
+                    .type("Query") { type ->
+                        type.dataFetcher("userById") {
+                            usersById[it.getArgument("id")]
+                        }
+                    }
+            },
+        ),
+    ),
+) {
+    override fun makeExecutionHints(): NadelExecutionHints.Builder {
+        return super.makeExecutionHints()
+            .hydrationCoalescing { true }
+    }
+}
@@ -0,0 +1,197 @@
+// @formatter:off
+package graphql.nadel.tests.next.fixtures.hydration
+
+import graphql.nadel.tests.next.ExpectedNadelResult
+import graphql.nadel.tests.next.ExpectedServiceCall
+import graphql.nadel.tests.next.TestSnapshot
+import graphql.nadel.tests.next.listOfJsonStrings
+import kotlin.Suppress
+import kotlin.collections.List
+import kotlin.collections.listOf
+
+private suspend fun main() {
+    graphql.nadel.tests.next.update<HydrationCoalescingTest>()
+}
+
+/**
+ * This class is generated. Do NOT modify.
+ *
+ * Refer to [graphql.nadel.tests.next.UpdateTestSnapshots]
+ */
+@Suppress("unused")
+public class HydrationCoalescingTestSnapshot : TestSnapshot() {
+    /**
+     * Query
+     *
+     * ```graphql
+     * query {
+     *   issues {
+     *     id
+     *     assignee {
+     *       id
+     *       name
+     *     }
+     *   }
+     * }
+     * ```
+     *
+     * Variables
+     *
+     * ```json
+     * {}
+     * ```
+     */
+    override val calls: List<ExpectedServiceCall> = listOf(
+            ExpectedServiceCall(
+                service = "identity",
+                query = """
+                | {
+                |   userById(id: "user/1") {
+                |     id
+                |     name
+                |   }
+                | }
+                """.trimMargin(),
+                variables = "{}",
+                result = """
+                | {
+                |   "data": {
+                |     "userById": {
+                |       "id": "user/1",
+                |       "name": "Franklin Wang"
+                |     }
+                |   }
+                | }
+                """.trimMargin(),
+                delayedResults = listOfJsonStrings(
+                ),
+            ),
+            ExpectedServiceCall(
+                service = "identity",
+                query = """
+                | {
+                |   userById(id: "user/2") {
+                |     id
+                |     name
+                |   }
+                | }
+                """.trimMargin(),
+                variables = "{}",
+                result = """
+                | {
+                |   "data": {
+                |     "userById": {
+                |       "id": "user/2",
+                |       "name": "Steven Barker"
+                |     }
+                |   }
+                | }
+                """.trimMargin(),
+                delayedResults = listOfJsonStrings(
+                ),
+            ),
+            ExpectedServiceCall(
+                service = "issues",
+                query = """
+                | {
+                |   issues {
+                |     __typename__hydration__assignee: __typename
+                |     hydration__assignee__assigneeId: assigneeId
+                |     id
+                |   }
+                | }
+                """.trimMargin(),
+                variables = "{}",
+                result = """
+                | {
+                |   "data": {
+                |     "issues": [
+                |       {
+                |         "id": "issue/1",
+                |         "hydration__assignee__assigneeId": "user/1",
+                |         "__typename__hydration__assignee": "Issue"
+                |       },
+                |       {
+                |         "id": "issue/2",
+                |         "hydration__assignee__assigneeId": "user/2",
+                |         "__typename__hydration__assignee": "Issue"
+                |       },
+                |       {
+                |         "id": "issue/3",
+                |         "hydration__assignee__assigneeId": "user/1",
+                |         "__typename__hydration__assignee": "Issue"
+                |       }
+                |     ]
+                |   }
+                | }
+                """.trimMargin(),
+                delayedResults = listOfJsonStrings(
+                ),
+            ),
+        )
+
+    /**
+     * ```json
+     * {
+     *   "data": {
+     *     "issues": [
+     *       {
+     *         "id": "issue/1",
+     *         "assignee": {
+     *           "id": "user/1",
+     *           "name": "Franklin Wang"
+     *         }
+     *       },
+     *       {
+     *         "id": "issue/2",
+     *         "assignee": {
+     *           "id": "user/2",
+     *           "name": "Steven Barker"
+     *         }
+     *       },
+     *       {
+     *         "id": "issue/3",
+     *         "assignee": {
+     *           "id": "user/1",
+     *           "name": "Franklin Wang"
+     *         }
+     *       }
+     *     ]
+     *   }
+     * }
+     * ```
+     */
+    override val result: ExpectedNadelResult = ExpectedNadelResult(
+            result = """
+            | {
+            |   "data": {
+            |     "issues": [
+            |       {
+            |         "id": "issue/1",
+            |         "assignee": {
+            |           "id": "user/1",
+            |           "name": "Franklin Wang"
+            |         }
+            |       },
+            |       {
+            |         "id": "issue/2",
+            |         "assignee": {
+            |           "id": "user/2",
+            |           "name": "Steven Barker"
+            |         }
+            |       },
+            |       {
+            |         "id": "issue/3",
+            |         "assignee": {
+            |           "id": "user/1",
+            |           "name": "Franklin Wang"
+            |         }
+            |       }
+            |     ]
+            |   }
+            | }
+            """.trimMargin(),
+            delayedResults = listOfJsonStrings(
+            ),
+        )
+}
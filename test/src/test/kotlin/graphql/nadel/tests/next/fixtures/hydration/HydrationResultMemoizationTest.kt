@@ -0,0 +1,109 @@
+package graphql.nadel.tests.next.fixtures.hydration
+
+import graphql.nadel.NadelExecutionHints
+import graphql.nadel.tests.next.NadelIntegrationTest
+
+/**
+ * The assignee and reporter hydrations resolve the same users, so identity is only called once for both.
+ */
+class HydrationResultMemoizationTest : NadelIntegrationTest(
+    query = """
+        query {
+          issues {
+            id
+            assignee {
+              id
+              name
+            }
+            reporter {
+              id
+              name
+            }
+          }
+        }
+    """.trimIndent(),
+    variables = mapOf(),
+    services = listOf(
+        Service(
+            name = "issues",
+            overallSchema = """
+                type Query {
+                  issues: [Issue]
+                }
+                type Issue {
+                  id: ID!
+                  assigneeId: ID @hidden
+                  assignee: User
+                    @hydrated(
+                      service: "identity"
+                      field: "usersByIds"
+                      arguments: [{name: "ids", value: "$source.assigneeId"}]
+                      indexed: true
+                    )
+                  reporterId: ID @hidden
+                  reporter: User
+                    @hydrated(
+                      service: "identity"
+                      field: "usersByIds"
+                      arguments: [{name: "ids", value: "$source.reporterId"}]
+                      indexed: true
+                    )
+                }
+            """.trimIndent(),
+            runtimeWiring = { wiring ->
+                data class Issue(
+                    val id: String,
+                    val assigneeId: String,
+                    val reporterId: String,
+                )
+
+                val issues = listOf(
+                    Issue(id = "issue/1", assigneeId = "user/1", reporterId = "user/1"),
+                    Issue(id = "issue/2", assigneeId = "user/2", reporterId = "user/2"),
+                )
+
+                wiring
+                    .type("Query") { type ->
+                        type.dataFetcher("issues") {
+                            issues
+                        }
+                    }
+            },
+        ),
+        Service(
+            name = "identity",
+            overallSchema = """
+                type Query {
+                  usersByIds(ids: [ID!]!): [User]
+                }
+                type User {
+                  id: ID!
+                  name: String
+                }
+            """.trimIndent(),
+            runtimeWiring = { wiring ->
+                data class User(
+                    val id: String,
+                    val name: String,
+                )
+
+                val usersById = listOf(
+                    User(id = "user/1", name = "Franklin Wang"),
+                    User(id = "user/2", name = "Steven Barker"),
+                ).associateBy { it.id }
+
+                wiring
+                    .type("Query") { type ->
+                        type.dataFetcher("usersByIds") { env ->
+                            env.getArgument<List<String>>("ids")!!.map(usersById::get)
+                        }
+                    }
+            },
+        ),
+    ),
+) {
+    override fun makeExecutionHints(): NadelExecutionHints.Builder {
+        return super.makeExecutionHints()
+            .hydrationResultMemoization { true }
+    }
+}
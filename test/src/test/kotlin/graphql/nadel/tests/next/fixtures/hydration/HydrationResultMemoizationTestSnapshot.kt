@@ -0,0 +1,186 @@
+// @formatter:off
+package graphql.nadel.tests.next.fixtures.hydration
+
+import graphql.nadel.tests.next.ExpectedNadelResult
+import graphql.nadel.tests.next.ExpectedServiceCall
+import graphql.nadel.tests.next.TestSnapshot
+import graphql.nadel.tests.next.listOfJsonStrings
+import kotlin.Suppress
+import kotlin.collections.List
+import kotlin.collections.listOf
+
+private suspend fun main() {
+    graphql.nadel.tests.next.update<HydrationResultMemoizationTest>()
+}
+
+/**
+ * This class is generated. Do NOT modify.
+ *
+ * Refer to [graphql.nadel.tests.next.UpdateTestSnapshots]
+ */
+@Suppress("unused")
+public class HydrationResultMemoizationTestSnapshot : TestSnapshot() {
+    /**
+     * Query
+     *
+     * ```graphql
+     * query {
+     *   issues {
+     *     id
+     *     assignee {
+     *       id
+     *       name
+     *     }
+     *     reporter {
+     *       id
+     *       name
+     *     }
+     *   }
+     * }
+     * ```
+     *
+     * Variables
+     *
+     * ```json
+     * {}
+     * ```
+     */
+    override val calls: List<ExpectedServiceCall> = listOf(
+            ExpectedServiceCall(
+                service = "identity",
+                query = """
+                | {
+                |   usersByIds(ids: ["user/1", "user/2"]) {
+                |     id
+                |     name
+                |   }
+                | }
+                """.trimMargin(),
+                variables = "{}",
+                result = """
+                | {
+                |   "data": {
+                |     "usersByIds": [
+                |       {
+                |         "id": "user/1",
+                |         "name": "Franklin Wang"
+                |       },
+                |       {
+                |         "id": "user/2",
+                |         "name": "Steven Barker"
+                |       }
+                |     ]
+                |   }
+                | }
+                """.trimMargin(),
+                delayedResults = listOfJsonStrings(
+                ),
+            ),
+            ExpectedServiceCall(
+                service = "issues",
+                query = """
+                | {
+                |   issues {
+                |     __typename__batch_hydration__assignee: __typename
+                |     __typename__batch_hydration__reporter: __typename
+                |     batch_hydration__assignee__assigneeId: assigneeId
+                |     id
+                |     batch_hydration__reporter__reporterId: reporterId
+                |   }
+                | }
+                """.trimMargin(),
+                variables = "{}",
+                result = """
+                | {
+                |   "data": {
+                |     "issues": [
+                |       {
+                |         "id": "issue/1",
+                |         "batch_hydration__assignee__assigneeId": "user/1",
+                |         "__typename__batch_hydration__assignee": "Issue",
+                |         "batch_hydration__reporter__reporterId": "user/1",
+                |         "__typename__batch_hydration__reporter": "Issue"
+                |       },
+                |       {
+                |         "id": "issue/2",
+                |         "batch_hydration__assignee__assigneeId": "user/2",
+                |         "__typename__batch_hydration__assignee": "Issue",
+                |         "batch_hydration__reporter__reporterId": "user/2",
+                |         "__typename__batch_hydration__reporter": "Issue"
+                |       }
+                |     ]
+                |   }
+                | }
+                """.trimMargin(),
+                delayedResults = listOfJsonStrings(
+                ),
+            ),
+        )
+
+    /**
+     * ```json
+     * {
+     *   "data": {
+     *     "issues": [
+     *       {
+     *         "id": "issue/1",
+     *         "reporter": {
+     *           "id": "user/1",
+     *           "name": "Franklin Wang"
+     *         },
+     *         "assignee": {
+     *           "id": "user/1",
+     *           "name": "Franklin Wang"
+     *         }
+     *       },
+     *       {
+     *         "id": "issue/2",
+     *         "reporter": {
+     *           "id": "user/2",
+     *           "name": "Steven Barker"
+     *         },
+     *         "assignee": {
+     *           "id": "user/2",
+     *           "name": "Steven Barker"
+     *         }
+     *       }
+     *     ]
+     *   }
+     * }
+     * ```
+     */
+    override val result: ExpectedNadelResult = ExpectedNadelResult(
+            result = """
+            | {
+            |   "data": {
+            |     "issues": [
+            |       {
+            |         "id": "issue/1",
+            |         "reporter": {
+            |           "id": "user/1",
+            |           "name": "Franklin Wang"
+            |         },
+            |         "assignee": {
+            |           "id": "user/1",
+            |           "name": "Franklin Wang"
+            |         }
+            |       },
+            |       {
+            |         "id": "issue/2",
+            |         "reporter": {
+            |           "id": "user/2",
+            |           "name": "Steven Barker"
+            |         },
+            |         "assignee": {
+            |           "id": "user/2",
+            |           "name": "Steven Barker"
+            |         }
+            |       }
+            |     ]
+            |   }
+            | }
+            """.trimMargin(),
+            delayedResults = listOfJsonStrings(
+            ),
+        )
+}
@@ -0,0 +1,167 @@
+package graphql.nadel.tests.next.fixtures.rawJson
+
+import graphql.ExecutionResult
+import graphql.incremental.DelayedIncrementalPartialResult
+import graphql.nadel.NadelRawJson
+import graphql.nadel.NadelRawJsonServiceExecutionResult
+import graphql.nadel.ServiceExecution
+import graphql.nadel.engine.util.JsonMap
+import graphql.nadel.tests.jsonObjectMapper
+import graphql.nadel.tests.next.NadelIntegrationTest
+import kotlin.test.assertTrue
+
+/**
+ * Services return [NadelRawJsonServiceExecutionResult]s.
+ *
+ * The values the transforms read sit under artificial fields e.g. `reporter.details.name` for the deep rename
+ * and `$source.assigneeRef.details.userId` for the hydration, so these must be read from the raw JSON too.
+ */
+class RawJsonServiceResultTest : NadelIntegrationTest(
+    query = """
+        query {
+          issue {
+            id
+            title
+            reporterName
+            assignee {
+              id
+              name
+            }
+            comments {
+              id
+              body
+            }
+          }
+        }
+    """.trimIndent(),
+    services = listOf(
+        Service(
+            name = "issues",
+            overallSchema = """
+                type Query {
+                  issue: Issue
+                }
+                type Issue {
+                  id: ID!
+                  title: String @renamed(from: "name")
+                  reporterName: String @renamed(from: "reporter.details.name")
+                  assigneeRef: UserRef @hidden
+                  assignee: User
+                    @hydrated(
+                      service: "users"
+                      field: "userById"
+                      arguments: [{name: "id", value: "$source.assigneeRef.details.userId"}]
+                    )
+                  comments: [Comment]
+                }
+                type UserRef {
+                  details: UserRefDetails
+                }
+                type UserRefDetails {
+                  userId: ID!
+                }
+                type Comment {
+                  id: ID!
+                  body: String
+                }
+            """.trimIndent(),
+            underlyingSchema = """
+                type Query {
+                  issue: Issue
+                }
+                type Issue {
+                  id: ID!
+                  name: String
+                  reporter: Reporter
+                  assigneeRef: UserRef
+                  comments: [Comment]
+                }
+                type Reporter {
+                  details: ReporterDetails
+                }
+                type ReporterDetails {
+                  name: String
+                }
+                type UserRef {
+                  details: UserRefDetails
+                }
+                type UserRefDetails {
+                  userId: ID!
+                }
+                type Comment {
+                  id: ID!
+                  body: String
+                }
+            """.trimIndent(),
+            runtimeWiring = { wiring ->
+                wiring
+                    .type("Query") { type ->
+                        type.dataFetcher("issue") {
+                            mapOf(
+                                "id" to "ISSUE-1",
+                                "name" to "Raw JSON",
+                                "reporter" to mapOf(
+                                    "details" to mapOf("name" to "Steven"),
+                                ),
+                                "assigneeRef" to mapOf(
+                                    "details" to mapOf("userId" to "user/1"),
+                                ),
+                                "comments" to listOf(
+                                    mapOf("id" to "COMMENT-1", "body" to "First"),
+                                    mapOf("id" to "COMMENT-2", "body" to "Second"),
+                                ),
+                            )
+                        }
+                    }
+            },
+        ),
+        Service(
+            name = "users",
+            overallSchema = """
+                type Query {
+                  userById(id: ID!): User
+                }
+                type User {
+                  id: ID!
+                  name: String
+                }
+            """.trimIndent(),
+            runtimeWiring = { wiring ->
+                wiring
+                    .type("Query") { type ->
+                        type.dataFetcher("userById") { env ->
+                            mapOf(
+                                "id" to env.getArgument<String>("id"),
+                                "name" to "Franklin",
+                            )
+                        }
+                    }
+            },
+        ),
+    ),
+) {
+    override fun makeServiceExecution(service: Service): ServiceExecution {
+        val serviceExecution = super.makeServiceExecution(service)
+
+        return ServiceExecution { parameters ->
+            serviceExecution.execute(parameters)
+                .thenApply { result ->
+                    NadelRawJsonServiceExecutionResult(
+                        jsonObjectMapper.writeValueAsBytes(
+                            mapOf(
+                                "data" to result.data,
+                                "errors" to result.errors,
+                                "extensions" to result.extensions,
+                            ),
+                        ),
+                    )
+                }
+        }
+    }
+
+    override fun assert(result: ExecutionResult, incrementalResults: List<DelayedIncrementalPartialResult>?) {
+        // Nothing transforms the comments, so they are passed through without being read
+        val issue = result.getData<JsonMap>()["issue"] as JsonMap
+        assertTrue(issue["comments"] is NadelRawJson)
+    }
+}
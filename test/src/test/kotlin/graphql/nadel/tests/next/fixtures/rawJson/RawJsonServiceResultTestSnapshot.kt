@@ -0,0 +1,170 @@
+// @formatter:off
+package graphql.nadel.tests.next.fixtures.rawJson
+
+import graphql.nadel.tests.next.ExpectedNadelResult
+import graphql.nadel.tests.next.ExpectedServiceCall
+import graphql.nadel.tests.next.TestSnapshot
+import graphql.nadel.tests.next.listOfJsonStrings
+import kotlin.Suppress
+import kotlin.collections.List
+import kotlin.collections.listOf
+
+private suspend fun main() {
+    graphql.nadel.tests.next.update<RawJsonServiceResultTest>()
+}
+
+/**
+ * This class is generated. Do NOT modify.
+ *
+ * Refer to [graphql.nadel.tests.next.UpdateTestSnapshots]
+ */
+@Suppress("unused")
+public class RawJsonServiceResultTestSnapshot : TestSnapshot() {
+    override val calls: List<ExpectedServiceCall> = listOf(
+            ExpectedServiceCall(
+                service = "issues",
+                query = """
+                | {
+                |   issue {
+                |     __typename__deep_rename__reporterName: __typename
+                |     __typename__hydration__assignee: __typename
+                |     __typename__rename__title: __typename
+                |     hydration__assignee__assigneeRef: assigneeRef {
+                |       details {
+                |         userId
+                |       }
+                |     }
+                |     comments {
+                |       body
+                |       id
+                |     }
+                |     id
+                |     deep_rename__reporterName__reporter: reporter {
+                |       details {
+                |         name
+                |       }
+                |     }
+                |     rename__title__name: name
+                |   }
+                | }
+                """.trimMargin(),
+                variables = "{}",
+                result = """
+                | {
+                |   "data": {
+                |     "issue": {
+                |       "__typename__deep_rename__reporterName": "Issue",
+                |       "__typename__hydration__assignee": "Issue",
+                |       "__typename__rename__title": "Issue",
+                |       "hydration__assignee__assigneeRef": {
+                |         "details": {
+                |           "userId": "user/1"
+                |         }
+                |       },
+                |       "comments": [
+                |         {
+                |           "body": "First",
+                |           "id": "COMMENT-1"
+                |         },
+                |         {
+                |           "body": "Second",
+                |           "id": "COMMENT-2"
+                |         }
+                |       ],
+                |       "id": "ISSUE-1",
+                |       "deep_rename__reporterName__reporter": {
+                |         "details": {
+                |           "name": "Steven"
+                |         }
+                |       },
+                |       "rename__title__name": "Raw JSON"
+                |     }
+                |   }
+                | }
+                """.trimMargin(),
+                delayedResults = listOfJsonStrings(
+                ),
+            ),
+            ExpectedServiceCall(
+                service = "users",
+                query = """
+                | {
+                |   userById(id: "user/1") {
+                |     id
+                |     name
+                |   }
+                | }
+                """.trimMargin(),
+                variables = "{}",
+                result = """
+                | {
+                |   "data": {
+                |     "userById": {
+                |       "id": "user/1",
+                |       "name": "Franklin"
+                |     }
+                |   }
+                | }
+                """.trimMargin(),
+                delayedResults = listOfJsonStrings(
+                ),
+            ),
+        )
+
+    /**
+     * ```json
+     * {
+     *   "data": {
+     *     "issue": {
+     *       "id": "ISSUE-1",
+     *       "title": "Raw JSON",
+     *       "reporterName": "Steven",
+     *       "assignee": {
+     *         "id": "user/1",
+     *         "name": "Franklin"
+     *       },
+     *       "comments": [
+     *         {
+     *           "id": "COMMENT-1",
+     *           "body": "First"
+     *         },
+     *         {
+     *           "id": "COMMENT-2",
+     *           "body": "Second"
+     *         }
+     *       ]
+     *     }
+     *   }
+     * }
+     * ```
+     */
+    override val result: ExpectedNadelResult = ExpectedNadelResult(
+            result = """
+            | {
+            |   "data": {
+            |     "issue": {
+            |       "id": "ISSUE-1",
+            |       "title": "Raw JSON",
+            |       "reporterName": "Steven",
+            |       "assignee": {
+            |         "id": "user/1",
+            |         "name": "Franklin"
+            |       },
+            |       "comments": [
+            |         {
+            |           "id": "COMMENT-1",
+            |           "body": "First"
+            |         },
+            |         {
+            |           "id": "COMMENT-2",
+            |           "body": "Second"
+            |         }
+            |       ]
+            |     }
+            |   }
+            | }
+            """.trimMargin(),
+            delayedResults = listOfJsonStrings(
+            ),
+        )
+}
@@ -0,0 +1,95 @@
+package graphql.nadel.tests.next.fixtures.rename
+
+import graphql.nadel.NadelExecutionHints
+import graphql.nadel.tests.next.NadelIntegrationTest
+
+/**
+ * Renamed fields and types inside a renamed field are rewritten in a single walk over the result.
+ *
+ * The result must be the same as with [graphql.nadel.engine.transform.result.NadelResultInstruction]s.
+ */
+class SinglePassResultTransformTest : NadelIntegrationTest(
+    query = """
+      query {
+        issues {
+          __typename
+          id
+          title
+          owner {
+            __typename
+            name
+          }
+        }
+      }
+    """.trimIndent(),
+    services = listOf(
+        Service(
+            name = "jira",
+            overallSchema = """
+                type Query {
+                  issues: [JiraIssue]
+                }
+                type JiraIssue @renamed(from: "Issue") {
+                  id: ID!
+                  title: String @renamed(from: "name")
+                  owner: JiraUser @renamed(from: "assignee")
+                }
+                type JiraUser @renamed(from: "User") {
+                  id: ID!
+                  name: String @renamed(from: "displayName")
+                }
+            """.trimIndent(),
+            underlyingSchema = """
+                type Query {
+                  issues: [Issue]
+                }
+                type Issue {
+                  id: ID!
+                  name: String
+                  assignee: User
+                }
+                type User {
+                  id: ID!
+                  displayName: String
+                }
+            """.trimIndent(),
+            runtimeWiring = { wiring ->
+                data class User(
+                    val id: String,
+                    val displayName: String,
+                )
+
+                data class Issue(
+                    val id: String,
+                    val name: String,
+                    val assignee: User?,
+                )
+
+                wiring
+                    .type("Query") { type ->
+                        type
+                            .dataFetcher("issues") { env ->
+                                listOf(
+                                    Issue(
+                                        id = "1",
+                                        name = "Fix the build",
+                                        assignee = User(id = "a", displayName = "Ada"),
+                                    ),
+                                    null,
+                                    Issue(
+                                        id = "2",
+                                        name = "Write the docs",
+                                        assignee = null,
+                                    ),
+                                )
+                            }
+                    }
+            },
+        ),
+    ),
+) {
+    override fun makeExecutionHints(): NadelExecutionHints.Builder {
+        return super.makeExecutionHints()
+            .singlePassResultTransform { true }
+    }
+}
@@ -0,0 +1,154 @@
+// @formatter:off
+package graphql.nadel.tests.next.fixtures.rename
+
+import graphql.nadel.tests.next.ExpectedNadelResult
+import graphql.nadel.tests.next.ExpectedServiceCall
+import graphql.nadel.tests.next.TestSnapshot
+import graphql.nadel.tests.next.listOfJsonStrings
+import kotlin.Suppress
+import kotlin.collections.List
+import kotlin.collections.listOf
+
+private suspend fun main() {
+    graphql.nadel.tests.next.update<SinglePassResultTransformTest>()
+}
+
+/**
+ * This class is generated. Do NOT modify.
+ *
+ * Refer to [graphql.nadel.tests.next.UpdateTestSnapshots]
+ */
+@Suppress("unused")
+public class SinglePassResultTransformTestSnapshot : TestSnapshot() {
+    /**
+     * Query
+     *
+     * ```graphql
+     * query {
+     *   issues {
+     *     __typename
+     *     id
+     *     title
+     *     owner {
+     *       __typename
+     *       name
+     *     }
+     *   }
+     * }
+     * ```
+     *
+     * Variables
+     *
+     * ```json
+     * {}
+     * ```
+     */
+    override val calls: List<ExpectedServiceCall> = listOf(
+            ExpectedServiceCall(
+                service = "jira",
+                query = """
+                | {
+                |   issues {
+                |     __typename
+                |     __typename__rename__title: __typename
+                |     __typename__rename__owner: __typename
+                |     rename__owner__assignee: assignee {
+                |       __typename
+                |       __typename__rename__name: __typename
+                |       rename__name__displayName: displayName
+                |     }
+                |     id
+                |     rename__title__name: name
+                |   }
+                | }
+                """.trimMargin(),
+                variables = "{}",
+                result = """
+                | {
+                |   "data": {
+                |     "issues": [
+                |       {
+                |         "__typename": "Issue",
+                |         "id": "1",
+                |         "rename__title__name": "Fix the build",
+                |         "__typename__rename__title": "Issue",
+                |         "rename__owner__assignee": {
+                |           "__typename": "User",
+                |           "rename__name__displayName": "Ada",
+                |           "__typename__rename__name": "User"
+                |         },
+                |         "__typename__rename__owner": "Issue"
+                |       },
+                |       null,
+                |       {
+                |         "__typename": "Issue",
+                |         "id": "2",
+                |         "rename__title__name": "Write the docs",
+                |         "__typename__rename__title": "Issue",
+                |         "rename__owner__assignee": null,
+                |         "__typename__rename__owner": "Issue"
+                |       }
+                |     ]
+                |   }
+                | }
+                """.trimMargin(),
+                delayedResults = listOfJsonStrings(
+                ),
+            ),
+        )
+
+    /**
+     * ```json
+     * {
+     *   "data": {
+     *     "issues": [
+     *       {
+     *         "__typename": "JiraIssue",
+     *         "id": "1",
+     *         "owner": {
+     *           "__typename": "JiraUser",
+     *           "name": "Ada"
+     *         },
+     *         "title": "Fix the build"
+     *       },
+     *       null,
+     *       {
+     *         "__typename": "JiraIssue",
+     *         "id": "2",
+     *         "owner": null,
+     *         "title": "Write the docs"
+     *       }
+     *     ]
+     *   }
+     * }
+     * ```
+     */
+    override val result: ExpectedNadelResult = ExpectedNadelResult(
+            result = """
+            | {
+            |   "data": {
+            |     "issues": [
+            |       {
+            |         "__typename": "JiraIssue",
+            |         "id": "1",
+            |         "owner": {
+            |           "__typename": "JiraUser",
+            |           "name": "Ada"
+            |         },
+            |         "title": "Fix the build"
+            |       },
+            |       null,
+            |       {
+            |         "__typename": "JiraIssue",
+            |         "id": "2",
+            |         "owner": null,
+            |         "title": "Write the docs"
+            |       }
+            |     ]
+            |   }
+            | }
+            """.trimMargin(),
+            delayedResults = listOfJsonStrings(
+            ),
+        )
+}